@@ -0,0 +1,211 @@
+package com.infosys.smartshelfx.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes read-only transactions to a healthy replica and everything else to
+ * the primary.
+ * - Replicas are checked periodically; one that is unreachable or lags more
+ * than the configured limit is skipped until it recovers
+ * - With no healthy replica, or if a replica connection fails, reads fall back
+ * to the primary
+ * - Counts routed connections per target for monitoring
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long maxLagSeconds;
+
+    private final boolean[] healthy;
+    private final long[] lagSeconds;
+    private final AtomicLong[] replicaConnections;
+    private final AtomicLong primaryWriteConnections = new AtomicLong();
+    private final AtomicLong primaryReadConnections = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        this.healthy = new boolean[replicas.size()];
+        this.lagSeconds = new long[replicas.size()];
+        this.replicaConnections = new AtomicLong[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            replicaConnections[i] = new AtomicLong();
+            healthy[i] = true;
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWriteConnections.incrementAndGet();
+            return PRIMARY;
+        }
+
+        int replica = pickReplica();
+        if (replica < 0) {
+            fallbacks.incrementAndGet();
+            primaryReadConnections.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaConnections[replica].incrementAndGet();
+        return replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return source.open(primary);
+        }
+
+        int replica = (Integer) key;
+        try {
+            return source.open(replicas.get(replica));
+        } catch (SQLException e) {
+            markUnhealthy(replica, e);
+            fallbacks.incrementAndGet();
+            primaryReadConnections.incrementAndGet();
+            return source.open(primary);
+        }
+    }
+
+    /**
+     * Refresh replica health and lag
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection();
+                    Statement statement = connection.createStatement()) {
+                Long lag = readLag(statement);
+                boolean ok = lag != null && lag <= maxLagSeconds;
+                synchronized (this) {
+                    if (healthy[i] != ok) {
+                        log.warn("Replica {} is now {} (lag {} s)", i, ok ? "in rotation" : "out of rotation", lag);
+                    }
+                    healthy[i] = ok;
+                    lagSeconds[i] = lag != null ? lag : -1;
+                }
+            } catch (SQLException e) {
+                markUnhealthy(i, e);
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long replicaTotal = 0;
+        List<Map<String, Object>> replicaMetrics = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < replicas.size(); i++) {
+                long count = replicaConnections[i].get();
+                replicaTotal += count;
+                Map<String, Object> replica = new LinkedHashMap<>();
+                replica.put("index", i);
+                replica.put("healthy", healthy[i]);
+                replica.put("lagSeconds", lagSeconds[i]);
+                replica.put("connections", count);
+                replicaMetrics.add(replica);
+            }
+        }
+        metrics.put("enabled", true);
+        metrics.put("maxLagSeconds", maxLagSeconds);
+        metrics.put("primaryWriteConnections", primaryWriteConnections.get());
+        metrics.put("primaryReadConnections", primaryReadConnections.get());
+        metrics.put("replicaReadConnections", replicaTotal);
+        metrics.put("fallbacks", fallbacks.get());
+        metrics.put("replicas", replicaMetrics);
+        return metrics;
+    }
+
+    private int pickReplica() {
+        int n = replicas.size();
+        if (n == 0)
+            return -1;
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        synchronized (this) {
+            for (int k = 0; k < n; k++) {
+                int candidate = (start + k) % n;
+                if (healthy[candidate]) {
+                    return candidate;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private synchronized void markUnhealthy(int replica, SQLException e) {
+        if (healthy[replica]) {
+            log.warn("Replica {} taken out of rotation: {}", replica, e.getMessage());
+        }
+        healthy[replica] = false;
+        lagSeconds[replica] = -1;
+    }
+
+    /**
+     * Seconds behind the source, or null when replication is not running.
+     * Tries the MySQL 8.0.22+ statement first, then the older one.
+     */
+    private Long readLag(Statement statement) throws SQLException {
+        ResultSet status;
+        String column;
+        try {
+            status = statement.executeQuery("SHOW REPLICA STATUS");
+            column = "Seconds_Behind_Source";
+        } catch (SQLException e) {
+            status = statement.executeQuery("SHOW SLAVE STATUS");
+            column = "Seconds_Behind_Master";
+        }
+        try (ResultSet rs = status) {
+            if (!rs.next()) {
+                // Not configured as a replica (e.g. a standalone local instance): treat as current
+                return 0L;
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource target) throws SQLException;
+    }
+}
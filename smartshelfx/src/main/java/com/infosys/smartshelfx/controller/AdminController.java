@@ -1,20 +1,24 @@
 package com.infosys.smartshelfx.controller;
 
+import com.infosys.smartshelfx.config.ReplicaRoutingDataSource;
 import com.infosys.smartshelfx.dtos.*;
 import com.infosys.smartshelfx.entity.AuditAction;
 import com.infosys.smartshelfx.entity.ReorderStatus;
 import com.infosys.smartshelfx.service.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Admin Controller - Full Control (Superuser)
@@ -25,6 +29,7 @@ import java.util.List;
  * - Assign vendors to products
  * - Set user roles & permissions
  * - View audit logs (who updated what, when)
+ * - Preview and apply optimized reorder points and quantities
  */
 @RestController
 @RequestMapping("/api/admin")
@@ -38,6 +43,8 @@ public class AdminController {
     private final AuditLogService auditLogService;
     private final CsvService csvService;
     private final UserService userService;
+    private final ReorderOptimizerService reorderOptimizerService;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
 
     // ==================== PRODUCT MANAGEMENT ====================
 
@@ -49,6 +56,8 @@ public class AdminController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long vendorId,
             @RequestParam(required = false) String stockStatus,
+            @RequestParam(required = false) String abcClass,
+            @RequestParam(required = false) String xyzClass,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
@@ -60,6 +69,8 @@ public class AdminController {
                 .vendorId(vendorId)
                 .stockStatus(
                         stockStatus != null ? com.infosys.smartshelfx.entity.StockStatus.valueOf(stockStatus) : null)
+                .abcClass(abcClass != null ? com.infosys.smartshelfx.entity.AbcClass.valueOf(abcClass) : null)
+                .xyzClass(xyzClass != null ? com.infosys.smartshelfx.entity.XyzClass.valueOf(xyzClass) : null)
                 .searchTerm(search)
                 .page(page)
                 .size(size)
@@ -211,6 +222,39 @@ public class AdminController {
         return ResponseEntity.ok(inventoryService.fulfillReorderRequest(id));
     }
 
+    /**
+     * Preview service-level based reorder points and order quantities for
+     * the catalog
+     */
+    @PostMapping("/reorder-policy/preview")
+    public ResponseEntity<ReorderPlan> previewReorderPolicy() {
+        return ResponseEntity.ok(reorderOptimizerService.preview());
+    }
+
+    /**
+     * Apply a previewed plan, optionally only to some of its products
+     */
+    @PostMapping("/reorder-policy/apply")
+    public ResponseEntity<Map<String, Integer>> applyReorderPolicy(
+            @RequestParam String planId,
+            @RequestParam(required = false) List<Long> productIds,
+            Authentication authentication) {
+        Long userId = authentication.getPrincipal() instanceof UserDetailsImpl details ? details.getId() : null;
+        return ResponseEntity.ok(reorderOptimizerService.apply(planId, productIds, userId));
+    }
+
+    // ==================== DATASOURCE ====================
+
+    /**
+     * Get read replica routing metrics (connections routed to primary vs
+     * replicas, replica health and lag)
+     */
+    @GetMapping("/datasource/metrics")
+    public ResponseEntity<Map<String, Object>> getDataSourceMetrics() {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        return ResponseEntity.ok(routing != null ? routing.getMetrics() : Map.of("enabled", false));
+    }
+
     // ==================== AUDIT LOGS ====================
 
     /**
@@ -227,6 +271,22 @@ public class AdminController {
         return ResponseEntity.ok(auditLogService.getAuditLogs(entityType, auditAction, userId, page, size));
     }
 
+    /**
+     * Get audit logs with cursor pagination
+     */
+    @GetMapping("/audit-logs/cursor")
+    public ResponseEntity<CursorPage<AuditLogDTO>> getAuditLogsPage(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        AuditAction auditAction = action != null ? AuditAction.valueOf(action) : null;
+        return ResponseEntity.ok(auditLogService.getAuditLogsPage(
+                entityType, auditAction, userId, cursor, size, includeTotal));
+    }
+
     /**
      * Get recent audit logs
      */
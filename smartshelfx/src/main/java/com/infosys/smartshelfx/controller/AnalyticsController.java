@@ -1,8 +1,19 @@
 package com.infosys.smartshelfx.controller;
 
 import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.dtos.ClassificationRunResult;
+import com.infosys.smartshelfx.dtos.KpiSnapshot;
 import com.infosys.smartshelfx.service.AnalyticsService;
+import com.infosys.smartshelfx.service.DeadStockService;
+import com.infosys.smartshelfx.service.InventoryClassificationService;
+import com.infosys.smartshelfx.service.InventoryMetricsService;
+import com.infosys.smartshelfx.service.LiveKpiService;
+import com.infosys.smartshelfx.service.MarginAnalyticsService;
+import com.infosys.smartshelfx.service.MovementHeatmapService;
+import com.infosys.smartshelfx.service.PeriodComparisonService;
+import com.infosys.smartshelfx.service.QuantitySketchService;
 import com.infosys.smartshelfx.service.ReportExportService;
+import com.infosys.smartshelfx.service.ShrinkageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
@@ -11,9 +22,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
@@ -21,8 +34,16 @@ import java.util.Map;
 /**
  * Analytics Controller
  * - Inventory trends
- * - Sales comparison
+ * - Sales comparison (two periods or N periods)
  * - Top restocked items
+ * - ABC/XYZ classification
+ * - Turnover, days of supply, sell-through and GMROI
+ * - Gross margin by product, category or vendor
+ * - Dead stock and slow movers
+ * - Hourly movement heatmap
+ * - Dispatch and PO line size percentiles
+ * - Shrinkage, damage rate and anomaly flags
+ * - Live KPI stream (SSE)
  * - Report exports (Excel/PDF)
  */
 @RestController
@@ -33,6 +54,15 @@ public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
     private final ReportExportService reportExportService;
+    private final PeriodComparisonService periodComparisonService;
+    private final InventoryClassificationService inventoryClassificationService;
+    private final LiveKpiService liveKpiService;
+    private final InventoryMetricsService inventoryMetricsService;
+    private final DeadStockService deadStockService;
+    private final MovementHeatmapService movementHeatmapService;
+    private final MarginAnalyticsService marginAnalyticsService;
+    private final QuantitySketchService quantitySketchService;
+    private final ShrinkageService shrinkageService;
 
     /**
      * Get inventory trends over time
@@ -63,6 +93,205 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getSalesComparison(start1, end1, start2, end2));
     }
 
+    /**
+     * Compare sales across N periods (MONTH_OVER_MONTH or YEAR_OVER_YEAR)
+     */
+    @GetMapping("/period-comparison")
+    public ResponseEntity<AnalyticsDTO.PeriodComparison> getPeriodComparison(
+            @RequestParam(defaultValue = PeriodComparisonService.MODE_MONTH_OVER_MONTH) String mode,
+            @RequestParam(required = false) String anchorDate,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "2") int count) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        List<AnalyticsDTO.ComparisonPeriod> periods;
+
+        if (PeriodComparisonService.MODE_YEAR_OVER_YEAR.equalsIgnoreCase(mode)) {
+            LocalDate end = endDate != null ? LocalDate.parse(endDate, formatter) : LocalDate.now();
+            LocalDate start = startDate != null ? LocalDate.parse(startDate, formatter) : end.withDayOfMonth(1);
+            periods = periodComparisonService.yearOverYearPeriods(start, end, count);
+            mode = PeriodComparisonService.MODE_YEAR_OVER_YEAR;
+        } else {
+            LocalDate anchor = anchorDate != null ? LocalDate.parse(anchorDate, formatter) : LocalDate.now();
+            periods = periodComparisonService.monthOverMonthPeriods(YearMonth.from(anchor), count);
+            mode = PeriodComparisonService.MODE_MONTH_OVER_MONTH;
+        }
+
+        return ResponseEntity.ok(periodComparisonService.comparePeriods(mode, periods));
+    }
+
+    /**
+     * Compare sales across custom periods
+     */
+    @PostMapping("/period-comparison")
+    public ResponseEntity<AnalyticsDTO.PeriodComparison> comparePeriods(
+            @RequestBody List<AnalyticsDTO.ComparisonPeriod> periods) {
+        return ResponseEntity.ok(periodComparisonService.comparePeriods(PeriodComparisonService.MODE_CUSTOM, periods));
+    }
+
+    /**
+     * Run ABC/XYZ classification (incremental unless full=true)
+     */
+    @PostMapping("/classification/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ClassificationRunResult> runClassification(
+            @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(inventoryClassificationService.runClassification(full));
+    }
+
+    /**
+     * Get product counts per ABC/XYZ class
+     */
+    @GetMapping("/classification/summary")
+    public ResponseEntity<Map<String, Long>> getClassificationSummary() {
+        return ResponseEntity.ok(inventoryClassificationService.getClassificationSummary());
+    }
+
+    /**
+     * Get turnover, days of supply, sell-through and GMROI per PRODUCT,
+     * CATEGORY or VENDOR
+     */
+    @GetMapping("/inventory-metrics")
+    public ResponseEntity<AnalyticsDTO.InventoryMetricsReport> getInventoryMetrics(
+            @RequestParam(defaultValue = InventoryMetricsService.DIMENSION_PRODUCT) String dimension,
+            @RequestParam(required = false) Long id,
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(inventoryMetricsService.getMetrics(dimension, id,
+                LocalDate.parse(startDate), LocalDate.parse(endDate), limit));
+    }
+
+    /**
+     * Aggregate daily stats up to yesterday
+     */
+    @PostMapping("/inventory-metrics/aggregate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> aggregateDailyStats() {
+        return ResponseEntity.ok(Map.of("days", inventoryMetricsService.aggregateDailyStats()));
+    }
+
+    /**
+     * Get revenue, cost, gross profit and margin per PRODUCT, CATEGORY or
+     * VENDOR, with a daily series
+     */
+    @GetMapping("/margins")
+    public ResponseEntity<AnalyticsDTO.MarginReport> getMargins(
+            @RequestParam(defaultValue = InventoryMetricsService.DIMENSION_PRODUCT) String dimension,
+            @RequestParam(required = false) Long id,
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(marginAnalyticsService.getMargins(dimension, id,
+                LocalDate.parse(startDate), LocalDate.parse(endDate), limit));
+    }
+
+    /**
+     * Apply pending sales to the margin roll-up now
+     */
+    @PostMapping("/margins/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> refreshMargins() {
+        return ResponseEntity.ok(Map.of("sales", marginAnalyticsService.applyNewSales()));
+    }
+
+    /**
+     * Get dead stock: products bucketed by days since last sale, with the
+     * value tied up in their stock
+     */
+    @GetMapping("/dead-stock")
+    public ResponseEntity<AnalyticsDTO.DeadStockReport> getDeadStockReport(
+            @RequestParam(defaultValue = "90") int minDays,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long vendorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(deadStockService.getDeadStockReport(minDays, categoryId, vendorId, page, size));
+    }
+
+    /**
+     * Get movement counts and quantities by weekday and hour, optionally for
+     * one handler and/or category
+     */
+    @GetMapping("/movement-heatmap")
+    public ResponseEntity<AnalyticsDTO.MovementHeatmap> getMovementHeatmap(
+            @RequestParam(required = false) Long handlerId,
+            @RequestParam(required = false) Long categoryId) {
+        return ResponseEntity.ok(movementHeatmapService.getHeatmap(handlerId, categoryId));
+    }
+
+    /**
+     * Apply pending stock movements to the heatmap now
+     */
+    @PostMapping("/movement-heatmap/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> refreshMovementHeatmap() {
+        return ResponseEntity.ok(Map.of("movements", movementHeatmapService.applyNewMovements()));
+    }
+
+    /**
+     * Get p50/p90/p95/p99 dispatch (DISPATCH) or PO line (PO_LINE) quantities
+     * for the given products, else categories, else everything
+     */
+    @GetMapping("/quantity-distribution")
+    public ResponseEntity<AnalyticsDTO.QuantityDistribution> getQuantityDistribution(
+            @RequestParam(defaultValue = "DISPATCH") String metric,
+            @RequestParam(required = false) List<Long> productIds,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+        return ResponseEntity.ok(quantitySketchService.getDistribution(metric, productIds, categoryIds,
+                LocalDate.parse(startDate), LocalDate.parse(endDate)));
+    }
+
+    /**
+     * Apply pending dispatches and PO lines to the sketches now
+     */
+    @PostMapping("/quantity-distribution/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> refreshQuantityDistribution() {
+        return ResponseEntity.ok(Map.of("quantities", quantitySketchService.applyNewQuantities()));
+    }
+
+    /**
+     * Get damage rate, adjustment drift and shrinkage cost per PRODUCT,
+     * CATEGORY or HANDLER
+     */
+    @GetMapping("/shrinkage")
+    public ResponseEntity<AnalyticsDTO.ShrinkageReport> getShrinkage(
+            @RequestParam(defaultValue = ShrinkageService.DIMENSION_PRODUCT) String dimension,
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(shrinkageService.getShrinkage(dimension,
+                LocalDate.parse(startDate), LocalDate.parse(endDate), limit));
+    }
+
+    /**
+     * Get the most recent damage / adjustment spikes
+     */
+    @GetMapping("/shrinkage/anomalies")
+    public ResponseEntity<List<AnalyticsDTO.ShrinkageAnomaly>> getShrinkageAnomalies(
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(shrinkageService.getRecentAnomalies(limit));
+    }
+
+    /**
+     * Get current live KPI values
+     */
+    @GetMapping("/kpis")
+    public ResponseEntity<KpiSnapshot> getKpis() {
+        return ResponseEntity.ok(liveKpiService.getSnapshot());
+    }
+
+    /**
+     * Stream live KPI deltas (Server-Sent Events)
+     */
+    @GetMapping(value = "/stream/kpis", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamKpis(@RequestParam(required = false) Long intervalMs) {
+        return liveKpiService.subscribe(intervalMs);
+    }
+
     /**
      * Get top restocked items
      */
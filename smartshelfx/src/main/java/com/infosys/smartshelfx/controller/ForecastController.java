@@ -1,7 +1,17 @@
 package com.infosys.smartshelfx.controller;
 
 import com.infosys.smartshelfx.dtos.*;
+import com.infosys.smartshelfx.service.AIForecastClient;
+import com.infosys.smartshelfx.service.BacktestService;
+import com.infosys.smartshelfx.service.CurrentForecastService;
+import com.infosys.smartshelfx.service.ForecastAccuracyService;
+import com.infosys.smartshelfx.service.ForecastModelService;
+import com.infosys.smartshelfx.service.ForecastPipelineService;
+import com.infosys.smartshelfx.service.ForecastStateService;
 import com.infosys.smartshelfx.service.ForecastingService;
+import com.infosys.smartshelfx.service.HierarchicalForecastService;
+import com.infosys.smartshelfx.service.StockoutRiskService;
+import com.infosys.smartshelfx.service.StockoutSimulationService;
 import com.infosys.smartshelfx.service.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -10,13 +20,18 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * AI Forecasting Controller
  * - Generate demand forecasts
  * - Get products at risk of stockout
  * - View forecast history
+ * - Forecast accuracy and model ranking
+ * - Rolling-origin backtests of the forecast models
  */
 @RestController
 @RequestMapping("/api/forecast")
@@ -24,6 +39,16 @@ import java.util.List;
 public class ForecastController {
 
     private final ForecastingService forecastingService;
+    private final ForecastAccuracyService forecastAccuracyService;
+    private final ForecastStateService forecastStateService;
+    private final ForecastPipelineService forecastPipelineService;
+    private final AIForecastClient aiForecastClient;
+    private final ForecastModelService forecastModelService;
+    private final HierarchicalForecastService hierarchicalForecastService;
+    private final BacktestService backtestService;
+    private final CurrentForecastService currentForecastService;
+    private final StockoutRiskService stockoutRiskService;
+    private final StockoutSimulationService stockoutSimulationService;
 
     private Long getCurrentUserId(Authentication authentication) {
         if (authentication.getPrincipal() instanceof UserDetailsImpl) {
@@ -56,7 +81,18 @@ public class ForecastController {
     public ResponseEntity<List<ForecastResponse>> generateAllForecasts(
             @RequestParam(defaultValue = "DAILY") String period,
             @RequestParam(defaultValue = "14") int horizon) {
-        return ResponseEntity.ok(forecastingService.generateAllForecasts(period, horizon));
+        List<ForecastResponse> forecasts = new ArrayList<>();
+        forecastPipelineService.runForecasts(period, horizon, false, forecasts);
+        return ResponseEntity.ok(forecasts);
+    }
+
+    /**
+     * Get progress of the running (or last) bulk forecast run
+     */
+    @GetMapping("/pipeline/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ForecastRunStatus> getForecastPipelineStatus() {
+        return ResponseEntity.ok(forecastPipelineService.getStatus());
     }
 
     // ==================== AT-RISK PRODUCTS ====================
@@ -88,6 +124,60 @@ public class ForecastController {
 
     // ==================== FORECAST HISTORY ====================
 
+    /**
+     * Projected stockout of a product with its open purchase orders
+     */
+    @GetMapping("/risk/{productId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<StockoutRisk> getStockoutRisk(@PathVariable Long productId) {
+        return ResponseEntity.ok(stockoutRiskService.getRisk(productId));
+    }
+
+    /**
+     * Monte Carlo stockout simulation of a product (latest nightly run)
+     */
+    @GetMapping("/simulation/{productId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<StockoutSimulationDTO> getStockoutSimulation(@PathVariable Long productId) {
+        return ResponseEntity.ok(stockoutSimulationService.getSimulation(productId));
+    }
+
+    /**
+     * Products most likely to run out within the simulated horizon
+     */
+    @GetMapping("/simulation/at-risk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<List<StockoutSimulationDTO>> getSimulatedAtRisk(
+            @RequestParam(defaultValue = "0.5") double minProbability,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(stockoutSimulationService.getMostAtRisk(minProbability, limit));
+    }
+
+    /**
+     * Re-run the stockout simulation for the whole catalog now
+     */
+    @PostMapping("/simulation/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runStockoutSimulation(
+            @RequestParam(required = false) Integer horizon,
+            @RequestParam(required = false) Integer paths) {
+        return ResponseEntity.ok(stockoutSimulationService.runSimulation(horizon, paths));
+    }
+
+    /**
+     * Daily forecast curves of many products at once: the current ones, or
+     * those made on the given date
+     */
+    @GetMapping("/curves")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<List<ForecastCurveDTO>> getForecastCurves(
+            @RequestParam List<Long> productIds,
+            @RequestParam(defaultValue = "DAILY") String period,
+            @RequestParam(required = false) String forecastDate) {
+        return ResponseEntity.ok(forecastingService.getForecastCurves(productIds, period,
+                forecastDate != null ? LocalDate.parse(forecastDate) : null));
+    }
+
     /**
      * Get forecast history for a product
      */
@@ -112,4 +202,122 @@ public class ForecastController {
         }
         return ResponseEntity.ok(forecast);
     }
+
+    // ==================== FORECAST ACCURACY ====================
+
+    /**
+     * Get MAE, WAPE and bias per product, model version and horizon
+     */
+    @GetMapping("/accuracy")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<List<ForecastAccuracyDTO>> getForecastAccuracy(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) String modelVersion,
+            @RequestParam(required = false) Integer horizon) {
+        return ResponseEntity.ok(forecastAccuracyService.getAccuracy(productId, modelVersion, horizon));
+    }
+
+    /**
+     * Rank model versions by WAPE within each horizon
+     */
+    @GetMapping("/accuracy/models")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<List<ForecastAccuracyDTO.ModelRanking>> rankForecastModels(
+            @RequestParam(required = false) Integer horizon) {
+        return ResponseEntity.ok(forecastAccuracyService.rankModels(horizon));
+    }
+
+    /**
+     * Score forecasts whose windows closed since the last run
+     */
+    @PostMapping("/accuracy/evaluate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> evaluateForecastAccuracy() {
+        return ResponseEntity.ok(Map.of("forecasts", forecastAccuracyService.evaluateClosedForecasts()));
+    }
+
+    /**
+     * Thin out forecast history past the daily retention window now
+     */
+    @PostMapping("/history/compact")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> compactForecastHistory() {
+        return ResponseEntity.ok(Map.of("deleted", currentForecastService.compactHistory()));
+    }
+
+    /**
+     * Fold closed days into the per-product smoothing states now
+     */
+    @PostMapping("/state/advance")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> advanceForecastStates() {
+        return ResponseEntity.ok(Map.of("products", forecastStateService.advanceStates()));
+    }
+
+    /**
+     * AI service client status (circuit breaker)
+     */
+    @GetMapping("/ai/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getAiServiceStatus() {
+        return ResponseEntity.ok(aiForecastClient.getStatus());
+    }
+
+    /**
+     * Forecast models available and the model of each category
+     */
+    @GetMapping("/models")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<ForecastModelConfig> getForecastModels() {
+        return ResponseEntity.ok(forecastModelService.getConfig());
+    }
+
+    /**
+     * Set a category's forecast model (AUTO restores the default)
+     */
+    @PutMapping("/models/categories/{categoryId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ForecastModelConfig.CategoryModel> assignForecastModel(
+            @PathVariable Long categoryId,
+            @RequestParam String model) {
+        return ResponseEntity.ok(forecastModelService.assignModel(categoryId, model));
+    }
+
+    /**
+     * Category-level slow-mover forecasts of the last pipeline run
+     */
+    @GetMapping("/hierarchy")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<HierarchyForecastSummary> getForecastHierarchy() {
+        return ResponseEntity.ok(hierarchicalForecastService.getLastSummary());
+    }
+
+    /**
+     * Start replaying sales history with rolling forecast origins to rank the
+     * models per category (runs in the background, one backtest at a time;
+     * poll GET /backtest)
+     */
+    @PostMapping("/backtest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BacktestResult> runBacktest(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "14") int horizon,
+            @RequestParam(defaultValue = "7") int step,
+            @RequestParam(required = false) List<String> models,
+            @RequestParam(defaultValue = "false") boolean includeAi) {
+        return ResponseEntity.accepted().body(backtestService.startBacktest(
+                startDate != null ? LocalDate.parse(startDate) : null,
+                endDate != null ? LocalDate.parse(endDate) : null,
+                horizon, step, models, includeAi));
+    }
+
+    /**
+     * Progress of the running backtest, else the last leaderboard
+     */
+    @GetMapping("/backtest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BacktestResult> getBacktest() {
+        return ResponseEntity.ok(backtestService.getStatus());
+    }
 }
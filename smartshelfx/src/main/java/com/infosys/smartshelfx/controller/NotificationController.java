@@ -1,5 +1,6 @@
 package com.infosys.smartshelfx.controller;
 
+import com.infosys.smartshelfx.dtos.CursorPage;
 import com.infosys.smartshelfx.dtos.NotificationDTO;
 import com.infosys.smartshelfx.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +33,17 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getMyNotifications(page, size));
     }
 
+    /**
+     * Get notifications for current user with cursor pagination
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<NotificationDTO>> getMyNotificationsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(notificationService.getMyNotificationsPage(cursor, size, includeTotal));
+    }
+
     /**
      * Get unread notifications for current user
      */
@@ -113,6 +113,29 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Get stock movements with cursor pagination (constant cost at any depth)
+     * - Admin sees all movements
+     * - Warehouse Manager sees only their own movements
+     */
+    @GetMapping("/movements/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<CursorPage<StockMovementDTO>> getStockMovementsPage(
+            Authentication authentication,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long handlerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        Long performerId = isAdmin(authentication) ? handlerId : getCurrentUserId(authentication);
+        return ResponseEntity.ok(transactionService.getStockMovementsPage(
+                type, productId, performerId, startDate, endDate, cursor, size, includeTotal));
+    }
+
     /**
      * Get stock movements by date range
      * - Admin sees all movements
@@ -150,4 +173,21 @@ public class TransactionController {
 
         return ResponseEntity.ok(transactionService.getSalesHistory(productId, startDate, endDate, page, size));
     }
+
+    /**
+     * Get sales history with cursor pagination
+     */
+    @GetMapping("/sales/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSEMANAGER')")
+    public ResponseEntity<CursorPage<SalesHistoryDTO>> getSalesHistoryPage(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        return ResponseEntity.ok(transactionService.getSalesHistoryPage(
+                productId, startDate, endDate, cursor, size, includeTotal));
+    }
 }
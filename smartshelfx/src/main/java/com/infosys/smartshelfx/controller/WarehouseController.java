@@ -65,6 +65,8 @@ public class WarehouseController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long vendorId,
             @RequestParam(required = false) String stockStatus,
+            @RequestParam(required = false) String abcClass,
+            @RequestParam(required = false) String xyzClass,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
@@ -76,6 +78,8 @@ public class WarehouseController {
                 .vendorId(vendorId)
                 .stockStatus(
                         stockStatus != null ? com.infosys.smartshelfx.entity.StockStatus.valueOf(stockStatus) : null)
+                .abcClass(abcClass != null ? com.infosys.smartshelfx.entity.AbcClass.valueOf(abcClass) : null)
+                .xyzClass(xyzClass != null ? com.infosys.smartshelfx.entity.XyzClass.valueOf(xyzClass) : null)
                 .searchTerm(search)
                 .page(page)
                 .size(size)
@@ -0,0 +1,48 @@
+package com.infosys.smartshelfx.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request body of the AI engine's /api/forecast/batch-predict
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIBatchForecastRequest {
+    private List<ProductSeries> products;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSeries {
+        @JsonProperty("product_id")
+        private Long productId;
+
+        @JsonProperty("historical_data")
+        private List<DataPoint> historicalData;
+
+        @JsonProperty("forecast_days")
+        private Integer forecastDays;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DataPoint {
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate date;
+        private Integer quantity;
+        private Double price;
+    }
+}
@@ -0,0 +1,66 @@
+package com.infosys.smartshelfx.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response body of the AI engine's /api/forecast/batch-predict
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AIBatchForecastResponse {
+    @JsonProperty("batch_id")
+    private Long batchId;
+
+    @JsonProperty("total_products")
+    private Integer totalProducts;
+
+    private Integer processed;
+
+    private List<ProductResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ProductResult {
+        @JsonProperty("product_id")
+        private Long productId;
+
+        private List<Prediction> predictions;
+
+        private String status;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Prediction {
+        private LocalDate date;
+
+        @JsonProperty("predicted_demand")
+        private Integer predictedDemand;
+
+        @JsonProperty("lower_bound")
+        private Integer lowerBound;
+
+        @JsonProperty("upper_bound")
+        private Integer upperBound;
+
+        @JsonProperty("confidence_score")
+        private Double confidenceScore;
+    }
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -106,6 +107,42 @@ public class AnalyticsDTO {
         private List<TrendDataPoint> period2Trend;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ComparisonPeriod {
+        private String label;
+        private LocalDate startDate;
+        private LocalDate endDate;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodSummary {
+        private String label;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private BigDecimal totalAmount;
+        private Integer totalQuantity;
+        private BigDecimal averageDailyAmount;
+        private Double changeFromPrevious; // % change vs the preceding period in the request
+        private List<TrendDataPoint> dailyTrend;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PeriodComparison {
+        private String mode; // MONTH_OVER_MONTH, YEAR_OVER_YEAR, CUSTOM
+        private LocalDate scanStartDate;
+        private LocalDate scanEndDate;
+        private List<PeriodSummary> periods;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -145,4 +182,218 @@ public class AnalyticsDTO {
         private Double fulfillmentRate;
         private Double averageDeliveryDays;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InventoryMetrics {
+        private Long id; // product, category or vendor id
+        private String name;
+        private Long unitsSold;
+        private Long unitsReceived;
+        private Long openingStock;
+        private Long closingStock;
+        private BigDecimal revenue;
+        private BigDecimal costOfGoodsSold;
+        private Double averageInventoryUnits;
+        private BigDecimal averageInventoryCost;
+        private Double turnoverRatio; // COGS / average inventory cost (units when no cost)
+        private Double daysOfSupply; // closing stock / average daily units sold
+        private Double sellThroughRate; // % of (opening + received) sold
+        private Double gmroi; // gross margin / average inventory cost
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InventoryMetricsReport {
+        private String dimension; // PRODUCT, CATEGORY, VENDOR
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private LocalDate coveredThrough; // last aggregated day used
+        private Integer days;
+        private Boolean complete; // false when the window extends outside the aggregated days
+        private List<InventoryMetrics> rows;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeadStockItem {
+        private Long productId;
+        private String sku;
+        private String productName;
+        private Long categoryId;
+        private Long vendorId;
+        private Integer currentStock;
+        private BigDecimal tiedUpValue;
+        private LocalDateTime lastInboundAt;
+        private LocalDateTime lastSaleAt;
+        private Long daysSinceLastSale; // since creation when never sold
+        private Boolean neverSold;
+        private String bucket;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeadStockBucket {
+        private String label; // e.g. "31-60", "365+"
+        private Integer minDays;
+        private Integer maxDays; // null for the open-ended bucket
+        private Long productCount;
+        private Long totalUnits;
+        private BigDecimal tiedUpValue;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeadStockReport {
+        private LocalDateTime asOf;
+        private Integer minDays;
+        private List<DeadStockBucket> buckets;
+        private List<DeadStockItem> items; // products idle for at least minDays, by tied-up value
+        private Integer page;
+        private Integer size;
+        private Long totalItems;
+        private BigDecimal totalTiedUpValue;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MovementHeatmap {
+        private Long handlerId;
+        private Long categoryId;
+        private List<String> days; // row labels, Monday first
+        // [dayOfWeek - 1][hourOfDay]
+        private long[][] inboundCount;
+        private long[][] inboundQuantity;
+        private long[][] outboundCount;
+        private long[][] outboundQuantity;
+        private Long lastMovementId; // heatmap includes movements up to this id
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MarginRow {
+        private Long id; // product, category or vendor id
+        private String name;
+        private Long unitsSold;
+        private BigDecimal revenue;
+        private BigDecimal costOfGoodsSold;
+        private BigDecimal grossProfit;
+        private Double marginPercent; // gross profit / revenue
+        private Double markupPercent; // gross profit / cost
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MarginPoint {
+        private LocalDate date;
+        private Long unitsSold;
+        private BigDecimal revenue;
+        private BigDecimal grossProfit;
+        private Double marginPercent;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MarginReport {
+        private String dimension; // PRODUCT, CATEGORY, VENDOR
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private MarginRow totals;
+        private List<MarginRow> rows; // by gross profit, highest first
+        private List<MarginPoint> daily; // only days with sales
+        private Long lastSaleId; // includes sales up to this id
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuantityQuantiles {
+        private Long id; // product or category id; null for the combined row
+        private Long count;
+        private Double min;
+        private Double max;
+        private Double mean;
+        private Double p50;
+        private Double p90;
+        private Double p95;
+        private Double p99;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuantityDistribution {
+        private String metric; // DISPATCH, PO_LINE
+        private String scopeType; // PRODUCT, CATEGORY
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private QuantityQuantiles combined; // all selected products/categories merged
+        private List<QuantityQuantiles> rows; // per product/category, by count
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShrinkageRow {
+        private Long id; // product, category or handler id
+        private String name;
+        private Long damagedUnits;
+        private Long damageEvents;
+        private Long dispatchedUnits;
+        private Double damageRate; // % of damaged + dispatched units that were damaged
+        private Long adjustments;
+        private Long adjustmentNetUnits; // signed drift: counted minus recorded stock
+        private Long adjustmentAbsoluteUnits;
+        private BigDecimal shrinkageCost; // damage plus negative adjustments, at cost
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShrinkageReport {
+        private String dimension; // PRODUCT, CATEGORY, HANDLER
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private ShrinkageRow totals;
+        private List<ShrinkageRow> rows; // by shrinkage cost, highest first
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShrinkageAnomaly {
+        private String metric; // DAMAGE, ADJUSTMENT
+        private String scopeType; // PRODUCT, CATEGORY, HANDLER
+        private Long scopeId;
+        private Long productId;
+        private Long movementId;
+        private Long value; // units damaged or adjusted
+        private Double baselineMean;
+        private Double baselineStdDev;
+        private Double zScore;
+        private LocalDateTime detectedAt;
+    }
 }
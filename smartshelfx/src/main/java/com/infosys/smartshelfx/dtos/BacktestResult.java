@@ -0,0 +1,63 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestResult {
+    private String status; // IDLE, RUNNING, COMPLETED, COMPLETED_WITH_ERRORS, INTERRUPTED
+    private LocalDate startDate; // first forecast origin
+    private LocalDate endDate; // last day scored
+    private Integer horizon;
+    private Integer stepDays;
+    private Integer historyDays;
+    private List<String> models;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long elapsedMs;
+    private Integer totalProducts;
+    private Integer processedProducts;
+    private Long windows; // (product, origin) pairs scored per model
+    private List<ModelScore> overall;
+    private List<CategoryLeaderboard> categories;
+    private List<String> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryLeaderboard {
+        private Long categoryId;
+        private String categoryName;
+        private String currentModel; // model configured for the category
+        private List<ModelScore> scores; // ranked, best first
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ModelScore {
+        private Integer rank; // 1 = lowest WAPE
+        private String model;
+        private Long windows;
+        private Long actualUnits;
+        private Long forecastUnits;
+        private Double wape; // % of actual demand: sum |error| / sum actual
+        private Double bias; // mean signed error per window; positive = over-forecasting
+        private Double biasPercent; // sum error / sum actual
+        private Long stockoutWindows; // windows with a known opening stock
+        private Double stockoutHitRate; // % of those where predicted and actual stockout agree
+        private Double stockoutRecall; // % of actual stockouts that were predicted
+        private Double falseAlarmRate; // % of predicted stockouts that did not happen
+    }
+}
@@ -0,0 +1,25 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassificationRunResult {
+    private Boolean fullRun;
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+    private Integer productsTotal;
+    private Integer productsRecomputed;
+    private Integer abcReclassified;
+    private Integer xyzReclassified;
+    private Map<String, Long> classCounts; // e.g. "AX" -> 12
+    private Long durationMs;
+}
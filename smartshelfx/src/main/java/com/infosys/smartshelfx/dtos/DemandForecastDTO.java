@@ -27,10 +27,16 @@ public class DemandForecastDTO {
     private Integer currentStock;
     private Integer recommendedRestock;
     private Integer daysUntilStockout;
+    private LocalDate projectedStockoutDate;
+    private Integer inboundQuantity; // open purchase order quantity counted in the projection
     private Boolean isAtRisk;
     private String riskLevel; // LOW, MEDIUM, HIGH, CRITICAL
     private String modelVersion;
     private String factors;
+    private LocalDate curveStartDate; // per-day values below start here
+    private int[] demandCurve;
+    private int[] lowerCurve;
+    private int[] upperCurve;
     private LocalDateTime createdAt;
     private String suggestedAction;
 }
@@ -0,0 +1,47 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Forecast accuracy per product, model version and horizon. Errors are
+ * predicted minus actual demand over each forecast's window.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastAccuracyDTO {
+    private Long productId;
+    private String productName;
+    private String modelVersion;
+    private Integer horizonDays;
+    private Long forecasts;
+    private Double mae; // mean absolute error, units per forecast window
+    private Double wape; // % of actual demand: sum |error| / sum actual
+    private Double bias; // mean signed error; positive = over-forecasting
+    private Double biasPercent; // sum error / sum actual
+    private Double rmse;
+    private LocalDate lastEvaluatedDate;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ModelRanking {
+        private Integer rank; // 1 = lowest WAPE within the horizon
+        private String modelVersion;
+        private Integer horizonDays;
+        private Long products;
+        private Long forecasts;
+        private Double mae;
+        private Double wape;
+        private Double bias;
+        private Double biasPercent;
+        private Double rmse;
+    }
+}
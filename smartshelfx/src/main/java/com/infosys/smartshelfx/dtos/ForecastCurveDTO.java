@@ -0,0 +1,23 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastCurveDTO {
+    private Long productId;
+    private LocalDate forecastDate; // day the forecast was made
+    private String forecastPeriod;
+    private String modelVersion;
+    private LocalDate startDate; // first forecast day
+    private int[] demand;
+    private int[] lowerBound;
+    private int[] upperBound;
+}
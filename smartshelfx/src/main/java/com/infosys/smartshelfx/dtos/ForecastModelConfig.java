@@ -0,0 +1,28 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastModelConfig {
+    private String defaultModel;
+    private List<String> models; // AUTO plus every registered model
+    private List<CategoryModel> categories;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryModel {
+        private Long categoryId;
+        private String categoryName;
+        private String model; // AUTO when not set
+    }
+}
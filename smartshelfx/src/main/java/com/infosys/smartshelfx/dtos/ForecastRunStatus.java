@@ -0,0 +1,33 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastRunStatus {
+    private String status; // IDLE, RUNNING, COMPLETED, COMPLETED_WITH_ERRORS
+    private String period;
+    private Integer horizon;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Integer totalProducts;
+    private Integer processedProducts;
+    private Integer failedProducts;
+    private Integer totalChunks;
+    private Integer completedChunks;
+    private Integer failedChunks;
+    private Integer cacheHits; // products answered from the forecast cache
+    private Integer forecastsSaved;
+    private Integer alertsRaised;
+    private Long elapsedMs;
+    private Double productsPerSecond;
+    private List<String> errors; // first errors of failed chunks
+}
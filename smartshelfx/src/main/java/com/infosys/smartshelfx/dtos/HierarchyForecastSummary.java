@@ -0,0 +1,42 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HierarchyForecastSummary {
+    private LocalDateTime preparedAt;
+    private LocalDate historyStart;
+    private LocalDate historyEnd;
+    private Integer horizon;
+    private Double fastMinDailyDemand; // products selling less per day are forecast top-down
+    private Integer totalProducts;
+    private Integer fastProducts; // individual models
+    private Integer slowProducts; // share of their category forecast
+    private Long elapsedMs;
+    private List<CategoryAggregate> categories;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryAggregate {
+        private Long categoryId;
+        private String categoryName;
+        private String model; // model version of the aggregate forecast
+        private Integer fastProducts;
+        private Integer slowProducts;
+        private Double historyDailyDemand; // slow products together, average over the history
+        private Double forecastDemand; // slow products together, over the horizon
+        private Double meanAbsError; // of the aggregate, one step ahead
+    }
+}
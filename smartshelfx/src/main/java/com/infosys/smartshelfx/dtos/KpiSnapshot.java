@@ -0,0 +1,32 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class KpiSnapshot {
+    private Long version;
+    private LocalDateTime asOf;
+
+    // Stock status counts
+    private Long inStockCount;
+    private Long lowStockStatusCount;
+    private Long outOfStockCount;
+
+    // Products at or below their reorder level
+    private Long lowStockCount;
+
+    // Today's sales
+    private BigDecimal todaySalesAmount;
+    private Long todaySalesQuantity;
+
+    private Long pendingPurchaseOrders;
+}
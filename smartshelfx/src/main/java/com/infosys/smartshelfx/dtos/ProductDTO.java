@@ -1,6 +1,8 @@
 package com.infosys.smartshelfx.dtos;
 
+import com.infosys.smartshelfx.entity.AbcClass;
 import com.infosys.smartshelfx.entity.StockStatus;
+import com.infosys.smartshelfx.entity.XyzClass;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,6 +30,10 @@ public class ProductDTO {
     private BigDecimal unitPrice;
     private BigDecimal costPrice;
     private StockStatus stockStatus;
+    private AbcClass abcClass;
+    private XyzClass xyzClass;
+    private LocalDateTime lastInboundAt;
+    private LocalDateTime lastSaleAt;
     private String imageUrl;
     private String unit;
     private Boolean isActive;
@@ -1,6 +1,8 @@
 package com.infosys.smartshelfx.dtos;
 
+import com.infosys.smartshelfx.entity.AbcClass;
 import com.infosys.smartshelfx.entity.StockStatus;
+import com.infosys.smartshelfx.entity.XyzClass;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +16,8 @@ public class ProductFilterRequest {
     private Long categoryId;
     private Long vendorId;
     private StockStatus stockStatus;
+    private AbcClass abcClass;
+    private XyzClass xyzClass;
     private String searchTerm;
     private Boolean isActive;
     private Integer page = 0;
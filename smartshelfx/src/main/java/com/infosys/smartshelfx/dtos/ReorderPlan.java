@@ -0,0 +1,51 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderPlan {
+    private String planId; // pass back to apply exactly this preview
+    private LocalDateTime generatedAt;
+    private Long elapsedMs;
+    private Integer lookbackDays;
+    private Map<String, Double> serviceLevels; // per ABC class, "DEFAULT" for unclassified
+    private Double orderCost; // per purchase order
+    private Double holdingRate; // yearly, fraction of unit cost
+    private Integer totalProducts;
+    private Integer optimizedProducts; // with enough demand history
+    private Integer changedProducts;
+    private List<Item> changes; // products whose reorder level or quantity would change
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private String productSku;
+        private String productName;
+        private Long vendorId;
+        private String abcClass;
+        private Double avgDailyDemand;
+        private Double demandStdDev;
+        private Double leadTimeDays;
+        private Double leadTimeStdDev;
+        private Integer leadTimeSamples; // received orders of the vendor; 0 = default lead time
+        private Double serviceLevel;
+        private Integer safetyStock;
+        private Integer currentReorderLevel;
+        private Integer reorderLevel; // reorder point = demand over the lead time + safety stock
+        private Integer currentReorderQuantity;
+        private Integer reorderQuantity; // economic order quantity
+    }
+}
@@ -0,0 +1,34 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockoutRisk {
+    private Long productId;
+    private Integer currentStock;
+    private Double dailyDemand; // from the product's current forecast
+    private Integer inboundQuantity; // still to be received on open purchase orders
+    private List<InboundLine> inbound; // by expected delivery date
+    private Integer daysUntilStockout; // Integer.MAX_VALUE when there is no demand
+    private LocalDate projectedStockoutDate;
+    private Boolean atRisk;
+    private String riskLevel; // LOW, MEDIUM, HIGH, CRITICAL
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InboundLine {
+        private LocalDate expectedDate;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,27 @@
+package com.infosys.smartshelfx.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockoutSimulationDTO {
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private Integer horizonDays;
+    private Integer paths;
+    private Integer currentStock;
+    private Integer inboundQuantity; // open purchase order quantity, arriving at sampled lead times
+    private Double stockoutProbability; // 0.0 to 1.0
+    private Double expectedLostUnits;
+    private Double expectedStockoutDay; // among paths that run out; null when none does
+    private Double fillRate;
+    private LocalDateTime simulatedAt;
+}
@@ -0,0 +1,7 @@
+package com.infosys.smartshelfx.entity;
+
+public enum AbcClass {
+    A, // Top revenue contributors (first ~80% of revenue)
+    B, // Next ~15% of revenue
+    C // Long tail
+}
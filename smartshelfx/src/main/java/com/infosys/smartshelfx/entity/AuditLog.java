@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_performed_at", columnList = "performed_at, id"),
+        @Index(name = "idx_audit_user_performed", columnList = "performed_by, performed_at, id"),
+        @Index(name = "idx_audit_entity_performed", columnList = "entity_type, performed_at, id")
+})
 public class AuditLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +25,9 @@ public class Category {
 
     private String description;
 
+    @Column(name = "forecast_model", length = 32)
+    private String forecastModel; // ForecastModel name, null = default model
+
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
     private List<Product> products;
 
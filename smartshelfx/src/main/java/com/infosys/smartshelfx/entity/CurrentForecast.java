@@ -0,0 +1,87 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Latest forecast per product and period, updated in place by every forecast
+ * run; demand_forecasts keeps the (compacted) history
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "current_forecasts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_current_forecast_product_period", columnNames = { "product_id",
+                "forecast_period" })
+}, indexes = {
+        @Index(name = "idx_current_forecast_risk", columnList = "is_at_risk, days_until_stockout")
+})
+public class CurrentForecast {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "forecast_period", nullable = false)
+    private String forecastPeriod; // "DAILY", "WEEKLY", "MONTHLY"
+
+    @Column(name = "forecast_date", nullable = false)
+    private LocalDate forecastDate;
+
+    @Column(name = "predicted_demand", nullable = false)
+    private Integer predictedDemand;
+
+    @Column(name = "confidence_score")
+    private Double confidenceScore;
+
+    @Column(name = "lower_bound")
+    private Integer lowerBound;
+
+    @Column(name = "upper_bound")
+    private Integer upperBound;
+
+    @Column(name = "current_stock")
+    private Integer currentStock;
+
+    @Column(name = "recommended_restock")
+    private Integer recommendedRestock;
+
+    @Column(name = "days_until_stockout")
+    private Integer daysUntilStockout; // projected with open purchase orders, kept current by stock and PO events
+
+    @Column(name = "projected_stockout_date")
+    private LocalDate projectedStockoutDate;
+
+    @Column(name = "inbound_quantity")
+    private Integer inboundQuantity; // still to be received on approved/sent purchase orders
+
+    @Column(name = "is_at_risk", nullable = false)
+    @Builder.Default
+    private Boolean isAtRisk = false;
+
+    @Column(name = "model_version")
+    private String modelVersion;
+
+    @Column(columnDefinition = "BLOB")
+    private byte[] curve; // ForecastCurve of the same forecast
+
+    @Column(name = "horizon_days")
+    private Integer horizonDays;
+
+    @Column(name = "target_end_date")
+    private LocalDate targetEndDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -14,7 +14,10 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "demand_forecasts")
+@Table(name = "demand_forecasts", indexes = {
+        @Index(name = "idx_forecast_target_end", columnList = "target_end_date"),
+        @Index(name = "idx_forecast_product_date", columnList = "product_id, forecast_date")
+})
 public class DemandForecast {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -58,6 +61,18 @@ public class DemandForecast {
     @Column(name = "model_version")
     private String modelVersion;
 
+    @Column(name = "horizon_days")
+    private Integer horizonDays; // predictedDemand covers the horizonDays days ending targetEndDate
+
+    @Column(name = "target_end_date")
+    private LocalDate targetEndDate;
+
+    @Column(name = "scored_actual")
+    private Integer scoredActual; // actual demand this forecast was last scored against, null until scored
+
+    @Column(columnDefinition = "BLOB")
+    private byte[] curve; // ForecastCurve: daily demand, lower and upper bound over the horizon
+
     @Column(columnDefinition = "TEXT")
     private String factors; // JSON of factors affecting forecast
 
@@ -0,0 +1,64 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running forecast error sums for one product, model version and horizon.
+ * Errors are predicted minus actual demand over the forecast window.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "forecast_accuracy_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_accuracy_product_model_horizon", columnNames = { "product_id", "model_version",
+                "horizon_days" })
+}, indexes = {
+        @Index(name = "idx_accuracy_model", columnList = "model_version, horizon_days")
+})
+public class ForecastAccuracyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "model_version", nullable = false, length = 64)
+    private String modelVersion;
+
+    @Column(name = "horizon_days", nullable = false)
+    private Integer horizonDays;
+
+    @Column(name = "forecast_count", nullable = false)
+    private Long forecastCount;
+
+    @Column(name = "sum_actual", nullable = false)
+    private Long sumActual;
+
+    @Column(name = "sum_predicted", nullable = false)
+    private Long sumPredicted;
+
+    @Column(name = "sum_abs_error", nullable = false)
+    private Long sumAbsError;
+
+    @Column(name = "sum_error", nullable = false)
+    private Long sumError;
+
+    @Column(name = "sum_squared_error", nullable = false)
+    private Double sumSquaredError;
+
+    @Column(name = "last_evaluated_date")
+    private LocalDate lastEvaluatedDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
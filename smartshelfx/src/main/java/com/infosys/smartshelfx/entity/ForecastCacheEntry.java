@@ -0,0 +1,46 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last computed forecast for one product, period and horizon, with the key of
+ * the inputs it was computed from (model, sales marker, stock bucket).
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "forecast_cache", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_forecast_cache_slot", columnNames = { "product_id", "forecast_period",
+                "horizon_days" })
+})
+public class ForecastCacheEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "forecast_period", nullable = false, length = 16)
+    private String forecastPeriod;
+
+    @Column(name = "horizon_days", nullable = false)
+    private Integer horizonDays;
+
+    @Column(name = "input_key", nullable = false, length = 191)
+    private String inputKey;
+
+    @Column(name = "response_json", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String responseJson; // serialized ForecastResponse
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
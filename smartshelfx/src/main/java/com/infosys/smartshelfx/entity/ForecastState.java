@@ -0,0 +1,47 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Exponential smoothing state of one product's daily demand: level, trend
+ * and seven additive day-of-week offsets (packed doubles), as of lastDate.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "forecast_states")
+public class ForecastState {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Double level;
+
+    @Column(nullable = false)
+    private Double trend;
+
+    @Column(columnDefinition = "VARBINARY(64)")
+    private byte[] seasonal; // 7 doubles, Monday first
+
+    @Column(name = "mean_abs_error", nullable = false)
+    private Double meanAbsError; // smoothed one-step-ahead absolute error
+
+    @Column(nullable = false)
+    private Integer observations;
+
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Movement counts and quantities for one handler and category in one
+ * hour-of-week. Handler and category 0 stand for "none".
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "movement_heatmap_cells", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_heatmap_cell", columnNames = { "handler_id", "category_id", "day_of_week",
+                "hour_of_day" })
+}, indexes = {
+        @Index(name = "idx_heatmap_category", columnList = "category_id")
+})
+public class MovementHeatmapCell {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "handler_id", nullable = false)
+    private Long handlerId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "day_of_week", nullable = false)
+    private Integer dayOfWeek; // 1 = Monday ... 7 = Sunday
+
+    @Column(name = "hour_of_day", nullable = false)
+    private Integer hourOfDay;
+
+    @Column(name = "inbound_count", nullable = false)
+    private Long inboundCount;
+
+    @Column(name = "inbound_quantity", nullable = false)
+    private Long inboundQuantity;
+
+    @Column(name = "outbound_count", nullable = false)
+    private Long outboundCount;
+
+    @Column(name = "outbound_quantity", nullable = false)
+    private Long outboundQuantity;
+}
@@ -60,6 +60,21 @@ public class Product {
 
     private String unit; // e.g., "pieces", "kg", "liters"
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "abc_class", length = 1)
+    private AbcClass abcClass;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "xyz_class", length = 1)
+    private XyzClass xyzClass;
+
+    // Maintained on every stock movement by guarded bulk updates; never written by entity saves
+    @Column(name = "last_inbound_at", insertable = false, updatable = false)
+    private LocalDateTime lastInboundAt;
+
+    @Column(name = "last_sale_at", insertable = false, updatable = false)
+    private LocalDateTime lastSaleAt; // last dispatch
+
     @Column(name = "is_active")
     private Boolean isActive = true;
 
@@ -89,12 +104,20 @@ public class Product {
     }
 
     public void updateStockStatus() {
+        this.stockStatus = stockStatusFor(currentStock, reorderLevel);
+    }
+
+    /**
+     * Stock status for the given stock and reorder level; bulk SQL updates
+     * that set stock_status must follow the same rule
+     */
+    public static StockStatus stockStatusFor(Integer currentStock, Integer reorderLevel) {
         if (currentStock == null || currentStock <= 0) {
-            this.stockStatus = StockStatus.OUT_OF_STOCK;
+            return StockStatus.OUT_OF_STOCK;
         } else if (currentStock <= reorderLevel) {
-            this.stockStatus = StockStatus.LOW_STOCK;
+            return StockStatus.LOW_STOCK;
         } else {
-            this.stockStatus = StockStatus.IN_STOCK;
+            return StockStatus.IN_STOCK;
         }
     }
 }
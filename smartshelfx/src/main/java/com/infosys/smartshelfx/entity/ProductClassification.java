@@ -0,0 +1,52 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-product inputs of the last ABC/XYZ classification run. Kept so that
+ * later runs only recompute products whose sales changed.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_classifications")
+public class ProductClassification {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDate windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDate windowEnd;
+
+    @Column(name = "revenue_cents", nullable = false)
+    private Long revenueCents;
+
+    @Column(name = "mean_weekly_demand")
+    private Double meanWeeklyDemand;
+
+    @Column(name = "demand_cv")
+    private Double demandCv;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "abc_class", length = 1)
+    private AbcClass abcClass;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "xyz_class", length = 1)
+    private XyzClass xyzClass;
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,68 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row per product per day: sales, receipts and end-of-day stock. Money
+ * is kept in cents. Source for turnover/days-of-supply/GMROI metrics.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_stat_product_date", columnNames = { "product_id", "stat_date" })
+}, indexes = {
+        @Index(name = "idx_daily_stat_date", columnList = "stat_date"),
+        @Index(name = "idx_daily_stat_category_date", columnList = "category_id, stat_date"),
+        @Index(name = "idx_daily_stat_vendor_date", columnList = "vendor_id, stat_date")
+})
+public class ProductDailyStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "opening_stock", nullable = false)
+    private Integer openingStock;
+
+    @Column(name = "closing_stock", nullable = false)
+    private Integer closingStock;
+
+    @Column(name = "units_sold", nullable = false)
+    private Integer unitsSold;
+
+    @Column(name = "units_received", nullable = false)
+    private Integer unitsReceived;
+
+    @Column(name = "revenue_cents", nullable = false)
+    private Long revenueCents;
+
+    @Column(name = "cogs_cents", nullable = false)
+    private Long cogsCents;
+
+    @Column(name = "closing_cost_cents", nullable = false)
+    private Long closingCostCents;
+
+    @Column(name = "aggregated_at")
+    private LocalDateTime aggregatedAt;
+}
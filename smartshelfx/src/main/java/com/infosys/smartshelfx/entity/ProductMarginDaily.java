@@ -0,0 +1,56 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Sales revenue and cost of goods per product per sale date, in cents. Cost
+ * is the product cost price when the sale was applied.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_margin_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_margin_product_date", columnNames = { "product_id", "sale_date" })
+}, indexes = {
+        @Index(name = "idx_margin_date", columnList = "sale_date"),
+        @Index(name = "idx_margin_category_date", columnList = "category_id, sale_date"),
+        @Index(name = "idx_margin_vendor_date", columnList = "vendor_id, sale_date")
+})
+public class ProductMarginDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "vendor_id")
+    private Long vendorId;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "units_sold", nullable = false)
+    private Long unitsSold;
+
+    @Column(name = "revenue_cents", nullable = false)
+    private Long revenueCents;
+
+    @Column(name = "cost_cents", nullable = false)
+    private Long costCents;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,58 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized quantile sketch of one quantity metric (dispatch size or PO line
+ * size) for one product or category on one day
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quantity_sketches", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_quantity_sketch", columnNames = { "metric", "scope_type", "scope_id",
+                "sketch_date" })
+}, indexes = {
+        @Index(name = "idx_quantity_sketch_date", columnList = "metric, scope_type, sketch_date")
+})
+public class QuantitySketch {
+    public static final String METRIC_DISPATCH = "DISPATCH";
+    public static final String METRIC_PO_LINE = "PO_LINE";
+    public static final String SCOPE_PRODUCT = "PRODUCT";
+    public static final String SCOPE_CATEGORY = "CATEGORY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String metric;
+
+    @Column(name = "scope_type", nullable = false, length = 16)
+    private String scopeType;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Column(name = "sketch_date", nullable = false)
+    private LocalDate sketchDate;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] sketch;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -14,7 +14,12 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "sales_history")
+@Table(name = "sales_history", indexes = {
+        @Index(name = "idx_sales_product_date", columnList = "product_id, sale_date"),
+        @Index(name = "idx_sales_date_product", columnList = "sale_date, product_id"),
+        @Index(name = "idx_sales_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_sales_product_created", columnList = "product_id, created_at, id")
+})
 public class SalesHistory {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
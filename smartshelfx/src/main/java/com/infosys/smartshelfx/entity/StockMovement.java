@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "stock_movements")
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_movement_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_movement_product_created", columnList = "product_id, created_at, id"),
+        @Index(name = "idx_movement_performer_created", columnList = "performed_by, created_at, id")
+})
 public class StockMovement {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
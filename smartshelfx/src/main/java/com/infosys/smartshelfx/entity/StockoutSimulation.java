@@ -0,0 +1,54 @@
+package com.infosys.smartshelfx.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest Monte Carlo stockout simulation of one product over the next
+ * horizonDays days, with its open purchase orders.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stockout_simulations", indexes = {
+        @Index(name = "idx_simulation_probability", columnList = "stockout_probability")
+})
+public class StockoutSimulation {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "horizon_days", nullable = false)
+    private Integer horizonDays;
+
+    @Column(nullable = false)
+    private Integer paths;
+
+    @Column(name = "current_stock")
+    private Integer currentStock;
+
+    @Column(name = "inbound_quantity")
+    private Integer inboundQuantity;
+
+    @Column(name = "stockout_probability", nullable = false)
+    private Double stockoutProbability; // share of paths that ran out within the horizon
+
+    @Column(name = "expected_lost_units", nullable = false)
+    private Double expectedLostUnits; // demand not served, averaged over all paths
+
+    @Column(name = "expected_stockout_day")
+    private Double expectedStockoutDay; // mean first stockout day of the paths that ran out
+
+    @Column(name = "fill_rate")
+    private Double fillRate; // expected share of demand served
+
+    @Column(name = "simulated_at")
+    private LocalDateTime simulatedAt;
+}
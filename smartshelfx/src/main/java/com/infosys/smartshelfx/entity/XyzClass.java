@@ -0,0 +1,7 @@
+package com.infosys.smartshelfx.entity;
+
+public enum XyzClass {
+    X, // Stable demand (low coefficient of variation)
+    Y, // Variable demand
+    Z // Erratic or intermittent demand
+}
@@ -0,0 +1,34 @@
+package com.infosys.smartshelfx.event;
+
+import com.infosys.smartshelfx.entity.PurchaseOrder;
+import com.infosys.smartshelfx.entity.PurchaseOrderStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a purchase order is created or changes status. Listeners
+ * run after the surrounding transaction commits.
+ */
+@Value
+@Builder
+public class PurchaseOrderEvent {
+    Long purchaseOrderId;
+    Long vendorId;
+    PurchaseOrderStatus previousStatus; // null when the PO was just created
+    PurchaseOrderStatus newStatus;
+    LocalDateTime orderCreatedAt;
+    LocalDateTime occurredAt;
+
+    public static PurchaseOrderEvent of(PurchaseOrder po, PurchaseOrderStatus previousStatus) {
+        return PurchaseOrderEvent.builder()
+                .purchaseOrderId(po.getId())
+                .vendorId(po.getVendor() != null ? po.getVendor().getId() : null)
+                .previousStatus(previousStatus)
+                .newStatus(po.getStatus())
+                .orderCreatedAt(po.getCreatedAt())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.infosys.smartshelfx.event;
+
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.entity.Product;
+import com.infosys.smartshelfx.entity.StockMovement;
+import com.infosys.smartshelfx.entity.StockStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published after a stock movement is recorded. Listeners run after the
+ * surrounding transaction commits.
+ */
+@Value
+@Builder
+public class StockMovementEvent {
+    Long movementId;
+    Long productId;
+    Long categoryId;
+    Long vendorId;
+    Long performedById;
+    MovementType movementType;
+    int quantity;
+    int previousStock;
+    int newStock;
+    int reorderLevel;
+    StockStatus previousStatus;
+    StockStatus newStatus;
+    BigDecimal saleAmount; // set when the movement also recorded a sale
+    LocalDateTime occurredAt;
+
+    public static StockMovementEvent of(StockMovement movement, StockStatus previousStatus, BigDecimal saleAmount) {
+        Product product = movement.getProduct();
+        return StockMovementEvent.builder()
+                .movementId(movement.getId())
+                .productId(product.getId())
+                .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
+                .vendorId(product.getVendor() != null ? product.getVendor().getId() : null)
+                .performedById(movement.getPerformedBy() != null ? movement.getPerformedBy().getId() : null)
+                .movementType(movement.getMovementType())
+                .quantity(movement.getQuantity())
+                .previousStock(movement.getPreviousStock() != null ? movement.getPreviousStock() : 0)
+                .newStock(movement.getNewStock() != null ? movement.getNewStock() : 0)
+                .reorderLevel(product.getReorderLevel() != null ? product.getReorderLevel() : 0)
+                .previousStatus(previousStatus)
+                .newStatus(product.getStockStatus())
+                .saleAmount(saleAmount)
+                .occurredAt(movement.getCreatedAt() != null ? movement.getCreatedAt() : LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AnalyticsWatermarkRepository extends JpaRepository<AnalyticsWatermark, String> {
+
+    /**
+     * The watermark, locked until the transaction ends: concurrent folds of
+     * the same aggregate (scheduler and manual refresh, or another instance)
+     * queue behind it and then start from the advanced watermark
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM AnalyticsWatermark w WHERE w.name = :name")
+    Optional<AnalyticsWatermark> findForUpdate(@Param("name") String name);
+
+    /**
+     * Create a watermark at 0 unless it exists, so that it can be locked
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO analytics_watermarks (name, last_id, updated_at) VALUES (:name, 0, NOW())",
+            nativeQuery = true)
+    int createIfAbsent(@Param("name") String name);
+}
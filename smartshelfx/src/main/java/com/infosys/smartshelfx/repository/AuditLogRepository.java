@@ -39,4 +39,30 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
             Pageable pageable);
 
     List<AuditLog> findTop10ByOrderByPerformedAtDesc();
+
+    /**
+     * Keyset page: logs performed before the cursor position, newest first
+     */
+    @Query("SELECT a FROM AuditLog a JOIN FETCH a.performedBy u WHERE " +
+            "(:entityType IS NULL OR a.entityType = :entityType) AND " +
+            "(:action IS NULL OR a.action = :action) AND " +
+            "(:userId IS NULL OR u.id = :userId) AND " +
+            "(:cursorAt IS NULL OR a.performedAt < :cursorAt OR (a.performedAt = :cursorAt AND a.id < :cursorId)) " +
+            "ORDER BY a.performedAt DESC, a.id DESC")
+    List<AuditLog> findPageBefore(
+            @Param("entityType") String entityType,
+            @Param("action") AuditAction action,
+            @Param("userId") Long userId,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM AuditLog a WHERE " +
+            "(:entityType IS NULL OR a.entityType = :entityType) AND " +
+            "(:action IS NULL OR a.action = :action) AND " +
+            "(:userId IS NULL OR a.performedBy.id = :userId)")
+    long countWithFilters(
+            @Param("entityType") String entityType,
+            @Param("action") AuditAction action,
+            @Param("userId") Long userId);
 }
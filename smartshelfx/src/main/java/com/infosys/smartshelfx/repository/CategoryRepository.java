@@ -2,8 +2,10 @@ package com.infosys.smartshelfx.repository;
 
 import com.infosys.smartshelfx.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +13,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
 
     boolean existsByName(String name);
+
+    /**
+     * Categories with an explicit forecast model: id, forecastModel
+     */
+    @Query("SELECT c.id, c.forecastModel FROM Category c WHERE c.forecastModel IS NOT NULL")
+    List<Object[]> findForecastModelAssignments();
 }
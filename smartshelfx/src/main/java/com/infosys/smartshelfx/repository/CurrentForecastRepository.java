@@ -0,0 +1,41 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.CurrentForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CurrentForecastRepository extends JpaRepository<CurrentForecast, Long> {
+
+        @Query("SELECT cf FROM CurrentForecast cf JOIN FETCH cf.product p LEFT JOIN FETCH p.vendor " +
+                        "WHERE cf.isAtRisk = true ORDER BY cf.daysUntilStockout ASC")
+        List<CurrentForecast> findProductsAtRisk();
+
+        @Query("SELECT cf FROM CurrentForecast cf JOIN FETCH cf.product p LEFT JOIN FETCH p.vendor " +
+                        "WHERE cf.isAtRisk = true AND p.vendor.id = :vendorId ORDER BY cf.daysUntilStockout ASC")
+        List<CurrentForecast> findProductsAtRiskByVendor(@Param("vendorId") Long vendorId);
+
+        @Query("SELECT cf FROM CurrentForecast cf JOIN FETCH cf.product p LEFT JOIN FETCH p.vendor " +
+                        "WHERE cf.isAtRisk = true AND p.createdBy = :createdBy ORDER BY cf.daysUntilStockout ASC")
+        List<CurrentForecast> findProductsAtRiskByCreatedBy(@Param("createdBy") Long createdBy);
+
+        /**
+         * Demand per current forecast: productId, forecastPeriod,
+         * predictedDemand, horizonDays
+         */
+        @Query("SELECT cf.product.id, cf.forecastPeriod, cf.predictedDemand, cf.horizonDays FROM CurrentForecast cf")
+        List<Object[]> findDemandRows();
+
+        /**
+         * Current curves: productId, forecastDate, forecastPeriod,
+         * modelVersion, curve
+         */
+        @Query("SELECT cf.product.id, cf.forecastDate, cf.forecastPeriod, cf.modelVersion, cf.curve " +
+                        "FROM CurrentForecast cf WHERE cf.product.id IN :productIds AND cf.forecastPeriod = :period")
+        List<Object[]> findCurves(@Param("productIds") Collection<Long> productIds, @Param("period") String period);
+}
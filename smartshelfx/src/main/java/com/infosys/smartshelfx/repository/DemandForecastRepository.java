@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,15 +27,6 @@ public interface DemandForecastRepository extends JpaRepository<DemandForecast,
                         @Param("startDate") LocalDate startDate,
                         @Param("endDate") LocalDate endDate);
 
-        @Query("SELECT df FROM DemandForecast df WHERE df.isAtRisk = true ORDER BY df.daysUntilStockout ASC")
-        List<DemandForecast> findProductsAtRisk();
-
-        @Query("SELECT df FROM DemandForecast df WHERE df.isAtRisk = true AND df.product.vendor.id = :vendorId")
-        List<DemandForecast> findProductsAtRiskByVendor(@Param("vendorId") Long vendorId);
-
-        @Query("SELECT df FROM DemandForecast df WHERE df.isAtRisk = true AND df.product.createdBy = :createdBy ORDER BY df.daysUntilStockout ASC")
-        List<DemandForecast> findProductsAtRiskByCreatedBy(@Param("createdBy") Long createdBy);
-
         @Query("SELECT df FROM DemandForecast df WHERE df.forecastDate = :date AND df.forecastPeriod = :period")
         List<DemandForecast> findByDateAndPeriod(@Param("date") LocalDate date, @Param("period") String period);
 
@@ -47,6 +39,29 @@ public interface DemandForecastRepository extends JpaRepository<DemandForecast,
                         @Param("period") String period,
                         Pageable pageable);
 
-        @Query("SELECT DISTINCT df.product.id FROM DemandForecast df WHERE df.isAtRisk = true")
-        List<Long> findAtRiskProductIds();
+        /**
+         * Forecasts whose window ends in [from, to], only the latest of each
+         * product, forecast date and horizon: id, productId, modelVersion,
+         * horizonDays, targetEndDate, predictedDemand, scoredActual
+         */
+        @Query("SELECT df.id, df.product.id, df.modelVersion, df.horizonDays, df.targetEndDate, " +
+                        "df.predictedDemand, df.scoredActual " +
+                        "FROM DemandForecast df WHERE df.targetEndDate BETWEEN :from AND :to " +
+                        "AND df.horizonDays > 0 AND NOT EXISTS (SELECT 1 FROM DemandForecast later " +
+                        "WHERE later.product = df.product AND later.forecastDate = df.forecastDate " +
+                        "AND later.horizonDays = df.horizonDays AND later.id > df.id)")
+        List<Object[]> findEndingBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+        @Query("SELECT MIN(df.targetEndDate) FROM DemandForecast df")
+        LocalDate findFirstTargetEndDate();
+
+        /**
+         * Curves of the forecasts made on a day, oldest first: productId,
+         * forecastDate, forecastPeriod, modelVersion, curve
+         */
+        @Query("SELECT df.product.id, df.forecastDate, df.forecastPeriod, df.modelVersion, df.curve " +
+                        "FROM DemandForecast df WHERE df.product.id IN :productIds AND df.forecastDate = :date " +
+                        "AND df.forecastPeriod = :period ORDER BY df.id")
+        List<Object[]> findCurvesOn(@Param("productIds") Collection<Long> productIds,
+                        @Param("date") LocalDate date, @Param("period") String period);
 }
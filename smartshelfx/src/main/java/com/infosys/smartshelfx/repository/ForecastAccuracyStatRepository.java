@@ -0,0 +1,35 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.ForecastAccuracyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ForecastAccuracyStatRepository extends JpaRepository<ForecastAccuracyStat, Long> {
+
+    List<ForecastAccuracyStat> findByProductIdIn(Collection<Long> productIds);
+
+    @Query("SELECT s FROM ForecastAccuracyStat s WHERE " +
+            "(:productId IS NULL OR s.productId = :productId) AND " +
+            "(:modelVersion IS NULL OR s.modelVersion = :modelVersion) AND " +
+            "(:horizon IS NULL OR s.horizonDays = :horizon) " +
+            "ORDER BY s.productId, s.horizonDays, s.modelVersion")
+    List<ForecastAccuracyStat> findWithFilters(
+            @Param("productId") Long productId,
+            @Param("modelVersion") String modelVersion,
+            @Param("horizon") Integer horizon);
+
+    /**
+     * Totals per model and horizon: modelVersion, horizonDays, products,
+     * forecasts, sumActual, sumAbsError, sumError, sumSquaredError
+     */
+    @Query("SELECT s.modelVersion, s.horizonDays, COUNT(s), SUM(s.forecastCount), SUM(s.sumActual), " +
+            "SUM(s.sumAbsError), SUM(s.sumError), SUM(s.sumSquaredError) FROM ForecastAccuracyStat s " +
+            "WHERE (:horizon IS NULL OR s.horizonDays = :horizon) GROUP BY s.modelVersion, s.horizonDays")
+    List<Object[]> getModelTotals(@Param("horizon") Integer horizon);
+}
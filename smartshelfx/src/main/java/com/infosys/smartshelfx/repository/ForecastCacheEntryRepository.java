@@ -0,0 +1,15 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.ForecastCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ForecastCacheEntryRepository extends JpaRepository<ForecastCacheEntry, Long> {
+
+    List<ForecastCacheEntry> findByForecastPeriodAndHorizonDaysAndProductIdIn(String forecastPeriod,
+            Integer horizonDays, Collection<Long> productIds);
+}
@@ -0,0 +1,9 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.ForecastState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ForecastStateRepository extends JpaRepository<ForecastState, Long> {
+}
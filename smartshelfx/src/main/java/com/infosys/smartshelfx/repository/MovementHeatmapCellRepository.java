@@ -0,0 +1,32 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.MovementHeatmapCell;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MovementHeatmapCellRepository extends JpaRepository<MovementHeatmapCell, Long> {
+
+    /**
+     * Cells of any of the handlers in any of the categories (a superset of
+     * the handler/category pairs the caller needs)
+     */
+    List<MovementHeatmapCell> findByHandlerIdInAndCategoryIdIn(Collection<Long> handlerIds,
+            Collection<Long> categoryIds);
+
+    /**
+     * Totals per hour-of-week: dayOfWeek, hourOfDay, inboundCount,
+     * inboundQuantity, outboundCount, outboundQuantity
+     */
+    @Query("SELECT h.dayOfWeek, h.hourOfDay, SUM(h.inboundCount), SUM(h.inboundQuantity), " +
+            "SUM(h.outboundCount), SUM(h.outboundQuantity) FROM MovementHeatmapCell h WHERE " +
+            "(:handlerId IS NULL OR h.handlerId = :handlerId) AND " +
+            "(:categoryId IS NULL OR h.categoryId = :categoryId) " +
+            "GROUP BY h.dayOfWeek, h.hourOfDay")
+    List<Object[]> getHeatmap(@Param("handlerId") Long handlerId, @Param("categoryId") Long categoryId);
+}
@@ -56,4 +56,19 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.createdAt < :before")
     void deleteByCreatedAtBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Keyset page: active notifications created before the cursor position,
+     * newest first
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isDismissed = false AND " +
+            "(:cursorAt IS NULL OR n.createdAt < :cursorAt OR (n.createdAt = :cursorAt AND n.id < :cursorId)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findActivePageBefore(
+            @Param("userId") Long userId,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    long countByUserIdAndIsDismissedFalse(Long userId);
 }
@@ -0,0 +1,43 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.AbcClass;
+import com.infosys.smartshelfx.entity.ProductClassification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductClassificationRepository extends JpaRepository<ProductClassification, Long> {
+
+    @Query("SELECT MAX(pc.computedAt) FROM ProductClassification pc")
+    LocalDateTime findLastComputedAt();
+
+    @Query("SELECT MAX(pc.windowStart) FROM ProductClassification pc")
+    LocalDate findLatestWindowStart();
+
+    @Query("SELECT MAX(pc.windowEnd) FROM ProductClassification pc")
+    LocalDate findLatestWindowEnd();
+
+    @Query("SELECT pc.productId FROM ProductClassification pc")
+    List<Long> findAllProductIds();
+
+    /**
+     * Lightweight projection for ABC ranking: productId, revenueCents, abcClass
+     */
+    @Query("SELECT pc.productId, pc.revenueCents, pc.abcClass FROM ProductClassification pc")
+    List<Object[]> findRevenueSnapshot();
+
+    @Modifying
+    @Query("UPDATE ProductClassification pc SET pc.abcClass = :abcClass WHERE pc.productId IN :productIds")
+    int updateAbcClass(@Param("abcClass") AbcClass abcClass, @Param("productIds") List<Long> productIds);
+
+    @Modifying
+    @Query("DELETE FROM ProductClassification pc WHERE pc.productId NOT IN (SELECT p.id FROM Product p)")
+    int deleteOrphans();
+}
@@ -0,0 +1,73 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.ProductDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductDailyStatRepository extends JpaRepository<ProductDailyStat, Long> {
+
+    @Query("SELECT MAX(s.statDate) FROM ProductDailyStat s")
+    LocalDate findLastStatDate();
+
+    @Query("SELECT MIN(s.statDate) FROM ProductDailyStat s")
+    LocalDate findFirstStatDate();
+
+    @Query("SELECT MAX(s.aggregatedAt) FROM ProductDailyStat s")
+    LocalDateTime findLastAggregatedAt();
+
+    List<ProductDailyStat> findByStatDate(LocalDate statDate);
+
+    /**
+     * Closing stock of the given products on the given days: productId,
+     * statDate, closingStock
+     */
+    @Query("SELECT s.productId, s.statDate, s.closingStock FROM ProductDailyStat s " +
+            "WHERE s.productId IN :productIds AND s.statDate IN :dates")
+    List<Object[]> findClosingStock(@Param("productIds") List<Long> productIds,
+            @Param("dates") List<LocalDate> dates);
+
+    /**
+     * Window totals per product: id, unitsSold, unitsReceived, revenueCents,
+     * cogsCents, sum of closing stock, sum of closing cost, opening stock on the
+     * first day, closing stock on the last day
+     */
+    @Query("SELECT s.productId, SUM(s.unitsSold), SUM(s.unitsReceived), SUM(s.revenueCents), SUM(s.cogsCents), " +
+            "SUM(s.closingStock), SUM(s.closingCostCents), " +
+            "SUM(CASE WHEN s.statDate = :startDate THEN s.openingStock ELSE 0 END), " +
+            "SUM(CASE WHEN s.statDate = :endDate THEN s.closingStock ELSE 0 END) " +
+            "FROM ProductDailyStat s WHERE s.statDate BETWEEN :startDate AND :endDate " +
+            "AND (:id IS NULL OR s.productId = :id) GROUP BY s.productId")
+    List<Object[]> getMetricsByProduct(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("id") Long id);
+
+    @Query("SELECT s.categoryId, SUM(s.unitsSold), SUM(s.unitsReceived), SUM(s.revenueCents), SUM(s.cogsCents), " +
+            "SUM(s.closingStock), SUM(s.closingCostCents), " +
+            "SUM(CASE WHEN s.statDate = :startDate THEN s.openingStock ELSE 0 END), " +
+            "SUM(CASE WHEN s.statDate = :endDate THEN s.closingStock ELSE 0 END) " +
+            "FROM ProductDailyStat s WHERE s.statDate BETWEEN :startDate AND :endDate " +
+            "AND (:id IS NULL OR s.categoryId = :id) GROUP BY s.categoryId")
+    List<Object[]> getMetricsByCategory(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("id") Long id);
+
+    @Query("SELECT s.vendorId, SUM(s.unitsSold), SUM(s.unitsReceived), SUM(s.revenueCents), SUM(s.cogsCents), " +
+            "SUM(s.closingStock), SUM(s.closingCostCents), " +
+            "SUM(CASE WHEN s.statDate = :startDate THEN s.openingStock ELSE 0 END), " +
+            "SUM(CASE WHEN s.statDate = :endDate THEN s.closingStock ELSE 0 END) " +
+            "FROM ProductDailyStat s WHERE s.statDate BETWEEN :startDate AND :endDate " +
+            "AND (:id IS NULL OR s.vendorId = :id) GROUP BY s.vendorId")
+    List<Object[]> getMetricsByVendor(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("id") Long id);
+}
@@ -0,0 +1,60 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.ProductMarginDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductMarginDailyRepository extends JpaRepository<ProductMarginDaily, Long> {
+
+    List<ProductMarginDaily> findByProductIdInAndSaleDateIn(Collection<Long> productIds, Collection<LocalDate> saleDates);
+
+    /**
+     * Window totals per product: id, unitsSold, revenueCents, costCents
+     */
+    @Query("SELECT m.productId, SUM(m.unitsSold), SUM(m.revenueCents), SUM(m.costCents) FROM ProductMarginDaily m " +
+            "WHERE m.saleDate BETWEEN :startDate AND :endDate AND (:id IS NULL OR m.productId = :id) " +
+            "GROUP BY m.productId")
+    List<Object[]> getMarginsByProduct(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("id") Long id);
+
+    @Query("SELECT m.categoryId, SUM(m.unitsSold), SUM(m.revenueCents), SUM(m.costCents) FROM ProductMarginDaily m " +
+            "WHERE m.saleDate BETWEEN :startDate AND :endDate AND (:id IS NULL OR m.categoryId = :id) " +
+            "GROUP BY m.categoryId")
+    List<Object[]> getMarginsByCategory(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("id") Long id);
+
+    @Query("SELECT m.vendorId, SUM(m.unitsSold), SUM(m.revenueCents), SUM(m.costCents) FROM ProductMarginDaily m " +
+            "WHERE m.saleDate BETWEEN :startDate AND :endDate AND (:id IS NULL OR m.vendorId = :id) " +
+            "GROUP BY m.vendorId")
+    List<Object[]> getMarginsByVendor(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("id") Long id);
+
+    /**
+     * Daily totals: saleDate, unitsSold, revenueCents, costCents
+     */
+    @Query("SELECT m.saleDate, SUM(m.unitsSold), SUM(m.revenueCents), SUM(m.costCents) FROM ProductMarginDaily m " +
+            "WHERE m.saleDate BETWEEN :startDate AND :endDate " +
+            "AND (:productId IS NULL OR m.productId = :productId) " +
+            "AND (:categoryId IS NULL OR m.categoryId = :categoryId) " +
+            "AND (:vendorId IS NULL OR m.vendorId = :vendorId) " +
+            "GROUP BY m.saleDate ORDER BY m.saleDate")
+    List<Object[]> getDailyMargins(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("productId") Long productId,
+            @Param("categoryId") Long categoryId,
+            @Param("vendorId") Long vendorId);
+}
@@ -1,16 +1,21 @@
 package com.infosys.smartshelfx.repository;
 
+import com.infosys.smartshelfx.entity.AbcClass;
+import com.infosys.smartshelfx.entity.MovementType;
 import com.infosys.smartshelfx.entity.Product;
 import com.infosys.smartshelfx.entity.StockStatus;
 import com.infosys.smartshelfx.entity.User;
+import com.infosys.smartshelfx.entity.XyzClass;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,6 +54,9 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
         @Query("SELECT COUNT(p) FROM Product p WHERE p.stockStatus = :status")
         Long countByStockStatus(@Param("status") StockStatus status);
 
+        @Query("SELECT COUNT(p) FROM Product p WHERE p.currentStock <= p.reorderLevel")
+        Long countLowStockProducts();
+
         @Query("SELECT COUNT(p) FROM Product p WHERE p.vendor.id = :vendorId")
         Long countByVendorId(@Param("vendorId") Long vendorId);
 
@@ -56,11 +64,15 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
                         "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
                         "(:vendorId IS NULL OR p.vendor.id = :vendorId) AND " +
                         "(:stockStatus IS NULL OR p.stockStatus = :stockStatus) AND " +
+                        "(:abcClass IS NULL OR p.abcClass = :abcClass) AND " +
+                        "(:xyzClass IS NULL OR p.xyzClass = :xyzClass) AND " +
                         "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
         Page<Product> findWithFilters(
                         @Param("categoryId") Long categoryId,
                         @Param("vendorId") Long vendorId,
                         @Param("stockStatus") StockStatus stockStatus,
+                        @Param("abcClass") AbcClass abcClass,
+                        @Param("xyzClass") XyzClass xyzClass,
                         @Param("searchTerm") String searchTerm,
                         Pageable pageable);
 
@@ -79,12 +91,16 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
                         "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
                         "(:vendorId IS NULL OR p.vendor.id = :vendorId) AND " +
                         "(:stockStatus IS NULL OR p.stockStatus = :stockStatus) AND " +
+                        "(:abcClass IS NULL OR p.abcClass = :abcClass) AND " +
+                        "(:xyzClass IS NULL OR p.xyzClass = :xyzClass) AND " +
                         "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
         Page<Product> findByCreatedByWithFilters(
                         @Param("createdBy") Long createdBy,
                         @Param("categoryId") Long categoryId,
                         @Param("vendorId") Long vendorId,
                         @Param("stockStatus") StockStatus stockStatus,
+                        @Param("abcClass") AbcClass abcClass,
+                        @Param("xyzClass") XyzClass xyzClass,
                         @Param("searchTerm") String searchTerm,
                         Pageable pageable);
 
@@ -113,4 +129,71 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
         @Query("SELECT SUM(p.currentStock) FROM Product p WHERE p.isActive = true")
         Long sumTotalQuantity();
+
+        @Query("SELECT p.id FROM Product p")
+        List<Long> findAllIds();
+
+        @Query("SELECT p.id FROM Product p WHERE p.isActive = true ORDER BY p.id")
+        List<Long> findActiveIds();
+
+        @Modifying
+        @Query("UPDATE Product p SET p.lastInboundAt = :at WHERE p.id = :productId " +
+                        "AND (p.lastInboundAt IS NULL OR p.lastInboundAt < :at)")
+        int updateLastInboundAt(@Param("productId") Long productId, @Param("at") LocalDateTime at);
+
+        @Modifying
+        @Query("UPDATE Product p SET p.lastSaleAt = :at WHERE p.id = :productId " +
+                        "AND (p.lastSaleAt IS NULL OR p.lastSaleAt < :at)")
+        int updateLastSaleAt(@Param("productId") Long productId, @Param("at") LocalDateTime at);
+
+        /**
+         * Fill missing last-movement timestamps from stock movement history
+         */
+        @Modifying
+        @Query("UPDATE Product p SET p.lastInboundAt = (SELECT MAX(sm.createdAt) FROM StockMovement sm " +
+                        "WHERE sm.product = p AND sm.movementType IN :types) WHERE p.lastInboundAt IS NULL")
+        int backfillLastInboundAt(@Param("types") List<MovementType> types);
+
+        @Modifying
+        @Query("UPDATE Product p SET p.lastSaleAt = (SELECT MAX(sm.createdAt) FROM StockMovement sm " +
+                        "WHERE sm.product = p AND sm.movementType IN :types) WHERE p.lastSaleAt IS NULL")
+        int backfillLastSaleAt(@Param("types") List<MovementType> types);
+
+        /**
+         * Lightweight projection for the dead-stock index: id, sku, name,
+         * categoryId, vendorId, currentStock, costPrice, unitPrice,
+         * lastInboundAt, lastSaleAt, createdAt
+         */
+        @Query("SELECT p.id, p.sku, p.name, c.id, v.id, p.currentStock, p.costPrice, p.unitPrice, " +
+                        "p.lastInboundAt, p.lastSaleAt, p.createdAt FROM Product p " +
+                        "LEFT JOIN p.category c LEFT JOIN p.vendor v")
+        List<Object[]> findMovementIndexSnapshot();
+
+        /**
+         * Lightweight projection for daily stats: id, categoryId, vendorId,
+         * currentStock, costPrice, createdAt
+         */
+        @Query("SELECT p.id, c.id, v.id, p.currentStock, p.costPrice, p.createdAt FROM Product p " +
+                        "LEFT JOIN p.category c LEFT JOIN p.vendor v")
+        List<Object[]> findStatSnapshot();
+
+        /**
+         * Lightweight projection for the reorder optimizer: id, sku, name,
+         * vendorId, abcClass, reorderLevel, reorderQuantity, costPrice,
+         * createdAt
+         */
+        @Query("SELECT p.id, p.sku, p.name, v.id, p.abcClass, p.reorderLevel, p.reorderQuantity, p.costPrice, " +
+                        "p.createdAt FROM Product p LEFT JOIN p.vendor v")
+        List<Object[]> findReorderSnapshot();
+
+        @Modifying
+        @Query("UPDATE Product p SET p.abcClass = :abcClass WHERE p.id IN :productIds")
+        int updateAbcClass(@Param("abcClass") AbcClass abcClass, @Param("productIds") List<Long> productIds);
+
+        @Modifying
+        @Query("UPDATE Product p SET p.xyzClass = :xyzClass WHERE p.id IN :productIds")
+        int updateXyzClass(@Param("xyzClass") XyzClass xyzClass, @Param("productIds") List<Long> productIds);
+
+        @Query("SELECT p.abcClass, p.xyzClass, COUNT(p) FROM Product p GROUP BY p.abcClass, p.xyzClass")
+        List<Object[]> countByClassification();
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.infosys.smartshelfx.repository;
 
 import com.infosys.smartshelfx.entity.PurchaseOrderItem;
+import com.infosys.smartshelfx.entity.PurchaseOrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,4 +25,30 @@ public interface PurchaseOrderItemRepository extends JpaRepository<PurchaseOrder
     @Query("SELECT SUM(poi.quantity) FROM PurchaseOrderItem poi WHERE poi.product.id = :productId " +
             "AND poi.purchaseOrder.status IN ('APPROVED', 'SENT', 'ACKNOWLEDGED')")
     Integer getTotalPendingQuantityByProductId(@Param("productId") Long productId);
+
+    /**
+     * Order lines after the given id in id order: id, productId, categoryId,
+     * quantity, order createdAt
+     */
+    @Query("SELECT poi.id, p.id, c.id, poi.quantity, po.createdAt FROM PurchaseOrderItem poi " +
+            "JOIN poi.purchaseOrder po JOIN poi.product p LEFT JOIN p.category c " +
+            "WHERE poi.id > :afterId ORDER BY poi.id")
+    List<Object[]> findQuantityRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Lines of orders in the given statuses: productId, quantity,
+     * receivedQuantity, expectedDeliveryDate, approvedAt, createdAt
+     */
+    @Query("SELECT poi.product.id, poi.quantity, poi.receivedQuantity, po.expectedDeliveryDate, po.approvedAt, " +
+            "po.createdAt FROM PurchaseOrderItem poi JOIN poi.purchaseOrder po WHERE po.status IN :statuses")
+    List<Object[]> findInboundRows(@Param("statuses") List<PurchaseOrderStatus> statuses);
+
+    @Query("SELECT poi.product.id, poi.quantity, poi.receivedQuantity, po.expectedDeliveryDate, po.approvedAt, " +
+            "po.createdAt FROM PurchaseOrderItem poi JOIN poi.purchaseOrder po " +
+            "WHERE po.status IN :statuses AND poi.product.id IN :productIds")
+    List<Object[]> findInboundRowsByProducts(@Param("statuses") List<PurchaseOrderStatus> statuses,
+            @Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT DISTINCT poi.product.id FROM PurchaseOrderItem poi WHERE poi.purchaseOrder.id = :purchaseOrderId")
+    List<Long> findProductIdsByPurchaseOrderId(@Param("purchaseOrderId") Long purchaseOrderId);
 }
@@ -66,4 +66,21 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
     List<PurchaseOrder> findByStatusOrderByCreatedAtDesc(@Param("status") PurchaseOrderStatus status);
 
     List<PurchaseOrder> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Daily purchase order totals by creation date: date, count, grandTotal
+     */
+    @Query("SELECT CAST(po.createdAt AS LocalDate), COUNT(po), SUM(po.grandTotal) FROM PurchaseOrder po " +
+            "WHERE po.createdAt >= :from AND po.createdAt < :to GROUP BY CAST(po.createdAt AS LocalDate)")
+    List<Object[]> getDailyPurchaseTotals(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Delivered orders placed since the given time: vendorId, approvedAt,
+     * createdAt, actualDeliveryDate
+     */
+    @Query("SELECT po.vendor.id, po.approvedAt, po.createdAt, po.actualDeliveryDate FROM PurchaseOrder po " +
+            "WHERE po.actualDeliveryDate IS NOT NULL AND po.createdAt >= :since")
+    List<Object[]> findLeadTimeRows(@Param("since") LocalDateTime since);
 }
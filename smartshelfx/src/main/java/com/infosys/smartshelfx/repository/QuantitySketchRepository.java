@@ -0,0 +1,32 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.QuantitySketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuantitySketchRepository extends JpaRepository<QuantitySketch, Long> {
+
+    List<QuantitySketch> findByMetricAndScopeTypeAndScopeIdInAndSketchDateIn(
+            String metric, String scopeType, Collection<Long> scopeIds, Collection<LocalDate> sketchDates);
+
+    /**
+     * Sketches in a date window, optionally restricted to some scope ids
+     */
+    @Query("SELECT s FROM QuantitySketch s WHERE s.metric = :metric AND s.scopeType = :scopeType " +
+            "AND s.sketchDate BETWEEN :startDate AND :endDate " +
+            "AND (:allScopes = true OR s.scopeId IN :scopeIds)")
+    List<QuantitySketch> findForWindow(
+            @Param("metric") String metric,
+            @Param("scopeType") String scopeType,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("allScopes") boolean allScopes,
+            @Param("scopeIds") Collection<Long> scopeIds);
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -39,6 +40,12 @@ public interface SalesHistoryRepository extends JpaRepository<SalesHistory, Long
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT SUM(sh.quantity) FROM SalesHistory sh WHERE " +
+            "sh.saleDate BETWEEN :startDate AND :endDate")
+    Long getTotalSalesQuantity(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     @Query("SELECT sh.saleDate, SUM(sh.quantity), SUM(sh.totalAmount) FROM SalesHistory sh " +
             "WHERE sh.saleDate BETWEEN :startDate AND :endDate " +
             "GROUP BY sh.saleDate ORDER BY sh.saleDate")
@@ -69,4 +76,125 @@ public interface SalesHistoryRepository extends JpaRepository<SalesHistory, Long
             @Param("endDate") LocalDate endDate);
 
     List<SalesHistory> findBySaleDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Products with sales rows written since the given time inside a window
+     * (range on idx_sales_created_at)
+     */
+    @Query("SELECT DISTINCT sh.product.id FROM SalesHistory sh WHERE sh.createdAt > :since " +
+            "AND sh.saleDate BETWEEN :startDate AND :endDate")
+    List<Long> findProductIdsWrittenSince(
+            @Param("since") LocalDateTime since,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Products with sales on days in [startDate, endDate) (range on
+     * idx_sales_date_product, index only)
+     */
+    @Query("SELECT DISTINCT sh.product.id FROM SalesHistory sh WHERE sh.saleDate >= :startDate " +
+            "AND sh.saleDate < :endDate")
+    List<Long> findProductIdsSoldBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Change marker of each product's sales in a window: highest id and row
+     * count (moves on any insert, and when old rows leave the window)
+     */
+    @Query("SELECT sh.product.id, MAX(sh.id), COUNT(sh) FROM SalesHistory sh " +
+            "WHERE sh.product.id IN :productIds AND sh.saleDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY sh.product.id")
+    List<Object[]> getSalesMarkersByProducts(
+            @Param("productIds") List<Long> productIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Units sold per product in a window: productId, quantity
+     */
+    @Query("SELECT sh.product.id, SUM(sh.quantity) FROM SalesHistory sh " +
+            "WHERE sh.saleDate BETWEEN :startDate AND :endDate GROUP BY sh.product.id")
+    List<Object[]> getSalesTotalsByProduct(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT sh.product.id, sh.saleDate, SUM(sh.quantity), SUM(sh.totalAmount) FROM SalesHistory sh " +
+            "WHERE sh.product.id IN :productIds AND sh.saleDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY sh.product.id, sh.saleDate")
+    List<Object[]> getDailySalesByProducts(
+            @Param("productIds") List<Long> productIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT sh.product.id, SUM(sh.quantity), SUM(sh.totalAmount) FROM SalesHistory sh " +
+            "WHERE sh.saleDate = :saleDate GROUP BY sh.product.id")
+    List<Object[]> getSalesByProductForDate(@Param("saleDate") LocalDate saleDate);
+
+    /**
+     * Highest id after {@code afterId} of a sale recorded before the given
+     * time; null when there is none
+     */
+    @Query("SELECT MAX(sh.id) FROM SalesHistory sh WHERE sh.id > :afterId AND sh.createdAt < :before")
+    Long findMaxIdCreatedBefore(@Param("afterId") Long afterId, @Param("before") LocalDateTime before);
+
+    /**
+     * Sales in (afterId, upToId] in id order: id, productId, categoryId,
+     * vendorId, saleDate, quantity, totalAmount, unitPrice, product unitPrice,
+     * product costPrice, createdAt
+     */
+    @Query("SELECT sh.id, p.id, p.category.id, p.vendor.id, sh.saleDate, sh.quantity, sh.totalAmount, " +
+            "sh.unitPrice, p.unitPrice, p.costPrice, sh.createdAt FROM SalesHistory sh JOIN sh.product p " +
+            "WHERE sh.id > :afterId AND sh.id <= :upToId ORDER BY sh.id")
+    List<Object[]> findMarginRowsAfter(
+            @Param("afterId") Long afterId,
+            @Param("upToId") Long upToId,
+            Pageable pageable);
+
+    /**
+     * Sale dates up to {@code through} that received rows after {@code since}
+     * (backdated entries)
+     */
+    @Query("SELECT DISTINCT sh.saleDate FROM SalesHistory sh WHERE sh.createdAt > :since AND sh.saleDate <= :through")
+    List<LocalDate> findSaleDatesWrittenSince(
+            @Param("since") LocalDateTime since,
+            @Param("through") LocalDate through);
+
+    /**
+     * Products among the given ones with sales recorded after their forecast
+     * state was last saved, dated on a day the state already folded in (and
+     * not before {@code from})
+     */
+    @Query("SELECT DISTINCT fs.productId FROM ForecastState fs, SalesHistory sh " +
+            "WHERE sh.product.id = fs.productId AND fs.productId IN :productIds " +
+            "AND sh.createdAt > fs.updatedAt AND sh.saleDate >= :from AND sh.saleDate <= fs.lastDate")
+    List<Long> findProductIdsWithSalesBehindState(
+            @Param("productIds") List<Long> productIds,
+            @Param("from") LocalDate from);
+
+    /**
+     * Keyset page: sales recorded before the cursor position, newest first
+     */
+    @Query("SELECT sh FROM SalesHistory sh JOIN FETCH sh.product p LEFT JOIN FETCH sh.handledBy WHERE " +
+            "(:productId IS NULL OR p.id = :productId) AND " +
+            "(:startDate IS NULL OR sh.saleDate >= :startDate) AND " +
+            "(:endDate IS NULL OR sh.saleDate <= :endDate) AND " +
+            "(:cursorAt IS NULL OR sh.createdAt < :cursorAt OR (sh.createdAt = :cursorAt AND sh.id < :cursorId)) " +
+            "ORDER BY sh.createdAt DESC, sh.id DESC")
+    List<SalesHistory> findPageBefore(
+            @Param("productId") Long productId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query("SELECT COUNT(sh) FROM SalesHistory sh WHERE " +
+            "(:productId IS NULL OR sh.product.id = :productId) AND " +
+            "(:startDate IS NULL OR sh.saleDate >= :startDate) AND " +
+            "(:endDate IS NULL OR sh.saleDate <= :endDate)")
+    long countWithFilters(
+            @Param("productId") Long productId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 }
@@ -58,4 +58,180 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
 
         List<StockMovement> findByProductIdAndCreatedAtBetween(Long productId, LocalDateTime startDate,
                         LocalDateTime endDate);
+
+        /**
+         * Movement totals per product and type: productId, movementType, quantity
+         */
+        @Query("SELECT sm.product.id, sm.movementType, SUM(sm.quantity) FROM StockMovement sm " +
+                        "WHERE sm.createdAt >= :from AND sm.createdAt < :to GROUP BY sm.product.id, sm.movementType")
+        List<Object[]> getMovementTotalsByProduct(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Stock levels around each movement in chronological order: productId,
+         * previousStock, newStock
+         */
+        @Query("SELECT sm.product.id, sm.previousStock, sm.newStock FROM StockMovement sm " +
+                        "WHERE sm.createdAt >= :from AND sm.createdAt < :to ORDER BY sm.createdAt, sm.id")
+        List<Object[]> getStockLevelsBetween(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Stock level before each product's first movement at or after the given
+         * time: productId, previousStock
+         */
+        @Query("SELECT sm.product.id, sm.previousStock FROM StockMovement sm WHERE sm.id IN " +
+                        "(SELECT MIN(s2.id) FROM StockMovement s2 WHERE s2.createdAt >= :after GROUP BY s2.product.id)")
+        List<Object[]> findFirstStockLevelsAfter(@Param("after") LocalDateTime after);
+
+        /**
+         * Keyset page: movements older than the cursor position, newest first
+         */
+        @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.product p LEFT JOIN FETCH sm.performedBy u WHERE " +
+                        "(:type IS NULL OR sm.movementType = :type) AND " +
+                        "(:productId IS NULL OR p.id = :productId) AND " +
+                        "(:handlerId IS NULL OR u.id = :handlerId) AND " +
+                        "(:startDate IS NULL OR sm.createdAt >= :startDate) AND " +
+                        "(:endDate IS NULL OR sm.createdAt <= :endDate) AND " +
+                        "(:cursorAt IS NULL OR sm.createdAt < :cursorAt OR (sm.createdAt = :cursorAt AND sm.id < :cursorId)) " +
+                        "ORDER BY sm.createdAt DESC, sm.id DESC")
+        List<StockMovement> findPageBefore(
+                        @Param("type") MovementType type,
+                        @Param("productId") Long productId,
+                        @Param("handlerId") Long handlerId,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("cursorAt") LocalDateTime cursorAt,
+                        @Param("cursorId") Long cursorId,
+                        Pageable pageable);
+
+        @Query("SELECT COUNT(sm) FROM StockMovement sm WHERE " +
+                        "(:type IS NULL OR sm.movementType = :type) AND " +
+                        "(:productId IS NULL OR sm.product.id = :productId) AND " +
+                        "(:handlerId IS NULL OR sm.performedBy.id = :handlerId) AND " +
+                        "(:startDate IS NULL OR sm.createdAt >= :startDate) AND " +
+                        "(:endDate IS NULL OR sm.createdAt <= :endDate)")
+        long countWithFilters(
+                        @Param("type") MovementType type,
+                        @Param("productId") Long productId,
+                        @Param("handlerId") Long handlerId,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+        /**
+         * Daily totals per movement type: date, movementType, quantity
+         */
+        @Query("SELECT CAST(sm.createdAt AS LocalDate), sm.movementType, SUM(sm.quantity) FROM StockMovement sm " +
+                        "WHERE sm.createdAt >= :from AND sm.createdAt < :to " +
+                        "GROUP BY CAST(sm.createdAt AS LocalDate), sm.movementType")
+        List<Object[]> getDailyMovementTotals(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        @Query("SELECT MAX(sm.id) FROM StockMovement sm")
+        Long findMaxId();
+
+        @Query("SELECT sm.id FROM StockMovement sm WHERE sm.createdAt >= :since")
+        List<Long> findIdsCreatedSince(@Param("since") LocalDateTime since);
+
+        /**
+         * Highest id after {@code afterId} of a movement created before the
+         * given time; null when there is none
+         */
+        @Query("SELECT MAX(sm.id) FROM StockMovement sm WHERE sm.id > :afterId AND sm.createdAt < :before")
+        Long findMaxIdCreatedBefore(@Param("afterId") Long afterId, @Param("before") LocalDateTime before);
+
+        /**
+         * Movements in (afterId, upToId] in id order: id, performedById,
+         * categoryId, movementType, quantity, createdAt
+         */
+        @Query("SELECT sm.id, u.id, c.id, sm.movementType, sm.quantity, sm.createdAt FROM StockMovement sm " +
+                        "JOIN sm.product p LEFT JOIN p.category c LEFT JOIN sm.performedBy u " +
+                        "WHERE sm.id > :afterId AND sm.id <= :upToId ORDER BY sm.id")
+        List<Object[]> findHeatmapRowsAfter(
+                        @Param("afterId") Long afterId,
+                        @Param("upToId") Long upToId,
+                        Pageable pageable);
+
+        /**
+         * Movements of one type after the given id in id order: id, productId,
+         * categoryId, quantity, createdAt
+         */
+        @Query("SELECT sm.id, p.id, c.id, sm.quantity, sm.createdAt FROM StockMovement sm " +
+                        "JOIN sm.product p LEFT JOIN p.category c " +
+                        "WHERE sm.id > :afterId AND sm.movementType = :type ORDER BY sm.id")
+        List<Object[]> findQuantityRowsAfter(
+                        @Param("afterId") Long afterId,
+                        @Param("type") MovementType type,
+                        Pageable pageable);
+
+        /**
+         * Shrinkage sums shared by the per-product, per-category and
+         * per-handler totals: damaged units, damage events, dispatched units,
+         * adjustments, net adjustment units, absolute adjustment units,
+         * shrinkage cost (damage plus negative adjustments)
+         */
+        String SHRINKAGE_SUMS = "SUM(CASE WHEN sm.movementType = :damage THEN sm.quantity ELSE 0 END), " +
+                        "SUM(CASE WHEN sm.movementType = :damage THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN sm.movementType = :dispatch THEN sm.quantity ELSE 0 END), " +
+                        "SUM(CASE WHEN sm.movementType = :adjustment THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN sm.movementType = :adjustment THEN sm.newStock - sm.previousStock ELSE 0 END), " +
+                        "SUM(CASE WHEN sm.movementType = :adjustment THEN ABS(sm.newStock - sm.previousStock) ELSE 0 END), " +
+                        "SUM(CASE WHEN sm.movementType = :damage THEN sm.quantity * COALESCE(p.costPrice, 0) " +
+                        "WHEN sm.movementType = :adjustment AND sm.newStock < sm.previousStock " +
+                        "THEN (sm.previousStock - sm.newStock) * COALESCE(p.costPrice, 0) ELSE 0 END) ";
+        String SHRINKAGE_WHERE = "WHERE sm.createdAt >= :from AND sm.createdAt < :to " +
+                        "AND sm.movementType IN (:damage, :dispatch, :adjustment) ";
+
+        /**
+         * Shrinkage totals per product: id, then the {@link #SHRINKAGE_SUMS}
+         */
+        @Query("SELECT p.id, " + SHRINKAGE_SUMS + "FROM StockMovement sm JOIN sm.product p " +
+                        SHRINKAGE_WHERE + "GROUP BY p.id")
+        List<Object[]> getShrinkageByProduct(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to,
+                        @Param("damage") MovementType damage,
+                        @Param("dispatch") MovementType dispatch,
+                        @Param("adjustment") MovementType adjustment);
+
+        /**
+         * Shrinkage totals per category, same columns as getShrinkageByProduct
+         */
+        @Query("SELECT c.id, " + SHRINKAGE_SUMS + "FROM StockMovement sm JOIN sm.product p LEFT JOIN p.category c " +
+                        SHRINKAGE_WHERE + "GROUP BY c.id")
+        List<Object[]> getShrinkageByCategory(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to,
+                        @Param("damage") MovementType damage,
+                        @Param("dispatch") MovementType dispatch,
+                        @Param("adjustment") MovementType adjustment);
+
+        /**
+         * Shrinkage totals per handler, same columns as getShrinkageByProduct
+         */
+        @Query("SELECT u.id, " + SHRINKAGE_SUMS + "FROM StockMovement sm JOIN sm.product p LEFT JOIN sm.performedBy u " +
+                        SHRINKAGE_WHERE + "GROUP BY u.id")
+        List<Object[]> getShrinkageByHandler(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to,
+                        @Param("damage") MovementType damage,
+                        @Param("dispatch") MovementType dispatch,
+                        @Param("adjustment") MovementType adjustment);
+
+        /**
+         * Movements of the given types after an id and time, in id order: id,
+         * productId, categoryId, performedById, movementType, quantity,
+         * previousStock, newStock
+         */
+        @Query("SELECT sm.id, p.id, c.id, u.id, sm.movementType, sm.quantity, sm.previousStock, sm.newStock " +
+                        "FROM StockMovement sm JOIN sm.product p LEFT JOIN p.category c LEFT JOIN sm.performedBy u " +
+                        "WHERE sm.id > :afterId AND sm.createdAt >= :since AND sm.movementType IN :types ORDER BY sm.id")
+        List<Object[]> findShrinkageRowsAfter(
+                        @Param("afterId") Long afterId,
+                        @Param("since") LocalDateTime since,
+                        @Param("types") List<MovementType> types,
+                        Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package com.infosys.smartshelfx.repository;
+
+import com.infosys.smartshelfx.entity.StockoutSimulation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockoutSimulationRepository extends JpaRepository<StockoutSimulation, Long> {
+
+    List<StockoutSimulation> findByStockoutProbabilityGreaterThanEqualOrderByStockoutProbabilityDesc(
+            Double minProbability, Pageable pageable);
+}
@@ -0,0 +1,297 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AIBatchForecastRequest;
+import com.infosys.smartshelfx.dtos.AIBatchForecastResponse;
+import com.infosys.smartshelfx.dtos.AIForecastRequest;
+import com.infosys.smartshelfx.dtos.AIForecastResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Client for the AI forecasting engine
+ * - Products are sent to /api/forecast/batch-predict in chunks of
+ * {@code ai.service.batch-size}, at most {@code ai.service.concurrency}
+ * chunks in flight across all callers
+ * - One pooled JDK HTTP client (connections kept alive and reused across
+ * chunks) with connect and read timeouts; nothing is started when
+ * {@code ai.service.enabled} is false
+ * - A circuit breaker opens after consecutive failed or slow calls; while
+ * open no request is sent and callers fall back to local forecasting, after
+ * the cool-down a single trial call decides whether it closes again
+ * - Products missing from the result (failed chunk, open circuit, too little
+ * history) are simply absent from the returned map
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AIForecastClient {
+
+    public static final String MODEL_VERSION = "AI_ENGINE_V1";
+
+    static final String BATCH_PATH = "/api/forecast/batch-predict";
+
+    private final RestClient.Builder restClientBuilder;
+
+    @Value("${ai.service.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.service.url:http://localhost:8000}")
+    private String serviceUrl;
+
+    @Value("${ai.service.batch-size:50}")
+    private int batchSize;
+
+    @Value("${ai.service.concurrency:4}")
+    private int concurrency;
+
+    @Value("${ai.service.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.service.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Value("${ai.service.circuit.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${ai.service.circuit.slow-call-ms:5000}")
+    private long slowCallMs;
+
+    @Value("${ai.service.circuit.open-ms:60000}")
+    private long openMs;
+
+    private RestClient restClient;
+    private ExecutorService executor;
+
+    // Circuit breaker, guarded by this
+    private String circuitState = "CLOSED"; // CLOSED, OPEN, HALF_OPEN
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+    private LocalDateTime lastFailureAt;
+    private String lastError;
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        // The JDK client pools keep-alive connections per host and reuses them across calls
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        restClient = restClientBuilder.clone()
+                .baseUrl(serviceUrl)
+                .requestFactory(requestFactory)
+                .build();
+        executor = Executors.newFixedThreadPool(Math.max(1, concurrency),
+                Thread.ofPlatform().name("ai-forecast-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    /**
+     * Forecasts from the AI engine, keyed by product id. Never throws; products
+     * that could not be forecast are left out.
+     */
+    public Map<Long, AIForecastResponse> forecast(List<AIForecastRequest> requests) {
+        List<AIForecastRequest> eligible = requests.stream()
+                .filter(r -> r.getHistoricalData() != null && !r.getHistoricalData().isEmpty())
+                .toList();
+        if (executor == null || eligible.isEmpty() || isOpen())
+            return Map.of();
+
+        int size = Math.max(1, batchSize);
+        List<Future<Map<Long, AIForecastResponse>>> futures = new ArrayList<>();
+        for (int from = 0; from < eligible.size(); from += size) {
+            List<AIForecastRequest> chunk = eligible.subList(from, Math.min(from + size, eligible.size()));
+            futures.add(executor.submit(() -> callBatch(chunk)));
+        }
+
+        Map<Long, AIForecastResponse> responses = new HashMap<>();
+        for (Future<Map<Long, AIForecastResponse>> future : futures) {
+            try {
+                responses.putAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                log.warn("AI forecast chunk failed: {}", e.getCause().getMessage());
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Circuit breaker state for monitoring
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("url", serviceUrl);
+        status.put("circuitState", currentState());
+        status.put("consecutiveFailures", consecutiveFailures);
+        status.put("lastFailureAt", lastFailureAt);
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    private Map<Long, AIForecastResponse> callBatch(List<AIForecastRequest> chunk) {
+        if (!tryAcquire())
+            return Map.of();
+
+        long started = System.currentTimeMillis();
+        AIBatchForecastResponse body;
+        try {
+            body = restClient.post()
+                    .uri(BATCH_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(toBatchRequest(chunk))
+                    .retrieve()
+                    .body(AIBatchForecastResponse.class);
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            recordFailure(error);
+            log.warn("AI batch forecast of {} products failed: {}", chunk.size(), error);
+            return Map.of();
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        if (elapsed > slowCallMs) {
+            // Slow answers still count, but push the breaker towards open
+            recordFailure("Slow call: " + elapsed + " ms");
+        } else {
+            recordSuccess();
+        }
+        return toResponses(chunk, body);
+    }
+
+    private AIBatchForecastRequest toBatchRequest(List<AIForecastRequest> chunk) {
+        return AIBatchForecastRequest.builder()
+                .products(chunk.stream()
+                        .map(r -> AIBatchForecastRequest.ProductSeries.builder()
+                                .productId(r.getProductId())
+                                .forecastDays(r.getHorizon())
+                                .historicalData(r.getHistoricalData().stream()
+                                        .map(p -> AIBatchForecastRequest.DataPoint.builder()
+                                                .date(p.getDate())
+                                                .quantity(p.getQuantity())
+                                                .price(p.getPrice())
+                                                .build())
+                                        .toList())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private Map<Long, AIForecastResponse> toResponses(List<AIForecastRequest> chunk, AIBatchForecastResponse body) {
+        if (body == null || body.getResults() == null)
+            return Map.of();
+
+        Map<Long, String> skus = new HashMap<>();
+        chunk.forEach(r -> skus.put(r.getProductId(), r.getProductSku()));
+
+        Map<Long, AIForecastResponse> responses = new HashMap<>();
+        for (AIBatchForecastResponse.ProductResult result : body.getResults()) {
+            if (result.getProductId() == null || !skus.containsKey(result.getProductId())
+                    || result.getPredictions() == null || result.getPredictions().isEmpty())
+                continue;
+
+            List<AIForecastResponse.PredictionPoint> predictions = result.getPredictions().stream()
+                    .map(p -> AIForecastResponse.PredictionPoint.builder()
+                            .date(p.getDate())
+                            .predictedQuantity(p.getPredictedDemand() != null ? p.getPredictedDemand() : 0)
+                            .lowerBound(p.getLowerBound())
+                            .upperBound(p.getUpperBound())
+                            .confidence(p.getConfidenceScore())
+                            .build())
+                    .toList();
+            double accuracy = predictions.stream()
+                    .mapToDouble(p -> p.getConfidence() != null ? p.getConfidence() : 0.0)
+                    .average().orElse(0.0);
+
+            responses.put(result.getProductId(), AIForecastResponse.builder()
+                    .productId(result.getProductId())
+                    .productSku(skus.get(result.getProductId()))
+                    .modelUsed("batch-predict")
+                    .modelVersion(MODEL_VERSION)
+                    .accuracy(accuracy)
+                    .predictions(predictions)
+                    .build());
+        }
+        return responses;
+    }
+
+    private synchronized boolean isOpen() {
+        return "OPEN".equals(currentState());
+    }
+
+    /**
+     * Whether a call may be made now; in HALF_OPEN only one trial at a time
+     */
+    private synchronized boolean tryAcquire() {
+        String state = currentState();
+        if ("OPEN".equals(state))
+            return false;
+        if ("HALF_OPEN".equals(state)) {
+            if (trialInFlight)
+                return false;
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    private synchronized void recordSuccess() {
+        if (!"CLOSED".equals(circuitState)) {
+            log.info("AI forecast service recovered, closing circuit");
+        }
+        circuitState = "CLOSED";
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void recordFailure(String error) {
+        consecutiveFailures++;
+        lastFailureAt = LocalDateTime.now();
+        lastError = error;
+        boolean trialFailed = "HALF_OPEN".equals(circuitState);
+        trialInFlight = false;
+        if (trialFailed || ("CLOSED".equals(circuitState) && consecutiveFailures >= failureThreshold)) {
+            circuitState = "OPEN";
+            openUntil = System.currentTimeMillis() + openMs;
+            log.warn("AI forecast service circuit opened for {} ms after {} consecutive failures ({})",
+                    openMs, consecutiveFailures, error);
+        }
+    }
+
+    // Caller holds the lock
+    private String currentState() {
+        if ("OPEN".equals(circuitState) && System.currentTimeMillis() >= openUntil) {
+            circuitState = "HALF_OPEN";
+            trialInFlight = false;
+        }
+        return circuitState;
+    }
+}
@@ -0,0 +1,272 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.event.PurchaseOrderEvent;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.PurchaseOrderRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Per-day analytics segments
+ * - One immutable segment per day: sales, inbound/outbound stock and purchase
+ * orders
+ * - Closed days are cached (LRU, bounded by analytics.segment.cache.max-days);
+ * today is always computed live
+ * - A range query loads only missing closed days, one grouped query per
+ * contiguous gap
+ * - A day is invalidated when data dated on it is written after it closed
+ * (late commits, purchase order changes, backdated sales); a gap loaded
+ * while any day was invalidated is served but not cached
+ * - Gaps are loaded in a new read-write transaction (suspending the caller's
+ * read-only one), which the replica router sends to the primary: a lagging
+ * replica could otherwise refill an invalidated day with the data from
+ * before the change
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsSegmentCache {
+
+    private static final Set<MovementType> INBOUND_TYPES = EnumSet.of(
+            MovementType.RECEIVING, MovementType.RETURN, MovementType.TRANSFER_IN, MovementType.RESTOCK);
+
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.segment.cache.max-days:3660}")
+    private int maxDays;
+
+    @Value("${analytics.segment.close.grace.minutes:10}")
+    private int closeGraceMinutes;
+
+    @Value("${analytics.segment.sweep.overlap.minutes:5}")
+    private int sweepOverlapMinutes;
+
+    private final Map<LocalDate, DaySegment> segments = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Bumped under the segments lock by every invalidation
+    private long generation;
+
+    private LocalDateTime lastSweep = LocalDateTime.now();
+
+    /**
+     * Immutable totals for one day
+     */
+    @Getter
+    public static final class DaySegment {
+        static final DaySegment EMPTY = new DaySegment(0, BigDecimal.ZERO, 0, 0, 0, BigDecimal.ZERO);
+
+        private final long salesQuantity;
+        private final BigDecimal salesAmount;
+        private final long inboundQuantity;
+        private final long outboundQuantity;
+        private final int purchaseOrderCount;
+        private final BigDecimal purchaseOrderValue;
+
+        DaySegment(long salesQuantity, BigDecimal salesAmount, long inboundQuantity, long outboundQuantity,
+                int purchaseOrderCount, BigDecimal purchaseOrderValue) {
+            this.salesQuantity = salesQuantity;
+            this.salesAmount = salesAmount;
+            this.inboundQuantity = inboundQuantity;
+            this.outboundQuantity = outboundQuantity;
+            this.purchaseOrderCount = purchaseOrderCount;
+            this.purchaseOrderValue = purchaseOrderValue;
+        }
+
+        public boolean hasSales() {
+            return salesQuantity != 0 || salesAmount.signum() != 0;
+        }
+    }
+
+    /**
+     * Segments for every day in [startDate, endDate], indexed by offset from
+     * startDate. Days after today are empty.
+     */
+    public DaySegment[] getSegments(LocalDate startDate, LocalDate endDate) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        DaySegment[] result = new DaySegment[Math.max(0, days)];
+        LocalDate today = LocalDate.now();
+        LocalDate lastClosed = lastClosedDay();
+
+        // Cached closed days; collect the gaps
+        List<LocalDate[]> gaps = new ArrayList<>();
+        LocalDate gapStart = null;
+        long loadGeneration;
+        synchronized (segments) {
+            loadGeneration = generation;
+            for (int i = 0; i < result.length; i++) {
+                LocalDate date = startDate.plusDays(i);
+                if (date.isAfter(lastClosed)) {
+                    result[i] = date.isAfter(today) ? DaySegment.EMPTY : null;
+                    if (gapStart != null) {
+                        gaps.add(new LocalDate[] { gapStart, date.minusDays(1) });
+                        gapStart = null;
+                    }
+                    continue;
+                }
+                result[i] = segments.get(date);
+                if (result[i] == null && gapStart == null) {
+                    gapStart = date;
+                } else if (result[i] != null && gapStart != null) {
+                    gaps.add(new LocalDate[] { gapStart, date.minusDays(1) });
+                    gapStart = null;
+                }
+            }
+        }
+        if (gapStart != null) {
+            gaps.add(new LocalDate[] { gapStart, endDate.isAfter(lastClosed) ? lastClosed : endDate });
+        }
+
+        // Callers run in read-only transactions; a new read-write one is needed to reach the primary
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        primary.setReadOnly(false);
+        for (LocalDate[] gap : gaps) {
+            Map<LocalDate, DaySegment> loaded = primary.execute(tx -> load(gap[0], gap[1]));
+            synchronized (segments) {
+                // An invalidation since the gaps were collected may predate the load's snapshot
+                if (generation == loadGeneration) {
+                    loaded.forEach(segments::put);
+                    evictOverflow();
+                }
+            }
+            loaded.forEach((date, segment) -> result[(int) ChronoUnit.DAYS.between(startDate, date)] = segment);
+        }
+
+        // Open days (today and the close grace window) are computed live
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] == null) {
+                LocalDate date = startDate.plusDays(i);
+                result[i] = load(date, date).get(date);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Drop the cached segment for a day whose data changed
+     */
+    public void invalidate(LocalDate date) {
+        synchronized (segments) {
+            generation++;
+            if (segments.remove(date) != null) {
+                log.debug("Invalidated analytics segment for {}", date);
+            }
+        }
+    }
+
+    public int getCachedDayCount() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        invalidateIfClosed(event.getOccurredAt());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseOrder(PurchaseOrderEvent event) {
+        invalidateIfClosed(event.getOrderCreatedAt());
+    }
+
+    /**
+     * Invalidate days that received sales rows after they were cached. Each
+     * sweep reaches back analytics.segment.sweep.overlap.minutes before the
+     * previous one, for rows whose transaction committed after the sweep that
+     * should have seen their created_at.
+     */
+    @Scheduled(fixedDelayString = "${analytics.segment.sweep.ms:60000}")
+    public void sweepBackdatedSales() {
+        LocalDateTime since = lastSweep.minusMinutes(sweepOverlapMinutes);
+        lastSweep = LocalDateTime.now();
+        for (LocalDate date : salesHistoryRepository.findSaleDatesWrittenSince(since, LocalDate.now())) {
+            invalidate(date);
+        }
+    }
+
+    private void invalidateIfClosed(LocalDateTime timestamp) {
+        if (timestamp != null && timestamp.toLocalDate().isBefore(LocalDate.now())) {
+            invalidate(timestamp.toLocalDate());
+        }
+    }
+
+    private LocalDate lastClosedDay() {
+        return LocalDateTime.now().minusMinutes(closeGraceMinutes).toLocalDate().minusDays(1);
+    }
+
+    private Map<LocalDate, DaySegment> load(LocalDate startDate, LocalDate endDate) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long[] salesQuantity = new long[days];
+        BigDecimal[] salesAmount = new BigDecimal[days];
+        long[] inbound = new long[days];
+        long[] outbound = new long[days];
+        int[] orderCount = new int[days];
+        BigDecimal[] orderValue = new BigDecimal[days];
+
+        for (Object[] row : salesHistoryRepository.getDailySalesSummary(startDate, endDate)) {
+            int d = (int) ChronoUnit.DAYS.between(startDate, (LocalDate) row[0]);
+            salesQuantity[d] = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+            salesAmount[d] = (BigDecimal) row[2];
+        }
+
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        for (Object[] row : stockMovementRepository.getDailyMovementTotals(from, to)) {
+            int d = (int) ChronoUnit.DAYS.between(startDate, (LocalDate) row[0]);
+            long quantity = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+            if (INBOUND_TYPES.contains((MovementType) row[1])) {
+                inbound[d] += quantity;
+            } else {
+                outbound[d] += quantity;
+            }
+        }
+
+        for (Object[] row : purchaseOrderRepository.getDailyPurchaseTotals(from, to)) {
+            int d = (int) ChronoUnit.DAYS.between(startDate, (LocalDate) row[0]);
+            orderCount[d] = ((Number) row[1]).intValue();
+            orderValue[d] = (BigDecimal) row[2];
+        }
+
+        Map<LocalDate, DaySegment> loaded = new LinkedHashMap<>(days * 2);
+        for (int d = 0; d < days; d++) {
+            loaded.put(startDate.plusDays(d), new DaySegment(
+                    salesQuantity[d],
+                    salesAmount[d] != null ? salesAmount[d] : BigDecimal.ZERO,
+                    inbound[d],
+                    outbound[d],
+                    orderCount[d],
+                    orderValue[d] != null ? orderValue[d] : BigDecimal.ZERO));
+        }
+        return loaded;
+    }
+
+    private void evictOverflow() {
+        Iterator<LocalDate> eldest = segments.keySet().iterator();
+        while (segments.size() > maxDays && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
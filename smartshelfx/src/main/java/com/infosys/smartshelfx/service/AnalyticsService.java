@@ -7,11 +7,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,6 +28,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class AnalyticsService {
 
     private final ProductRepository productRepository;
@@ -37,6 +40,8 @@ public class AnalyticsService {
     private final ReorderRequestRepository reorderRequestRepository;
     private final DemandForecastRepository demandForecastRepository;
     private final ProductExpiryRepository productExpiryRepository;
+    private final PeriodComparisonService periodComparisonService;
+    private final AnalyticsSegmentCache segmentCache;
 
     /**
      * Get comprehensive analytics dashboard data
@@ -64,9 +69,13 @@ public class AnalyticsService {
                 ? (inStockCount.doubleValue() / totalProducts.doubleValue()) * 100
                 : 0;
 
-        // Sales stats
-        BigDecimal totalSalesAmount = salesHistoryRepository.getTotalSalesAmount(startDate, endDate);
-        Integer totalSalesQuantity = getTotalSalesQuantity(startDate, endDate);
+        // Sales stats and trend from a single grouped scan
+        AnalyticsDTO.PeriodSummary sales = periodComparisonService.comparePeriods(
+                PeriodComparisonService.MODE_CUSTOM,
+                List.of(AnalyticsDTO.ComparisonPeriod.builder().startDate(startDate).endDate(endDate).build()))
+                .getPeriods().get(0);
+        BigDecimal totalSalesAmount = sales.getTotalAmount();
+        Integer totalSalesQuantity = sales.getTotalQuantity();
         BigDecimal averageOrderValue = totalSalesQuantity != null && totalSalesQuantity > 0 && totalSalesAmount != null
                 ? totalSalesAmount.divide(BigDecimal.valueOf(totalSalesQuantity), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
@@ -79,7 +88,7 @@ public class AnalyticsService {
         int totalPurchaseOrders = (int) purchaseOrderRepository.count();
 
         // Trends
-        List<AnalyticsDTO.TrendDataPoint> salesTrend = getSalesTrend(startDate, endDate);
+        List<AnalyticsDTO.TrendDataPoint> salesTrend = sales.getDailyTrend();
         List<AnalyticsDTO.TrendDataPoint> purchaseTrend = getPurchaseTrend(startDate, endDate);
         List<AnalyticsDTO.TrendDataPoint> inventoryTrend = getInventoryTrend(startDate, endDate);
 
@@ -131,28 +140,13 @@ public class AnalyticsService {
      */
     public List<AnalyticsDTO.TrendDataPoint> getInventoryTrend(LocalDate startDate, LocalDate endDate) {
         List<AnalyticsDTO.TrendDataPoint> trend = new ArrayList<>();
+        AnalyticsSegmentCache.DaySegment[] days = segmentCache.getSegments(startDate, endDate);
 
-        // Get stock movements in date range
-        List<StockMovement> movements = stockMovementRepository.findByDateRange(
-                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
-
-        // Group by date
-        Map<LocalDate, List<StockMovement>> byDate = movements.stream()
-                .collect(Collectors.groupingBy(m -> m.getCreatedAt().toLocalDate()));
-
-        // Calculate running stock levels
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<StockMovement> dayMovements = byDate.getOrDefault(date, List.of());
-
-            int inbound = dayMovements.stream()
-                    .filter(m -> isInboundMovement(m.getMovementType()))
-                    .mapToInt(StockMovement::getQuantity)
-                    .sum();
-
-            int outbound = dayMovements.stream()
-                    .filter(m -> !isInboundMovement(m.getMovementType()))
-                    .mapToInt(StockMovement::getQuantity)
-                    .sum();
+        // Net stock change per day
+        for (int d = 0; d < days.length; d++) {
+            LocalDate date = startDate.plusDays(d);
+            int inbound = (int) days[d].getInboundQuantity();
+            int outbound = (int) days[d].getOutboundQuantity();
 
             trend.add(AnalyticsDTO.TrendDataPoint.builder()
                     .date(date)
@@ -169,19 +163,20 @@ public class AnalyticsService {
      * Get sales trend over time
      */
     public List<AnalyticsDTO.TrendDataPoint> getSalesTrend(LocalDate startDate, LocalDate endDate) {
-        List<Object[]> dailySales = salesHistoryRepository.getDailySalesSummary(startDate, endDate);
+        AnalyticsSegmentCache.DaySegment[] days = segmentCache.getSegments(startDate, endDate);
         List<AnalyticsDTO.TrendDataPoint> trend = new ArrayList<>();
 
-        for (Object[] row : dailySales) {
-            LocalDate date = (LocalDate) row[0];
-            Long quantity = (Long) row[1];
-            BigDecimal value = (BigDecimal) row[2];
+        // Days with sales only
+        for (int d = 0; d < days.length; d++) {
+            if (!days[d].hasSales())
+                continue;
+            LocalDate date = startDate.plusDays(d);
 
             trend.add(AnalyticsDTO.TrendDataPoint.builder()
                     .date(date)
                     .label(date.format(DateTimeFormatter.ofPattern("MMM dd")))
-                    .value(value != null ? value : BigDecimal.ZERO)
-                    .quantity(quantity != null ? quantity.intValue() : 0)
+                    .value(days[d].getSalesAmount())
+                    .quantity((int) days[d].getSalesQuantity())
                     .build());
         }
 
@@ -193,27 +188,16 @@ public class AnalyticsService {
      */
     public List<AnalyticsDTO.TrendDataPoint> getPurchaseTrend(LocalDate startDate, LocalDate endDate) {
         List<AnalyticsDTO.TrendDataPoint> trend = new ArrayList<>();
+        AnalyticsSegmentCache.DaySegment[] days = segmentCache.getSegments(startDate, endDate);
 
-        List<PurchaseOrder> orders = purchaseOrderRepository.findByDateRange(
-                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
-
-        // Group by date
-        Map<LocalDate, List<PurchaseOrder>> byDate = orders.stream()
-                .collect(Collectors.groupingBy(po -> po.getCreatedAt().toLocalDate()));
-
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            List<PurchaseOrder> dayOrders = byDate.getOrDefault(date, List.of());
-
-            BigDecimal totalValue = dayOrders.stream()
-                    .map(PurchaseOrder::getGrandTotal)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (int d = 0; d < days.length; d++) {
+            LocalDate date = startDate.plusDays(d);
 
             trend.add(AnalyticsDTO.TrendDataPoint.builder()
                     .date(date)
                     .label(date.format(DateTimeFormatter.ofPattern("MMM dd")))
-                    .value(totalValue)
-                    .quantity(dayOrders.size())
+                    .value(days[d].getPurchaseOrderValue())
+                    .quantity(days[d].getPurchaseOrderCount())
                     .build());
         }
 
@@ -321,9 +305,13 @@ public class AnalyticsService {
         LocalDate prevStartDate = startDate.minusMonths(1);
         LocalDate prevEndDate = prevStartDate.plusMonths(1).minusDays(1);
 
-        // Current month
-        BigDecimal currentSales = salesHistoryRepository.getTotalSalesAmount(startDate, endDate);
-        BigDecimal prevSales = salesHistoryRepository.getTotalSalesAmount(prevStartDate, prevEndDate);
+        // Both months' sales in one scan
+        List<AnalyticsDTO.PeriodSummary> sales = periodComparisonService.comparePeriods(
+                PeriodComparisonService.MODE_MONTH_OVER_MONTH,
+                periodComparisonService.monthOverMonthPeriods(YearMonth.of(year, month), 2))
+                .getPeriods();
+        BigDecimal prevSales = sales.get(0).getTotalAmount();
+        BigDecimal currentSales = sales.get(1).getTotalAmount();
 
         BigDecimal currentPurchases = purchaseOrderRepository.getTotalPurchaseAmount(
                 List.of(PurchaseOrderStatus.APPROVED, PurchaseOrderStatus.RECEIVED),
@@ -333,7 +321,7 @@ public class AnalyticsService {
                 prevStartDate.atStartOfDay(), prevEndDate.plusDays(1).atStartOfDay());
 
         // Calculate changes
-        double salesChange = calculatePercentageChange(prevSales, currentSales);
+        double salesChange = sales.get(1).getChangeFromPrevious();
         double purchasesChange = calculatePercentageChange(prevPurchases, currentPurchases);
 
         Map<String, Object> comparison = new HashMap<>();
@@ -389,35 +377,13 @@ public class AnalyticsService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    private Integer getTotalSalesQuantity(LocalDate startDate, LocalDate endDate) {
-        return salesHistoryRepository.findAll().stream()
-                .filter(s -> !s.getSaleDate().isBefore(startDate) && !s.getSaleDate().isAfter(endDate))
-                .mapToInt(SalesHistory::getQuantity)
-                .sum();
-    }
-
     private Integer getExpiryAlertCount() {
         LocalDate alertDate = LocalDate.now().plusDays(30);
         return productExpiryRepository.findItemsNearingExpiry(LocalDate.now(), alertDate).size();
     }
 
-    private boolean isInboundMovement(MovementType type) {
-        return type == MovementType.RECEIVING ||
-                type == MovementType.RETURN ||
-                type == MovementType.TRANSFER_IN ||
-                type == MovementType.RESTOCK;
-    }
-
     private double calculatePercentageChange(BigDecimal previous, BigDecimal current) {
-        if (previous == null || previous.compareTo(BigDecimal.ZERO) == 0) {
-            return current != null && current.compareTo(BigDecimal.ZERO) > 0 ? 100.0 : 0.0;
-        }
-        if (current == null)
-            current = BigDecimal.ZERO;
-        return current.subtract(previous)
-                .divide(previous, 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .doubleValue();
+        return PeriodComparisonService.percentageChange(previous, current);
     }
 
     private Map<String, Object> toProductExportData(Product p) {
@@ -524,27 +490,32 @@ public class AnalyticsService {
             LocalDateTime start1, LocalDateTime end1,
             LocalDateTime start2, LocalDateTime end2) {
 
-        BigDecimal period1Total = salesHistoryRepository.getTotalSalesAmount(
-                start1.toLocalDate(), end1.toLocalDate());
-        BigDecimal period2Total = salesHistoryRepository.getTotalSalesAmount(
-                start2.toLocalDate(), end2.toLocalDate());
-
-        Integer period1Quantity = getTotalSalesQuantity(start1.toLocalDate(), end1.toLocalDate());
-        Integer period2Quantity = getTotalSalesQuantity(start2.toLocalDate(), end2.toLocalDate());
-
-        double percentageChange = calculatePercentageChange(period1Total, period2Total);
-
-        List<AnalyticsDTO.TrendDataPoint> period1Trend = getSalesTrend(start1.toLocalDate(), end1.toLocalDate());
-        List<AnalyticsDTO.TrendDataPoint> period2Trend = getSalesTrend(start2.toLocalDate(), end2.toLocalDate());
+        List<AnalyticsDTO.PeriodSummary> periods = periodComparisonService.comparePeriods(
+                PeriodComparisonService.MODE_CUSTOM,
+                List.of(
+                        AnalyticsDTO.ComparisonPeriod.builder()
+                                .label("Period 1")
+                                .startDate(start1.toLocalDate())
+                                .endDate(end1.toLocalDate())
+                                .build(),
+                        AnalyticsDTO.ComparisonPeriod.builder()
+                                .label("Period 2")
+                                .startDate(start2.toLocalDate())
+                                .endDate(end2.toLocalDate())
+                                .build()))
+                .getPeriods();
+
+        AnalyticsDTO.PeriodSummary period1 = periods.get(0);
+        AnalyticsDTO.PeriodSummary period2 = periods.get(1);
 
         return AnalyticsDTO.SalesComparison.builder()
-                .period1Total(period1Total != null ? period1Total : BigDecimal.ZERO)
-                .period2Total(period2Total != null ? period2Total : BigDecimal.ZERO)
-                .period1Quantity(period1Quantity != null ? period1Quantity : 0)
-                .period2Quantity(period2Quantity != null ? period2Quantity : 0)
-                .percentageChange(percentageChange)
-                .period1Trend(period1Trend)
-                .period2Trend(period2Trend)
+                .period1Total(period1.getTotalAmount())
+                .period2Total(period2.getTotalAmount())
+                .period1Quantity(period1.getTotalQuantity())
+                .period2Quantity(period2.getTotalQuantity())
+                .percentageChange(period2.getChangeFromPrevious())
+                .period1Trend(period1.getDailyTrend())
+                .period2Trend(period2.getDailyTrend())
                 .build();
     }
 
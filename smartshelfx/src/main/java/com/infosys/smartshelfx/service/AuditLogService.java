@@ -3,6 +3,7 @@ package com.infosys.smartshelfx.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infosys.smartshelfx.dtos.AuditLogDTO;
+import com.infosys.smartshelfx.dtos.CursorPage;
 import com.infosys.smartshelfx.entity.AuditAction;
 import com.infosys.smartshelfx.entity.AuditLog;
 import com.infosys.smartshelfx.entity.User;
@@ -68,6 +69,18 @@ public class AuditLogService {
         return logs.map(this::toDTO);
     }
 
+    /**
+     * Audit logs with keyset pagination, newest first
+     */
+    public CursorPage<AuditLogDTO> getAuditLogsPage(String entityType, AuditAction action,
+            Long userId, String cursor, int size, boolean includeTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<AuditLog> rows = auditLogRepository.findPageBefore(entityType, action, userId,
+                position.getAt(), position.getId(), KeysetCursor.limit(size));
+        Long total = includeTotal ? auditLogRepository.countWithFilters(entityType, action, userId) : null;
+        return KeysetCursor.toPage(rows, size, AuditLog::getPerformedAt, AuditLog::getId, this::toDTO, total);
+    }
+
     public Page<AuditLogDTO> getAuditLogsByEntity(String entityType, Long entityId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "performedAt"));
         Page<AuditLog> logs = auditLogRepository.findByEntityTypeAndEntityId(entityType, entityId, pageable);
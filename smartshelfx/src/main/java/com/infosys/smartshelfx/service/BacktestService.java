@@ -0,0 +1,460 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AIForecastRequest;
+import com.infosys.smartshelfx.dtos.AIForecastResponse;
+import com.infosys.smartshelfx.dtos.BacktestResult;
+import com.infosys.smartshelfx.entity.Category;
+import com.infosys.smartshelfx.repository.CategoryRepository;
+import com.infosys.smartshelfx.repository.ProductDailyStatRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rolling-origin backtesting of forecast models
+ * - Forecast origins every {@code step} days; at each origin every model sees
+ * only the sales before it and forecasts the next {@code horizon} days, which
+ * are then compared with actual sales
+ * - Scores per category and model: WAPE, bias, and whether a stockout (the
+ * window's demand exceeding the opening stock from the daily stats) was
+ * predicted
+ * - Products stream through in chunks on a bounded pool; only the daily
+ * series of the chunks in flight and the score sums are held in memory
+ * - Runs in the background, one at a time; progress and the last
+ * leaderboard are read from the status
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BacktestService {
+
+    public static final String AI_MODEL = "AI_ENGINE";
+
+    private static final int MAX_ERRORS = 20;
+
+    // Score sums per category and model
+    private static final int WINDOWS = 0, ACTUAL = 1, FORECAST = 2, ABS_ERROR = 3, ERROR = 4, STOCK_WINDOWS = 5,
+            STOCK_AGREE = 6, ACTUAL_STOCKOUTS = 7, PREDICTED_HITS = 8, PREDICTED_STOCKOUTS = 9, FIELDS = 10;
+
+    private final ProductRepository productRepository;
+    private final ProductDailyStatRepository dailyStatRepository;
+    private final CategoryRepository categoryRepository;
+    private final ForecastModelService forecastModelService;
+    private final AIForecastClient aiForecastClient;
+
+    @Value("${forecast.backtest.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${forecast.backtest.threads:4}")
+    private int threads;
+
+    @Value("${forecast.backtest.history-days:183}")
+    private int historyDays;
+
+    @Value("${forecast.backtest.min-history-days:28}")
+    private int minHistoryDays;
+
+    @Value("${ai.service.enabled:false}")
+    private boolean aiServiceEnabled;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger processedProducts = new AtomicInteger();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile BacktestResult lastResult;
+    private volatile BacktestResult runInfo;
+
+    /**
+     * Start a backtest of the given models (all registered ones when empty)
+     * with origins from {@code startDate} until the last window that ends by
+     * {@code endDate}; it runs in the background, so poll
+     * {@link #getStatus()} for progress and the leaderboard
+     * - The range must lie within the daily stats (their backfill bounds the
+     * opening stock of the windows); without a start date, it starts a year
+     * before the end or at the first day the stats cover, whichever is later
+     */
+    public BacktestResult startBacktest(LocalDate startDate, LocalDate endDate, int horizon, int stepDays,
+            List<String> modelNames, boolean includeAi) {
+        LocalDate firstStatDay = dailyStatRepository.findFirstStatDate();
+        LocalDate lastStatDay = dailyStatRepository.findLastStatDate();
+        if (firstStatDay == null || lastStatDay == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No daily stats aggregated yet");
+        }
+        // Opening stock of a window is the closing stock the day before its origin
+        LocalDate earliestOrigin = firstStatDay.plusDays(1);
+        LocalDate end = endDate != null ? endDate : LocalDate.now().minusDays(1);
+        LocalDate start = startDate != null ? startDate : end.minusYears(1);
+        if (startDate == null && start.isBefore(earliestOrigin)) {
+            start = earliestOrigin;
+        }
+        if (start.isBefore(earliestOrigin) || start.minusDays(1).isAfter(lastStatDay)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Backtest origins must lie within the daily stats, " + earliestOrigin + " to "
+                            + lastStatDay.plusDays(1));
+        }
+        if (horizon < 1 || stepDays < 1 || start.plusDays(horizon - 1).isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The range must hold at least one forecast window of " + horizon + " days");
+        }
+        List<ForecastModel> models = selectModels(modelNames);
+        boolean withAi = includeAi && aiServiceEnabled;
+        if (models.isEmpty() && !withAi) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No models to backtest");
+        }
+        List<String> names = new ArrayList<>(models.stream().map(ForecastModel::name).toList());
+        if (withAi)
+            names.add(AI_MODEL);
+
+        List<LocalDate> origins = new ArrayList<>();
+        for (LocalDate origin = start; !origin.plusDays(horizon - 1).isAfter(end)
+                && !origin.minusDays(1).isAfter(lastStatDay); origin = origin.plusDays(stepDays)) {
+            origins.add(origin);
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A backtest is already running");
+        }
+        processedProducts.set(0);
+        errors.clear();
+        runInfo = BacktestResult.builder()
+                .status("RUNNING")
+                .startDate(start)
+                .endDate(end)
+                .horizon(horizon)
+                .stepDays(stepDays)
+                .historyDays(historyDays)
+                .models(names)
+                .startedAt(LocalDateTime.now())
+                .totalProducts(0)
+                .build();
+        try {
+            Thread.ofVirtual().name("backtest").start(() -> execute(origins, horizon, models, withAi, names));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return getStatus();
+    }
+
+    private void execute(List<LocalDate> origins, int horizon, List<ForecastModel> models, boolean withAi,
+            List<String> names) {
+        BacktestResult info = runInfo;
+        LocalDateTime startedAt = info.getStartedAt();
+        Map<Long, long[][]> scores = new HashMap<>(); // categoryId -> [model][field]
+        String status = "COMPLETED";
+        ExecutorService pool = null;
+        int productCount = 0;
+        try {
+            List<Object[]> products = productRepository.findStatSnapshot();
+            productCount = products.size();
+            info.setTotalProducts(productCount);
+
+            int size = Math.max(1, chunkSize);
+            pool = Executors.newFixedThreadPool(Math.max(1, threads));
+            List<Future<Map<Long, long[][]>>> futures = new ArrayList<>();
+            for (int from = 0; from < products.size(); from += size) {
+                List<Object[]> chunk = products.subList(from, Math.min(from + size, products.size()));
+                futures.add(pool.submit(() -> runChunk(chunk, origins, horizon, models, withAi)));
+            }
+            for (Future<Map<Long, long[][]>> future : futures) {
+                try {
+                    future.get().forEach((categoryId, sums) -> merge(scores, categoryId, sums, names.size()));
+                } catch (ExecutionException e) {
+                    status = "COMPLETED_WITH_ERRORS";
+                    addError(e.getCause().getMessage());
+                    log.error("Backtest chunk failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "INTERRUPTED";
+        } catch (RuntimeException e) {
+            status = "FAILED";
+            addError(e.getMessage());
+            log.error("Backtest failed", e);
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        BacktestResult result = buildResult(scores, names, info.getStartDate(), info.getEndDate(), horizon,
+                info.getStepDays(), origins.size());
+        result.setStatus(status);
+        result.setStartedAt(startedAt);
+        result.setFinishedAt(finishedAt);
+        result.setElapsedMs(ChronoUnit.MILLIS.between(startedAt, finishedAt));
+        result.setTotalProducts(productCount);
+        result.setProcessedProducts(processedProducts.get());
+        synchronized (errors) {
+            result.setErrors(new ArrayList<>(errors));
+        }
+        lastResult = result;
+        running.set(false);
+
+        log.info("Backtest {}: {} products, {} origins, {} models, {} windows in {} ms", status, productCount,
+                origins.size(), names.size(), result.getWindows(), result.getElapsedMs());
+    }
+
+    /**
+     * Progress of the running backtest, else the last result
+     */
+    public BacktestResult getStatus() {
+        BacktestResult info = runInfo;
+        if (running.get() && info != null) {
+            return BacktestResult.builder()
+                    .status("RUNNING")
+                    .startDate(info.getStartDate())
+                    .endDate(info.getEndDate())
+                    .horizon(info.getHorizon())
+                    .stepDays(info.getStepDays())
+                    .historyDays(info.getHistoryDays())
+                    .models(info.getModels())
+                    .startedAt(info.getStartedAt())
+                    .elapsedMs(ChronoUnit.MILLIS.between(info.getStartedAt(), LocalDateTime.now()))
+                    .totalProducts(info.getTotalProducts())
+                    .processedProducts(processedProducts.get())
+                    .build();
+        }
+        return lastResult != null ? lastResult : BacktestResult.builder().status("IDLE").build();
+    }
+
+    private List<ForecastModel> selectModels(List<String> modelNames) {
+        if (modelNames == null || modelNames.isEmpty())
+            return forecastModelService.getModels();
+        List<ForecastModel> models = new ArrayList<>();
+        for (String name : modelNames) {
+            if (AI_MODEL.equalsIgnoreCase(name))
+                continue;
+            models.add(forecastModelService.findModel(name)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Unknown forecast model: " + name)));
+        }
+        return models;
+    }
+
+    /**
+     * Score one chunk of products (id, categoryId, vendorId, stock, cost,
+     * createdAt) at every origin
+     */
+    private Map<Long, long[][]> runChunk(List<Object[]> chunk, List<LocalDate> origins, int horizon,
+            List<ForecastModel> models, boolean withAi) {
+        LocalDate firstOrigin = origins.get(0);
+        LocalDate lastDay = origins.get(origins.size() - 1).plusDays(horizon - 1);
+        LocalDate seriesFloor = firstOrigin.minusDays(historyDays);
+
+        Map<Long, LocalDate> seriesStarts = new HashMap<>(chunk.size());
+        Map<Long, Long> categories = new HashMap<>(chunk.size());
+        for (Object[] row : chunk) {
+            LocalDate created = row[5] != null ? ((LocalDateTime) row[5]).toLocalDate() : seriesFloor;
+            if (created.isAfter(lastDay))
+                continue;
+            seriesStarts.put((Long) row[0], created.isAfter(seriesFloor) ? created : seriesFloor);
+            categories.put((Long) row[0], row[1] != null ? (Long) row[1] : 0L);
+        }
+        Map<Long, double[]> demand = forecastModelService.loadDailyDemand(seriesStarts, lastDay);
+
+        // Opening stock of each window = closing stock the day before the origin
+        List<LocalDate> stockDays = origins.stream().map(o -> o.minusDays(1)).toList();
+        Map<Long, Map<LocalDate, Integer>> stock = new HashMap<>();
+        if (!seriesStarts.isEmpty()) {
+            for (Object[] row : dailyStatRepository.findClosingStock(new ArrayList<>(seriesStarts.keySet()),
+                    stockDays)) {
+                if (row[2] != null)
+                    stock.computeIfAbsent((Long) row[0], k -> new HashMap<>()).put((LocalDate) row[1], (Integer) row[2]);
+            }
+        }
+
+        int modelCount = models.size() + (withAi ? 1 : 0);
+        Map<Long, long[][]> sums = new HashMap<>();
+        double[] out = new double[horizon];
+
+        for (LocalDate origin : origins) {
+            List<AIForecastRequest> aiRequests = withAi ? new ArrayList<>() : null;
+            Map<Long, long[]> pending = withAi ? new HashMap<>() : null; // productId -> actual, stock
+
+            for (Map.Entry<Long, double[]> entry : demand.entrySet()) {
+                Long productId = entry.getKey();
+                double[] series = entry.getValue();
+                int to = (int) ChronoUnit.DAYS.between(seriesStarts.get(productId), origin);
+                int from = Math.max(0, to - historyDays);
+                if (to - from < minHistoryDays || to + horizon > series.length)
+                    continue;
+
+                long actual = 0;
+                double history = 0;
+                for (int t = to; t < to + horizon; t++) {
+                    actual += Math.round(series[t]);
+                }
+                for (int t = from; t < to; t++) {
+                    history += series[t];
+                }
+                if (actual == 0 && history == 0)
+                    continue; // nothing to learn from dormant products
+
+                Integer openingStock = stock.getOrDefault(productId, Map.of()).get(origin.minusDays(1));
+                long[][] categorySums = sums.computeIfAbsent(categories.get(productId), k -> new long[modelCount][FIELDS]);
+                for (int m = 0; m < models.size(); m++) {
+                    models.get(m).forecast(series, from, to, horizon, out);
+                    double predicted = 0;
+                    for (int h = 0; h < horizon; h++) {
+                        predicted += out[h];
+                    }
+                    score(categorySums[m], actual, Math.round(predicted), openingStock);
+                }
+
+                if (withAi) {
+                    List<AIForecastRequest.HistoricalDataPoint> points = new ArrayList<>(to - from);
+                    LocalDate seriesStart = seriesStarts.get(productId);
+                    for (int t = from; t < to; t++) {
+                        points.add(AIForecastRequest.HistoricalDataPoint.builder()
+                                .date(seriesStart.plusDays(t))
+                                .quantity((int) series[t])
+                                .build());
+                    }
+                    aiRequests.add(AIForecastRequest.builder()
+                            .productId(productId)
+                            .historicalData(points)
+                            .period("DAILY")
+                            .horizon(horizon)
+                            .build());
+                    pending.put(productId, new long[] { actual, openingStock != null ? openingStock : Long.MIN_VALUE });
+                }
+            }
+
+            if (withAi && !aiRequests.isEmpty()) {
+                Map<Long, AIForecastResponse> responses = aiForecastClient.forecast(aiRequests);
+                responses.forEach((productId, response) -> {
+                    long[] window = pending.get(productId);
+                    long predicted = response.getPredictions().stream()
+                            .mapToLong(p -> p.getPredictedQuantity() != null ? p.getPredictedQuantity() : 0).sum();
+                    score(sums.get(categories.get(productId))[models.size()], window[0], predicted,
+                            window[1] != Long.MIN_VALUE ? (int) window[1] : null);
+                });
+            }
+        }
+
+        processedProducts.addAndGet(chunk.size());
+        return sums;
+    }
+
+    private void score(long[] sums, long actual, long predicted, Integer openingStock) {
+        long error = predicted - actual;
+        sums[WINDOWS]++;
+        sums[ACTUAL] += actual;
+        sums[FORECAST] += predicted;
+        sums[ABS_ERROR] += Math.abs(error);
+        sums[ERROR] += error;
+        if (openingStock != null) {
+            boolean actualStockout = actual >= openingStock;
+            boolean predictedStockout = predicted >= openingStock;
+            sums[STOCK_WINDOWS]++;
+            if (actualStockout == predictedStockout)
+                sums[STOCK_AGREE]++;
+            if (actualStockout)
+                sums[ACTUAL_STOCKOUTS]++;
+            if (predictedStockout) {
+                sums[PREDICTED_STOCKOUTS]++;
+                if (actualStockout)
+                    sums[PREDICTED_HITS]++;
+            }
+        }
+    }
+
+    private void merge(Map<Long, long[][]> scores, Long categoryId, long[][] sums, int modelCount) {
+        long[][] total = scores.computeIfAbsent(categoryId, k -> new long[modelCount][FIELDS]);
+        for (int m = 0; m < modelCount; m++) {
+            for (int f = 0; f < FIELDS; f++) {
+                total[m][f] += sums[m][f];
+            }
+        }
+    }
+
+    private BacktestResult buildResult(Map<Long, long[][]> scores, List<String> names, LocalDate start,
+            LocalDate end, int horizon, int stepDays, int origins) {
+        Map<Long, Category> categoryById = new HashMap<>();
+        categoryRepository.findAllById(scores.keySet()).forEach(c -> categoryById.put(c.getId(), c));
+
+        long[][] overall = new long[names.size()][FIELDS];
+        List<BacktestResult.CategoryLeaderboard> categories = new ArrayList<>();
+        scores.forEach((categoryId, sums) -> {
+            for (int m = 0; m < names.size(); m++) {
+                for (int f = 0; f < FIELDS; f++) {
+                    overall[m][f] += sums[m][f];
+                }
+            }
+            Category category = categoryById.get(categoryId);
+            categories.add(BacktestResult.CategoryLeaderboard.builder()
+                    .categoryId(categoryId)
+                    .categoryName(category != null ? category.getName() : null)
+                    .currentModel(category != null && category.getForecastModel() != null
+                            ? category.getForecastModel() : ForecastModelService.AUTO)
+                    .scores(rank(sums, names))
+                    .build());
+        });
+        categories.sort(Comparator.comparing(BacktestResult.CategoryLeaderboard::getCategoryName,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        return BacktestResult.builder()
+                .startDate(start)
+                .endDate(end)
+                .horizon(horizon)
+                .stepDays(stepDays)
+                .historyDays(historyDays)
+                .models(names)
+                .windows(names.isEmpty() ? 0 : Arrays.stream(overall).mapToLong(s -> s[WINDOWS]).max().orElse(0))
+                .overall(rank(overall, names))
+                .categories(categories)
+                .build();
+    }
+
+    private List<BacktestResult.ModelScore> rank(long[][] sums, List<String> names) {
+        List<BacktestResult.ModelScore> ranked = new ArrayList<>(names.size());
+        for (int m = 0; m < names.size(); m++) {
+            long[] s = sums[m];
+            if (s[WINDOWS] == 0)
+                continue;
+            ranked.add(BacktestResult.ModelScore.builder()
+                    .model(names.get(m))
+                    .windows(s[WINDOWS])
+                    .actualUnits(s[ACTUAL])
+                    .forecastUnits(s[FORECAST])
+                    .wape(ratio(s[ABS_ERROR], s[ACTUAL]))
+                    .bias(Math.round(s[ERROR] * 100.0 / s[WINDOWS]) / 100.0)
+                    .biasPercent(ratio(s[ERROR], s[ACTUAL]))
+                    .stockoutWindows(s[STOCK_WINDOWS])
+                    .stockoutHitRate(ratio(s[STOCK_AGREE], s[STOCK_WINDOWS]))
+                    .stockoutRecall(ratio(s[PREDICTED_HITS], s[ACTUAL_STOCKOUTS]))
+                    .falseAlarmRate(ratio(s[PREDICTED_STOCKOUTS] - s[PREDICTED_HITS], s[PREDICTED_STOCKOUTS]))
+                    .build());
+        }
+        ranked.sort(Comparator.comparing(s -> s.getWape() != null ? s.getWape() : Double.MAX_VALUE));
+        for (int i = 0; i < ranked.size(); i++) {
+            ranked.get(i).setRank(i + 1);
+        }
+        return ranked;
+    }
+
+    private Double ratio(long numerator, long denominator) {
+        return denominator != 0 ? Math.round(numerator * 10000.0 / denominator) / 100.0 : null;
+    }
+
+    private void addError(String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS)
+                errors.add(error);
+        }
+    }
+}
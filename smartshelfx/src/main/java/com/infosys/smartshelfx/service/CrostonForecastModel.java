@@ -0,0 +1,64 @@
+package com.infosys.smartshelfx.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Croston's method with the Syntetos-Boylan bias correction (SBA) for
+ * intermittent demand: demand sizes and intervals between demands are
+ * smoothed separately, the forecast is their (corrected) ratio.
+ */
+@Component
+public class CrostonForecastModel implements ForecastModel {
+
+    @Value("${forecast.model.croston.alpha:0.1}")
+    private double alpha;
+
+    @Override
+    public String name() {
+        return "CROSTON_SBA";
+    }
+
+    @Override
+    public String version() {
+        return "LOCAL_CROSTON_SBA_V1";
+    }
+
+    @Override
+    public double forecast(double[] series, int from, int to, int horizon, double[] out) {
+        double correction = 1 - alpha / 2;
+        double size = 0;
+        double interval = 0;
+        int sinceDemand = 1;
+        boolean initialized = false;
+        double absError = 0;
+        int errors = 0;
+
+        for (int t = from; t < to; t++) {
+            double actual = series[t];
+            if (initialized) {
+                absError += Math.abs(actual - correction * size / interval);
+                errors++;
+            }
+            if (actual > 0) {
+                if (initialized) {
+                    size += alpha * (actual - size);
+                    interval += alpha * (sinceDemand - interval);
+                } else {
+                    size = actual;
+                    interval = sinceDemand;
+                    initialized = true;
+                }
+                sinceDemand = 1;
+            } else {
+                sinceDemand++;
+            }
+        }
+
+        double rate = initialized ? correction * size / interval : 0;
+        Arrays.fill(out, 0, horizon, rate);
+        return errors > 0 ? absError / errors : 0;
+    }
+}
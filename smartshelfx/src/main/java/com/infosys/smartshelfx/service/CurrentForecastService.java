@@ -0,0 +1,182 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import com.infosys.smartshelfx.entity.DemandForecast;
+import com.infosys.smartshelfx.repository.AnalyticsWatermarkRepository;
+import com.infosys.smartshelfx.repository.CurrentForecastRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Current forecasts and forecast history retention
+ * - current_forecasts holds one row per product and period, upserted by every
+ * forecast run and kept current between runs by {@link StockoutRiskService};
+ * at-risk lists and restock logic read only these rows
+ * - demand_forecasts keeps the history: every run for the last
+ * {@code forecast.retention.daily-days} days, after that only the latest
+ * forecast per product, period and ISO week
+ * - History rows are only compacted once their window has been scored for
+ * accuracy and is past the rescore period; before accuracy has scored
+ * anything, the retention cutoff alone applies
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CurrentForecastService {
+
+    private static final String UPSERT_CURRENT = "INSERT INTO current_forecasts (product_id, forecast_period, " +
+            "forecast_date, predicted_demand, confidence_score, lower_bound, upper_bound, current_stock, " +
+            "recommended_restock, days_until_stockout, is_at_risk, model_version, horizon_days, target_end_date, " +
+            "curve, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE forecast_date = new.forecast_date, predicted_demand = new.predicted_demand, " +
+            "confidence_score = new.confidence_score, lower_bound = new.lower_bound, " +
+            "upper_bound = new.upper_bound, current_stock = new.current_stock, " +
+            "recommended_restock = new.recommended_restock, days_until_stockout = new.days_until_stockout, " +
+            "is_at_risk = new.is_at_risk, model_version = new.model_version, " +
+            "horizon_days = new.horizon_days, target_end_date = new.target_end_date, " +
+            "curve = new.curve, updated_at = new.updated_at";
+
+    // Latest history row per product and period
+    private static final String BACKFILL_CURRENT = "INSERT INTO current_forecasts (product_id, forecast_period, " +
+            "forecast_date, predicted_demand, confidence_score, lower_bound, upper_bound, current_stock, " +
+            "recommended_restock, days_until_stockout, is_at_risk, model_version, horizon_days, target_end_date, " +
+            "curve, updated_at) SELECT df.product_id, COALESCE(df.forecast_period, 'DAILY'), df.forecast_date, " +
+            "df.predicted_demand, df.confidence_score, df.lower_bound, df.upper_bound, df.current_stock, " +
+            "df.recommended_restock, df.days_until_stockout, COALESCE(df.is_at_risk, FALSE), df.model_version, " +
+            "df.horizon_days, df.target_end_date, df.curve, df.created_at FROM demand_forecasts df " +
+            "JOIN (SELECT MAX(id) AS id FROM demand_forecasts GROUP BY product_id, COALESCE(forecast_period, 'DAILY')) " +
+            "latest ON latest.id = df.id";
+
+    // Within [fromId, toId]: old, scored rows other than the latest of their ISO week
+    private static final String COMPACT_HISTORY = "DELETE df FROM demand_forecasts df JOIN (" +
+            "SELECT product_id, forecast_period, YEARWEEK(forecast_date, 3) AS week, MAX(id) AS keep_id " +
+            "FROM demand_forecasts WHERE product_id BETWEEN ? AND ? AND forecast_date < ? " +
+            "AND (target_end_date IS NULL OR target_end_date <= ?) " +
+            "GROUP BY product_id, forecast_period, YEARWEEK(forecast_date, 3)) k " +
+            "ON k.product_id = df.product_id AND k.forecast_period <=> df.forecast_period " +
+            "AND k.week = YEARWEEK(df.forecast_date, 3) " +
+            "WHERE df.product_id BETWEEN ? AND ? AND df.forecast_date < ? " +
+            "AND (df.target_end_date IS NULL OR df.target_end_date <= ?) AND df.id <> k.keep_id";
+
+    private final CurrentForecastRepository currentForecastRepository;
+    private final ProductRepository productRepository;
+    private final AnalyticsWatermarkRepository watermarkRepository;
+    private final StockoutRiskService stockoutRiskService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${forecast.retention.daily-days:30}")
+    private int dailyDays;
+
+    @Value("${forecast.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${forecast.accuracy.rescore-days:7}")
+    private int rescoreDays;
+
+    /**
+     * Make the given forecasts the current ones of their product and period
+     */
+    public void upsert(Collection<DemandForecast> forecasts) {
+        if (forecasts.isEmpty())
+            return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(forecasts.size());
+        for (DemandForecast forecast : forecasts) {
+            rows.add(new Object[] {
+                    forecast.getProduct().getId(),
+                    forecast.getForecastPeriod() != null ? forecast.getForecastPeriod() : "DAILY",
+                    Date.valueOf(forecast.getForecastDate()),
+                    forecast.getPredictedDemand(),
+                    forecast.getConfidenceScore(),
+                    forecast.getLowerBound(),
+                    forecast.getUpperBound(),
+                    forecast.getCurrentStock(),
+                    forecast.getRecommendedRestock(),
+                    forecast.getDaysUntilStockout(),
+                    Boolean.TRUE.equals(forecast.getIsAtRisk()),
+                    forecast.getModelVersion(),
+                    forecast.getHorizonDays(),
+                    forecast.getTargetEndDate() != null ? Date.valueOf(forecast.getTargetEndDate()) : null,
+                    forecast.getCurve(),
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CURRENT, rows);
+        // Fold in open purchase orders and keep the in-memory risk state in step
+        stockoutRiskService.onForecasts(forecasts);
+    }
+
+    /**
+     * Fill current_forecasts from the history the first time it is empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            if (currentForecastRepository.count() > 0)
+                return;
+            int rows = jdbcTemplate.update(BACKFILL_CURRENT);
+            if (rows > 0)
+                log.info("Current forecasts: backfilled {} rows from forecast history", rows);
+        } catch (Exception e) {
+            log.warn("Current forecast backfill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Thin out forecast history older than the daily retention window to one
+     * forecast per product, period and week, product range by product range
+     *
+     * @return number of history rows deleted
+     */
+    public int compactHistory() {
+        long started = System.currentTimeMillis();
+        LocalDate cutoff = LocalDate.now().minusDays(dailyDays);
+        // Windows not yet scored for accuracy stay intact
+        LocalDate scoredThrough = watermarkRepository.findById(ForecastAccuracyService.WATERMARK)
+                .map(AnalyticsWatermark::getLastId)
+                .map(LocalDate::ofEpochDay)
+                .orElse(null);
+        LocalDate closedBy = cutoff;
+        if (scoredThrough == null) {
+            log.warn("Forecast history: accuracy has not scored any window yet, compacting by the {}-day cutoff only",
+                    dailyDays);
+        } else {
+            // Windows still in the rescore period are read again by the accuracy job
+            LocalDate settled = scoredThrough.minusDays(Math.max(0, rescoreDays));
+            if (settled.isBefore(closedBy))
+                closedBy = settled;
+        }
+
+        List<Long> productIds = productRepository.findStatSnapshot().stream()
+                .map(row -> (Long) row[0])
+                .sorted()
+                .toList();
+        int size = Math.max(1, chunkSize);
+        int deleted = 0;
+        for (int from = 0; from < productIds.size(); from += size) {
+            Long fromId = productIds.get(from);
+            Long toId = productIds.get(Math.min(from + size, productIds.size()) - 1);
+            deleted += jdbcTemplate.update(COMPACT_HISTORY,
+                    fromId, toId, Date.valueOf(cutoff), Date.valueOf(closedBy),
+                    fromId, toId, Date.valueOf(cutoff), Date.valueOf(closedBy));
+        }
+
+        log.info("Forecast history: compacted {} rows older than {} in {} ms",
+                deleted, cutoff, System.currentTimeMillis() - started);
+        return deleted;
+    }
+}
@@ -0,0 +1,319 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Last-movement index and dead-stock report
+ * - Product.lastInboundAt / lastSaleAt (last dispatch) are updated in the
+ * same transaction as every stock movement, by targeted updates only; entity
+ * saves never write them
+ * - An in-memory index of those timestamps, stock and unit cost serves the
+ * dead-stock report without touching stock_movements; it is loaded outside
+ * the lock, replaying the movements committed meanwhile
+ * - Products are bucketed by days since their last sale (dispatch),
+ * with the value tied up in their stock
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadStockService {
+
+    public static final List<MovementType> INBOUND_TYPES = List.of(
+            MovementType.RECEIVING, MovementType.RESTOCK, MovementType.TRANSFER_IN, MovementType.RETURN);
+    // Only dispatches are sales; transfers out keep the stock in the business
+    public static final List<MovementType> SALE_TYPES = List.of(MovementType.DISPATCHING);
+
+    private final ProductRepository productRepository;
+
+    @Value("${analytics.deadstock.buckets:30,60,90,180,365}")
+    private int[] bucketBounds;
+
+    private final Object lock = new Object();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Guarded by lock
+    private Map<Long, IndexEntry> index;
+    private List<StockMovementEvent> duringReload; // movement events received while a reload runs
+
+    /**
+     * Fill timestamps for products that have movement history but no
+     * recorded last movement (existing data)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillLastMovement() {
+        int inbound = productRepository.backfillLastInboundAt(INBOUND_TYPES);
+        int sales = productRepository.backfillLastSaleAt(SALE_TYPES);
+        log.info("Last-movement index backfill checked {} inbound and {} sale product rows", inbound, sales);
+    }
+
+    /**
+     * Record the movement time on the product, inside the movement's transaction
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void recordLastMovement(StockMovementEvent event) {
+        if (INBOUND_TYPES.contains(event.getMovementType())) {
+            productRepository.updateLastInboundAt(event.getProductId(), event.getOccurredAt());
+        } else if (SALE_TYPES.contains(event.getMovementType())) {
+            productRepository.updateLastSaleAt(event.getProductId(), event.getOccurredAt());
+        }
+    }
+
+    /**
+     * Apply a committed movement to the in-memory index
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        synchronized (lock) {
+            if (duringReload != null)
+                duringReload.add(event);
+            if (index != null && !apply(index, event))
+                index = null; // new product: reload on next request
+        }
+    }
+
+    /**
+     * Drop the index periodically so that catalog and price changes are picked up
+     */
+    @Scheduled(fixedDelayString = "${analytics.deadstock.reload.ms:900000}")
+    public void expireIndex() {
+        synchronized (lock) {
+            index = null;
+        }
+    }
+
+    /**
+     * Dead-stock report. Buckets cover every product with stock; items are the
+     * products idle for at least {@code minDays}, by tied-up value, paged.
+     */
+    public AnalyticsDTO.DeadStockReport getDeadStockReport(int minDays, Long categoryId, Long vendorId,
+            int page, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AnalyticsDTO.DeadStockItem> idle = new ArrayList<>();
+        int[] bounds = bucketBounds;
+        long[] bucketCounts = new long[bounds.length + 1];
+        long[] bucketUnits = new long[bounds.length + 1];
+        BigDecimal[] bucketValue = new BigDecimal[bounds.length + 1];
+        Arrays.fill(bucketValue, BigDecimal.ZERO);
+        BigDecimal totalValue = BigDecimal.ZERO;
+
+        for (IndexEntry entry : snapshot()) {
+            if (entry.currentStock <= 0)
+                continue;
+            if (categoryId != null && !categoryId.equals(entry.categoryId))
+                continue;
+            if (vendorId != null && !vendorId.equals(entry.vendorId))
+                continue;
+
+            LocalDateTime since = entry.lastSaleAt != null ? entry.lastSaleAt : entry.createdAt;
+            long days = since != null ? Math.max(0, ChronoUnit.DAYS.between(since, now)) : Long.MAX_VALUE;
+            int bucket = bucketOf(days, bounds);
+            BigDecimal value = entry.unitCost.multiply(BigDecimal.valueOf(entry.currentStock))
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            bucketCounts[bucket]++;
+            bucketUnits[bucket] += entry.currentStock;
+            bucketValue[bucket] = bucketValue[bucket].add(value);
+
+            if (days >= minDays) {
+                totalValue = totalValue.add(value);
+                idle.add(AnalyticsDTO.DeadStockItem.builder()
+                        .productId(entry.productId)
+                        .sku(entry.sku)
+                        .productName(entry.name)
+                        .categoryId(entry.categoryId)
+                        .vendorId(entry.vendorId)
+                        .currentStock(entry.currentStock)
+                        .tiedUpValue(value)
+                        .lastInboundAt(entry.lastInboundAt)
+                        .lastSaleAt(entry.lastSaleAt)
+                        .daysSinceLastSale(days == Long.MAX_VALUE ? null : days)
+                        .neverSold(entry.lastSaleAt == null)
+                        .bucket(bucketLabel(bucket, bounds))
+                        .build());
+            }
+        }
+
+        idle.sort(Comparator.comparing(AnalyticsDTO.DeadStockItem::getTiedUpValue).reversed());
+
+        List<AnalyticsDTO.DeadStockBucket> buckets = new ArrayList<>(bounds.length + 1);
+        for (int b = 0; b <= bounds.length; b++) {
+            buckets.add(AnalyticsDTO.DeadStockBucket.builder()
+                    .label(bucketLabel(b, bounds))
+                    .minDays(b == 0 ? 0 : bounds[b - 1] + 1)
+                    .maxDays(b < bounds.length ? bounds[b] : null)
+                    .productCount(bucketCounts[b])
+                    .totalUnits(bucketUnits[b])
+                    .tiedUpValue(bucketValue[b])
+                    .build());
+        }
+
+        int pageSize = Math.max(1, Math.min(size, 500));
+        int from = Math.min(Math.max(0, page) * pageSize, idle.size());
+        int to = Math.min(from + pageSize, idle.size());
+
+        return AnalyticsDTO.DeadStockReport.builder()
+                .asOf(now)
+                .minDays(minDays)
+                .buckets(buckets)
+                .items(new ArrayList<>(idle.subList(from, to)))
+                .page(page)
+                .size(pageSize)
+                .totalItems((long) idle.size())
+                .totalTiedUpValue(totalValue)
+                .build();
+    }
+
+    /**
+     * Copy of the index, loading it first if needed. The load runs outside the
+     * lock; movement events received meanwhile are replayed on the loaded
+     * entries, which is safe as stock is overwritten and timestamps only move
+     * forward.
+     */
+    private List<IndexEntry> snapshot() {
+        synchronized (lock) {
+            if (index != null)
+                return copy(index);
+        }
+        reloadLock.lock();
+        try {
+            synchronized (lock) {
+                if (index != null)
+                    return copy(index);
+                duringReload = new ArrayList<>();
+            }
+            Map<Long, IndexEntry> loaded;
+            try {
+                loaded = load();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    duringReload = null;
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                List<StockMovementEvent> replay = duringReload;
+                duringReload = null;
+                boolean complete = true;
+                for (StockMovementEvent event : replay) {
+                    complete &= apply(loaded, event);
+                }
+                // A product created after the load is missing: serve this copy, reload on the next request
+                if (complete)
+                    index = loaded;
+                return copy(loaded);
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Apply a movement to the entries; false when its product is not in them
+     */
+    private boolean apply(Map<Long, IndexEntry> entries, StockMovementEvent event) {
+        IndexEntry entry = entries.get(event.getProductId());
+        if (entry == null)
+            return false;
+        entry.currentStock = event.getNewStock();
+        if (INBOUND_TYPES.contains(event.getMovementType()) && isAfter(event.getOccurredAt(), entry.lastInboundAt)) {
+            entry.lastInboundAt = event.getOccurredAt();
+        } else if (SALE_TYPES.contains(event.getMovementType()) && isAfter(event.getOccurredAt(), entry.lastSaleAt)) {
+            entry.lastSaleAt = event.getOccurredAt();
+        }
+        return true;
+    }
+
+    // Copy so the report is computed outside the lock
+    private List<IndexEntry> copy(Map<Long, IndexEntry> entries) {
+        List<IndexEntry> copy = new ArrayList<>(entries.size());
+        for (IndexEntry entry : entries.values()) {
+            IndexEntry c = new IndexEntry();
+            c.productId = entry.productId;
+            c.sku = entry.sku;
+            c.name = entry.name;
+            c.categoryId = entry.categoryId;
+            c.vendorId = entry.vendorId;
+            c.currentStock = entry.currentStock;
+            c.unitCost = entry.unitCost;
+            c.lastInboundAt = entry.lastInboundAt;
+            c.lastSaleAt = entry.lastSaleAt;
+            c.createdAt = entry.createdAt;
+            copy.add(c);
+        }
+        return copy;
+    }
+
+    private Map<Long, IndexEntry> load() {
+        List<Object[]> rows = productRepository.findMovementIndexSnapshot();
+        Map<Long, IndexEntry> loaded = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            IndexEntry entry = new IndexEntry();
+            entry.productId = (Long) row[0];
+            entry.sku = (String) row[1];
+            entry.name = (String) row[2];
+            entry.categoryId = (Long) row[3];
+            entry.vendorId = (Long) row[4];
+            entry.currentStock = row[5] != null ? (Integer) row[5] : 0;
+            // Value stock at cost, falling back to selling price
+            entry.unitCost = row[6] != null ? (BigDecimal) row[6] : row[7] != null ? (BigDecimal) row[7] : BigDecimal.ZERO;
+            entry.lastInboundAt = (LocalDateTime) row[8];
+            entry.lastSaleAt = (LocalDateTime) row[9];
+            entry.createdAt = (LocalDateTime) row[10];
+            loaded.put(entry.productId, entry);
+        }
+        log.debug("Loaded dead-stock index with {} products", loaded.size());
+        return loaded;
+    }
+
+    private int bucketOf(long days, int[] bounds) {
+        for (int b = 0; b < bounds.length; b++) {
+            if (days <= bounds[b])
+                return b;
+        }
+        return bounds.length;
+    }
+
+    private String bucketLabel(int bucket, int[] bounds) {
+        if (bucket == bounds.length)
+            return bounds.length == 0 ? "0+" : (bounds[bounds.length - 1] + 1) + "+";
+        return (bucket == 0 ? 0 : bounds[bucket - 1] + 1) + "-" + bounds[bucket];
+    }
+
+    private boolean isAfter(LocalDateTime candidate, LocalDateTime current) {
+        return candidate != null && (current == null || candidate.isAfter(current));
+    }
+
+    private static final class IndexEntry {
+        Long productId;
+        String sku;
+        String name;
+        Long categoryId;
+        Long vendorId;
+        int currentStock;
+        BigDecimal unitCost;
+        LocalDateTime lastInboundAt;
+        LocalDateTime lastSaleAt;
+        LocalDateTime createdAt;
+    }
+}
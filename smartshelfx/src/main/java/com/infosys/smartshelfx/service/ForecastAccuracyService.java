@@ -0,0 +1,320 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ForecastAccuracyDTO;
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import com.infosys.smartshelfx.entity.ForecastAccuracyStat;
+import com.infosys.smartshelfx.repository.AnalyticsWatermarkRepository;
+import com.infosys.smartshelfx.repository.DemandForecastRepository;
+import com.infosys.smartshelfx.repository.ForecastAccuracyStatRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Forecast accuracy tracking
+ * - Once the last day of a forecast's window has closed, its predicted demand
+ * is compared with actual sales over the window
+ * - Only the latest forecast of a product, day and horizon is scored; earlier
+ * runs of the same day were superseded
+ * - The error is added to running sums per product, model version and
+ * horizon (MAE, WAPE, bias, RMSE derive from them), tracked by a watermark on
+ * the window end date
+ * - Windows that ended within the rescore period are scored again on every
+ * run: late (backdated) sales replace the forecast's previous contribution
+ * with the difference to its recorded actual
+ * - Models are ranked per horizon by WAPE over all their products
+ * - One evaluation at a time: a running guard, and the watermark row is
+ * locked for the run
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastAccuracyService {
+
+    static final String WATERMARK = "forecast_accuracy"; // lastId = epoch day of the last scored window end
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int SLICE_DAYS = 31;
+    private static final String UPDATE_SCORED = "UPDATE demand_forecasts SET scored_actual = ? WHERE id = ?";
+
+    private final DemandForecastRepository demandForecastRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final ForecastAccuracyStatRepository accuracyRepository;
+    private final AnalyticsWatermarkRepository watermarkRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${forecast.accuracy.rescore-days:7}")
+    private int rescoreDays;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Score every forecast whose window ended after the last run, through
+     * yesterday, and rescore the windows of the rescore period
+     *
+     * @return number of forecasts scored or rescored
+     */
+    @Transactional
+    public int evaluateClosedForecasts() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Forecast accuracy evaluation is already running");
+        }
+        try {
+            return evaluate();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int evaluate() {
+        LocalDate through = LocalDate.now().minusDays(1);
+        // Locked until commit, for runs on other instances (and one starting as this one commits)
+        AnalyticsWatermark watermark = watermarkRepository.findForUpdate(WATERMARK).orElse(null);
+        LocalDate from;
+        LocalDate scoredThrough = null;
+        if (watermark != null) {
+            scoredThrough = LocalDate.ofEpochDay(watermark.getLastId());
+            LocalDate rescoreFrom = through.minusDays(Math.max(0, rescoreDays) - 1L);
+            from = scoredThrough.plusDays(1);
+            if (rescoreFrom.isBefore(from))
+                from = rescoreFrom;
+        } else {
+            from = demandForecastRepository.findFirstTargetEndDate();
+            if (from == null)
+                return 0;
+            watermark = AnalyticsWatermark.builder().name(WATERMARK).build();
+        }
+        if (from.isAfter(through))
+            return 0;
+
+        int scored = 0;
+        for (LocalDate sliceStart = from; !sliceStart.isAfter(through); sliceStart = sliceStart.plusDays(SLICE_DAYS)) {
+            LocalDate sliceEnd = sliceStart.plusDays(SLICE_DAYS - 1);
+            scored += evaluateSlice(sliceStart, sliceEnd.isAfter(through) ? through : sliceEnd, scoredThrough);
+        }
+
+        watermark.setLastId(through.toEpochDay());
+        watermark.setUpdatedAt(LocalDateTime.now());
+        watermarkRepository.save(watermark);
+
+        log.info("Forecast accuracy: scored {} forecasts with windows ending {} to {}", scored, from, through);
+        return scored;
+    }
+
+    /**
+     * Accuracy rows, optionally filtered by product, model and horizon
+     */
+    @Transactional(readOnly = true)
+    public List<ForecastAccuracyDTO> getAccuracy(Long productId, String modelVersion, Integer horizon) {
+        List<ForecastAccuracyStat> stats = accuracyRepository.findWithFilters(productId, modelVersion, horizon);
+        Map<Long, String> names = new HashMap<>();
+        List<Long> productIds = stats.stream().map(ForecastAccuracyStat::getProductId).distinct().toList();
+        for (int from = 0; from < productIds.size(); from += CHUNK_SIZE) {
+            productRepository.findAllById(productIds.subList(from, Math.min(from + CHUNK_SIZE, productIds.size())))
+                    .forEach(p -> names.put(p.getId(), p.getName()));
+        }
+
+        return stats.stream()
+                .map(s -> ForecastAccuracyDTO.builder()
+                        .productId(s.getProductId())
+                        .productName(names.get(s.getProductId()))
+                        .modelVersion(s.getModelVersion())
+                        .horizonDays(s.getHorizonDays())
+                        .forecasts(s.getForecastCount())
+                        .mae(ratio(s.getSumAbsError(), s.getForecastCount(), 1))
+                        .wape(ratio(s.getSumAbsError(), s.getSumActual(), 100))
+                        .bias(ratio(s.getSumError(), s.getForecastCount(), 1))
+                        .biasPercent(ratio(s.getSumError(), s.getSumActual(), 100))
+                        .rmse(rmse(s.getSumSquaredError(), s.getForecastCount()))
+                        .lastEvaluatedDate(s.getLastEvaluatedDate())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Models ranked by WAPE within each horizon (lowest first)
+     */
+    @Transactional(readOnly = true)
+    public List<ForecastAccuracyDTO.ModelRanking> rankModels(Integer horizon) {
+        List<ForecastAccuracyDTO.ModelRanking> rankings = new ArrayList<>();
+        for (Object[] row : accuracyRepository.getModelTotals(horizon)) {
+            long forecasts = toLong(row[3]);
+            long sumActual = toLong(row[4]);
+            long sumAbsError = toLong(row[5]);
+            long sumError = toLong(row[6]);
+            double sumSquaredError = row[7] != null ? ((Number) row[7]).doubleValue() : 0.0;
+            rankings.add(ForecastAccuracyDTO.ModelRanking.builder()
+                    .modelVersion((String) row[0])
+                    .horizonDays((Integer) row[1])
+                    .products(toLong(row[2]))
+                    .forecasts(forecasts)
+                    .mae(ratio(sumAbsError, forecasts, 1))
+                    .wape(ratio(sumAbsError, sumActual, 100))
+                    .bias(ratio(sumError, forecasts, 1))
+                    .biasPercent(ratio(sumError, sumActual, 100))
+                    .rmse(rmse(sumSquaredError, forecasts))
+                    .build());
+        }
+
+        rankings.sort(Comparator.comparing(ForecastAccuracyDTO.ModelRanking::getHorizonDays)
+                .thenComparing(r -> r.getWape() != null ? r.getWape() : Double.MAX_VALUE));
+        Integer currentHorizon = null;
+        int rank = 0;
+        for (ForecastAccuracyDTO.ModelRanking ranking : rankings) {
+            if (!ranking.getHorizonDays().equals(currentHorizon)) {
+                currentHorizon = ranking.getHorizonDays();
+                rank = 0;
+            }
+            ranking.setRank(++rank);
+        }
+        return rankings;
+    }
+
+    /**
+     * Forecast rows: id, productId, modelVersion, horizonDays, targetEndDate,
+     * predictedDemand, scoredActual
+     */
+    private int evaluateSlice(LocalDate from, LocalDate to, LocalDate scoredThrough) {
+        List<Object[]> forecasts = demandForecastRepository.findEndingBetween(from, to);
+        if (forecasts.isEmpty())
+            return 0;
+
+        // Earliest window start per product, to load its daily sales once
+        Map<Long, LocalDate> windowStarts = new HashMap<>();
+        for (Object[] row : forecasts) {
+            LocalDate start = ((LocalDate) row[4]).minusDays((Integer) row[3] - 1);
+            windowStarts.merge((Long) row[1], start, (a, b) -> a.isBefore(b) ? a : b);
+        }
+        LocalDate salesStart = Collections.min(windowStarts.values());
+        int days = (int) ChronoUnit.DAYS.between(salesStart, to) + 1;
+
+        // Prefix sums of daily sales per product, indexed from salesStart
+        Map<Long, long[]> cumulative = new HashMap<>();
+        List<Long> productIds = new ArrayList<>(windowStarts.keySet());
+        for (int i = 0; i < productIds.size(); i += CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(i, Math.min(i + CHUNK_SIZE, productIds.size()));
+            for (Object[] row : salesHistoryRepository.getDailySalesByProducts(chunk, salesStart, to)) {
+                long[] sums = cumulative.computeIfAbsent((Long) row[0], k -> new long[days + 1]);
+                sums[(int) ChronoUnit.DAYS.between(salesStart, (LocalDate) row[1]) + 1] += toLong(row[2]);
+            }
+        }
+        cumulative.values().forEach(sums -> Arrays.parallelPrefix(sums, Long::sum));
+
+        Map<StatKey, long[]> deltas = new HashMap<>(); // count, actual, predicted, |error|, error
+        Map<StatKey, double[]> squared = new HashMap<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Object[] row : forecasts) {
+            Long productId = (Long) row[1];
+            int horizon = (Integer) row[3];
+            LocalDate end = (LocalDate) row[4];
+            int endIndex = (int) ChronoUnit.DAYS.between(salesStart, end) + 1;
+            long[] sums = cumulative.get(productId);
+            long actual = sums != null ? sums[endIndex] - sums[endIndex - horizon] : 0L;
+            long predicted = row[5] != null ? (Integer) row[5] : 0;
+            Integer previous = (Integer) row[6];
+            if (previous != null && previous == actual)
+                continue;
+            updates.add(new Object[] { actual, row[0] });
+            // Scored before actuals were recorded: its contribution is unknown, only record the actual
+            if (previous == null && scoredThrough != null && !end.isAfter(scoredThrough))
+                continue;
+
+            StatKey key = new StatKey(productId, row[2] != null ? (String) row[2] : "UNKNOWN", horizon);
+            long[] delta = deltas.computeIfAbsent(key, k -> new long[5]);
+            double[] squaredDelta = squared.computeIfAbsent(key, k -> new double[1]);
+            long error = predicted - actual;
+            if (previous == null) {
+                delta[0]++;
+                delta[1] += actual;
+                delta[2] += predicted;
+                delta[3] += Math.abs(error);
+                delta[4] += error;
+                squaredDelta[0] += (double) error * error;
+            } else {
+                // Rescore: swap the previous contribution for the new one
+                long previousError = predicted - previous;
+                delta[1] += actual - previous;
+                delta[3] += Math.abs(error) - Math.abs(previousError);
+                delta[4] += error - previousError;
+                squaredDelta[0] += (double) error * error - (double) previousError * previousError;
+            }
+        }
+
+        if (!deltas.isEmpty()) {
+            merge(deltas, squared, to);
+        }
+        for (int i = 0; i < updates.size(); i += CHUNK_SIZE) {
+            jdbcTemplate.batchUpdate(UPDATE_SCORED, updates.subList(i, Math.min(i + CHUNK_SIZE, updates.size())));
+        }
+        return updates.size();
+    }
+
+    private void merge(Map<StatKey, long[]> deltas, Map<StatKey, double[]> squared, LocalDate evaluatedThrough) {
+        List<Long> productIds = deltas.keySet().stream().map(StatKey::productId).distinct().toList();
+        Map<StatKey, ForecastAccuracyStat> existing = new HashMap<>();
+        for (int i = 0; i < productIds.size(); i += CHUNK_SIZE) {
+            for (ForecastAccuracyStat stat : accuracyRepository
+                    .findByProductIdIn(productIds.subList(i, Math.min(i + CHUNK_SIZE, productIds.size())))) {
+                existing.put(new StatKey(stat.getProductId(), stat.getModelVersion(), stat.getHorizonDays()), stat);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ForecastAccuracyStat> toSave = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            ForecastAccuracyStat stat = existing.get(key);
+            if (stat == null) {
+                stat = ForecastAccuracyStat.builder()
+                        .productId(key.productId())
+                        .modelVersion(key.modelVersion())
+                        .horizonDays(key.horizon())
+                        .forecastCount(0L)
+                        .sumActual(0L)
+                        .sumPredicted(0L)
+                        .sumAbsError(0L)
+                        .sumError(0L)
+                        .sumSquaredError(0.0)
+                        .build();
+            }
+            stat.setForecastCount(stat.getForecastCount() + delta[0]);
+            stat.setSumActual(stat.getSumActual() + delta[1]);
+            stat.setSumPredicted(stat.getSumPredicted() + delta[2]);
+            stat.setSumAbsError(stat.getSumAbsError() + delta[3]);
+            stat.setSumError(stat.getSumError() + delta[4]);
+            stat.setSumSquaredError(stat.getSumSquaredError() + squared.get(key)[0]);
+            stat.setLastEvaluatedDate(evaluatedThrough);
+            stat.setUpdatedAt(now);
+            toSave.add(stat);
+        });
+        accuracyRepository.saveAll(toSave);
+    }
+
+    private Double ratio(long numerator, long denominator, double scale) {
+        return denominator != 0 ? Math.round(numerator * scale * 100.0 / denominator) / 100.0 : null;
+    }
+
+    private Double rmse(double sumSquaredError, long count) {
+        return count > 0 ? Math.round(Math.sqrt(sumSquaredError / count) * 100.0) / 100.0 : null;
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private record StatKey(Long productId, String modelVersion, int horizon) {
+    }
+}
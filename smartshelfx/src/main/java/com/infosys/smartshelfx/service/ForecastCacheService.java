@@ -0,0 +1,238 @@
+package com.infosys.smartshelfx.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.smartshelfx.dtos.ForecastResponse;
+import com.infosys.smartshelfx.entity.ForecastCacheEntry;
+import com.infosys.smartshelfx.entity.ForecastState;
+import com.infosys.smartshelfx.entity.Product;
+import com.infosys.smartshelfx.repository.ForecastCacheEntryRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Forecast memoization
+ * - A forecast is reused while its inputs are unchanged: model (with the
+ * smoothing state date, or the day for category models; top-down shares also
+ * key on the category aggregate's total and the share), the product's sales
+ * marker over the history window, stock bucket and reorder settings
+ * - In-memory LRU tier in front of the persisted forecast_cache table, one
+ * row per product, period and horizon
+ * - Hits skip the history read, the computation and the forecast insert;
+ * flat models (moving average, AI engine) are re-dated to start tomorrow
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastCacheService {
+
+    static final String SMA_MODEL = "LOCAL_SMA_V1";
+
+    private final ForecastCacheEntryRepository cacheRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final ForecastStateService forecastStateService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${forecast.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forecast.cache.memory.max-entries:10000}")
+    private int maxMemoryEntries;
+
+    @Value("${forecast.cache.stock-bucket:1}")
+    private int stockBucket;
+
+    @Value("${ai.service.enabled:false}")
+    private boolean aiServiceEnabled;
+
+    // Slot -> input key and serialized response; guarded by itself
+    private final Map<Slot, CachedForecast> memory = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Slot, CachedForecast> eldest) {
+            return size() > maxMemoryEntries;
+        }
+    };
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Input key per product for forecasts over sales in [historyStart, today]
+     */
+    public Map<Long, String> inputKeys(List<Product> products, Map<Long, ForecastState> states,
+            Map<Long, ForecastModel> models, LocalDate historyStart) {
+        LocalDate today = LocalDate.now();
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        Map<Long, String> markers = new HashMap<>();
+        for (Object[] row : salesHistoryRepository.getSalesMarkersByProducts(productIds, historyStart, today)) {
+            markers.put((Long) row[0], row[1] + ":" + row[2]);
+        }
+
+        Map<Long, String> keys = new HashMap<>(products.size());
+        for (Product product : products) {
+            ForecastState state = states.get(product.getId());
+            ForecastModel categoryModel = models.get(product.getId());
+            String model;
+            if (categoryModel instanceof TopDownForecastModel topDown) {
+                // Driven by the category aggregate and the product's share of it, not its own series
+                model = topDown.version() + ":" + today + ":" + Math.round(topDown.aggregateTotal() * 1000)
+                        + ":" + topDown.share();
+            } else if (categoryModel != null) {
+                // Fitted on the series ending yesterday
+                model = categoryModel.version() + ":" + today;
+            } else if (aiServiceEnabled) {
+                model = AIForecastClient.MODEL_VERSION;
+            } else if (forecastStateService.isUsable(state)) {
+                // Projection depends on the state and on how far today is from it
+                model = ForecastStateService.MODEL_VERSION + ":" + state.getLastDate() + ":" + today;
+            } else {
+                model = SMA_MODEL;
+            }
+            int stock = product.getCurrentStock() != null ? product.getCurrentStock() : 0;
+            keys.put(product.getId(), model + "|" + markers.getOrDefault(product.getId(), "0:0")
+                    + "|" + Math.floorDiv(stock, Math.max(1, stockBucket))
+                    + "|" + product.getReorderLevel() + ":" + product.getReorderQuantity());
+        }
+        return keys;
+    }
+
+    /**
+     * Cached forecasts whose input key still matches, memory first
+     */
+    public Map<Long, ForecastResponse> lookup(String period, int horizon, Map<Long, String> inputKeys) {
+        Map<Long, String> hits = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        synchronized (memory) {
+            inputKeys.forEach((productId, key) -> {
+                CachedForecast cached = memory.get(new Slot(productId, period, horizon));
+                if (cached != null && cached.inputKey().equals(key)) {
+                    hits.put(productId, cached.json());
+                } else {
+                    misses.add(productId);
+                }
+            });
+        }
+
+        if (!misses.isEmpty()) {
+            List<ForecastCacheEntry> stored = cacheRepository
+                    .findByForecastPeriodAndHorizonDaysAndProductIdIn(period, horizon, misses);
+            synchronized (memory) {
+                for (ForecastCacheEntry entry : stored) {
+                    if (entry.getInputKey().equals(inputKeys.get(entry.getProductId()))) {
+                        hits.put(entry.getProductId(), entry.getResponseJson());
+                        memory.put(new Slot(entry.getProductId(), period, horizon),
+                                new CachedForecast(entry.getInputKey(), entry.getResponseJson()));
+                    }
+                }
+            }
+        }
+
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Map<Long, ForecastResponse> responses = new HashMap<>(hits.size());
+        hits.forEach((productId, json) -> {
+            ForecastResponse response = read(json);
+            if (response != null && redate(response, tomorrow)) {
+                responses.put(productId, response);
+            }
+        });
+        return responses;
+    }
+
+    /**
+     * Remember freshly computed forecasts. Responses from a fallback model
+     * (e.g. AI service unavailable) are not cached under the primary key.
+     */
+    public void store(String period, int horizon, Map<Long, String> inputKeys, List<ForecastResponse> responses) {
+        Map<Long, CachedForecast> fresh = new HashMap<>();
+        for (ForecastResponse response : responses) {
+            String key = inputKeys.get(response.getProductId());
+            String model = response.getModelVersion();
+            if (key == null || model == null || !(key.startsWith(model + "|") || key.startsWith(model + ":")))
+                continue;
+            String json = write(response);
+            if (json != null)
+                fresh.put(response.getProductId(), new CachedForecast(key, json));
+        }
+        if (fresh.isEmpty())
+            return;
+
+        Map<Long, ForecastCacheEntry> existing = new HashMap<>();
+        cacheRepository.findByForecastPeriodAndHorizonDaysAndProductIdIn(period, horizon, fresh.keySet())
+                .forEach(e -> existing.put(e.getProductId(), e));
+        LocalDateTime now = LocalDateTime.now();
+        List<ForecastCacheEntry> toSave = new ArrayList<>(fresh.size());
+        fresh.forEach((productId, cached) -> {
+            ForecastCacheEntry entry = existing.getOrDefault(productId, ForecastCacheEntry.builder()
+                    .productId(productId)
+                    .forecastPeriod(period)
+                    .horizonDays(horizon)
+                    .build());
+            entry.setInputKey(cached.inputKey());
+            entry.setResponseJson(cached.json());
+            entry.setCreatedAt(now);
+            toSave.add(entry);
+        });
+        cacheRepository.saveAll(toSave);
+
+        synchronized (memory) {
+            fresh.forEach((productId, cached) -> memory.put(new Slot(productId, period, horizon), cached));
+        }
+    }
+
+    /**
+     * Shift a flat-model forecast so it starts at {@code startDate}; false when
+     * the forecast cannot be re-dated (shape depends on the date)
+     */
+    private boolean redate(ForecastResponse response, LocalDate startDate) {
+        if (response.getForecastStartDate() == null)
+            return false;
+        long shift = ChronoUnit.DAYS.between(response.getForecastStartDate(), startDate);
+        if (shift == 0)
+            return true;
+        if (!SMA_MODEL.equals(response.getModelVersion())
+                && !AIForecastClient.MODEL_VERSION.equals(response.getModelVersion()))
+            return false;
+
+        response.setForecastStartDate(startDate);
+        if (response.getForecastEndDate() != null)
+            response.setForecastEndDate(response.getForecastEndDate().plusDays(shift));
+        if (response.getForecasts() != null)
+            response.getForecasts().forEach(p -> p.setDate(p.getDate() != null ? p.getDate().plusDays(shift) : null));
+        if (response.getSummary() != null && response.getSummary().getPeakDemandDate() != null)
+            response.getSummary().setPeakDemandDate(response.getSummary().getPeakDemandDate().plusDays(shift));
+        return true;
+    }
+
+    private ForecastResponse read(String json) {
+        try {
+            return objectMapper.readValue(json, ForecastResponse.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable cached forecast: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String write(ForecastResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not cache forecast for product {}: {}", response.getProductId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private record Slot(Long productId, String period, int horizon) {
+    }
+
+    private record CachedForecast(String inputKey, String json) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ForecastResponse;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Forecast curve over the horizon as packed int arrays (demand, lower and
+ * upper bound), one value per forecast period from the start date
+ * - Serialized form: version, start day, point count, then the demand and
+ * both bounds' offsets from it as zigzag varints (a few bytes per point)
+ * - Decoding reads straight into the arrays; no per-point objects
+ */
+public final class ForecastCurve {
+
+    private static final byte VERSION = 1;
+
+    private final LocalDate startDate;
+    private final int[] demand;
+    private final int[] lowerBound;
+    private final int[] upperBound;
+
+    public ForecastCurve(LocalDate startDate, int[] demand, int[] lowerBound, int[] upperBound) {
+        if (lowerBound.length != demand.length || upperBound.length != demand.length)
+            throw new IllegalArgumentException("Curve arrays differ in length");
+        this.startDate = startDate;
+        this.demand = demand;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Curve of a forecast response, or null when it has no points; missing
+     * bounds fall back to the demand
+     */
+    public static ForecastCurve of(List<ForecastResponse.ForecastDataPoint> points) {
+        if (points == null || points.isEmpty() || points.get(0).getDate() == null)
+            return null;
+        int size = points.size();
+        int[] demand = new int[size];
+        int[] lower = new int[size];
+        int[] upper = new int[size];
+        for (int i = 0; i < size; i++) {
+            ForecastResponse.ForecastDataPoint point = points.get(i);
+            demand[i] = point.getPredictedDemand() != null ? point.getPredictedDemand() : 0;
+            lower[i] = point.getLowerBound() != null ? point.getLowerBound() : demand[i];
+            upper[i] = point.getUpperBound() != null ? point.getUpperBound() : demand[i];
+        }
+        return new ForecastCurve(points.get(0).getDate(), demand, lower, upper);
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int size() {
+        return demand.length;
+    }
+
+    public int[] getDemand() {
+        return demand;
+    }
+
+    public int[] getLowerBound() {
+        return lowerBound;
+    }
+
+    public int[] getUpperBound() {
+        return upperBound;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 5 + demand.length * 3 * 5);
+        buffer.put(VERSION);
+        buffer.putInt((int) startDate.toEpochDay());
+        putVarint(buffer, demand.length);
+        for (int value : demand) {
+            putVarint(buffer, zigzag(value));
+        }
+        for (int i = 0; i < demand.length; i++) {
+            putVarint(buffer, zigzag(demand[i] - lowerBound[i]));
+        }
+        for (int i = 0; i < demand.length; i++) {
+            putVarint(buffer, zigzag(upperBound[i] - demand[i]));
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Decode a stored curve; null for null (forecasts saved before curves
+     * were kept)
+     *
+     * @throws IllegalArgumentException for an unknown version or malformed
+     *                                  bytes
+     */
+    public static ForecastCurve fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0)
+            return null;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION)
+                throw new IllegalArgumentException("Unsupported forecast curve version: " + version);
+            LocalDate startDate = LocalDate.ofEpochDay(buffer.getInt());
+            int size = getVarint(buffer);
+            // Every point takes at least one byte per array
+            if (size < 0 || size > buffer.remaining() / 3)
+                throw new IllegalArgumentException("Forecast curve size " + size + " exceeds its "
+                        + buffer.remaining() + " remaining bytes");
+            int[] demand = new int[size];
+            int[] lower = new int[size];
+            int[] upper = new int[size];
+            for (int i = 0; i < size; i++) {
+                demand[i] = unzigzag(getVarint(buffer));
+            }
+            for (int i = 0; i < size; i++) {
+                lower[i] = demand[i] - unzigzag(getVarint(buffer));
+            }
+            for (int i = 0; i < size; i++) {
+                upper[i] = demand[i] + unzigzag(getVarint(buffer));
+            }
+            return new ForecastCurve(startDate, demand, lower, upper);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated forecast curve", e);
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Varint longer than 5 bytes in forecast curve");
+    }
+}
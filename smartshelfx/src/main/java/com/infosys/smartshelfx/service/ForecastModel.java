@@ -0,0 +1,33 @@
+package com.infosys.smartshelfx.service;
+
+/**
+ * In-JVM daily demand forecasting model
+ * - Implementations are Spring components, picked up by ForecastModelService
+ * and selectable per category by {@link #name()}
+ * - Work on a primitive daily series and a caller-owned output buffer; no
+ * per-point allocation, safe to call concurrently
+ */
+public interface ForecastModel {
+
+    /**
+     * Identifier used in category configuration, e.g. CROSTON_SBA
+     */
+    String name();
+
+    /**
+     * Model version recorded on forecasts, e.g. LOCAL_CROSTON_SBA_V1
+     */
+    String version();
+
+    /**
+     * Forecast the {@code horizon} days following {@code series[to - 1]}.
+     *
+     * @param series daily demand, oldest first
+     * @param from   first index to use (inclusive)
+     * @param to     last index to use (exclusive)
+     * @param out    receives the forecasts in {@code out[0..horizon)}, never
+     *               negative
+     * @return mean absolute one-step-ahead error over the series (0 if unknown)
+     */
+    double forecast(double[] series, int from, int to, int horizon, double[] out);
+}
@@ -0,0 +1,163 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ForecastModelConfig;
+import com.infosys.smartshelfx.entity.Category;
+import com.infosys.smartshelfx.entity.Product;
+import com.infosys.smartshelfx.repository.CategoryRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Registry of in-JVM forecast models
+ * - Every ForecastModel component is available by name
+ * - Each category may name its model; otherwise the default applies.
+ * AUTO keeps the built-in choice (AI service, smoothing state or moving
+ * average)
+ * - Loads daily demand straight into primitive series for the models
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastModelService {
+
+    public static final String AUTO = "AUTO";
+
+    private final List<ForecastModel> models;
+    private final CategoryRepository categoryRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+
+    @Value("${forecast.model.default:AUTO}")
+    private String defaultModel;
+
+    public Optional<ForecastModel> findModel(String name) {
+        if (name == null)
+            return Optional.empty();
+        return models.stream().filter(m -> m.name().equalsIgnoreCase(name)).findFirst();
+    }
+
+    public List<ForecastModel> getModels() {
+        return models;
+    }
+
+    /**
+     * Model per product from its category (or the default); products left on
+     * AUTO are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ForecastModel> resolveModels(Collection<Product> products) {
+        Map<Long, String> assigned = new HashMap<>();
+        for (Object[] row : categoryRepository.findForecastModelAssignments()) {
+            assigned.put((Long) row[0], (String) row[1]);
+        }
+        if (assigned.isEmpty() && AUTO.equalsIgnoreCase(defaultModel))
+            return Map.of();
+
+        Map<Long, ForecastModel> resolved = new HashMap<>();
+        for (Product product : products) {
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            findModel(assigned.getOrDefault(categoryId, defaultModel))
+                    .ifPresent(model -> resolved.put(product.getId(), model));
+        }
+        return resolved;
+    }
+
+    /**
+     * Daily demand per product over [startDate, endDate], starting no earlier
+     * than the product's creation day; one grouped query
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, double[]> loadDailyDemand(Collection<Product> products, LocalDate startDate, LocalDate endDate) {
+        Map<Long, LocalDate> seriesStarts = new HashMap<>(products.size());
+        for (Product product : products) {
+            LocalDate created = product.getCreatedAt() != null ? product.getCreatedAt().toLocalDate() : startDate;
+            seriesStarts.put(product.getId(), created.isAfter(startDate) ? created : startDate);
+        }
+        return loadDailyDemand(seriesStarts, endDate);
+    }
+
+    /**
+     * Daily demand per product from its own start day through
+     * {@code endDate}; one grouped query
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, double[]> loadDailyDemand(Map<Long, LocalDate> seriesStarts, LocalDate endDate) {
+        Map<Long, double[]> demand = new HashMap<>(seriesStarts.size());
+        if (seriesStarts.isEmpty())
+            return demand;
+        seriesStarts.forEach((id, start) -> demand.put(id,
+                new double[Math.max(0, (int) ChronoUnit.DAYS.between(start, endDate) + 1)]));
+
+        LocalDate startDate = Collections.min(seriesStarts.values());
+        for (Object[] row : salesHistoryRepository.getDailySalesByProducts(new ArrayList<>(seriesStarts.keySet()),
+                startDate, endDate)) {
+            Long productId = (Long) row[0];
+            int index = (int) ChronoUnit.DAYS.between(seriesStarts.get(productId), (LocalDate) row[1]);
+            double[] series = demand.get(productId);
+            if (index >= 0 && index < series.length) {
+                series[index] = row[2] != null ? ((Number) row[2]).doubleValue() : 0;
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Default model, registered models and every category's model
+     */
+    @Transactional(readOnly = true)
+    public ForecastModelConfig getConfig() {
+        List<String> names = new ArrayList<>();
+        names.add(AUTO);
+        models.forEach(m -> names.add(m.name()));
+
+        List<ForecastModelConfig.CategoryModel> categories = categoryRepository.findAll().stream()
+                .sorted(Comparator.comparing(Category::getName))
+                .map(c -> ForecastModelConfig.CategoryModel.builder()
+                        .categoryId(c.getId())
+                        .categoryName(c.getName())
+                        .model(c.getForecastModel() != null ? c.getForecastModel() : AUTO)
+                        .build())
+                .toList();
+
+        return ForecastModelConfig.builder()
+                .defaultModel(defaultModel)
+                .models(names)
+                .categories(categories)
+                .build();
+    }
+
+    /**
+     * Set a category's forecast model; AUTO (or null) clears it
+     */
+    @Transactional
+    public ForecastModelConfig.CategoryModel assignModel(Long categoryId, String model) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Category not found with id: " + categoryId));
+        String name = null;
+        if (model != null && !AUTO.equalsIgnoreCase(model)) {
+            name = findModel(model)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Unknown forecast model: " + model))
+                    .name();
+        }
+        category.setForecastModel(name);
+        categoryRepository.save(category);
+        log.info("Forecast model of category {} set to {}", categoryId, name != null ? name : AUTO);
+
+        return ForecastModelConfig.CategoryModel.builder()
+                .categoryId(category.getId())
+                .categoryName(category.getName())
+                .model(name != null ? name : AUTO)
+                .build();
+    }
+}
@@ -0,0 +1,437 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ForecastRequest;
+import com.infosys.smartshelfx.dtos.ForecastResponse;
+import com.infosys.smartshelfx.dtos.ForecastRunStatus;
+import com.infosys.smartshelfx.entity.DemandForecast;
+import com.infosys.smartshelfx.entity.ForecastState;
+import com.infosys.smartshelfx.entity.Product;
+import com.infosys.smartshelfx.entity.SalesHistory;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk forecasting pipeline (nightly run and generate-all)
+ * - Products are split into chunks; each chunk resolves category models and
+ * smoothing states and loads the sales series its products still need in one
+ * grouped query (read-only transaction), computes forecasts outside any
+ * transaction (the AI service is called over HTTP), then batch-inserts the
+ * results, updates the current forecast rows and raises its stockout alerts
+ * in its own transaction
+ * - A product that fails to forecast is recorded as an error and skipped;
+ * the rest of its chunk is saved
+ * - Slow movers of a category share one category-level forecast (see
+ * HierarchicalForecastService); only the others run individual models
+ * - Products whose inputs have not changed since their last forecast reuse it
+ * (no computation, no new forecast row, no repeated alert)
+ * - Chunks run in parallel on a bounded pool; a failing chunk rolls back
+ * alone and the run continues
+ * - Progress (chunks, products, throughput, errors) is exposed while running
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastPipelineService {
+
+    private static final String INSERT_FORECAST = "INSERT INTO demand_forecasts (product_id, forecast_date, " +
+            "forecast_period, predicted_demand, confidence_score, lower_bound, upper_bound, current_stock, " +
+            "recommended_restock, days_until_stockout, is_at_risk, model_version, horizon_days, target_end_date, " +
+            "curve, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int ALERT_DAYS = 14;
+    private static final int MAX_ERRORS = 20;
+
+    private final ProductRepository productRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final ForecastingService forecastingService;
+    private final ForecastStateService forecastStateService;
+    private final ForecastCacheService forecastCacheService;
+    private final ForecastModelService forecastModelService;
+    private final HierarchicalForecastService hierarchicalForecastService;
+    private final CurrentForecastService currentForecastService;
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${forecast.pipeline.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${forecast.pipeline.threads:4}")
+    private int threads;
+
+    @Value("${forecast.pipeline.history-months:6}")
+    private int historyMonths;
+
+    @Value("${ai.service.enabled:false}")
+    private boolean aiServiceEnabled;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Progress of the current (or last) run
+    private volatile String status = "IDLE";
+    private volatile String runPeriod;
+    private volatile int runHorizon;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile int totalProducts;
+    private volatile int totalChunks;
+    private final AtomicInteger processedProducts = new AtomicInteger();
+    private final AtomicInteger failedProducts = new AtomicInteger();
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger forecastsSaved = new AtomicInteger();
+    private final AtomicInteger alertsRaised = new AtomicInteger();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Forecast every (active) product. When {@code sink} is given, the
+     * computed responses are added to it.
+     *
+     * @return final run status
+     */
+    public ForecastRunStatus runForecasts(String period, int horizon, boolean activeOnly,
+            List<ForecastResponse> sink) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A forecast run is already in progress");
+        }
+        ExecutorService pool = null;
+        try {
+            List<Long> productIds = activeOnly ? productRepository.findActiveIds() : productRepository.findAllIds();
+            start(period != null ? period : "DAILY", horizon > 0 ? horizon : 14, productIds.size());
+
+            int size = Math.max(1, chunkSize);
+            List<List<Long>> chunks = new ArrayList<>();
+            for (int from = 0; from < productIds.size(); from += size) {
+                chunks.add(productIds.subList(from, Math.min(from + size, productIds.size())));
+            }
+            totalChunks = chunks.size();
+            Map<Long, ForecastModel> topDown = prepareHierarchy();
+
+            // runChunk records its own failures, so the tasks never throw
+            pool = Executors.newFixedThreadPool(Math.max(1, threads));
+            List<Callable<Void>> tasks = new ArrayList<>(chunks.size());
+            for (List<Long> chunk : chunks) {
+                tasks.add(() -> {
+                    runChunk(chunk, topDown, sink);
+                    return null;
+                });
+            }
+            pool.invokeAll(tasks);
+
+            status = failedChunks.get() > 0 ? "COMPLETED_WITH_ERRORS" : "COMPLETED";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = "INTERRUPTED";
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+
+        ForecastRunStatus result = getStatus();
+        log.info("Forecast pipeline {}: {} products in {} chunks ({} failed), {} forecasts, {} alerts in {} ms",
+                result.getStatus(), result.getProcessedProducts(), result.getTotalChunks(), result.getFailedChunks(),
+                result.getForecastsSaved(), result.getAlertsRaised(), result.getElapsedMs());
+        return result;
+    }
+
+    /**
+     * Progress of the current run, or the result of the last one
+     */
+    public ForecastRunStatus getStatus() {
+        LocalDateTime started = startedAt;
+        LocalDateTime finished = running.get() ? null : finishedAt;
+        long elapsed = started == null ? 0
+                : ChronoUnit.MILLIS.between(started, finished != null ? finished : LocalDateTime.now());
+        int processed = processedProducts.get();
+        List<String> errorSnapshot;
+        synchronized (errors) {
+            errorSnapshot = new ArrayList<>(errors);
+        }
+        return ForecastRunStatus.builder()
+                .status(running.get() ? "RUNNING" : status)
+                .period(runPeriod)
+                .horizon(runHorizon)
+                .startedAt(started)
+                .finishedAt(finished)
+                .totalProducts(totalProducts)
+                .processedProducts(processed)
+                .failedProducts(failedProducts.get())
+                .totalChunks(totalChunks)
+                .completedChunks(completedChunks.get())
+                .failedChunks(failedChunks.get())
+                .cacheHits(cacheHits.get())
+                .forecastsSaved(forecastsSaved.get())
+                .alertsRaised(alertsRaised.get())
+                .elapsedMs(elapsed)
+                .productsPerSecond(elapsed > 0 ? Math.round(processed * 100000.0 / elapsed) / 100.0 : null)
+                .errors(errorSnapshot)
+                .build();
+    }
+
+    private void start(String period, int horizon, int products) {
+        status = "RUNNING";
+        runPeriod = period;
+        runHorizon = horizon;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        totalProducts = products;
+        totalChunks = 0;
+        processedProducts.set(0);
+        failedProducts.set(0);
+        completedChunks.set(0);
+        failedChunks.set(0);
+        cacheHits.set(0);
+        forecastsSaved.set(0);
+        alertsRaised.set(0);
+        errors.clear();
+    }
+
+    /**
+     * Top-down models of the slow movers; if the hierarchy cannot be built,
+     * every product is forecast individually
+     */
+    private Map<Long, ForecastModel> prepareHierarchy() {
+        try {
+            return hierarchicalForecastService.prepare(runHorizon);
+        } catch (Exception e) {
+            log.warn("Forecast hierarchy failed, forecasting all products individually: {}", e.getMessage(), e);
+            return Map.of();
+        }
+    }
+
+    private void runChunk(List<Long> productIds, Map<Long, ForecastModel> topDown, List<ForecastResponse> sink) {
+        try {
+            List<ForecastResponse> responses = forecastChunk(productIds, topDown);
+            if (sink != null && responses != null) {
+                synchronized (sink) {
+                    sink.addAll(responses);
+                }
+            }
+            completedChunks.incrementAndGet();
+        } catch (Exception e) {
+            failedChunks.incrementAndGet();
+            failedProducts.addAndGet(productIds.size());
+            addError("Chunk starting at product " + productIds.get(0) + ": " + e.getMessage());
+            log.error("Forecast pipeline chunk failed ({} products): {}", productIds.size(), e.getMessage(), e);
+        } finally {
+            processedProducts.addAndGet(productIds.size());
+        }
+    }
+
+    private void addError(String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS)
+                errors.add(error);
+        }
+    }
+
+    private void productFailed(Product product, Exception e) {
+        failedProducts.incrementAndGet();
+        addError("Product " + product.getId() + ": " + e.getMessage());
+        log.warn("Forecast failed for product {}: {}", product.getId(), e.getMessage(), e);
+    }
+
+    /**
+     * Read the chunk's inputs, compute with no transaction open, then write
+     * the results in one transaction
+     */
+    private List<ForecastResponse> forecastChunk(List<Long> productIds, Map<Long, ForecastModel> topDown) {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        ChunkInputs inputs = read.execute(tx -> loadInputs(productIds, topDown));
+        if (inputs == null)
+            return List.of();
+        List<ForecastResponse> computed = compute(inputs);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        return write.execute(tx -> save(inputs, computed));
+    }
+
+    private ChunkInputs loadInputs(List<Long> productIds, Map<Long, ForecastModel> topDown) {
+        String period = runPeriod;
+        int horizon = runHorizon;
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusMonths(historyMonths);
+
+        List<Product> products = productRepository.findAllById(productIds);
+        Map<Long, ForecastModel> models = new HashMap<>(forecastModelService.resolveModels(products));
+        for (Long productId : productIds) {
+            ForecastModel share = topDown.get(productId);
+            if (share != null)
+                models.put(productId, share);
+        }
+        Map<Long, ForecastState> states = forecastStateService.findStates(productIds);
+        states.values().removeIf(state -> !forecastStateService.isUsable(state));
+
+        // Products whose inputs are unchanged reuse their previous forecast
+        Map<Long, String> inputKeys = forecastCacheService.isEnabled()
+                ? forecastCacheService.inputKeys(products, states, models, startDate)
+                : Map.of();
+        Map<Long, ForecastResponse> hits = inputKeys.isEmpty() ? Map.of()
+                : forecastCacheService.lookup(period, horizon, inputKeys);
+        List<Product> toCompute = products.stream().filter(p -> !hits.containsKey(p.getId())).toList();
+
+        // Category models read a primitive daily series; the AI engine and the moving average read
+        // sales rows, which products with a current smoothing state do not need. Top-down shares read neither
+        List<Product> modelled = toCompute.stream()
+                .filter(p -> models.containsKey(p.getId()) && !topDown.containsKey(p.getId())).toList();
+        Map<Long, double[]> demand = modelled.isEmpty() ? Map.of()
+                : forecastModelService.loadDailyDemand(modelled, startDate, endDate.minusDays(1));
+        List<Long> needHistory = toCompute.stream().map(Product::getId)
+                .filter(id -> !models.containsKey(id) && (aiServiceEnabled || !states.containsKey(id))).toList();
+        Map<Long, List<SalesHistory>> series = needHistory.isEmpty() ? Map.of()
+                : loadDailySeries(needHistory, startDate, endDate);
+        return new ChunkInputs(period, horizon, products, toCompute, hits, inputKeys, models, states, demand,
+                series);
+    }
+
+    /**
+     * Forecasts of the products to compute, in order; if the batch fails,
+     * each product is retried alone and a failing one is left null
+     */
+    private List<ForecastResponse> compute(ChunkInputs inputs) {
+        if (inputs.toCompute().isEmpty())
+            return List.of();
+        ForecastRequest request = ForecastRequest.builder()
+                .period(inputs.period())
+                .horizon(inputs.horizon())
+                .build();
+        try {
+            return forecastingService.computeForecasts(inputs.toCompute(), inputs.series(), inputs.states(),
+                    inputs.models(), inputs.demand(), request);
+        } catch (Exception e) {
+            log.warn("Forecast of {} products failed, retrying one by one: {}", inputs.toCompute().size(),
+                    e.getMessage());
+        }
+        List<ForecastResponse> computed = new ArrayList<>(inputs.toCompute().size());
+        for (Product product : inputs.toCompute()) {
+            try {
+                computed.add(forecastingService.computeForecasts(List.of(product), inputs.series(), inputs.states(),
+                        inputs.models(), inputs.demand(), request).get(0));
+            } catch (Exception e) {
+                productFailed(product, e);
+                computed.add(null);
+            }
+        }
+        return computed;
+    }
+
+    private List<ForecastResponse> save(ChunkInputs inputs, List<ForecastResponse> computed) {
+        String period = inputs.period();
+        List<ForecastResponse> responses = new ArrayList<>(inputs.products().size());
+        List<ForecastResponse> stored = new ArrayList<>(computed.size());
+        List<Object[]> rows = new ArrayList<>(computed.size());
+        List<DemandForecast> current = new ArrayList<>(computed.size());
+        Map<Product, Integer> alerts = new LinkedHashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        responses.addAll(inputs.hits().values());
+        for (int i = 0; i < computed.size(); i++) {
+            Product product = inputs.toCompute().get(i);
+            ForecastResponse response = computed.get(i);
+            if (response == null)
+                continue;
+
+            DemandForecast forecast;
+            try {
+                forecast = forecastingService.toDemandForecast(product, response, period);
+            } catch (Exception e) {
+                productFailed(product, e);
+                continue;
+            }
+            responses.add(response);
+            stored.add(response);
+            if (forecast == null)
+                continue;
+            current.add(forecast);
+            rows.add(new Object[] {
+                    product.getId(),
+                    Date.valueOf(forecast.getForecastDate()),
+                    forecast.getForecastPeriod(),
+                    forecast.getPredictedDemand(),
+                    forecast.getConfidenceScore(),
+                    forecast.getLowerBound(),
+                    forecast.getUpperBound(),
+                    forecast.getCurrentStock(),
+                    forecast.getRecommendedRestock(),
+                    forecast.getDaysUntilStockout(),
+                    forecast.getIsAtRisk(),
+                    forecast.getModelVersion(),
+                    forecast.getHorizonDays(),
+                    forecast.getTargetEndDate() != null ? Date.valueOf(forecast.getTargetEndDate()) : null,
+                    forecast.getCurve(),
+                    now
+            });
+
+            Integer days = forecast.getDaysUntilStockout();
+            if (days != null && days <= ALERT_DAYS) {
+                alerts.put(product, days);
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FORECAST, rows);
+            currentForecastService.upsert(current);
+        }
+        int raised = notificationService.createForecastAlerts(alerts);
+        if (!inputs.inputKeys().isEmpty()) {
+            forecastCacheService.store(period, inputs.horizon(), inputs.inputKeys(), stored);
+        }
+
+        cacheHits.addAndGet(inputs.hits().size());
+        forecastsSaved.addAndGet(rows.size());
+        alertsRaised.addAndGet(raised);
+        return responses;
+    }
+
+    /**
+     * Daily sales per product, one grouped query for the whole chunk, as
+     * date-ordered series
+     */
+    private Map<Long, List<SalesHistory>> loadDailySeries(List<Long> productIds, LocalDate startDate,
+            LocalDate endDate) {
+        Map<Long, List<SalesHistory>> series = new HashMap<>();
+        for (Object[] row : salesHistoryRepository.getDailySalesByProducts(productIds, startDate, endDate)) {
+            int quantity = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            BigDecimal amount = (BigDecimal) row[3];
+            series.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(SalesHistory.builder()
+                    .saleDate((LocalDate) row[1])
+                    .quantity(quantity)
+                    .totalAmount(amount)
+                    .unitPrice(amount != null && quantity > 0
+                            ? amount.divide(BigDecimal.valueOf(quantity), 2, RoundingMode.HALF_UP)
+                            : null)
+                    .build());
+        }
+        series.values().forEach(days -> days.sort(Comparator.comparing(SalesHistory::getSaleDate)));
+        return series;
+    }
+
+    private record ChunkInputs(String period, int horizon, List<Product> products, List<Product> toCompute,
+            Map<Long, ForecastResponse> hits, Map<Long, String> inputKeys, Map<Long, ForecastModel> models,
+            Map<Long, ForecastState> states, Map<Long, double[]> demand, Map<Long, List<SalesHistory>> series) {
+    }
+}
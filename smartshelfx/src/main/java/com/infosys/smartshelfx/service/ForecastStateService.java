@@ -0,0 +1,286 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.entity.ForecastState;
+import com.infosys.smartshelfx.repository.ForecastStateRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Incremental exponential smoothing state per product
+ * - Damped Holt level and trend plus optional additive day-of-week
+ * seasonality (Holt-Winters), one compact row per product
+ * - Advanced once per closed day, O(1) per product and day; a product
+ * without state is seeded once from its recent daily sales
+ * - Forecasts for any horizon are projected from the state alone
+ * - Each chunk of products commits on its own; a product whose sales were
+ * backdated into days its state already folded in is reseeded from the seed
+ * window
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastStateService {
+
+    public static final String MODEL_VERSION = "LOCAL_HOLT_V1";
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int SEASON = 7;
+
+    private final ForecastStateRepository stateRepository;
+    private final ProductRepository productRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${forecast.state.alpha:0.3}")
+    private double alpha;
+
+    @Value("${forecast.state.beta:0.05}")
+    private double beta;
+
+    @Value("${forecast.state.gamma:0.1}")
+    private double gamma;
+
+    @Value("${forecast.state.phi:0.98}")
+    private double phi;
+
+    @Value("${forecast.state.seasonal:true}")
+    private boolean seasonalEnabled;
+
+    @Value("${forecast.state.seed.days:90}")
+    private int seedDays;
+
+    @Value("${forecast.state.min-observations:14}")
+    private int minObservations;
+
+    @Value("${forecast.state.max-stale-days:3}")
+    private int maxStaleDays;
+
+    /**
+     * Fold every closed day since each product's last update into its state,
+     * seeding products that have none
+     *
+     * @return number of product states advanced or seeded
+     */
+    public int advanceStates() {
+        long started = System.currentTimeMillis();
+        LocalDate through = LocalDate.now().minusDays(1);
+        LocalDate seedStart = through.minusDays(seedDays - 1);
+
+        List<Object[]> products = productRepository.findStatSnapshot();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int advanced = 0;
+        int reseeded = 0;
+        for (int from = 0; from < products.size(); from += CHUNK_SIZE) {
+            List<Object[]> chunk = products.subList(from, Math.min(from + CHUNK_SIZE, products.size()));
+            int[] counts = transaction.execute(tx -> advanceChunk(chunk, through, seedStart));
+            if (counts != null) {
+                advanced += counts[0];
+                reseeded += counts[1];
+            }
+        }
+
+        log.info("Forecast states: advanced {} products ({} reseeded after backdated sales) through {} in {} ms",
+                advanced, reseeded, through, System.currentTimeMillis() - started);
+        return advanced;
+    }
+
+    // Returns states saved and states reseeded
+    private int[] advanceChunk(List<Object[]> chunk, LocalDate through, LocalDate seedStart) {
+        List<Long> ids = chunk.stream().map(row -> (Long) row[0]).toList();
+        Map<Long, ForecastState> states = new HashMap<>();
+        stateRepository.findAllById(ids).forEach(s -> states.put(s.getProductId(), s));
+
+        // Sales backdated into folded days: drop the state and reseed
+        Set<Long> stale = new HashSet<>(salesHistoryRepository.findProductIdsWithSalesBehindState(ids, seedStart));
+        states.keySet().removeAll(stale);
+
+        // One sales query covers every gap (and every seed) in the chunk
+        LocalDate salesStart = through.plusDays(1);
+        for (Object[] row : chunk) {
+            ForecastState state = states.get((Long) row[0]);
+            LocalDate first = state != null && !state.getLastDate().isBefore(seedStart)
+                    ? state.getLastDate().plusDays(1)
+                    : seedStart;
+            if (first.isBefore(salesStart))
+                salesStart = first;
+        }
+        if (salesStart.isAfter(through))
+            return new int[] { 0, 0 };
+
+        // Taken before the sales query, so sales written after it count as new next time
+        LocalDateTime now = LocalDateTime.now();
+        int days = (int) ChronoUnit.DAYS.between(salesStart, through) + 1;
+        LocalDate seriesStart = salesStart;
+        Map<Long, double[]> sales = new HashMap<>();
+        for (Object[] row : salesHistoryRepository.getDailySalesByProducts(ids, salesStart, through)) {
+            sales.computeIfAbsent((Long) row[0], k -> new double[days])
+                    [(int) ChronoUnit.DAYS.between(seriesStart, (LocalDate) row[1])] = toDouble(row[2]);
+        }
+
+        List<ForecastState> toSave = new ArrayList<>();
+        int reseeded = 0;
+        for (Object[] row : chunk) {
+            Long productId = (Long) row[0];
+            double[] series = sales.getOrDefault(productId, new double[days]);
+            ForecastState state = states.get(productId);
+
+            if (state == null || state.getLastDate().isBefore(seedStart)) {
+                // Seed from the product's creation (within the window) onwards
+                LocalDate created = row[5] != null ? ((LocalDateTime) row[5]).toLocalDate() : seedStart;
+                LocalDate start = created.isAfter(seedStart) ? created : seedStart;
+                if (start.isAfter(through))
+                    continue;
+                state = seed(productId, series, (int) ChronoUnit.DAYS.between(salesStart, start), start);
+                if (stale.contains(productId))
+                    reseeded++;
+            } else if (state.getLastDate().isBefore(through)) {
+                int offset = (int) ChronoUnit.DAYS.between(salesStart, state.getLastDate()) + 1;
+                double[] seasonal = unpack(state.getSeasonal());
+                for (int d = offset; d < days; d++) {
+                    update(state, seasonal, series[d], salesStart.plusDays(d));
+                }
+                state.setSeasonal(pack(seasonal));
+            } else {
+                continue;
+            }
+            state.setLastDate(through);
+            state.setUpdatedAt(now);
+            toSave.add(state);
+        }
+        stateRepository.saveAll(toSave);
+        return new int[] { toSave.size(), reseeded };
+    }
+
+    public Map<Long, ForecastState> findStates(Collection<Long> productIds) {
+        Map<Long, ForecastState> states = new HashMap<>();
+        stateRepository.findAllById(productIds).forEach(s -> states.put(s.getProductId(), s));
+        return states;
+    }
+
+    public Optional<ForecastState> findUsableState(Long productId) {
+        return stateRepository.findById(productId).filter(this::isUsable);
+    }
+
+    /**
+     * Enough observations and recent enough to forecast from
+     */
+    public boolean isUsable(ForecastState state) {
+        return state != null && state.getObservations() >= minObservations
+                && !state.getLastDate().isBefore(LocalDate.now().minusDays(maxStaleDays + 1L));
+    }
+
+    /**
+     * Daily demand for {@code horizon} days starting at {@code startDate}
+     * (never negative)
+     */
+    public double[] project(ForecastState state, LocalDate startDate, int horizon) {
+        double[] seasonal = unpack(state.getSeasonal());
+        double[] forecast = new double[horizon];
+        int offset = (int) ChronoUnit.DAYS.between(state.getLastDate(), startDate);
+        double damping = 0;
+        double factor = 1;
+        for (int step = 1; step < offset; step++) {
+            factor *= phi;
+            damping += factor;
+        }
+        for (int i = 0; i < horizon; i++) {
+            factor *= phi;
+            damping += factor;
+            LocalDate date = startDate.plusDays(i);
+            double value = state.getLevel() + damping * state.getTrend() + seasonal[seasonIndex(date)];
+            forecast[i] = Math.max(0, value);
+        }
+        return forecast;
+    }
+
+    private ForecastState seed(Long productId, double[] series, int offset, LocalDate start) {
+        // Initial level: mean of the first week; offsets: deviations from it
+        int warmup = Math.min(SEASON, series.length - offset);
+        double sum = 0;
+        for (int d = 0; d < warmup; d++) {
+            sum += series[offset + d];
+        }
+        double level = warmup > 0 ? sum / warmup : 0;
+        double[] seasonal = new double[SEASON];
+        if (seasonalEnabled && warmup == SEASON) {
+            for (int d = 0; d < SEASON; d++) {
+                seasonal[seasonIndex(start.plusDays(d))] = series[offset + d] - level;
+            }
+        }
+
+        ForecastState state = ForecastState.builder()
+                .productId(productId)
+                .level(level)
+                .trend(0.0)
+                .meanAbsError(0.0)
+                .observations(0)
+                .lastDate(start.minusDays(1))
+                .build();
+        for (int d = offset; d < series.length; d++) {
+            update(state, seasonal, series[d], start.plusDays(d - offset));
+        }
+        state.setSeasonal(pack(seasonal));
+        return state;
+    }
+
+    /**
+     * One damped Holt-Winters step for the observed demand on {@code date}
+     */
+    private void update(ForecastState state, double[] seasonal, double actual, LocalDate date) {
+        int s = seasonIndex(date);
+        double level = state.getLevel();
+        double trend = state.getTrend();
+        double expected = level + phi * trend + seasonal[s];
+
+        double newLevel = alpha * (actual - seasonal[s]) + (1 - alpha) * (level + phi * trend);
+        double newTrend = beta * (newLevel - level) + (1 - beta) * phi * trend;
+        if (seasonalEnabled) {
+            seasonal[s] = gamma * (actual - newLevel) + (1 - gamma) * seasonal[s];
+        }
+
+        state.setLevel(newLevel);
+        state.setTrend(newTrend);
+        state.setMeanAbsError(state.getObservations() == 0 ? Math.abs(actual - expected)
+                : alpha * Math.abs(actual - expected) + (1 - alpha) * state.getMeanAbsError());
+        state.setObservations(state.getObservations() + 1);
+    }
+
+    private int seasonIndex(LocalDate date) {
+        return date.getDayOfWeek().getValue() - 1;
+    }
+
+    private byte[] pack(double[] seasonal) {
+        ByteBuffer buffer = ByteBuffer.allocate(SEASON * Double.BYTES);
+        for (double value : seasonal) {
+            buffer.putDouble(value);
+        }
+        return buffer.array();
+    }
+
+    private double[] unpack(byte[] packed) {
+        double[] seasonal = new double[SEASON];
+        if (packed != null && packed.length == SEASON * Double.BYTES) {
+            ByteBuffer buffer = ByteBuffer.wrap(packed);
+            for (int i = 0; i < SEASON; i++) {
+                seasonal[i] = buffer.getDouble();
+            }
+        }
+        return seasonal;
+    }
+
+    private double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+}
@@ -15,13 +15,14 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * AI Forecasting Service
@@ -35,21 +36,24 @@ import java.util.List;
 @Slf4j
 public class ForecastingService {
 
+    private static final int MAX_CURVE_PRODUCTS = 1000;
+
     private final ProductRepository productRepository;
     private final SalesHistoryRepository salesHistoryRepository;
     private final StockMovementRepository stockMovementRepository;
     private final DemandForecastRepository demandForecastRepository;
+    private final CurrentForecastRepository currentForecastRepository;
+    private final CurrentForecastService currentForecastService;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
-
-    @Value("${ai.service.url:http://localhost:8000}")
-    private String aiServiceUrl;
+    private final ForecastStateService forecastStateService;
+    private final AIForecastClient aiForecastClient;
+    private final ForecastCacheService forecastCacheService;
+    private final ForecastModelService forecastModelService;
 
     @Value("${ai.service.enabled:false}")
     private boolean aiServiceEnabled;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-
     /**
      * Generate forecast for a specific product
      */
@@ -59,23 +63,44 @@ public class ForecastingService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Product not found with id: " + request.getProductId()));
 
-        // Get historical sales data
+        // Local forecasts come from the category's model, else the stored smoothing state when it is current
+        ForecastModel model = forecastModelService.resolveModels(List.of(product)).get(product.getId());
+        ForecastState state = forecastStateService.findUsableState(product.getId()).orElse(null);
+        Map<Long, ForecastModel> models = model != null ? Map.of(product.getId(), model) : Map.of();
+        Map<Long, ForecastState> states = state != null ? Map.of(product.getId(), state) : Map.of();
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusMonths(6); // 6 months of historical data
 
-        List<SalesHistory> salesHistory = salesHistoryRepository
-                .findByProductIdAndDateRange(product.getId(), startDate, endDate);
+        // Unchanged inputs: return the previous forecast, nothing to compute or save
+        String period = request.getPeriod() != null ? request.getPeriod() : "DAILY";
+        int horizon = request.getHorizon() != null ? request.getHorizon() : 14;
+        Map<Long, String> inputKeys = Map.of();
+        if (forecastCacheService.isEnabled()) {
+            inputKeys = forecastCacheService.inputKeys(List.of(product), states, models, startDate);
+            ForecastResponse cached = forecastCacheService.lookup(period, horizon, inputKeys).get(product.getId());
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        // Generate forecast
-        ForecastResponse response;
-        if (aiServiceEnabled) {
-            response = generateForecastFromAI(product, salesHistory, request);
-        } else {
-            response = generateForecastLocally(product, salesHistory, request);
+        // Get historical sales data: a daily series for in-JVM models, rows for the AI engine and moving average
+        List<SalesHistory> salesHistory = List.of();
+        Map<Long, double[]> demand = Map.of();
+        if (model != null) {
+            demand = forecastModelService.loadDailyDemand(List.of(product), startDate, endDate.minusDays(1));
+        } else if (state == null || aiServiceEnabled) {
+            salesHistory = salesHistoryRepository.findByProductIdAndDateRange(product.getId(), startDate, endDate);
         }
 
+        // Generate forecast
+        ForecastResponse response = computeForecasts(List.of(product), Map.of(product.getId(), salesHistory),
+                states, models, demand, request).get(0);
+
         // Save forecast results
         saveForecastResults(product, response, request.getPeriod());
+        if (!inputKeys.isEmpty()) {
+            forecastCacheService.store(period, horizon, inputKeys, List.of(response));
+        }
 
         // Check for stockout risk and create alerts
         if (response.getSummary() != null && response.getSummary().getDaysUntilStockout() != null
@@ -87,35 +112,76 @@ public class ForecastingService {
     }
 
     /**
-     * Generate forecasts for all products
+     * Compute a forecast from a prepared sales series (AI service when
+     * enabled, local moving average otherwise). No database access.
      */
-    @Transactional
-    public List<ForecastResponse> generateAllForecasts(String period, int horizon) {
-        List<Product> products = productRepository.findAll();
-        List<ForecastResponse> forecasts = new ArrayList<>();
+    public ForecastResponse computeForecast(Product product, List<SalesHistory> salesHistory,
+            ForecastRequest request) {
+        return computeForecast(product, salesHistory, request, null);
+    }
 
-        for (Product product : products) {
-            try {
-                ForecastRequest request = ForecastRequest.builder()
-                        .productId(product.getId())
-                        .period(period != null ? period : "DAILY")
-                        .horizon(horizon > 0 ? horizon : 14)
-                        .build();
-
-                forecasts.add(generateForecast(request));
-            } catch (Exception e) {
-                log.error("Error generating forecast for product: {}", product.getSku(), e);
+    /**
+     * As above, projecting from the product's smoothing state instead of its
+     * sales series when the state is usable and the AI service is disabled
+     */
+    public ForecastResponse computeForecast(Product product, List<SalesHistory> salesHistory,
+            ForecastRequest request, ForecastState state) {
+        return computeForecasts(List.of(product), Map.of(product.getId(), salesHistory),
+                state != null ? Map.of(product.getId(), state) : Map.of(), Map.of(), Map.of(), request).get(0);
+    }
+
+    /**
+     * Forecast several products at once, in order. Products with a category
+     * model run it on their daily demand series (ending yesterday); the others
+     * go to the AI service in batches when enabled, falling back to the
+     * smoothing state or the moving average. No database access.
+     */
+    public List<ForecastResponse> computeForecasts(List<Product> products, Map<Long, List<SalesHistory>> series,
+            Map<Long, ForecastState> states, Map<Long, ForecastModel> models, Map<Long, double[]> demand,
+            ForecastRequest request) {
+        Map<Long, AIForecastResponse> aiResponses = Map.of();
+        if (aiServiceEnabled) {
+            List<AIForecastRequest> aiRequests = products.stream()
+                    .filter(p -> !models.containsKey(p.getId()))
+                    .map(p -> toAIRequest(p, series.getOrDefault(p.getId(), List.of()), request))
+                    .toList();
+            aiResponses = aiForecastClient.forecast(aiRequests);
+            if (aiResponses.size() < aiRequests.size()) {
+                log.debug("AI service forecast {} of {} products, the rest fall back to local models",
+                        aiResponses.size(), aiRequests.size());
             }
         }
 
-        return forecasts;
+        int horizon = request.getHorizon() != null ? request.getHorizon() : 14;
+        double[] buffer = new double[horizon + 1];
+        List<ForecastResponse> responses = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ForecastModel model = models.get(product.getId());
+            AIForecastResponse aiResponse = aiResponses.get(product.getId());
+            ForecastState state = states.get(product.getId());
+            if (model != null) {
+                // Series ends yesterday: forecast today too and drop it
+                double[] daily = demand.getOrDefault(product.getId(), new double[0]);
+                double mae = model.forecast(daily, 0, daily.length, horizon + 1, buffer);
+                responses.add(buildProjectedForecast(product, buffer, 1, horizon, mae, model.version(), request));
+            } else if (aiResponse != null) {
+                responses.add(convertAIResponse(product, aiResponse, request));
+            } else if (forecastStateService.isUsable(state)) {
+                responses.add(generateForecastFromState(product, state, request));
+            } else {
+                responses.add(generateForecastLocally(product, series.getOrDefault(product.getId(), List.of()),
+                        request));
+            }
+        }
+        return responses;
     }
 
     /**
      * Get products at risk of stockout
      */
+    @Transactional(readOnly = true)
     public List<DemandForecastDTO> getProductsAtRisk() {
-        return demandForecastRepository.findProductsAtRisk()
+        return currentForecastRepository.findProductsAtRisk()
                 .stream()
                 .map(this::toForecastDTO)
                 .toList();
@@ -124,8 +190,9 @@ public class ForecastingService {
     /**
      * Get products at risk for a specific vendor
      */
+    @Transactional(readOnly = true)
     public List<DemandForecastDTO> getProductsAtRiskByVendor(Long vendorId) {
-        return demandForecastRepository.findProductsAtRiskByVendor(vendorId)
+        return currentForecastRepository.findProductsAtRiskByVendor(vendorId)
                 .stream()
                 .map(this::toForecastDTO)
                 .toList();
@@ -134,8 +201,9 @@ public class ForecastingService {
     /**
      * Get products at risk by createdBy (for Warehouse Managers)
      */
+    @Transactional(readOnly = true)
     public List<DemandForecastDTO> getProductsAtRiskByCreatedBy(Long createdBy) {
-        return demandForecastRepository.findProductsAtRiskByCreatedBy(createdBy)
+        return currentForecastRepository.findProductsAtRiskByCreatedBy(createdBy)
                 .stream()
                 .map(this::toForecastDTO)
                 .toList();
@@ -144,6 +212,7 @@ public class ForecastingService {
     /**
      * Get forecast history for a product
      */
+    @Transactional(readOnly = true)
     public Page<DemandForecastDTO> getForecastHistory(Long productId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return demandForecastRepository.findByProductId(productId, pageable)
@@ -153,6 +222,7 @@ public class ForecastingService {
     /**
      * Get latest forecast for a product
      */
+    @Transactional(readOnly = true)
     public DemandForecastDTO getLatestForecast(Long productId) {
         return demandForecastRepository.findTopByProductIdOrderByCreatedAtDesc(productId)
                 .map(this::toForecastDTO)
@@ -160,49 +230,62 @@ public class ForecastingService {
     }
 
     /**
-     * Call AI microservice for forecast
+     * Forecast curves of several products in one query: the current ones, or
+     * the last ones made on {@code forecastDate}. Products without a stored
+     * curve are left out.
      */
-    private ForecastResponse generateForecastFromAI(
-            Product product,
-            List<SalesHistory> salesHistory,
-            ForecastRequest request) {
-
-        try {
-            // Prepare request for AI service
-            AIForecastRequest aiRequest = AIForecastRequest.builder()
-                    .productId(product.getId())
-                    .productSku(product.getSku())
-                    .historicalData(salesHistory.stream()
-                            .map(sh -> AIForecastRequest.HistoricalDataPoint.builder()
-                                    .date(sh.getSaleDate())
-                                    .quantity(sh.getQuantity())
-                                    .price(sh.getUnitPrice() != null ? sh.getUnitPrice().doubleValue() : null)
-                                    .build())
-                            .toList())
-                    .period(request.getPeriod())
-                    .horizon(request.getHorizon() != null ? request.getHorizon() : 14)
-                    .includeSeasonality(request.getIncludeSeasonality())
-                    .includeTrends(request.getIncludeTrends())
-                    .build();
-
-            // Call AI service
-            AIForecastResponse aiResponse = restTemplate.postForObject(
-                    aiServiceUrl + "/api/forecast",
-                    aiRequest,
-                    AIForecastResponse.class);
-
-            if (aiResponse == null) {
-                log.warn("AI service returned null response, falling back to local forecast");
-                return generateForecastLocally(product, salesHistory, request);
-            }
-
-            // Convert AI response to ForecastResponse
-            return convertAIResponse(product, aiResponse, request);
-
-        } catch (Exception e) {
-            log.error("Error calling AI service, falling back to local forecast", e);
-            return generateForecastLocally(product, salesHistory, request);
+    @Transactional(readOnly = true)
+    public List<ForecastCurveDTO> getForecastCurves(List<Long> productIds, String period, LocalDate forecastDate) {
+        if (productIds == null || productIds.isEmpty())
+            return List.of();
+        if (productIds.size() > MAX_CURVE_PRODUCTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_CURVE_PRODUCTS + " products per request");
         }
+        String forecastPeriod = period != null ? period : "DAILY";
+        List<Object[]> rows = forecastDate != null
+                ? demandForecastRepository.findCurvesOn(productIds, forecastDate, forecastPeriod)
+                : currentForecastRepository.findCurves(productIds, forecastPeriod);
+
+        // History rows come oldest first: the last one of a product wins
+        Map<Long, ForecastCurveDTO> curves = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            ForecastCurve curve = ForecastCurve.fromBytes((byte[]) row[4]);
+            if (curve == null)
+                continue;
+            curves.put((Long) row[0], ForecastCurveDTO.builder()
+                    .productId((Long) row[0])
+                    .forecastDate((LocalDate) row[1])
+                    .forecastPeriod((String) row[2])
+                    .modelVersion((String) row[3])
+                    .startDate(curve.getStartDate())
+                    .demand(curve.getDemand())
+                    .lowerBound(curve.getLowerBound())
+                    .upperBound(curve.getUpperBound())
+                    .build());
+        }
+        return new ArrayList<>(curves.values());
+    }
+
+    /**
+     * Build the AI engine request for one product
+     */
+    private AIForecastRequest toAIRequest(Product product, List<SalesHistory> salesHistory, ForecastRequest request) {
+        return AIForecastRequest.builder()
+                .productId(product.getId())
+                .productSku(product.getSku())
+                .historicalData(salesHistory.stream()
+                        .map(sh -> AIForecastRequest.HistoricalDataPoint.builder()
+                                .date(sh.getSaleDate())
+                                .quantity(sh.getQuantity())
+                                .price(sh.getUnitPrice() != null ? sh.getUnitPrice().doubleValue() : null)
+                                .build())
+                        .toList())
+                .period(request.getPeriod())
+                .horizon(request.getHorizon() != null ? request.getHorizon() : 14)
+                .includeSeasonality(request.getIncludeSeasonality())
+                .includeTrends(request.getIncludeTrends())
+                .build();
     }
 
     /**
@@ -289,6 +372,107 @@ public class ForecastingService {
                 .build();
     }
 
+    /**
+     * Generate forecast from the stored Holt-Winters state (no history read)
+     */
+    private ForecastResponse generateForecastFromState(
+            Product product,
+            ForecastState state,
+            ForecastRequest request) {
+
+        int horizon = request.getHorizon() != null ? request.getHorizon() : 14;
+        double[] demand = forecastStateService.project(state, LocalDate.now().plusDays(1), horizon);
+        return buildProjectedForecast(product, demand, 0, horizon, state.getMeanAbsError(),
+                ForecastStateService.MODEL_VERSION, request);
+    }
+
+    /**
+     * Build a forecast response from projected daily demand
+     * {@code demand[offset..offset + horizon)}, starting tomorrow, with bounds
+     * from the model's mean absolute error
+     */
+    private ForecastResponse buildProjectedForecast(
+            Product product,
+            double[] demand,
+            int offset,
+            int horizon,
+            double meanAbsError,
+            String modelVersion,
+            ForecastRequest request) {
+
+        String period = request.getPeriod() != null ? request.getPeriod() : "DAILY";
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        double spread = 1.25 * meanAbsError;
+        double confidence = 0.75;
+
+        List<ForecastResponse.ForecastDataPoint> forecasts = new ArrayList<>();
+        int projectedStock = product.getCurrentStock();
+        int daysUntilStockout = Integer.MAX_VALUE;
+        int totalPredictedDemand = 0;
+        int peakDemand = 0;
+        LocalDate peakDemandDate = startDate;
+
+        // Whole units per day by rounding the running total, so slow movers keep their demand
+        double cumulative = 0;
+        for (int i = 0; i < horizon; i++) {
+            double value = demand[offset + i];
+            int predictedDemand = (int) (Math.round(cumulative + value) - Math.round(cumulative));
+            cumulative += value;
+            projectedStock -= predictedDemand;
+            totalPredictedDemand += predictedDemand;
+            if (predictedDemand > peakDemand) {
+                peakDemand = predictedDemand;
+                peakDemandDate = startDate.plusDays(i);
+            }
+            if (projectedStock <= 0 && daysUntilStockout == Integer.MAX_VALUE) {
+                daysUntilStockout = i;
+            }
+
+            forecasts.add(ForecastResponse.ForecastDataPoint.builder()
+                    .date(startDate.plusDays(i))
+                    .predictedDemand(predictedDemand)
+                    .lowerBound((int) Math.max(0, Math.floor(value - spread)))
+                    .upperBound((int) Math.ceil(value + spread))
+                    .confidence(confidence)
+                    .projectedStock(Math.max(0, projectedStock))
+                    .stockoutRisk(projectedStock <= 0)
+                    .build());
+        }
+
+        // Beyond the horizon, extrapolate at the average projected rate
+        double avgDailySales = horizon > 0 ? cumulative / horizon : 0;
+        if (daysUntilStockout == Integer.MAX_VALUE) {
+            daysUntilStockout = calculateDaysUntilStockout(product.getCurrentStock(), avgDailySales);
+        }
+        int recommendedRestock = calculateRecommendedRestock(product, avgDailySales, daysUntilStockout);
+
+        ForecastResponse.ForecastSummary summary = ForecastResponse.ForecastSummary.builder()
+                .totalPredictedDemand(totalPredictedDemand)
+                .averageDailyDemand((int) Math.ceil(avgDailySales))
+                .peakDemand(peakDemand)
+                .peakDemandDate(peakDemandDate)
+                .daysUntilStockout(daysUntilStockout)
+                .recommendedRestock(recommendedRestock)
+                .riskAssessment(assessRisk(daysUntilStockout))
+                .recommendations(generateRecommendations(product, daysUntilStockout, recommendedRestock))
+                .build();
+
+        return ForecastResponse.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .productSku(product.getSku())
+                .period(period)
+                .forecastStartDate(startDate)
+                .forecastEndDate(startDate.plusDays(horizon - 1))
+                .currentStock(product.getCurrentStock())
+                .reorderLevel(product.getReorderLevel())
+                .forecasts(forecasts)
+                .summary(summary)
+                .modelVersion(modelVersion)
+                .overallConfidence(confidence)
+                .build();
+    }
+
     private ForecastResponse convertAIResponse(
             Product product,
             AIForecastResponse aiResponse,
@@ -351,10 +535,22 @@ public class ForecastingService {
     }
 
     private void saveForecastResults(Product product, ForecastResponse response, String period) {
+        DemandForecast forecast = toDemandForecast(product, response, period);
+        if (forecast != null) {
+            demandForecastRepository.save(forecast);
+            currentForecastService.upsert(List.of(forecast));
+        }
+    }
+
+    /**
+     * Forecast record to persist for a response, or null when it has no summary
+     */
+    public DemandForecast toDemandForecast(Product product, ForecastResponse response, String period) {
         if (response.getSummary() == null)
-            return;
+            return null;
+        ForecastCurve curve = ForecastCurve.of(response.getForecasts());
 
-        DemandForecast forecast = DemandForecast.builder()
+        return DemandForecast.builder()
                 .product(product)
                 .forecastDate(LocalDate.now())
                 .forecastPeriod(period != null ? period : "DAILY")
@@ -368,9 +564,10 @@ public class ForecastingService {
                 .isAtRisk(response.getSummary().getDaysUntilStockout() != null &&
                         response.getSummary().getDaysUntilStockout() <= 14)
                 .modelVersion(response.getModelVersion())
+                .horizonDays(response.getForecasts() != null ? response.getForecasts().size() : null)
+                .targetEndDate(response.getForecastEndDate())
+                .curve(curve != null ? curve.toBytes() : null)
                 .build();
-
-        demandForecastRepository.save(forecast);
     }
 
     private int calculateDaysUntilStockout(int currentStock, double avgDailySales) {
@@ -431,17 +628,7 @@ public class ForecastingService {
         Product product = forecast.getProduct();
         String riskLevel = assessRisk(
                 forecast.getDaysUntilStockout() != null ? forecast.getDaysUntilStockout() : Integer.MAX_VALUE);
-
-        String suggestedAction = "";
-        if ("CRITICAL".equals(riskLevel)) {
-            suggestedAction = "Place emergency order immediately";
-        } else if ("HIGH".equals(riskLevel)) {
-            suggestedAction = "Order within 1-2 days";
-        } else if ("MEDIUM".equals(riskLevel)) {
-            suggestedAction = "Schedule order for next week";
-        } else {
-            suggestedAction = "Monitor stock levels";
-        }
+        ForecastCurve curve = ForecastCurve.fromBytes(forecast.getCurve());
 
         return DemandForecastDTO.builder()
                 .id(forecast.getId())
@@ -462,8 +649,52 @@ public class ForecastingService {
                 .riskLevel(riskLevel)
                 .modelVersion(forecast.getModelVersion())
                 .factors(forecast.getFactors())
+                .curveStartDate(curve != null ? curve.getStartDate() : null)
+                .demandCurve(curve != null ? curve.getDemand() : null)
+                .lowerCurve(curve != null ? curve.getLowerBound() : null)
+                .upperCurve(curve != null ? curve.getUpperBound() : null)
                 .createdAt(forecast.getCreatedAt())
-                .suggestedAction(suggestedAction)
+                .suggestedAction(suggestedAction(riskLevel))
+                .build();
+    }
+
+    private DemandForecastDTO toForecastDTO(CurrentForecast forecast) {
+        Product product = forecast.getProduct();
+        String riskLevel = assessRisk(
+                forecast.getDaysUntilStockout() != null ? forecast.getDaysUntilStockout() : Integer.MAX_VALUE);
+
+        return DemandForecastDTO.builder()
+                .id(forecast.getId())
+                .productId(product.getId())
+                .productName(product.getName())
+                .productSku(product.getSku())
+                .vendorName(product.getVendor() != null ? product.getVendor().getUsername() : null)
+                .forecastDate(forecast.getForecastDate())
+                .forecastPeriod(forecast.getForecastPeriod())
+                .predictedDemand(forecast.getPredictedDemand())
+                .confidenceScore(forecast.getConfidenceScore())
+                .lowerBound(forecast.getLowerBound())
+                .upperBound(forecast.getUpperBound())
+                .currentStock(forecast.getCurrentStock())
+                .recommendedRestock(forecast.getRecommendedRestock())
+                .daysUntilStockout(forecast.getDaysUntilStockout())
+                .projectedStockoutDate(forecast.getProjectedStockoutDate())
+                .inboundQuantity(forecast.getInboundQuantity())
+                .isAtRisk(forecast.getIsAtRisk())
+                .riskLevel(riskLevel)
+                .modelVersion(forecast.getModelVersion())
+                .createdAt(forecast.getUpdatedAt())
+                .suggestedAction(suggestedAction(riskLevel))
                 .build();
     }
+
+    private String suggestedAction(String riskLevel) {
+        if ("CRITICAL".equals(riskLevel))
+            return "Place emergency order immediately";
+        if ("HIGH".equals(riskLevel))
+            return "Order within 1-2 days";
+        if ("MEDIUM".equals(riskLevel))
+            return "Schedule order for next week";
+        return "Monitor stock levels";
+    }
 }
@@ -0,0 +1,227 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.HierarchyForecastSummary;
+import com.infosys.smartshelfx.repository.CategoryRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Category to product forecast hierarchy for the bulk pipeline
+ * - Products selling at least {@code forecast.hierarchy.fast-min-daily-demand}
+ * units a day keep their individual forecast
+ * - The slower products of a category are summed into one daily series,
+ * forecast once with the category's model (or the hierarchy default), and
+ * the forecast is split top-down by each product's share of the category's
+ * recent slow-mover sales
+ * - Slow series are sparse, so the aggregate is built from their daily rows
+ * chunk by chunk; the category totals stay coherent with the product
+ * forecasts by construction
+ * - Off by default (forecast.hierarchy.enabled); enabling it switches the
+ * slow products from their own forecast to the TOP_DOWN split
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HierarchicalForecastService {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final ForecastModelService forecastModelService;
+
+    @Value("${forecast.hierarchy.enabled:false}")
+    private boolean enabled;
+
+    @Value("${forecast.hierarchy.fast-min-daily-demand:1.0}")
+    private double fastMinDailyDemand;
+
+    @Value("${forecast.hierarchy.model:HOLT_WINTERS}")
+    private String aggregateModel;
+
+    @Value("${forecast.hierarchy.history-days:182}")
+    private int historyDays;
+
+    @Value("${forecast.hierarchy.min-history-days:28}")
+    private int minHistoryDays;
+
+    @Value("${forecast.hierarchy.share-days:56}")
+    private int shareDays;
+
+    @Value("${forecast.hierarchy.chunk-size:1000}")
+    private int chunkSize;
+
+    private volatile HierarchyForecastSummary lastSummary;
+
+    /**
+     * Forecast every category's slow movers as one series and hand each slow
+     * product its share
+     *
+     * @return top-down model per slow product; products absent here are
+     *         forecast individually
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ForecastModel> prepare(int horizon) {
+        if (!enabled)
+            return Map.of();
+        long started = System.currentTimeMillis();
+        LocalDate end = LocalDate.now().minusDays(1);
+        LocalDate start = end.minusDays(Math.max(1, historyDays) - 1L);
+        LocalDate shareStart = end.minusDays(Math.max(1, shareDays) - 1L);
+
+        Map<Long, Long> totals = new HashMap<>();
+        for (Object[] row : salesHistoryRepository.getSalesTotalsByProduct(start, end)) {
+            totals.put((Long) row[0], row[1] != null ? ((Number) row[1]).longValue() : 0L);
+        }
+
+        // Classify by average daily demand since the product (or the window) started
+        List<Object[]> products = productRepository.findStatSnapshot();
+        Map<Long, List<Long>> slowByCategory = new HashMap<>();
+        Map<Long, Integer> fastByCategory = new HashMap<>();
+        Map<Long, LocalDate> categoryStarts = new HashMap<>();
+        for (Object[] row : products) {
+            Long productId = (Long) row[0];
+            Long categoryId = (Long) row[1];
+            if (categoryId == null)
+                continue;
+            LocalDate created = row[5] != null ? ((LocalDateTime) row[5]).toLocalDate() : start;
+            LocalDate seriesStart = created.isAfter(start) ? created : start;
+            long days = ChronoUnit.DAYS.between(seriesStart, end) + 1;
+            if (days < 1)
+                continue;
+            if (totals.getOrDefault(productId, 0L) >= fastMinDailyDemand * days) {
+                fastByCategory.merge(categoryId, 1, Integer::sum);
+                continue;
+            }
+            slowByCategory.computeIfAbsent(categoryId, k -> new ArrayList<>()).add(productId);
+            categoryStarts.merge(categoryId, seriesStart, (a, b) -> a.isBefore(b) ? a : b);
+        }
+
+        // Aggregate daily series per category and recent sales per slow product
+        Map<Long, double[]> aggregates = new HashMap<>(slowByCategory.size());
+        Map<Long, Long> productCategory = new HashMap<>();
+        slowByCategory.forEach((categoryId, ids) -> {
+            aggregates.put(categoryId,
+                    new double[(int) ChronoUnit.DAYS.between(categoryStarts.get(categoryId), end) + 1]);
+            ids.forEach(id -> productCategory.put(id, categoryId));
+        });
+        Map<Long, Long> recent = new HashMap<>();
+        List<Long> slowIds = new ArrayList<>(productCategory.keySet());
+        int size = Math.max(1, chunkSize);
+        for (int from = 0; from < slowIds.size(); from += size) {
+            List<Long> chunk = slowIds.subList(from, Math.min(from + size, slowIds.size()));
+            for (Object[] row : salesHistoryRepository.getDailySalesByProducts(chunk, start, end)) {
+                Long productId = (Long) row[0];
+                LocalDate date = (LocalDate) row[1];
+                long quantity = row[2] != null ? ((Number) row[2]).longValue() : 0;
+                Long categoryId = productCategory.get(productId);
+                int index = (int) ChronoUnit.DAYS.between(categoryStarts.get(categoryId), date);
+                double[] aggregate = aggregates.get(categoryId);
+                if (index >= 0 && index < aggregate.length)
+                    aggregate[index] += quantity;
+                if (!date.isBefore(shareStart))
+                    recent.merge(productId, quantity, Long::sum);
+            }
+        }
+
+        Map<Long, String> assigned = new HashMap<>();
+        for (Object[] row : categoryRepository.findForecastModelAssignments()) {
+            assigned.put((Long) row[0], (String) row[1]);
+        }
+        Map<Long, String> categoryNames = new HashMap<>();
+        categoryRepository.findAll().forEach(c -> categoryNames.put(c.getId(), c.getName()));
+
+        Map<Long, ForecastModel> topDown = new HashMap<>(slowIds.size());
+        List<HierarchyForecastSummary.CategoryAggregate> categories = new ArrayList<>();
+        for (Map.Entry<Long, List<Long>> entry : slowByCategory.entrySet()) {
+            Long categoryId = entry.getKey();
+            List<Long> ids = entry.getValue();
+            double[] aggregate = aggregates.get(categoryId);
+            Optional<ForecastModel> model = forecastModelService.findModel(assigned.get(categoryId))
+                    .or(() -> forecastModelService.findModel(aggregateModel));
+            if (aggregate.length < minHistoryDays || model.isEmpty())
+                continue; // too young or no usable model: forecast the products individually
+
+            // Series ends yesterday: the curve starts today, as for the category models
+            double[] curve = new double[horizon + 1];
+            double absError = model.get().forecast(aggregate, 0, aggregate.length, curve.length, curve);
+
+            // Shares from recent sales, else the whole window, else equal
+            Map<Long, Long> weights = recent;
+            long weightTotal = ids.stream().mapToLong(id -> recent.getOrDefault(id, 0L)).sum();
+            if (weightTotal == 0) {
+                weights = totals;
+                weightTotal = ids.stream().mapToLong(id -> totals.getOrDefault(id, 0L)).sum();
+            }
+            for (Long id : ids) {
+                double share = weightTotal > 0
+                        ? (double) weights.getOrDefault(id, 0L) / weightTotal
+                        : 1.0 / ids.size();
+                topDown.put(id, new TopDownForecastModel(curve, share, absError, model.get().version()));
+            }
+
+            double history = 0;
+            for (double value : aggregate)
+                history += value;
+            double forecast = 0;
+            for (int i = 1; i < curve.length; i++)
+                forecast += curve[i];
+            categories.add(HierarchyForecastSummary.CategoryAggregate.builder()
+                    .categoryId(categoryId)
+                    .categoryName(categoryNames.get(categoryId))
+                    .model(model.get().version())
+                    .fastProducts(fastByCategory.getOrDefault(categoryId, 0))
+                    .slowProducts(ids.size())
+                    .historyDailyDemand(round(history / aggregate.length))
+                    .forecastDemand(round(forecast))
+                    .meanAbsError(round(absError))
+                    .build());
+        }
+        categories.sort(Comparator.comparing(HierarchyForecastSummary.CategoryAggregate::getCategoryName,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        long elapsed = System.currentTimeMillis() - started;
+        lastSummary = HierarchyForecastSummary.builder()
+                .preparedAt(LocalDateTime.now())
+                .historyStart(start)
+                .historyEnd(end)
+                .horizon(horizon)
+                .fastMinDailyDemand(fastMinDailyDemand)
+                .totalProducts(products.size())
+                .fastProducts(products.size() - topDown.size())
+                .slowProducts(topDown.size())
+                .elapsedMs(elapsed)
+                .categories(categories)
+                .build();
+        log.info("Forecast hierarchy: {} of {} products top-down from {} category forecasts in {} ms",
+                topDown.size(), products.size(), categories.size(), elapsed);
+        return topDown;
+    }
+
+    /**
+     * Category aggregates of the last pipeline run
+     */
+    public HierarchyForecastSummary getLastSummary() {
+        HierarchyForecastSummary summary = lastSummary;
+        if (summary == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No hierarchical forecast has been prepared since startup");
+        }
+        return summary;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
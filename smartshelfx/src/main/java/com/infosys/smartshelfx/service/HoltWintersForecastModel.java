@@ -0,0 +1,92 @@
+package com.infosys.smartshelfx.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Additive Holt-Winters with damped trend and weekly seasonality, fitted in
+ * one pass over the series. Series shorter than two weeks use level and
+ * trend only.
+ */
+@Component
+public class HoltWintersForecastModel implements ForecastModel {
+
+    private static final int SEASON = 7;
+
+    // Seasonal offsets, reused per thread
+    private static final ThreadLocal<double[]> SEASONAL = ThreadLocal.withInitial(() -> new double[SEASON]);
+
+    @Value("${forecast.model.holt-winters.alpha:0.3}")
+    private double alpha;
+
+    @Value("${forecast.model.holt-winters.beta:0.05}")
+    private double beta;
+
+    @Value("${forecast.model.holt-winters.gamma:0.1}")
+    private double gamma;
+
+    @Value("${forecast.model.holt-winters.phi:0.98}")
+    private double phi;
+
+    @Override
+    public String name() {
+        return "HOLT_WINTERS";
+    }
+
+    @Override
+    public String version() {
+        return "LOCAL_HOLT_WINTERS_V1";
+    }
+
+    @Override
+    public double forecast(double[] series, int from, int to, int horizon, double[] out) {
+        int length = to - from;
+        if (length <= 0) {
+            Arrays.fill(out, 0, horizon, 0.0);
+            return 0;
+        }
+
+        // Initial level: mean of the first week; offsets: deviations from it
+        int warmup = Math.min(SEASON, length);
+        double level = 0;
+        for (int t = from; t < from + warmup; t++) {
+            level += series[t];
+        }
+        level /= warmup;
+        boolean seasonal = length >= 2 * SEASON;
+        double[] offsets = SEASONAL.get();
+        for (int s = 0; s < SEASON; s++) {
+            offsets[s] = seasonal ? series[from + s] - level : 0;
+        }
+
+        double trend = 0;
+        double absError = 0;
+        int errors = 0;
+        for (int t = from; t < to; t++) {
+            int s = (t - from) % SEASON;
+            double actual = series[t];
+            if (t >= from + warmup) {
+                absError += Math.abs(actual - (level + phi * trend + offsets[s]));
+                errors++;
+            }
+
+            double newLevel = alpha * (actual - offsets[s]) + (1 - alpha) * (level + phi * trend);
+            trend = beta * (newLevel - level) + (1 - beta) * phi * trend;
+            level = newLevel;
+            if (seasonal) {
+                offsets[s] = gamma * (actual - level) + (1 - gamma) * offsets[s];
+            }
+        }
+
+        double damping = 0;
+        double factor = 1;
+        for (int h = 0; h < horizon; h++) {
+            factor *= phi;
+            damping += factor;
+            out[h] = Math.max(0, level + damping * trend + offsets[(length + h) % SEASON]);
+        }
+        return errors > 0 ? absError / errors : 0;
+    }
+}
@@ -0,0 +1,297 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ClassificationRunResult;
+import com.infosys.smartshelfx.entity.AbcClass;
+import com.infosys.smartshelfx.entity.ProductClassification;
+import com.infosys.smartshelfx.entity.XyzClass;
+import com.infosys.smartshelfx.repository.ProductClassificationRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * ABC/XYZ Inventory Classification
+ * - ABC: cumulative revenue contribution over the window (A ~80%, B ~15%, C rest)
+ * - XYZ: coefficient of variation of weekly demand (X stable, Y variable, Z erratic)
+ * - Window is the last N complete weeks so that buckets stay aligned between runs
+ * - Incremental: only products whose windowed sales changed are recomputed;
+ * ABC ranking is redone from the stored per-product revenue
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryClassificationService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final ProductClassificationRepository classificationRepository;
+
+    @Value("${inventory.classification.window.weeks:13}")
+    private int windowWeeks;
+
+    @Value("${inventory.classification.abc.a.share:0.80}")
+    private double aShare;
+
+    @Value("${inventory.classification.abc.b.share:0.95}")
+    private double bShare;
+
+    @Value("${inventory.classification.xyz.x.cv:0.5}")
+    private double xMaxCv;
+
+    @Value("${inventory.classification.xyz.y.cv:1.0}")
+    private double yMaxCv;
+
+    /**
+     * Run the classification. Without {@code forceFull}, only products whose
+     * sales changed since the previous run are recomputed.
+     */
+    @Transactional
+    public ClassificationRunResult runClassification(boolean forceFull) {
+        long started = System.currentTimeMillis();
+        LocalDateTime runAt = LocalDateTime.now();
+        int weeks = Math.max(1, windowWeeks);
+        LocalDate windowEnd = LocalDate.now().with(TemporalAdjusters.previous(DayOfWeek.SUNDAY));
+        LocalDate windowStart = windowEnd.minusWeeks(weeks).plusDays(1);
+
+        classificationRepository.deleteOrphans();
+
+        LocalDateTime lastRun = classificationRepository.findLastComputedAt();
+        boolean fullRun = forceFull || lastRun == null;
+
+        List<Long> changedIds;
+        if (fullRun) {
+            changedIds = productRepository.findAllIds();
+        } else {
+            // Sales written since the last run, plus the days that left and entered the window;
+            // three range scans instead of one OR over the whole table
+            Set<Long> changed = new HashSet<>(
+                    salesHistoryRepository.findProductIdsWrittenSince(lastRun, windowStart, windowEnd));
+            LocalDate previousStart = classificationRepository.findLatestWindowStart();
+            LocalDate previousEnd = classificationRepository.findLatestWindowEnd();
+            if (previousStart != null && previousStart.isBefore(windowStart)) {
+                changed.addAll(salesHistoryRepository.findProductIdsSoldBetween(previousStart, windowStart));
+            }
+            if (previousEnd != null && previousEnd.isBefore(windowEnd)) {
+                changed.addAll(salesHistoryRepository.findProductIdsSoldBetween(previousEnd.plusDays(1),
+                        windowEnd.plusDays(1)));
+            }
+
+            // Products created since the last run have no classification yet
+            Set<Long> classified = new HashSet<>(classificationRepository.findAllProductIds());
+            for (Long productId : productRepository.findAllIds()) {
+                if (!classified.contains(productId)) {
+                    changed.add(productId);
+                }
+            }
+            changedIds = new ArrayList<>(changed);
+        }
+
+        // XYZ (and stored revenue) for changed products, chunk by chunk
+        Map<XyzClass, List<Long>> xyzChanges = new EnumMap<>(XyzClass.class);
+        for (int from = 0; from < changedIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = changedIds.subList(from, Math.min(from + CHUNK_SIZE, changedIds.size()));
+            recomputeChunk(chunk, windowStart, windowEnd, weeks, runAt, xyzChanges);
+        }
+        xyzChanges.forEach((xyzClass, ids) -> forEachChunk(ids,
+                part -> productRepository.updateXyzClass(xyzClass, part)));
+
+        // ABC over the whole catalog from stored revenue
+        Map<AbcClass, List<Long>> abcChanges = rankAbc();
+        abcChanges.forEach((abcClass, ids) -> forEachChunk(ids, part -> {
+            classificationRepository.updateAbcClass(abcClass, part);
+            productRepository.updateAbcClass(abcClass, part);
+        }));
+
+        int xyzReclassified = xyzChanges.values().stream().mapToInt(List::size).sum();
+        int abcReclassified = abcChanges.values().stream().mapToInt(List::size).sum();
+
+        log.info("ABC/XYZ classification ({}) for window {} - {}: {} recomputed, {} ABC and {} XYZ changes",
+                fullRun ? "full" : "incremental", windowStart, windowEnd,
+                changedIds.size(), abcReclassified, xyzReclassified);
+
+        return ClassificationRunResult.builder()
+                .fullRun(fullRun)
+                .windowStart(windowStart)
+                .windowEnd(windowEnd)
+                .productsTotal((int) productRepository.count())
+                .productsRecomputed(changedIds.size())
+                .abcReclassified(abcReclassified)
+                .xyzReclassified(xyzReclassified)
+                .classCounts(getClassificationSummary())
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    /**
+     * Product counts per ABC/XYZ combination, e.g. "AX" -> 12. Unclassified
+     * products are counted under "--".
+     */
+    public Map<String, Long> getClassificationSummary() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : productRepository.countByClassification()) {
+            String key = (row[0] != null ? row[0].toString() : "-") + (row[1] != null ? row[1].toString() : "-");
+            counts.merge(key, (Long) row[2], Long::sum);
+        }
+        return counts;
+    }
+
+    private void recomputeChunk(List<Long> productIds, LocalDate windowStart, LocalDate windowEnd,
+            int weeks, LocalDateTime runAt, Map<XyzClass, List<Long>> xyzChanges) {
+        int n = productIds.size();
+        Map<Long, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            index.put(productIds.get(i), i);
+        }
+
+        // Flattened [product][week] demand matrix and revenue per product
+        long[] revenueCents = new long[n];
+        double[] weeklyDemand = new double[n * weeks];
+
+        for (Object[] row : salesHistoryRepository.getDailySalesByProducts(productIds, windowStart, windowEnd)) {
+            int i = index.get((Long) row[0]);
+            int week = (int) (ChronoUnit.DAYS.between(windowStart, (LocalDate) row[1]) / 7);
+            weeklyDemand[i * weeks + week] += row[2] != null ? ((Number) row[2]).doubleValue() : 0;
+            revenueCents[i] += toCents((BigDecimal) row[3]);
+        }
+
+        double[] mean = new double[n];
+        double[] cv = new double[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int offset = i * weeks;
+            double sum = 0;
+            for (int w = 0; w < weeks; w++) {
+                sum += weeklyDemand[offset + w];
+            }
+            double m = sum / weeks;
+            double squares = 0;
+            for (int w = 0; w < weeks; w++) {
+                double d = weeklyDemand[offset + w] - m;
+                squares += d * d;
+            }
+            mean[i] = m;
+            cv[i] = m > 0 ? Math.sqrt(squares / weeks) / m : Double.NaN;
+        });
+
+        Map<Long, ProductClassification> existing = new HashMap<>();
+        for (ProductClassification classification : classificationRepository.findAllById(productIds)) {
+            existing.put(classification.getProductId(), classification);
+        }
+
+        List<ProductClassification> toSave = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Long productId = productIds.get(i);
+            XyzClass xyzClass = toXyzClass(cv[i]);
+
+            ProductClassification classification = existing.get(productId);
+            if (classification == null) {
+                classification = ProductClassification.builder().productId(productId).build();
+            }
+            if (classification.getXyzClass() != xyzClass) {
+                xyzChanges.computeIfAbsent(xyzClass, k -> new ArrayList<>()).add(productId);
+            }
+
+            classification.setWindowStart(windowStart);
+            classification.setWindowEnd(windowEnd);
+            classification.setRevenueCents(revenueCents[i]);
+            classification.setMeanWeeklyDemand(mean[i]);
+            classification.setDemandCv(Double.isNaN(cv[i]) ? null : cv[i]);
+            classification.setXyzClass(xyzClass);
+            classification.setComputedAt(runAt);
+            toSave.add(classification);
+        }
+
+        classificationRepository.saveAll(toSave);
+    }
+
+    /**
+     * Rank every classified product by revenue and return the products whose
+     * ABC class changed, grouped by their new class.
+     */
+    private Map<AbcClass, List<Long>> rankAbc() {
+        List<Object[]> snapshot = classificationRepository.findRevenueSnapshot();
+        int n = snapshot.size();
+        long[] productIds = new long[n];
+        long[] revenue = new long[n];
+        AbcClass[] current = new AbcClass[n];
+        for (int i = 0; i < n; i++) {
+            Object[] row = snapshot.get(i);
+            productIds[i] = (Long) row[0];
+            revenue[i] = row[1] != null ? (Long) row[1] : 0L;
+            current[i] = (AbcClass) row[2];
+        }
+
+        long total = Arrays.stream(revenue).parallel().sum();
+
+        // Revenue cut-offs for A and B from the descending cumulative share
+        long thresholdA = Long.MAX_VALUE;
+        long thresholdB = Long.MAX_VALUE;
+        if (total > 0) {
+            long[] sorted = revenue.clone();
+            Arrays.parallelSort(sorted);
+            long cumulative = 0;
+            for (int k = n - 1; k >= 0 && sorted[k] > 0; k--) {
+                if (cumulative < aShare * total) {
+                    thresholdA = sorted[k];
+                } else if (cumulative < bShare * total) {
+                    thresholdB = sorted[k];
+                } else {
+                    break;
+                }
+                cumulative += sorted[k];
+            }
+            thresholdB = Math.min(thresholdA, thresholdB);
+        }
+
+        long cutA = thresholdA;
+        long cutB = thresholdB;
+        AbcClass[] ranked = new AbcClass[n];
+        IntStream.range(0, n).parallel().forEach(i -> ranked[i] = revenue[i] <= 0 ? AbcClass.C
+                : revenue[i] >= cutA ? AbcClass.A
+                        : revenue[i] >= cutB ? AbcClass.B : AbcClass.C);
+
+        Map<AbcClass, List<Long>> changes = new EnumMap<>(AbcClass.class);
+        for (int i = 0; i < n; i++) {
+            if (ranked[i] != current[i]) {
+                changes.computeIfAbsent(ranked[i], k -> new ArrayList<>()).add(productIds[i]);
+            }
+        }
+        return changes;
+    }
+
+    private XyzClass toXyzClass(double cv) {
+        if (Double.isNaN(cv))
+            return XyzClass.Z; // no demand in the window
+        if (cv <= xMaxCv)
+            return XyzClass.X;
+        if (cv <= yMaxCv)
+            return XyzClass.Y;
+        return XyzClass.Z;
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+
+    private void forEachChunk(List<Long> ids, Consumer<List<Long>> action) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            action.accept(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.entity.ProductDailyStat;
+import com.infosys.smartshelfx.repository.CategoryRepository;
+import com.infosys.smartshelfx.repository.ProductDailyStatRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import com.infosys.smartshelfx.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Inventory Metrics
+ * - Turnover, days of supply, sell-through and GMROI per product, category
+ * or vendor over any date window
+ * - Reads the product_daily_stats roll-up (one row per product per day),
+ * built nightly from sales history and stock movements; a day's cost of
+ * goods uses the product cost price when the day was first aggregated
+ * - Backdated sales are re-applied to their day by the nightly run, which
+ * also evicts the cached reports covering it
+ * - Stock movements are not re-applied: their created_at is stamped on
+ * insert, so only a movement whose transaction is still open when its day
+ * is rolled up (1 AM the next day) is missed by that day's stock figures
+ * - Reports for windows inside the aggregated days are cached (LRU, bounded
+ * by analytics.metrics.cache.max-entries); the stats themselves only change
+ * through the evictions above, but entries still expire after
+ * analytics.metrics.cache.ttl.minutes so that product, category and vendor
+ * names are not served stale
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryMetricsService {
+
+    public static final String DIMENSION_PRODUCT = "PRODUCT";
+    public static final String DIMENSION_CATEGORY = "CATEGORY";
+    public static final String DIMENSION_VENDOR = "VENDOR";
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String INSERT_STAT = "INSERT INTO product_daily_stats (product_id, category_id, " +
+            "vendor_id, stat_date, opening_stock, closing_stock, units_sold, units_received, revenue_cents, " +
+            "cogs_cents, closing_cost_cents, aggregated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE category_id = new.category_id, vendor_id = new.vendor_id, " +
+            "opening_stock = new.opening_stock, closing_stock = new.closing_stock, units_sold = new.units_sold, " +
+            "units_received = new.units_received, revenue_cents = new.revenue_cents, cogs_cents = new.cogs_cents, " +
+            "closing_cost_cents = new.closing_cost_cents, aggregated_at = new.aggregated_at";
+    private static final List<MovementType> RECEIVED_TYPES = List.of(
+            MovementType.RECEIVING, MovementType.RESTOCK, MovementType.TRANSFER_IN);
+
+    private final ProductDailyStatRepository statRepository;
+    private final ProductRepository productRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.metrics.backfill.days:90}")
+    private int backfillDays;
+
+    @Value("${analytics.metrics.cache.max-entries:5000}")
+    private int maxCacheEntries;
+
+    @Value("${analytics.metrics.cache.ttl.minutes:60}")
+    private long cacheTtlMinutes;
+
+    // Guarded by itself; access order, so the eldest entry is the least recently used
+    private final Map<MetricsKey, CachedReport> closedPeriodCache = new LinkedHashMap<>(256, 0.75f, true);
+
+    /**
+     * Roll up every day since the last aggregated day through yesterday, and
+     * re-apply sales for already aggregated days that received backdated rows.
+     * The first run backfills {@code analytics.metrics.backfill.days}. Each day
+     * commits in its own transaction, so a failed run resumes after the last
+     * committed day.
+     *
+     * @return number of days aggregated or refreshed
+     */
+    public int aggregateDailyStats() {
+        long started = System.currentTimeMillis();
+        LocalDateTime runAt = LocalDateTime.now();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        // Read-write so the replica router reads the run state from the primary
+        TransactionTemplate dayTx = new TransactionTemplate(transactionManager);
+        dayTx.setReadOnly(false);
+        RunState state = dayTx.execute(tx -> new RunState(statRepository.findLastStatDate(),
+                statRepository.findLastAggregatedAt(), loadProducts()));
+        LocalDate lastDay = state.lastDay();
+        Map<Long, ProductInfo> products = state.products();
+
+        int refreshed = 0;
+        if (lastDay != null && state.lastRun() != null) {
+            List<LocalDate> backdated = dayTx.execute(
+                    tx -> salesHistoryRepository.findSaleDatesWrittenSince(state.lastRun(), lastDay));
+            for (LocalDate date : backdated) {
+                dayTx.executeWithoutResult(tx -> refreshSales(date, products, runAt));
+                invalidate(date);
+                refreshed++;
+            }
+        }
+
+        LocalDate from = lastDay != null ? lastDay.plusDays(1) : yesterday.minusDays(Math.max(1, backfillDays) - 1);
+        Map<Long, Integer> previousClosing = new HashMap<>();
+        if (lastDay != null) {
+            dayTx.executeWithoutResult(tx -> {
+                for (ProductDailyStat stat : statRepository.findByStatDate(lastDay)) {
+                    previousClosing.put(stat.getProductId(), stat.getClosingStock());
+                }
+            });
+        }
+
+        int aggregated = 0;
+        Map<Long, Integer> closing = previousClosing;
+        for (LocalDate date = from; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            LocalDate day = date;
+            Map<Long, Integer> previous = closing;
+            closing = dayTx.execute(tx -> aggregateDay(day, products, previous, runAt));
+            aggregated++;
+        }
+
+        log.info("Daily stats: {} days aggregated, {} days refreshed for backdated sales in {} ms",
+                aggregated, refreshed, System.currentTimeMillis() - started);
+        return aggregated + refreshed;
+    }
+
+    /**
+     * Inventory metrics over [startDate, endDate] grouped by the dimension,
+     * optionally restricted to one product/category/vendor id. Rows are ordered
+     * by revenue, highest first.
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDTO.InventoryMetricsReport getMetrics(String dimension, Long id,
+            LocalDate startDate, LocalDate endDate, int limit) {
+        String dim = dimension != null ? dimension.toUpperCase() : DIMENSION_PRODUCT;
+        if (!List.of(DIMENSION_PRODUCT, DIMENSION_CATEGORY, DIMENSION_VENDOR).contains(dim)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid dimension: " + dimension);
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A valid start and end date are required");
+        }
+
+        LocalDate lastDay = statRepository.findLastStatDate();
+        LocalDate firstDay = lastDay != null ? statRepository.findFirstStatDate() : null;
+        boolean complete = lastDay != null && !endDate.isAfter(lastDay) && !startDate.isBefore(firstDay);
+        MetricsKey key = new MetricsKey(dim, id, startDate, endDate);
+
+        AnalyticsDTO.InventoryMetricsReport report = complete ? cached(key) : null;
+        if (report == null) {
+            report = computeMetrics(dim, id, startDate, endDate, lastDay, complete);
+            if (complete) {
+                cache(key, report);
+            }
+        }
+
+        if (limit <= 0 || report.getRows().size() <= limit) {
+            return report;
+        }
+        return AnalyticsDTO.InventoryMetricsReport.builder()
+                .dimension(report.getDimension())
+                .startDate(report.getStartDate())
+                .endDate(report.getEndDate())
+                .coveredThrough(report.getCoveredThrough())
+                .days(report.getDays())
+                .complete(report.getComplete())
+                .rows(report.getRows().subList(0, limit))
+                .build();
+    }
+
+    private AnalyticsDTO.InventoryMetricsReport computeMetrics(String dimension, Long id, LocalDate startDate,
+            LocalDate endDate, LocalDate lastDay, boolean complete) {
+        LocalDate coveredThrough = lastDay == null ? null : endDate.isAfter(lastDay) ? lastDay : endDate;
+        List<AnalyticsDTO.InventoryMetrics> rows = new ArrayList<>();
+        int days = 0;
+
+        if (coveredThrough != null && !startDate.isAfter(coveredThrough)) {
+            days = (int) ChronoUnit.DAYS.between(startDate, coveredThrough) + 1;
+            List<Object[]> totals = switch (dimension) {
+                case DIMENSION_CATEGORY -> statRepository.getMetricsByCategory(startDate, coveredThrough, id);
+                case DIMENSION_VENDOR -> statRepository.getMetricsByVendor(startDate, coveredThrough, id);
+                default -> statRepository.getMetricsByProduct(startDate, coveredThrough, id);
+            };
+
+            for (Object[] row : totals) {
+                rows.add(toMetrics(row, days));
+            }
+            rows.sort(Comparator.comparing(AnalyticsDTO.InventoryMetrics::getRevenue).reversed());
+            resolveNames(dimension, rows);
+        }
+
+        return AnalyticsDTO.InventoryMetricsReport.builder()
+                .dimension(dimension)
+                .startDate(startDate)
+                .endDate(endDate)
+                .coveredThrough(coveredThrough)
+                .days(days)
+                .complete(complete)
+                .rows(rows)
+                .build();
+    }
+
+    private AnalyticsDTO.InventoryMetrics toMetrics(Object[] row, int days) {
+        long unitsSold = toLong(row[1]);
+        long unitsReceived = toLong(row[2]);
+        long revenueCents = toLong(row[3]);
+        long cogsCents = toLong(row[4]);
+        double averageUnits = (double) toLong(row[5]) / days;
+        double averageCostCents = (double) toLong(row[6]) / days;
+        long openingStock = toLong(row[7]);
+        long closingStock = toLong(row[8]);
+
+        Double turnover = averageCostCents > 0 ? cogsCents / averageCostCents
+                : averageUnits > 0 ? unitsSold / averageUnits : null;
+        Double daysOfSupply = unitsSold > 0 ? closingStock / ((double) unitsSold / days) : null;
+        long available = openingStock + unitsReceived;
+        Double sellThrough = available > 0 ? unitsSold * 100.0 / available : null;
+        Double gmroi = averageCostCents > 0 ? (revenueCents - cogsCents) / averageCostCents : null;
+
+        return AnalyticsDTO.InventoryMetrics.builder()
+                .id(row[0] != null ? (Long) row[0] : null)
+                .unitsSold(unitsSold)
+                .unitsReceived(unitsReceived)
+                .openingStock(openingStock)
+                .closingStock(closingStock)
+                .revenue(BigDecimal.valueOf(revenueCents, 2))
+                .costOfGoodsSold(BigDecimal.valueOf(cogsCents, 2))
+                .averageInventoryUnits(round(averageUnits))
+                .averageInventoryCost(BigDecimal.valueOf(averageCostCents / 100).setScale(2, RoundingMode.HALF_UP))
+                .turnoverRatio(round(turnover))
+                .daysOfSupply(round(daysOfSupply))
+                .sellThroughRate(round(sellThrough))
+                .gmroi(round(gmroi))
+                .build();
+    }
+
+    private void resolveNames(String dimension, List<AnalyticsDTO.InventoryMetrics> rows) {
+        List<Long> ids = rows.stream().map(AnalyticsDTO.InventoryMetrics::getId).filter(Objects::nonNull).toList();
+        Map<Long, String> names = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            switch (dimension) {
+                case DIMENSION_CATEGORY -> categoryRepository.findAllById(chunk)
+                        .forEach(c -> names.put(c.getId(), c.getName()));
+                case DIMENSION_VENDOR -> userRepository.findAllById(chunk)
+                        .forEach(u -> names.put(u.getId(), u.getUsername()));
+                default -> productRepository.findAllById(chunk)
+                        .forEach(p -> names.put(p.getId(), p.getName()));
+            }
+        }
+        for (AnalyticsDTO.InventoryMetrics row : rows) {
+            row.setName(row.getId() != null ? names.get(row.getId()) : "Unassigned");
+        }
+    }
+
+    private Map<Long, Integer> aggregateDay(LocalDate date, Map<Long, ProductInfo> products,
+            Map<Long, Integer> previousClosing, LocalDateTime runAt) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
+
+        Map<Long, long[]> sales = salesForDate(date);
+
+        Map<Long, Integer> received = new HashMap<>();
+        for (Object[] row : stockMovementRepository.getMovementTotalsByProduct(dayStart, dayEnd)) {
+            if (RECEIVED_TYPES.contains((MovementType) row[1])) {
+                received.merge((Long) row[0], (int) toLong(row[2]), Integer::sum);
+            }
+        }
+
+        // First opening and last closing level of the day per product
+        Map<Long, int[]> levels = new HashMap<>();
+        for (Object[] row : stockMovementRepository.getStockLevelsBetween(dayStart, dayEnd)) {
+            int previous = (int) toLong(row[1]);
+            int next = (int) toLong(row[2]);
+            levels.computeIfAbsent((Long) row[0], k -> new int[] { previous, next })[1] = next;
+        }
+
+        // Products with no earlier row: reconstruct from the next movement, else current stock
+        boolean needsReconstruction = products.keySet().stream()
+                .anyMatch(id -> !previousClosing.containsKey(id) && !levels.containsKey(id));
+        Map<Long, Integer> nextLevels = new HashMap<>();
+        if (needsReconstruction) {
+            for (Object[] row : stockMovementRepository.findFirstStockLevelsAfter(dayEnd)) {
+                nextLevels.put((Long) row[0], (int) toLong(row[1]));
+            }
+        }
+
+        Map<Long, Integer> closingByProduct = new HashMap<>(products.size() * 2);
+        Timestamp aggregatedAt = Timestamp.valueOf(runAt);
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (Map.Entry<Long, ProductInfo> entry : products.entrySet()) {
+            Long productId = entry.getKey();
+            ProductInfo info = entry.getValue();
+            if (info.createdDate() != null && info.createdDate().isAfter(date))
+                continue;
+
+            int[] level = levels.get(productId);
+            Integer previous = previousClosing.get(productId);
+            int opening;
+            int closing;
+            if (level != null) {
+                opening = previous != null ? previous : level[0];
+                closing = level[1];
+            } else {
+                opening = previous != null ? previous : nextLevels.getOrDefault(productId, info.currentStock());
+                closing = opening;
+            }
+
+            long[] sold = sales.getOrDefault(productId, new long[2]);
+            closingByProduct.put(productId, closing);
+            rows.add(new Object[] {
+                    productId,
+                    info.categoryId(),
+                    info.vendorId(),
+                    Date.valueOf(date),
+                    opening,
+                    closing,
+                    (int) sold[0],
+                    received.getOrDefault(productId, 0),
+                    sold[1],
+                    sold[0] * info.costCents(),
+                    Math.max(0, closing) * info.costCents(),
+                    aggregatedAt
+            });
+        }
+
+        // IDENTITY ids rule out Hibernate batching; insert over JDBC instead
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_STAT, rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size())));
+        }
+        return closingByProduct;
+    }
+
+    private void refreshSales(LocalDate date, Map<Long, ProductInfo> products, LocalDateTime runAt) {
+        Map<Long, long[]> sales = salesForDate(date);
+        List<ProductDailyStat> stats = statRepository.findByStatDate(date);
+        for (ProductDailyStat stat : stats) {
+            long[] sold = sales.getOrDefault(stat.getProductId(), new long[2]);
+            // Keep the unit cost the day was aggregated with, if it can be recovered
+            long costCents;
+            if (stat.getUnitsSold() > 0) {
+                costCents = Math.round((double) stat.getCogsCents() / stat.getUnitsSold());
+            } else if (stat.getClosingStock() > 0) {
+                costCents = Math.round((double) stat.getClosingCostCents() / stat.getClosingStock());
+            } else {
+                ProductInfo info = products.get(stat.getProductId());
+                costCents = info != null ? info.costCents() : 0L;
+            }
+            stat.setUnitsSold((int) sold[0]);
+            stat.setRevenueCents(sold[1]);
+            stat.setCogsCents(sold[0] * costCents);
+            stat.setAggregatedAt(runAt);
+        }
+        statRepository.saveAll(stats);
+    }
+
+    private Map<Long, long[]> salesForDate(LocalDate date) {
+        Map<Long, long[]> sales = new HashMap<>();
+        for (Object[] row : salesHistoryRepository.getSalesByProductForDate(date)) {
+            sales.put((Long) row[0], new long[] { toLong(row[1]), toCents((BigDecimal) row[2]) });
+        }
+        return sales;
+    }
+
+    private Map<Long, ProductInfo> loadProducts() {
+        Map<Long, ProductInfo> products = new HashMap<>();
+        for (Object[] row : productRepository.findStatSnapshot()) {
+            products.put((Long) row[0], new ProductInfo(
+                    (Long) row[1],
+                    (Long) row[2],
+                    row[3] != null ? (Integer) row[3] : 0,
+                    toCents((BigDecimal) row[4]),
+                    row[5] != null ? ((LocalDateTime) row[5]).toLocalDate() : null));
+        }
+        return products;
+    }
+
+    private AnalyticsDTO.InventoryMetricsReport cached(MetricsKey key) {
+        synchronized (closedPeriodCache) {
+            CachedReport entry = closedPeriodCache.get(key);
+            if (entry == null)
+                return null;
+            if (entry.cachedAt().isBefore(LocalDateTime.now().minusMinutes(cacheTtlMinutes))) {
+                closedPeriodCache.remove(key);
+                return null;
+            }
+            return entry.report();
+        }
+    }
+
+    private void cache(MetricsKey key, AnalyticsDTO.InventoryMetricsReport report) {
+        synchronized (closedPeriodCache) {
+            closedPeriodCache.put(key, new CachedReport(report, LocalDateTime.now()));
+            Iterator<MetricsKey> eldest = closedPeriodCache.keySet().iterator();
+            while (closedPeriodCache.size() > maxCacheEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void invalidate(LocalDate date) {
+        synchronized (closedPeriodCache) {
+            closedPeriodCache.keySet()
+                    .removeIf(key -> !date.isBefore(key.startDate()) && !date.isAfter(key.endDate()));
+        }
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+
+    private Double round(Double value) {
+        return value != null ? Math.round(value * 100.0) / 100.0 : null;
+    }
+
+    private record RunState(LocalDate lastDay, LocalDateTime lastRun, Map<Long, ProductInfo> products) {
+    }
+
+    private record ProductInfo(Long categoryId, Long vendorId, int currentStock, long costCents,
+            LocalDate createdDate) {
+    }
+
+    private record MetricsKey(String dimension, Long id, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record CachedReport(AnalyticsDTO.InventoryMetricsReport report, LocalDateTime cachedAt) {
+    }
+}
@@ -2,9 +2,11 @@ package com.infosys.smartshelfx.service;
 
 import com.infosys.smartshelfx.dtos.*;
 import com.infosys.smartshelfx.entity.*;
+import com.infosys.smartshelfx.event.StockMovementEvent;
 import com.infosys.smartshelfx.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +34,7 @@ public class InventoryService {
     private final ReorderRequestRepository reorderRequestRepository;
     private final UserRepository userRepository;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public StockMovementDTO updateStock(StockUpdateRequest request) {
@@ -41,6 +44,7 @@ public class InventoryService {
 
         User currentUser = getCurrentUser();
         int previousStock = product.getCurrentStock();
+        StockStatus previousStatus = product.getStockStatus();
         int newStock;
 
         // Calculate new stock based on movement type
@@ -87,6 +91,7 @@ public class InventoryService {
                 .build();
 
         movement = stockMovementRepository.save(movement);
+        eventPublisher.publishEvent(StockMovementEvent.of(movement, previousStatus, null));
 
         auditLogService.logAction(AuditAction.STOCK_UPDATE, "Product", product.getId(),
                 "stock:" + previousStock + "->" + newStock);
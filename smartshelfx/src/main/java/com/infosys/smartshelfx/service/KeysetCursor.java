@@ -0,0 +1,91 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation token for keyset pagination on (timestamp, id),
+ * newest first. The token is the last row's position, base64url encoded.
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final LocalDateTime at;
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime at, Long id) {
+        this.at = at;
+        this.id = id;
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Decode a token; a null or blank token means "first page"
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return new KeysetCursor(null, null);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public static String encode(LocalDateTime at, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fetch one extra row so that the presence of a next page is known
+     * without counting
+     */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, clampSize(size) + 1);
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Build a page from rows fetched with {@link #limit(int)}
+     */
+    public static <E, T> CursorPage<T> toPage(List<E> rows, int size, Function<E, LocalDateTime> at,
+            Function<E, Long> id, Function<E, T> mapper, Long total) {
+        int pageSize = clampSize(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<E> content = hasNext ? rows.subList(0, pageSize) : rows;
+        E last = content.isEmpty() ? null : content.get(content.size() - 1);
+
+        return CursorPage.<T>builder()
+                .content(content.stream().map(mapper).toList())
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encode(at.apply(last), id.apply(last)) : null)
+                .totalElements(total)
+                .build();
+    }
+}
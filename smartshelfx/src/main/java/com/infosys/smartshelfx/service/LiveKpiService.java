@@ -0,0 +1,440 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.KpiSnapshot;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.entity.PurchaseOrderStatus;
+import com.infosys.smartshelfx.entity.StockStatus;
+import com.infosys.smartshelfx.event.PurchaseOrderEvent;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.PurchaseOrderRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live KPI stream (Server-Sent Events)
+ * - Keeps stock status counts, low-stock count, today's sales and pending POs
+ * in memory, applying deltas from stock and purchase order events
+ * - Each connection receives a full snapshot, then only changed fields,
+ * coalesced at the connection's interval
+ * - Idle connections hold no thread; sends run on virtual threads
+ * - Periodically reconciled against the primary to correct drift; the
+ * reload queries run outside the lock in one snapshot that also reads the
+ * ids of the movements created in the last
+ * analytics.stream.dedup.window.minutes, and events for those movements are
+ * not applied again (ids commit out of order, so no id bound would do)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveKpiService {
+
+    private final ProductRepository productRepository;
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.stream.coalesce.ms:2000}")
+    private long defaultIntervalMs;
+
+    @Value("${analytics.stream.min.interval.ms:500}")
+    private long minIntervalMs;
+
+    @Value("${analytics.stream.heartbeat.ms:30000}")
+    private long heartbeatMs;
+
+    @Value("${analytics.stream.max.subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${analytics.stream.dedup.window.minutes:10}")
+    private long dedupWindowMinutes;
+
+    private final Object lock = new Object();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService sender;
+
+    // Guarded by lock
+    private boolean loaded;
+    private long version;
+    private LocalDate day;
+    private long inStock;
+    private long lowStockStatus;
+    private long outOfStock;
+    private long lowStock;
+    private BigDecimal todaySalesAmount = BigDecimal.ZERO;
+    private long todaySalesQuantity;
+    private long pendingPurchaseOrders;
+    private Set<Long> countedMovementIds = new HashSet<>(); // recent movements the last reload counted
+    private List<StockMovementEvent> duringReload; // movement events applied while a reload runs
+
+    @PostConstruct
+    void start() {
+        sender = Executors.newVirtualThreadPerTaskExecutor();
+        ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("kpi-stream-ticker").daemon().factory());
+        long tick = Math.max(100, Math.min(minIntervalMs, 1000));
+        ticker.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+        subscriptions.forEach(s -> s.emitter.complete());
+        subscriptions.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Open a KPI stream. The first event is a full "snapshot"; later "delta"
+     * events carry only the fields that changed since the previous send.
+     */
+    public SseEmitter subscribe(Long intervalMs) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many KPI stream subscribers");
+        }
+
+        KpiSnapshot snapshot = getSnapshot();
+        long interval = Math.max(minIntervalMs, intervalMs != null ? intervalMs : defaultIntervalMs);
+
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscription subscription = new Subscription(emitter, interval);
+        subscription.lastSent = snapshot;
+        subscription.nextDueAt = System.currentTimeMillis() + interval;
+        subscription.lastActivityAt = System.currentTimeMillis();
+
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        subscriptions.add(subscription);
+        log.debug("KPI stream subscriber added ({} active, interval {} ms)", subscriptions.size(), interval);
+        return emitter;
+    }
+
+    /**
+     * Current KPI values, loading them from the database on first use
+     */
+    public KpiSnapshot getSnapshot() {
+        boolean stale;
+        synchronized (lock) {
+            stale = !loaded;
+        }
+        if (stale) {
+            reload(false);
+        }
+        synchronized (lock) {
+            rollDayIfNeeded();
+            return KpiSnapshot.builder()
+                    .version(version)
+                    .asOf(LocalDateTime.now())
+                    .inStockCount(inStock)
+                    .lowStockStatusCount(lowStockStatus)
+                    .outOfStockCount(outOfStock)
+                    .lowStockCount(lowStock)
+                    .todaySalesAmount(todaySalesAmount)
+                    .todaySalesQuantity(todaySalesQuantity)
+                    .pendingPurchaseOrders(pendingPurchaseOrders)
+                    .build();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        synchronized (lock) {
+            if (duringReload != null)
+                duringReload.add(event);
+            if (!loaded || countedMovementIds.contains(event.getMovementId()))
+                return;
+            apply(event);
+        }
+    }
+
+    private void apply(StockMovementEvent event) {
+        if (event.getPreviousStatus() != event.getNewStatus()) {
+            adjustStatus(event.getPreviousStatus(), -1);
+            adjustStatus(event.getNewStatus(), 1);
+        }
+
+        boolean wasLow = event.getPreviousStock() <= event.getReorderLevel();
+        boolean isLow = event.getNewStock() <= event.getReorderLevel();
+        if (wasLow != isLow) {
+            lowStock += isLow ? 1 : -1;
+        }
+
+        rollDayIfNeeded();
+        if (event.getMovementType() == MovementType.DISPATCHING && event.getSaleAmount() != null
+                && event.getOccurredAt().toLocalDate().equals(day)) {
+            todaySalesAmount = todaySalesAmount.add(event.getSaleAmount());
+            todaySalesQuantity += event.getQuantity();
+        }
+
+        version++;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseOrder(PurchaseOrderEvent event) {
+        synchronized (lock) {
+            if (!loaded)
+                return;
+
+            boolean wasPending = event.getPreviousStatus() == PurchaseOrderStatus.PENDING;
+            boolean isPending = event.getNewStatus() == PurchaseOrderStatus.PENDING;
+            if (wasPending != isPending) {
+                pendingPurchaseOrders += isPending ? 1 : -1;
+                version++;
+            }
+        }
+    }
+
+    /**
+     * Re-read all KPIs from the database while anyone is listening, so that
+     * changes made outside the event flow (product create/delete, imports)
+     * are picked up
+     */
+    @Scheduled(fixedDelayString = "${analytics.stream.reconcile.ms:300000}")
+    public void reconcile() {
+        if (subscriptions.isEmpty()) {
+            synchronized (lock) {
+                loaded = false;
+            }
+            return;
+        }
+        reload(true);
+    }
+
+    private void tick() {
+        try {
+            if (subscriptions.isEmpty())
+                return;
+
+            KpiSnapshot current = getSnapshot();
+            long now = System.currentTimeMillis();
+
+            for (Subscription subscription : subscriptions) {
+                if (subscription.sending.get())
+                    continue;
+
+                if (now >= subscription.nextDueAt && !Objects.equals(current.getVersion(),
+                        subscription.lastSent.getVersion())) {
+                    Map<String, Object> delta = delta(subscription.lastSent, current);
+                    subscription.lastSent = current;
+                    subscription.nextDueAt = now + subscription.intervalMs;
+                    if (delta.size() > 2) {
+                        send(subscription, SseEmitter.event().name("delta").data(delta, MediaType.APPLICATION_JSON));
+                    }
+                } else if (now - subscription.lastActivityAt >= heartbeatMs) {
+                    send(subscription, SseEmitter.event().comment("keep-alive"));
+                }
+            }
+        } catch (Exception e) {
+            log.error("KPI stream tick failed", e);
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        subscription.sending.set(true);
+        subscription.lastActivityAt = System.currentTimeMillis();
+        sender.execute(() -> {
+            try {
+                subscription.emitter.send(event);
+            } catch (Exception e) {
+                subscriptions.remove(subscription);
+                subscription.emitter.completeWithError(e);
+            } finally {
+                subscription.sending.set(false);
+            }
+        });
+    }
+
+    /**
+     * Fields that differ between two snapshots, plus version and asOf. Changes
+     * that cancel out between sends are not reported.
+     */
+    static Map<String, Object> delta(KpiSnapshot previous, KpiSnapshot current) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("version", current.getVersion());
+        delta.put("asOf", current.getAsOf());
+        putIfChanged(delta, "inStockCount", previous.getInStockCount(), current.getInStockCount());
+        putIfChanged(delta, "lowStockStatusCount", previous.getLowStockStatusCount(), current.getLowStockStatusCount());
+        putIfChanged(delta, "outOfStockCount", previous.getOutOfStockCount(), current.getOutOfStockCount());
+        putIfChanged(delta, "lowStockCount", previous.getLowStockCount(), current.getLowStockCount());
+        putIfChanged(delta, "todaySalesAmount", previous.getTodaySalesAmount(), current.getTodaySalesAmount());
+        putIfChanged(delta, "todaySalesQuantity", previous.getTodaySalesQuantity(), current.getTodaySalesQuantity());
+        putIfChanged(delta, "pendingPurchaseOrders", previous.getPendingPurchaseOrders(),
+                current.getPendingPurchaseOrders());
+        return delta;
+    }
+
+    private static void putIfChanged(Map<String, Object> delta, String field, Object previous, Object current) {
+        if (!Objects.equals(previous, current)) {
+            delta.put(field, current);
+        }
+    }
+
+    private void adjustStatus(StockStatus status, int change) {
+        if (status == null)
+            return;
+        switch (status) {
+            case IN_STOCK -> inStock += change;
+            case LOW_STOCK -> lowStockStatus += change;
+            case OUT_OF_STOCK -> outOfStock += change;
+        }
+    }
+
+    private void rollDayIfNeeded() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            day = today;
+            todaySalesAmount = BigDecimal.ZERO;
+            todaySalesQuantity = 0;
+            version++;
+        }
+    }
+
+    /**
+     * Re-read the KPIs outside the lock and swap them in. Movement events
+     * applied meanwhile to the old values are replayed on the new ones unless
+     * the snapshot already counted them; purchase order events carry no
+     * ordering and are settled by the next reconcile.
+     */
+    private void reload(boolean force) {
+        reloadLock.lock();
+        try {
+            synchronized (lock) {
+                if (loaded && !force)
+                    return;
+                duringReload = new ArrayList<>();
+            }
+            Totals totals;
+            try {
+                totals = readTotals();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    duringReload = null;
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                List<StockMovementEvent> replay = duringReload;
+                duringReload = null;
+                inStock = totals.inStock();
+                lowStockStatus = totals.lowStockStatus();
+                outOfStock = totals.outOfStock();
+                lowStock = totals.lowStock();
+                pendingPurchaseOrders = totals.pendingPurchaseOrders();
+                day = totals.day();
+                todaySalesAmount = totals.salesAmount();
+                todaySalesQuantity = totals.salesQuantity();
+                countedMovementIds = totals.movementIds();
+                loaded = true;
+                for (StockMovementEvent event : replay) {
+                    if (!countedMovementIds.contains(event.getMovementId()))
+                        apply(event);
+                }
+                version++;
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * All KPIs from one repeatable-read snapshot, together with the recent
+     * movements it counted. Events of movements that committed after the
+     * snapshot are missing from that set and are applied; a movement whose
+     * transaction stayed open longer than the dedup window may be counted
+     * twice until the next reconcile.
+     * Read-write, so that the replica router sends it to the primary: a
+     * lagging replica would miss movements whose events already arrived.
+     */
+    private Totals readTotals() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(false);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return transaction.execute(tx -> {
+            Set<Long> movementIds = new HashSet<>(stockMovementRepository
+                    .findIdsCreatedSince(LocalDateTime.now().minusMinutes(dedupWindowMinutes)));
+            LocalDate today = LocalDate.now();
+            BigDecimal salesAmount = salesHistoryRepository.getTotalSalesAmount(today, today);
+            Long salesQuantity = salesHistoryRepository.getTotalSalesQuantity(today, today);
+            return new Totals(
+                    productRepository.countByStockStatus(StockStatus.IN_STOCK),
+                    productRepository.countByStockStatus(StockStatus.LOW_STOCK),
+                    productRepository.countByStockStatus(StockStatus.OUT_OF_STOCK),
+                    productRepository.countLowStockProducts(),
+                    purchaseOrderRepository.countByStatus(PurchaseOrderStatus.PENDING),
+                    today,
+                    salesAmount != null ? salesAmount : BigDecimal.ZERO,
+                    salesQuantity != null ? salesQuantity : 0L,
+                    movementIds);
+        });
+    }
+
+    private record Totals(long inStock, long lowStockStatus, long outOfStock, long lowStock,
+            long pendingPurchaseOrders, LocalDate day, BigDecimal salesAmount, long salesQuantity,
+            Set<Long> movementIds) {
+    }
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final long intervalMs;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile KpiSnapshot lastSent;
+        private volatile long nextDueAt;
+        private volatile long lastActivityAt;
+
+        private Subscription(SseEmitter emitter, long intervalMs) {
+            this.emitter = emitter;
+            this.intervalMs = intervalMs;
+        }
+    }
+}
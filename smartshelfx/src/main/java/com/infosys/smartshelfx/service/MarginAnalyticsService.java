@@ -0,0 +1,296 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import com.infosys.smartshelfx.entity.ProductMarginDaily;
+import com.infosys.smartshelfx.repository.AnalyticsWatermarkRepository;
+import com.infosys.smartshelfx.repository.CategoryRepository;
+import com.infosys.smartshelfx.repository.ProductMarginDailyRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import com.infosys.smartshelfx.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Gross margin analytics
+ * - Revenue, cost of goods, gross profit, margin and markup per product,
+ * category or vendor over any date window, with a daily series
+ * - Sales are folded into product_margin_daily (one row per product per sale
+ * date) incrementally after a stored sales id watermark, up to the highest id
+ * recorded before the settle delay; cost is the product cost price at that
+ * time
+ * - A run stops below a gap in the sales ids while the next sale is younger
+ * than analytics.margin.gap.hold.minutes, and locks the watermark row so
+ * that the scheduler and a manual refresh never fold the same sales twice
+ * - All money is summed as long cents, in the database and in the fold
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MarginAnalyticsService {
+
+    static final String WATERMARK = "sales_margin";
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private final SalesHistoryRepository salesHistoryRepository;
+    private final ProductMarginDailyRepository marginRepository;
+    private final AnalyticsWatermarkRepository watermarkRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+
+    @Value("${analytics.margin.settle.seconds:120}")
+    private long settleSeconds;
+
+    @Value("${analytics.margin.gap.hold.minutes:60}")
+    private long gapHoldMinutes;
+
+    /**
+     * Fold sales recorded since the last run into the daily margin rows
+     *
+     * @return number of sales applied
+     */
+    @Transactional
+    public int applyNewSales() {
+        AnalyticsWatermark watermark = lockWatermark(WATERMARK);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minusSeconds(settleSeconds);
+        LocalDateTime gapHeldAfter = now.minusMinutes(gapHoldMinutes);
+        Long upToId = salesHistoryRepository.findMaxIdCreatedBefore(watermark.getLastId(), settledBefore);
+        if (upToId == null)
+            return 0;
+
+        // (product, sale date) -> [units, revenueCents, costCents]
+        Map<DayKey, long[]> deltas = new HashMap<>();
+        Map<Long, Long[]> owners = new HashMap<>(); // product -> [categoryId, vendorId]
+        long lastId = watermark.getLastId();
+        int applied = 0;
+        boolean held = false;
+
+        while (!held) {
+            List<Object[]> rows = salesHistoryRepository.findMarginRowsAfter(lastId, upToId,
+                    PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                LocalDateTime createdAt = (LocalDateTime) row[10];
+                // Missing ids below a recent row may belong to a transaction that is still open
+                if (lastId > 0 && id != lastId + 1 && createdAt != null && createdAt.isAfter(gapHeldAfter)) {
+                    held = true;
+                    break;
+                }
+                Long productId = (Long) row[1];
+                long quantity = row[5] != null ? (Integer) row[5] : 0;
+                long revenueCents = row[6] != null ? toCents((BigDecimal) row[6])
+                        : quantity * toCents(row[7] != null ? (BigDecimal) row[7] : (BigDecimal) row[8]);
+                long costCents = quantity * toCents((BigDecimal) row[9]);
+
+                long[] delta = deltas.computeIfAbsent(new DayKey(productId, (LocalDate) row[4]), k -> new long[3]);
+                delta[0] += quantity;
+                delta[1] += revenueCents;
+                delta[2] += costCents;
+                owners.putIfAbsent(productId, new Long[] { (Long) row[2], (Long) row[3] });
+
+                lastId = id;
+                applied++;
+            }
+            if (rows.size() < CHUNK_SIZE)
+                break;
+        }
+
+        long foldedThrough = held ? lastId : upToId;
+        if (foldedThrough > watermark.getLastId()) {
+            if (!deltas.isEmpty())
+                merge(deltas, owners);
+            watermark.setLastId(foldedThrough);
+            watermark.setUpdatedAt(LocalDateTime.now());
+            watermarkRepository.save(watermark);
+        }
+
+        if (applied > 0)
+            log.info("Margin analytics: applied {} sales into {} product-days (up to id {}{})",
+                    applied, deltas.size(), foldedThrough, held ? ", held at an id gap" : "");
+        return applied;
+    }
+
+    /**
+     * Lock the watermark row for this run, creating it on the first one
+     */
+    private AnalyticsWatermark lockWatermark(String name) {
+        return watermarkRepository.findForUpdate(name).orElseGet(() -> {
+            watermarkRepository.createIfAbsent(name);
+            return watermarkRepository.findForUpdate(name).orElseThrow();
+        });
+    }
+
+    /**
+     * Margins over [startDate, endDate] grouped by the dimension, optionally
+     * restricted to one product/category/vendor id
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDTO.MarginReport getMargins(String dimension, Long id, LocalDate startDate, LocalDate endDate,
+            int limit) {
+        String dim = dimension != null ? dimension.toUpperCase() : InventoryMetricsService.DIMENSION_PRODUCT;
+        if (!List.of(InventoryMetricsService.DIMENSION_PRODUCT, InventoryMetricsService.DIMENSION_CATEGORY,
+                InventoryMetricsService.DIMENSION_VENDOR).contains(dim)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid dimension: " + dimension);
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A valid start and end date are required");
+        }
+
+        List<Object[]> totals = switch (dim) {
+            case InventoryMetricsService.DIMENSION_CATEGORY -> marginRepository.getMarginsByCategory(startDate, endDate, id);
+            case InventoryMetricsService.DIMENSION_VENDOR -> marginRepository.getMarginsByVendor(startDate, endDate, id);
+            default -> marginRepository.getMarginsByProduct(startDate, endDate, id);
+        };
+
+        List<AnalyticsDTO.MarginRow> rows = new ArrayList<>(totals.size());
+        long units = 0, revenueCents = 0, costCents = 0;
+        for (Object[] row : totals) {
+            long rowUnits = toLong(row[1]);
+            long rowRevenue = toLong(row[2]);
+            long rowCost = toLong(row[3]);
+            units += rowUnits;
+            revenueCents += rowRevenue;
+            costCents += rowCost;
+            rows.add(toRow((Long) row[0], rowUnits, rowRevenue, rowCost));
+        }
+        rows.sort(Comparator.comparing(AnalyticsDTO.MarginRow::getGrossProfit).reversed());
+        if (limit > 0 && rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+        }
+        resolveNames(dim, rows);
+
+        List<AnalyticsDTO.MarginPoint> daily = new ArrayList<>();
+        for (Object[] row : marginRepository.getDailyMargins(startDate, endDate,
+                InventoryMetricsService.DIMENSION_PRODUCT.equals(dim) ? id : null,
+                InventoryMetricsService.DIMENSION_CATEGORY.equals(dim) ? id : null,
+                InventoryMetricsService.DIMENSION_VENDOR.equals(dim) ? id : null)) {
+            long dayRevenue = toLong(row[2]);
+            long dayProfit = dayRevenue - toLong(row[3]);
+            daily.add(AnalyticsDTO.MarginPoint.builder()
+                    .date((LocalDate) row[0])
+                    .unitsSold(toLong(row[1]))
+                    .revenue(BigDecimal.valueOf(dayRevenue, 2))
+                    .grossProfit(BigDecimal.valueOf(dayProfit, 2))
+                    .marginPercent(percent(dayProfit, dayRevenue))
+                    .build());
+        }
+
+        AnalyticsDTO.MarginRow overall = toRow(null, units, revenueCents, costCents);
+        overall.setName("Total");
+
+        return AnalyticsDTO.MarginReport.builder()
+                .dimension(dim)
+                .startDate(startDate)
+                .endDate(endDate)
+                .totals(overall)
+                .rows(rows)
+                .daily(daily)
+                .lastSaleId(watermarkRepository.findById(WATERMARK).map(AnalyticsWatermark::getLastId).orElse(0L))
+                .build();
+    }
+
+    private void merge(Map<DayKey, long[]> deltas, Map<Long, Long[]> owners) {
+        List<DayKey> keys = new ArrayList<>(deltas.keySet());
+        keys.sort(Comparator.comparing(DayKey::productId).thenComparing(DayKey::saleDate));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < keys.size(); from += 1000) {
+            List<DayKey> chunk = keys.subList(from, Math.min(from + 1000, keys.size()));
+            Set<Long> productIds = new HashSet<>();
+            Set<LocalDate> dates = new HashSet<>();
+            for (DayKey key : chunk) {
+                productIds.add(key.productId());
+                dates.add(key.saleDate());
+            }
+
+            Map<DayKey, ProductMarginDaily> existing = new HashMap<>();
+            for (ProductMarginDaily day : marginRepository.findByProductIdInAndSaleDateIn(productIds, dates)) {
+                existing.put(new DayKey(day.getProductId(), day.getSaleDate()), day);
+            }
+
+            List<ProductMarginDaily> toSave = new ArrayList<>(chunk.size());
+            for (DayKey key : chunk) {
+                long[] delta = deltas.get(key);
+                Long[] owner = owners.get(key.productId());
+                ProductMarginDaily day = existing.get(key);
+                if (day == null) {
+                    day = ProductMarginDaily.builder()
+                            .productId(key.productId())
+                            .saleDate(key.saleDate())
+                            .unitsSold(0L)
+                            .revenueCents(0L)
+                            .costCents(0L)
+                            .build();
+                }
+                day.setCategoryId(owner[0]);
+                day.setVendorId(owner[1]);
+                day.setUnitsSold(day.getUnitsSold() + delta[0]);
+                day.setRevenueCents(day.getRevenueCents() + delta[1]);
+                day.setCostCents(day.getCostCents() + delta[2]);
+                day.setUpdatedAt(now);
+                toSave.add(day);
+            }
+            marginRepository.saveAll(toSave);
+        }
+    }
+
+    private AnalyticsDTO.MarginRow toRow(Long id, long units, long revenueCents, long costCents) {
+        long profitCents = revenueCents - costCents;
+        return AnalyticsDTO.MarginRow.builder()
+                .id(id)
+                .unitsSold(units)
+                .revenue(BigDecimal.valueOf(revenueCents, 2))
+                .costOfGoodsSold(BigDecimal.valueOf(costCents, 2))
+                .grossProfit(BigDecimal.valueOf(profitCents, 2))
+                .marginPercent(percent(profitCents, revenueCents))
+                .markupPercent(percent(profitCents, costCents))
+                .build();
+    }
+
+    private void resolveNames(String dimension, List<AnalyticsDTO.MarginRow> rows) {
+        List<Long> ids = rows.stream().map(AnalyticsDTO.MarginRow::getId).filter(Objects::nonNull).toList();
+        Map<Long, String> names = new HashMap<>();
+        switch (dimension) {
+            case InventoryMetricsService.DIMENSION_CATEGORY -> categoryRepository.findAllById(ids)
+                    .forEach(c -> names.put(c.getId(), c.getName()));
+            case InventoryMetricsService.DIMENSION_VENDOR -> userRepository.findAllById(ids)
+                    .forEach(u -> names.put(u.getId(), u.getUsername()));
+            default -> productRepository.findAllById(ids)
+                    .forEach(p -> names.put(p.getId(), p.getName()));
+        }
+        for (AnalyticsDTO.MarginRow row : rows) {
+            row.setName(row.getId() != null ? names.get(row.getId()) : "Unassigned");
+        }
+    }
+
+    private Double percent(long part, long whole) {
+        return whole != 0 ? Math.round(part * 10000.0 / whole) / 100.0 : null;
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+
+    private record DayKey(Long productId, LocalDate saleDate) {
+    }
+}
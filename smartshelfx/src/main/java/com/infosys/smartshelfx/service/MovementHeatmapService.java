@@ -0,0 +1,225 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import com.infosys.smartshelfx.entity.MovementHeatmapCell;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.repository.AnalyticsWatermarkRepository;
+import com.infosys.smartshelfx.repository.MovementHeatmapCellRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.util.*;
+
+/**
+ * Hour-of-day x day-of-week movement heatmap
+ * - Inbound/outbound movement counts and quantities per handler
+ * (performedBy) and category, in 168 hour-of-week cells
+ * - Maintained incrementally: each run applies only movements after the
+ * stored watermark id, in chunks
+ * - Each run folds only up to the highest id created before the settle
+ * delay, so late-committing transactions below it are not skipped; it also
+ * stops below a gap in the ids while the next row is younger than
+ * analytics.heatmap.gap.hold.minutes (a transaction open longer than that
+ * is taken as rolled back)
+ * - Runs lock the watermark row, so the scheduler and a manual refresh never
+ * fold the same ids twice
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovementHeatmapService {
+
+    static final String WATERMARK = "movement_heatmap";
+
+    private static final int CHUNK_SIZE = 5000;
+    private static final Set<MovementType> INBOUND_TYPES = EnumSet.of(
+            MovementType.RECEIVING, MovementType.RETURN, MovementType.TRANSFER_IN, MovementType.RESTOCK);
+
+    private final StockMovementRepository stockMovementRepository;
+    private final MovementHeatmapCellRepository heatmapCellRepository;
+    private final AnalyticsWatermarkRepository watermarkRepository;
+
+    @Value("${analytics.heatmap.settle.seconds:120}")
+    private long settleSeconds;
+
+    @Value("${analytics.heatmap.gap.hold.minutes:60}")
+    private long gapHoldMinutes;
+
+    /**
+     * Fold movements recorded since the last run into the heatmap cells
+     *
+     * @return number of movements applied
+     */
+    @Transactional
+    public int applyNewMovements() {
+        AnalyticsWatermark watermark = lockWatermark(WATERMARK);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minusSeconds(settleSeconds);
+        LocalDateTime gapHeldAfter = now.minusMinutes(gapHoldMinutes);
+
+        Long upToId = stockMovementRepository.findMaxIdCreatedBefore(watermark.getLastId(), settledBefore);
+        if (upToId == null)
+            return 0;
+
+        // (handler, category) -> 168 cells x [inCount, inQty, outCount, outQty]
+        Map<List<Long>, long[]> deltas = new HashMap<>();
+        long lastId = watermark.getLastId();
+        int applied = 0;
+        boolean held = false;
+
+        while (!held) {
+            List<Object[]> rows = stockMovementRepository.findHeatmapRowsAfter(lastId, upToId,
+                    PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                LocalDateTime createdAt = (LocalDateTime) row[5];
+                // Missing ids below a recent row may belong to a transaction that is still open
+                if (lastId > 0 && id != lastId + 1 && createdAt != null && createdAt.isAfter(gapHeldAfter)) {
+                    held = true;
+                    break;
+                }
+                lastId = id;
+                if (createdAt == null)
+                    continue;
+                Long handlerId = row[1] != null ? (Long) row[1] : 0L;
+                Long categoryId = row[2] != null ? (Long) row[2] : 0L;
+                long[] cells = deltas.computeIfAbsent(List.of(handlerId, categoryId), k -> new long[168 * 4]);
+                int offset = (cellIndex(createdAt.getDayOfWeek().getValue(), createdAt.getHour())) * 4;
+                int quantity = row[4] != null ? (Integer) row[4] : 0;
+                if (INBOUND_TYPES.contains((MovementType) row[3])) {
+                    cells[offset]++;
+                    cells[offset + 1] += quantity;
+                } else {
+                    cells[offset + 2]++;
+                    cells[offset + 3] += quantity;
+                }
+                applied++;
+            }
+            if (rows.size() < CHUNK_SIZE)
+                break;
+        }
+
+        long foldedThrough = held ? lastId : upToId;
+        if (foldedThrough > watermark.getLastId()) {
+            if (!deltas.isEmpty())
+                merge(deltas);
+            watermark.setLastId(foldedThrough);
+            watermark.setUpdatedAt(LocalDateTime.now());
+            watermarkRepository.save(watermark);
+        }
+
+        if (applied > 0)
+            log.info("Movement heatmap: applied {} movements across {} handler/category pairs (up to id {}{})",
+                    applied, deltas.size(), foldedThrough, held ? ", held at an id gap" : "");
+        return applied;
+    }
+
+    /**
+     * Lock the watermark row for this run, creating it on the first one
+     */
+    private AnalyticsWatermark lockWatermark(String name) {
+        return watermarkRepository.findForUpdate(name).orElseGet(() -> {
+            watermarkRepository.createIfAbsent(name);
+            return watermarkRepository.findForUpdate(name).orElseThrow();
+        });
+    }
+
+    /**
+     * Heatmap for one handler and/or category (both optional)
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDTO.MovementHeatmap getHeatmap(Long handlerId, Long categoryId) {
+        long[][] inboundCount = new long[7][24];
+        long[][] inboundQuantity = new long[7][24];
+        long[][] outboundCount = new long[7][24];
+        long[][] outboundQuantity = new long[7][24];
+
+        for (Object[] row : heatmapCellRepository.getHeatmap(handlerId, categoryId)) {
+            int day = (Integer) row[0] - 1;
+            int hour = (Integer) row[1];
+            inboundCount[day][hour] = ((Number) row[2]).longValue();
+            inboundQuantity[day][hour] = ((Number) row[3]).longValue();
+            outboundCount[day][hour] = ((Number) row[4]).longValue();
+            outboundQuantity[day][hour] = ((Number) row[5]).longValue();
+        }
+
+        List<String> days = new ArrayList<>(7);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            days.add(day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+        }
+
+        return AnalyticsDTO.MovementHeatmap.builder()
+                .handlerId(handlerId)
+                .categoryId(categoryId)
+                .days(days)
+                .inboundCount(inboundCount)
+                .inboundQuantity(inboundQuantity)
+                .outboundCount(outboundCount)
+                .outboundQuantity(outboundQuantity)
+                .lastMovementId(watermarkRepository.findById(WATERMARK).map(AnalyticsWatermark::getLastId).orElse(0L))
+                .build();
+    }
+
+    /**
+     * Add the deltas to their cells; the existing cells of every affected
+     * handler/category pair are loaded in one query
+     */
+    private void merge(Map<List<Long>, long[]> deltas) {
+        Set<Long> handlerIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        deltas.keySet().forEach(key -> {
+            handlerIds.add(key.get(0));
+            categoryIds.add(key.get(1));
+        });
+        Map<List<Long>, MovementHeatmapCell> existing = new HashMap<>();
+        for (MovementHeatmapCell cell : heatmapCellRepository.findByHandlerIdInAndCategoryIdIn(handlerIds,
+                categoryIds)) {
+            existing.put(List.of(cell.getHandlerId(), cell.getCategoryId(),
+                    (long) cellIndex(cell.getDayOfWeek(), cell.getHourOfDay())), cell);
+        }
+
+        List<MovementHeatmapCell> toSave = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            Long handlerId = key.get(0);
+            Long categoryId = key.get(1);
+            for (int index = 0; index < 168; index++) {
+                int offset = index * 4;
+                if (delta[offset] == 0 && delta[offset + 2] == 0)
+                    continue;
+
+                MovementHeatmapCell cell = existing.get(List.of(handlerId, categoryId, (long) index));
+                if (cell == null) {
+                    cell = MovementHeatmapCell.builder()
+                            .handlerId(handlerId)
+                            .categoryId(categoryId)
+                            .dayOfWeek(index / 24 + 1)
+                            .hourOfDay(index % 24)
+                            .inboundCount(0L)
+                            .inboundQuantity(0L)
+                            .outboundCount(0L)
+                            .outboundQuantity(0L)
+                            .build();
+                }
+                cell.setInboundCount(cell.getInboundCount() + delta[offset]);
+                cell.setInboundQuantity(cell.getInboundQuantity() + delta[offset + 1]);
+                cell.setOutboundCount(cell.getOutboundCount() + delta[offset + 2]);
+                cell.setOutboundQuantity(cell.getOutboundQuantity() + delta[offset + 3]);
+                toSave.add(cell);
+            }
+        });
+        heatmapCellRepository.saveAll(toSave);
+    }
+
+    private int cellIndex(int dayOfWeek, int hourOfDay) {
+        return (dayOfWeek - 1) * 24 + hourOfDay;
+    }
+}
@@ -0,0 +1,48 @@
+package com.infosys.smartshelfx.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * The built-in moving average (LOCAL_SMA_V1) on a primitive series: total
+ * demand divided by the days from the first to the last sale. Unlike the
+ * built-in path there is no reorder-quantity baseline for products without
+ * sales.
+ */
+@Component
+public class MovingAverageForecastModel implements ForecastModel {
+
+    @Override
+    public String name() {
+        return "MOVING_AVERAGE";
+    }
+
+    @Override
+    public String version() {
+        return ForecastCacheService.SMA_MODEL;
+    }
+
+    @Override
+    public double forecast(double[] series, int from, int to, int horizon, double[] out) {
+        int first = -1;
+        int last = -1;
+        double total = 0;
+        for (int t = from; t < to; t++) {
+            if (series[t] > 0) {
+                if (first < 0)
+                    first = t;
+                last = t;
+                total += series[t];
+            }
+        }
+        double rate = first >= 0 ? total / (last - first + 1) : 0;
+        Arrays.fill(out, 0, horizon, rate);
+
+        double absError = 0;
+        for (int t = from; t < to; t++) {
+            absError += Math.abs(series[t] - rate);
+        }
+        return to > from ? absError / (to - from) : 0;
+    }
+}
@@ -12,10 +12,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Notification Service for alerts and notifications
@@ -265,6 +268,32 @@ public class NotificationService {
      */
     @Transactional
     public void createForecastAlert(Product product, int daysUntilStockout) {
+        // Notify admins and warehouse managers
+        List<User> recipients = userRepository.findByRoleIn(
+                List.of(Role.ADMIN, Role.WAREHOUSEMANAGER));
+
+        notificationRepository.saveAll(buildForecastAlerts(product, daysUntilStockout, recipients));
+    }
+
+    /**
+     * Create forecast alerts for many products at once (bulk forecast runs):
+     * recipients are loaded once and notifications saved in one batch
+     */
+    @Transactional
+    public int createForecastAlerts(Map<Product, Integer> daysUntilStockout) {
+        if (daysUntilStockout.isEmpty())
+            return 0;
+
+        List<User> recipients = userRepository.findByRoleIn(
+                List.of(Role.ADMIN, Role.WAREHOUSEMANAGER));
+
+        List<Notification> notifications = new ArrayList<>();
+        daysUntilStockout.forEach((product, days) -> notifications.addAll(buildForecastAlerts(product, days, recipients)));
+        notificationRepository.saveAll(notifications);
+        return notifications.size();
+    }
+
+    private List<Notification> buildForecastAlerts(Product product, int daysUntilStockout, List<User> recipients) {
         NotificationPriority priority = daysUntilStockout <= 3 ? NotificationPriority.CRITICAL
                 : daysUntilStockout <= 7 ? NotificationPriority.HIGH : NotificationPriority.MEDIUM;
 
@@ -277,20 +306,41 @@ public class NotificationService {
                 product.getCurrentStock(),
                 product.getReorderLevel());
 
-        // Notify admins and warehouse managers
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (User recipient : recipients) {
+            notifications.add(Notification.builder()
+                    .user(recipient)
+                    .type(NotificationType.FORECAST_ALERT)
+                    .title("Stockout Risk Alert")
+                    .message(message)
+                    .priority(priority)
+                    .entityType("Product")
+                    .entityId(product.getId())
+                    .actionUrl("/analytics/forecasts/" + product.getId())
+                    .build());
+        }
+        return notifications;
+    }
+
+    /**
+     * Create a shrinkage anomaly alert for admins and warehouse managers.
+     * Runs in its own transaction: it is raised after the movement committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createShrinkageAlert(Long productId, String title, String message, NotificationPriority priority) {
         List<User> recipients = userRepository.findByRoleIn(
                 List.of(Role.ADMIN, Role.WAREHOUSEMANAGER));
 
         for (User recipient : recipients) {
             createNotification(
                     recipient,
-                    NotificationType.FORECAST_ALERT,
-                    "Stockout Risk Alert",
+                    NotificationType.SYSTEM_ALERT,
+                    title,
                     message,
                     priority,
                     "Product",
-                    product.getId(),
-                    "/analytics/forecasts/" + product.getId());
+                    productId,
+                    "/analytics/shrinkage");
         }
     }
 
@@ -308,6 +358,22 @@ public class NotificationService {
                 currentUser.getId(), pageable).map(this::toDTO);
     }
 
+    /**
+     * Get notifications for current user with keyset pagination
+     */
+    public CursorPage<NotificationDTO> getMyNotificationsPage(String cursor, int size, boolean includeTotal) {
+        User currentUser = getCurrentUser();
+        if (currentUser == null) {
+            return CursorPage.<NotificationDTO>builder().content(List.of()).size(0).hasNext(false).build();
+        }
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<Notification> rows = notificationRepository.findActivePageBefore(currentUser.getId(),
+                position.getAt(), position.getId(), KeysetCursor.limit(size));
+        Long total = includeTotal ? notificationRepository.countByUserIdAndIsDismissedFalse(currentUser.getId()) : null;
+        return KeysetCursor.toPage(rows, size, Notification::getCreatedAt, Notification::getId, this::toDTO, total);
+    }
+
     /**
      * Get unread notifications for current user
      */
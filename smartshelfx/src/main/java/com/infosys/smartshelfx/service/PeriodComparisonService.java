@@ -0,0 +1,217 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Period Comparison Engine
+ * - Compare sales across any number of periods (month-over-month,
+ * year-over-year, custom)
+ * - Daily totals for the union range of all periods come from the per-day
+ * segment cache (closed days are never re-queried)
+ * - Each day is bucketed into every period it falls in, in a single pass
+ * - Requests are capped at 36 periods and analytics.comparison.max-span-days
+ * from the earliest start to the latest end
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class PeriodComparisonService {
+
+    public static final String MODE_MONTH_OVER_MONTH = "MONTH_OVER_MONTH";
+    public static final String MODE_YEAR_OVER_YEAR = "YEAR_OVER_YEAR";
+    public static final String MODE_CUSTOM = "CUSTOM";
+
+    private static final int MAX_PERIODS = 36;
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("MMM dd");
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy");
+
+    private final AnalyticsSegmentCache segmentCache;
+
+    @Value("${analytics.comparison.max-span-days:3660}")
+    private int maxSpanDays;
+
+    /**
+     * Compare the given periods. Periods may overlap and need not be contiguous;
+     * change percentages are relative to the preceding period in the list.
+     */
+    public AnalyticsDTO.PeriodComparison comparePeriods(String mode, List<AnalyticsDTO.ComparisonPeriod> periods) {
+        validate(periods);
+
+        LocalDate scanStart = periods.get(0).getStartDate();
+        LocalDate scanEnd = periods.get(0).getEndDate();
+        for (AnalyticsDTO.ComparisonPeriod period : periods) {
+            if (period.getStartDate().isBefore(scanStart))
+                scanStart = period.getStartDate();
+            if (period.getEndDate().isAfter(scanEnd))
+                scanEnd = period.getEndDate();
+        }
+
+        // Per-period day buckets, indexed by offset from the period start
+        int n = periods.size();
+        long[][] dailyQuantity = new long[n][];
+        BigDecimal[][] dailyAmount = new BigDecimal[n][];
+        for (int i = 0; i < n; i++) {
+            int days = (int) ChronoUnit.DAYS.between(periods.get(i).getStartDate(), periods.get(i).getEndDate()) + 1;
+            dailyQuantity[i] = new long[days];
+            dailyAmount[i] = new BigDecimal[days];
+        }
+
+        // One segment per day across the union range
+        AnalyticsSegmentCache.DaySegment[] days = segmentCache.getSegments(scanStart, scanEnd);
+        for (int s = 0; s < days.length; s++) {
+            if (!days[s].hasSales())
+                continue;
+            LocalDate date = scanStart.plusDays(s);
+            long quantity = days[s].getSalesQuantity();
+            BigDecimal amount = days[s].getSalesAmount();
+
+            for (int i = 0; i < n; i++) {
+                AnalyticsDTO.ComparisonPeriod period = periods.get(i);
+                if (date.isBefore(period.getStartDate()) || date.isAfter(period.getEndDate()))
+                    continue;
+                int offset = (int) ChronoUnit.DAYS.between(period.getStartDate(), date);
+                dailyQuantity[i][offset] += quantity;
+                dailyAmount[i][offset] = dailyAmount[i][offset] != null
+                        ? dailyAmount[i][offset].add(amount)
+                        : amount;
+            }
+        }
+
+        List<AnalyticsDTO.PeriodSummary> summaries = new ArrayList<>(n);
+        BigDecimal previousTotal = null;
+        for (int i = 0; i < n; i++) {
+            AnalyticsDTO.ComparisonPeriod period = periods.get(i);
+            List<AnalyticsDTO.TrendDataPoint> trend = new ArrayList<>(dailyQuantity[i].length);
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            long totalQuantity = 0;
+
+            for (int d = 0; d < dailyQuantity[i].length; d++) {
+                LocalDate date = period.getStartDate().plusDays(d);
+                BigDecimal amount = dailyAmount[i][d] != null ? dailyAmount[i][d] : BigDecimal.ZERO;
+                totalAmount = totalAmount.add(amount);
+                totalQuantity += dailyQuantity[i][d];
+
+                trend.add(AnalyticsDTO.TrendDataPoint.builder()
+                        .date(date)
+                        .label(date.format(DAY_LABEL))
+                        .value(amount)
+                        .quantity((int) dailyQuantity[i][d])
+                        .build());
+            }
+
+            summaries.add(AnalyticsDTO.PeriodSummary.builder()
+                    .label(period.getLabel() != null ? period.getLabel()
+                            : period.getStartDate() + " - " + period.getEndDate())
+                    .startDate(period.getStartDate())
+                    .endDate(period.getEndDate())
+                    .totalAmount(totalAmount)
+                    .totalQuantity((int) totalQuantity)
+                    .averageDailyAmount(totalAmount.divide(
+                            BigDecimal.valueOf(dailyQuantity[i].length), 2, RoundingMode.HALF_UP))
+                    .changeFromPrevious(previousTotal != null ? percentageChange(previousTotal, totalAmount) : null)
+                    .dailyTrend(trend)
+                    .build());
+
+            previousTotal = totalAmount;
+        }
+
+        log.debug("Compared {} periods over {} - {} ({} days)", n, scanStart, scanEnd, days.length);
+
+        return AnalyticsDTO.PeriodComparison.builder()
+                .mode(mode != null ? mode : MODE_CUSTOM)
+                .scanStartDate(scanStart)
+                .scanEndDate(scanEnd)
+                .periods(summaries)
+                .build();
+    }
+
+    /**
+     * Build the last {@code count} calendar months ending with {@code anchor},
+     * oldest first.
+     */
+    public List<AnalyticsDTO.ComparisonPeriod> monthOverMonthPeriods(YearMonth anchor, int count) {
+        List<AnalyticsDTO.ComparisonPeriod> periods = new ArrayList<>();
+        for (int i = Math.max(1, count) - 1; i >= 0; i--) {
+            YearMonth month = anchor.minusMonths(i);
+            periods.add(AnalyticsDTO.ComparisonPeriod.builder()
+                    .label(month.format(MONTH_LABEL))
+                    .startDate(month.atDay(1))
+                    .endDate(month.atEndOfMonth())
+                    .build());
+        }
+        return periods;
+    }
+
+    /**
+     * Build the same date window shifted back one year at a time, oldest first.
+     */
+    public List<AnalyticsDTO.ComparisonPeriod> yearOverYearPeriods(LocalDate startDate, LocalDate endDate, int count) {
+        List<AnalyticsDTO.ComparisonPeriod> periods = new ArrayList<>();
+        for (int i = Math.max(1, count) - 1; i >= 0; i--) {
+            LocalDate start = startDate.minusYears(i);
+            periods.add(AnalyticsDTO.ComparisonPeriod.builder()
+                    .label(String.valueOf(start.getYear()))
+                    .startDate(start)
+                    .endDate(endDate.minusYears(i))
+                    .build());
+        }
+        return periods;
+    }
+
+    static double percentageChange(BigDecimal previous, BigDecimal current) {
+        if (previous == null || previous.compareTo(BigDecimal.ZERO) == 0) {
+            return current != null && current.compareTo(BigDecimal.ZERO) > 0 ? 100.0 : 0.0;
+        }
+        if (current == null)
+            current = BigDecimal.ZERO;
+        return current.subtract(previous)
+                .divide(previous, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .doubleValue();
+    }
+
+    private void validate(List<AnalyticsDTO.ComparisonPeriod> periods) {
+        if (periods == null || periods.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one period is required");
+        }
+        if (periods.size() > MAX_PERIODS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Too many periods: " + periods.size() + " (max " + MAX_PERIODS + ")");
+        }
+        for (AnalyticsDTO.ComparisonPeriod period : periods) {
+            if (period.getStartDate() == null || period.getEndDate() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Period start and end dates are required");
+            }
+            if (period.getStartDate().isAfter(period.getEndDate())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Period start date must not be after end date: " + period.getStartDate());
+            }
+        }
+        LocalDate earliest = periods.stream().map(AnalyticsDTO.ComparisonPeriod::getStartDate)
+                .min(LocalDate::compareTo).orElseThrow();
+        LocalDate latest = periods.stream().map(AnalyticsDTO.ComparisonPeriod::getEndDate)
+                .max(LocalDate::compareTo).orElseThrow();
+        long spanDays = ChronoUnit.DAYS.between(earliest, latest) + 1;
+        if (spanDays > maxSpanDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Periods span too many days: " + spanDays + " (max " + maxSpanDays + ")");
+        }
+    }
+}
@@ -38,6 +38,8 @@ public class ProductService {
                 filter.getCategoryId(),
                 filter.getVendorId(),
                 filter.getStockStatus(),
+                filter.getAbcClass(),
+                filter.getXyzClass(),
                 filter.getSearchTerm(),
                 pageable);
 
@@ -71,6 +73,8 @@ public class ProductService {
                 filter.getCategoryId(),
                 filter.getVendorId(),
                 filter.getStockStatus(),
+                filter.getAbcClass(),
+                filter.getXyzClass(),
                 filter.getSearchTerm(),
                 pageable);
 
@@ -322,6 +326,10 @@ public class ProductService {
                 .unitPrice(product.getUnitPrice())
                 .costPrice(product.getCostPrice())
                 .stockStatus(product.getStockStatus())
+                .abcClass(product.getAbcClass())
+                .xyzClass(product.getXyzClass())
+                .lastInboundAt(product.getLastInboundAt())
+                .lastSaleAt(product.getLastSaleAt())
                 .imageUrl(product.getImageUrl())
                 .unit(product.getUnit())
                 .isActive(product.getIsActive())
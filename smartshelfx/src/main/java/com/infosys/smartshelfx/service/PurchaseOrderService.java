@@ -2,9 +2,11 @@ package com.infosys.smartshelfx.service;
 
 import com.infosys.smartshelfx.dtos.*;
 import com.infosys.smartshelfx.entity.*;
+import com.infosys.smartshelfx.event.PurchaseOrderEvent;
 import com.infosys.smartshelfx.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -38,9 +40,10 @@ public class PurchaseOrderService {
     private final PurchaseOrderItemRepository purchaseOrderItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final DemandForecastRepository demandForecastRepository;
+    private final CurrentForecastRepository currentForecastRepository;
     private final NotificationService notificationService;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new purchase order
@@ -98,6 +101,8 @@ public class PurchaseOrderService {
         po.calculateTotals();
         po = purchaseOrderRepository.save(po);
 
+        eventPublisher.publishEvent(PurchaseOrderEvent.of(po, null));
+
         auditLogService.logAction(AuditAction.CREATE, "PurchaseOrder", po.getId(),
                 null, po, "created");
 
@@ -111,18 +116,20 @@ public class PurchaseOrderService {
      */
     @Transactional
     public List<PurchaseOrderDTO> autoGeneratePurchaseOrders() {
-        // Get products at risk
-        List<DemandForecast> atRiskForecasts = demandForecastRepository.findProductsAtRisk();
+        // Get products at risk (most urgent current forecast per product)
+        Collection<CurrentForecast> atRiskForecasts = currentForecastRepository.findProductsAtRisk().stream()
+                .collect(Collectors.toMap(cf -> cf.getProduct().getId(), cf -> cf, (a, b) -> a, LinkedHashMap::new))
+                .values();
 
         // Group by vendor
-        Map<Long, List<DemandForecast>> byVendor = atRiskForecasts.stream()
-                .collect(Collectors.groupingBy(df -> df.getProduct().getVendor().getId()));
+        Map<Long, List<CurrentForecast>> byVendor = atRiskForecasts.stream()
+                .collect(Collectors.groupingBy(cf -> cf.getProduct().getVendor().getId()));
 
         List<PurchaseOrderDTO> createdPOs = new ArrayList<>();
 
-        for (Map.Entry<Long, List<DemandForecast>> entry : byVendor.entrySet()) {
+        for (Map.Entry<Long, List<CurrentForecast>> entry : byVendor.entrySet()) {
             Long vendorId = entry.getKey();
-            List<DemandForecast> forecasts = entry.getValue();
+            List<CurrentForecast> forecasts = entry.getValue();
 
             // Create PO for this vendor
             User vendor = userRepository.findById(vendorId).orElse(null);
@@ -143,7 +150,7 @@ public class PurchaseOrderService {
             po = purchaseOrderRepository.save(po);
 
             // Add items
-            for (DemandForecast forecast : forecasts) {
+            for (CurrentForecast forecast : forecasts) {
                 Product product = forecast.getProduct();
                 int quantity = forecast.getRecommendedRestock() != null ? forecast.getRecommendedRestock()
                         : product.getReorderQuantity();
@@ -164,6 +171,8 @@ public class PurchaseOrderService {
             po.calculateTotals();
             po = purchaseOrderRepository.save(po);
 
+            eventPublisher.publishEvent(PurchaseOrderEvent.of(po, null));
+
             // Notify vendor
             notificationService.createPurchaseOrderNotification(po, NotificationType.PURCHASE_ORDER_CREATED);
 
@@ -179,15 +188,15 @@ public class PurchaseOrderService {
      */
     public List<RestockSuggestionDTO> getRestockSuggestions() {
         List<Product> lowStockProducts = productRepository.findLowStockProducts();
-        List<DemandForecast> forecasts = demandForecastRepository.findProductsAtRisk();
+        List<CurrentForecast> forecasts = currentForecastRepository.findProductsAtRisk();
 
-        Map<Long, DemandForecast> forecastMap = forecasts.stream()
+        Map<Long, CurrentForecast> forecastMap = forecasts.stream()
                 .collect(Collectors.toMap(df -> df.getProduct().getId(), df -> df, (a, b) -> a));
 
         List<RestockSuggestionDTO> suggestions = new ArrayList<>();
 
         for (Product product : lowStockProducts) {
-            DemandForecast forecast = forecastMap.get(product.getId());
+            CurrentForecast forecast = forecastMap.get(product.getId());
 
             String urgency = "MEDIUM";
             int suggestedQuantity = product.getReorderQuantity();
@@ -261,6 +270,7 @@ public class PurchaseOrderService {
 
         po.setStatus(PurchaseOrderStatus.PENDING);
         po = purchaseOrderRepository.save(po);
+        eventPublisher.publishEvent(PurchaseOrderEvent.of(po, PurchaseOrderStatus.DRAFT));
 
         notificationService.createPurchaseOrderNotification(po, NotificationType.PURCHASE_ORDER_CREATED);
 
@@ -286,6 +296,7 @@ public class PurchaseOrderService {
         po.setApprovedBy(currentUser);
         po.setApprovedAt(LocalDateTime.now());
         po = purchaseOrderRepository.save(po);
+        eventPublisher.publishEvent(PurchaseOrderEvent.of(po, PurchaseOrderStatus.PENDING));
 
         notificationService.createPurchaseOrderNotification(po, NotificationType.PURCHASE_ORDER_APPROVED);
 
@@ -312,6 +323,7 @@ public class PurchaseOrderService {
         po.setNotes(po.getNotes() != null ? po.getNotes() + "\nRejection reason: " + reason
                 : "Rejection reason: " + reason);
         po = purchaseOrderRepository.save(po);
+        eventPublisher.publishEvent(PurchaseOrderEvent.of(po, PurchaseOrderStatus.PENDING));
 
         notificationService.createPurchaseOrderNotification(po, NotificationType.PURCHASE_ORDER_REJECTED);
 
@@ -335,6 +347,7 @@ public class PurchaseOrderService {
                     "PO must be approved or sent to receive items");
         }
 
+        PurchaseOrderStatus previousStatus = po.getStatus();
         boolean allReceived = true;
         for (PurchaseOrderItemDTO receivedItem : receivedItems) {
             PurchaseOrderItem item = purchaseOrderItemRepository.findById(receivedItem.getId())
@@ -356,6 +369,7 @@ public class PurchaseOrderService {
             po.setActualDeliveryDate(LocalDateTime.now());
         }
         po = purchaseOrderRepository.save(po);
+        eventPublisher.publishEvent(PurchaseOrderEvent.of(po, previousStatus));
 
         notificationService.createPurchaseOrderNotification(po, NotificationType.PURCHASE_ORDER_RECEIVED);
 
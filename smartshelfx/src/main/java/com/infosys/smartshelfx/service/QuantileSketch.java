@@ -0,0 +1,278 @@
+package com.infosys.smartshelfx.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch (merging t-digest)
+ * - Values are collected in a buffer and periodically merged into sorted
+ * centroids; centroid size is bounded by 4·N·q·(1-q)/compression, so the
+ * tails stay exact-ish and the middle is summarised
+ * - Sketches of disjoint data merge into a sketch of the union
+ * - Serialized form: version, compression, count, min, max, then per centroid
+ * a float mean and a varint weight (a few hundred bytes for typical data)
+ */
+public final class QuantileSketch {
+
+    private static final byte VERSION = 1;
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    private final int compression;
+    private double[] means;
+    private long[] weights;
+    private int size;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    private final double[] bufferValues;
+    private final long[] bufferWeights;
+    private int bufferSize;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public QuantileSketch(int compression) {
+        this.compression = Math.max(20, compression);
+        this.means = new double[this.compression * 2];
+        this.weights = new long[this.compression * 2];
+        this.bufferValues = new double[this.compression * 5];
+        this.bufferWeights = new long[this.compression * 5];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long weight) {
+        if (weight <= 0 || Double.isNaN(value))
+            return;
+        if (bufferSize == bufferValues.length)
+            compress();
+        bufferValues[bufferSize] = value;
+        bufferWeights[bufferSize] = weight;
+        bufferSize++;
+        count += weight;
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+    }
+
+    /**
+     * Fold another sketch into this one
+     */
+    public void merge(QuantileSketch other) {
+        if (other == null || other.count == 0)
+            return;
+        other.compress();
+        for (int i = 0; i < other.size; i++) {
+            if (bufferSize == bufferValues.length)
+                compress();
+            bufferValues[bufferSize] = other.means[i];
+            bufferWeights[bufferSize] = other.weights[i];
+            bufferSize++;
+        }
+        count += other.count;
+        min = Double.isNaN(min) ? other.min : Math.min(min, other.min);
+        max = Double.isNaN(max) ? other.max : Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double mean() {
+        compress();
+        if (count == 0)
+            return Double.NaN;
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += means[i] * weights[i];
+        }
+        return sum / count;
+    }
+
+    /**
+     * Estimated value at quantile {@code q} in [0, 1]; NaN when empty
+     */
+    public double quantile(double q) {
+        compress();
+        if (size == 0)
+            return Double.NaN;
+        if (q <= 0)
+            return min;
+        if (q >= 1)
+            return max;
+        if (size == 1)
+            return means[0];
+
+        // Interpolate between centroid centres, anchored at min and max
+        double target = q * count;
+        double centre = weights[0] / 2.0;
+        if (target < centre) {
+            return min + (means[0] - min) * (target / centre);
+        }
+        for (int i = 0; i < size - 1; i++) {
+            double nextCentre = centre + (weights[i] + weights[i + 1]) / 2.0;
+            if (target < nextCentre) {
+                return means[i] + (means[i + 1] - means[i]) * ((target - centre) / (nextCentre - centre));
+            }
+            centre = nextCentre;
+        }
+        double remaining = count - centre;
+        return remaining > 0 ? means[size - 1] + (max - means[size - 1]) * ((target - centre) / remaining) : max;
+    }
+
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + 8 + 8 + 8 + 4 + size * (4 + 10));
+        buffer.put(VERSION);
+        buffer.putShort((short) compression);
+        buffer.putLong(count);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat((float) means[i]);
+            long weight = weights[i];
+            while ((weight & ~0x7FL) != 0) {
+                buffer.put((byte) ((weight & 0x7F) | 0x80));
+                weight >>>= 7;
+            }
+            buffer.put((byte) weight);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported sketch version: " + version);
+        QuantileSketch sketch = new QuantileSketch(buffer.getShort());
+        sketch.count = buffer.getLong();
+        sketch.min = buffer.getDouble();
+        sketch.max = buffer.getDouble();
+        int size = buffer.getInt();
+        sketch.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            sketch.means[i] = buffer.getFloat();
+            long weight = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                weight |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            sketch.weights[i] = weight;
+        }
+        sketch.size = size;
+        return sketch;
+    }
+
+    private void compress() {
+        if (bufferSize == 0)
+            return;
+
+        // Centroids are sorted already: sort the buffer in place and merge the two runs
+        sortBuffer();
+        int total = size + bufferSize;
+        double[] allMeans = new double[total];
+        long[] allWeights = new long[total];
+        for (int i = 0, j = 0, k = 0; k < total; k++) {
+            if (j >= bufferSize || (i < size && means[i] <= bufferValues[j])) {
+                allMeans[k] = means[i];
+                allWeights[k] = weights[i++];
+            } else {
+                allMeans[k] = bufferValues[j];
+                allWeights[k] = bufferWeights[j++];
+            }
+        }
+        bufferSize = 0;
+
+        long totalWeight = 0;
+        for (int i = 0; i < total; i++) {
+            totalWeight += allWeights[i];
+        }
+
+        ensureCapacity(total);
+        int merged = 0;
+        double currentMean = allMeans[0];
+        long currentWeight = allWeights[0];
+        long weightSoFar = 0;
+        for (int i = 1; i < total; i++) {
+            long proposed = currentWeight + allWeights[i];
+            double q0 = (double) weightSoFar / totalWeight;
+            double q2 = (double) (weightSoFar + proposed) / totalWeight;
+            double limit = 4.0 * totalWeight * Math.min(q0 * (1 - q0), q2 * (1 - q2)) / compression;
+            if (proposed <= limit || allMeans[i] == currentMean) {
+                currentMean += (allMeans[i] - currentMean) * allWeights[i] / proposed;
+                currentWeight = proposed;
+            } else {
+                means[merged] = currentMean;
+                weights[merged] = currentWeight;
+                merged++;
+                weightSoFar += currentWeight;
+                currentMean = allMeans[i];
+                currentWeight = allWeights[i];
+            }
+        }
+        means[merged] = currentMean;
+        weights[merged] = currentWeight;
+        size = merged + 1;
+    }
+
+    /**
+     * Heap sort of the buffer by value, weights moved along; no boxing or
+     * allocation
+     */
+    private void sortBuffer() {
+        int n = bufferSize;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    private void siftDown(int root, int n) {
+        while (true) {
+            int child = 2 * root + 1;
+            if (child >= n)
+                return;
+            if (child + 1 < n && bufferValues[child + 1] > bufferValues[child])
+                child++;
+            if (bufferValues[root] >= bufferValues[child])
+                return;
+            swap(root, child);
+            root = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double value = bufferValues[a];
+        bufferValues[a] = bufferValues[b];
+        bufferValues[b] = value;
+        long weight = bufferWeights[a];
+        bufferWeights[a] = bufferWeights[b];
+        bufferWeights[b] = weight;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (means.length < capacity) {
+            means = Arrays.copyOf(means, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.entity.QuantitySketch;
+import com.infosys.smartshelfx.repository.AnalyticsWatermarkRepository;
+import com.infosys.smartshelfx.repository.PurchaseOrderItemRepository;
+import com.infosys.smartshelfx.repository.QuantitySketchRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Dispatch and purchase order line size distributions
+ * - One quantile sketch per metric, product (and category) and day, stored
+ * serialized in quantity_sketches
+ * - DISPATCHING movements and PO lines are folded in incrementally after id
+ * watermarks, every analytics.sketch.refresh.ms rather than per event: each
+ * update rewrites a serialized sketch row, which per-event updates would
+ * turn into a hot row per product and day
+ * - Each fold locks its watermark row, so concurrent runs queue
+ * - Any combination of products or categories and dates is answered by
+ * merging the matching sketches; nothing is sorted
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuantitySketchService {
+
+    static final String DISPATCH_WATERMARK = "sketch_dispatch";
+    static final String PO_LINE_WATERMARK = "sketch_po_line";
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private final StockMovementRepository stockMovementRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final QuantitySketchRepository sketchRepository;
+    private final AnalyticsWatermarkRepository watermarkRepository;
+
+    @Value("${analytics.sketch.settle.seconds:120}")
+    private long settleSeconds;
+
+    @Value("${analytics.sketch.compression:100}")
+    private int compression;
+
+    /**
+     * Fold new dispatches and PO lines into the stored sketches
+     *
+     * @return number of quantities applied
+     */
+    @Transactional
+    public int applyNewQuantities() {
+        int dispatched = apply(QuantitySketch.METRIC_DISPATCH, DISPATCH_WATERMARK,
+                (afterId, page) -> stockMovementRepository.findQuantityRowsAfter(afterId, MovementType.DISPATCHING, page));
+        int ordered = apply(QuantitySketch.METRIC_PO_LINE, PO_LINE_WATERMARK,
+                purchaseOrderItemRepository::findQuantityRowsAfter);
+        return dispatched + ordered;
+    }
+
+    /**
+     * Quantiles of a metric over [startDate, endDate] for the given products,
+     * else the given categories, else all categories
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDTO.QuantityDistribution getDistribution(String metric, List<Long> productIds,
+            List<Long> categoryIds, LocalDate startDate, LocalDate endDate) {
+        String m = metric != null ? metric.toUpperCase() : QuantitySketch.METRIC_DISPATCH;
+        if (!List.of(QuantitySketch.METRIC_DISPATCH, QuantitySketch.METRIC_PO_LINE).contains(m)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid metric: " + metric);
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A valid start and end date are required");
+        }
+
+        boolean byProduct = productIds != null && !productIds.isEmpty();
+        String scopeType = byProduct ? QuantitySketch.SCOPE_PRODUCT : QuantitySketch.SCOPE_CATEGORY;
+        List<Long> scopeIds = byProduct ? productIds : categoryIds;
+        boolean allScopes = scopeIds == null || scopeIds.isEmpty();
+
+        Map<Long, QuantileSketch> perScope = new HashMap<>();
+        QuantileSketch combined = new QuantileSketch(compression);
+        for (QuantitySketch stored : sketchRepository.findForWindow(m, scopeType, startDate, endDate, allScopes,
+                allScopes ? List.of(0L) : scopeIds)) {
+            QuantileSketch sketch = QuantileSketch.fromBytes(stored.getSketch());
+            perScope.computeIfAbsent(stored.getScopeId(), k -> new QuantileSketch(compression)).merge(sketch);
+            combined.merge(sketch);
+        }
+
+        List<AnalyticsDTO.QuantityQuantiles> rows = new ArrayList<>(perScope.size());
+        perScope.forEach((id, sketch) -> rows.add(toQuantiles(id, sketch)));
+        rows.sort(Comparator.comparing(AnalyticsDTO.QuantityQuantiles::getCount).reversed());
+
+        return AnalyticsDTO.QuantityDistribution.builder()
+                .metric(m)
+                .scopeType(scopeType)
+                .startDate(startDate)
+                .endDate(endDate)
+                .combined(toQuantiles(null, combined))
+                .rows(rows)
+                .build();
+    }
+
+    private int apply(String metric, String watermarkName, BiFunction<Long, PageRequest, List<Object[]>> source) {
+        // Locked until commit: the scheduler and a manual refresh must not merge the same quantities twice
+        AnalyticsWatermark watermark = watermarkRepository.findForUpdate(watermarkName).orElseGet(() -> {
+            watermarkRepository.createIfAbsent(watermarkName);
+            return watermarkRepository.findForUpdate(watermarkName).orElseThrow();
+        });
+        LocalDateTime settledBefore = LocalDateTime.now().minusSeconds(settleSeconds);
+
+        Map<SketchKey, QuantileSketch> deltas = new HashMap<>();
+        long lastId = watermark.getLastId();
+        int applied = 0;
+
+        chunks: while (true) {
+            List<Object[]> rows = source.apply(lastId, PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : rows) {
+                LocalDateTime occurredAt = (LocalDateTime) row[4];
+                if (occurredAt != null && !occurredAt.isBefore(settledBefore))
+                    break chunks;
+
+                LocalDate date = occurredAt != null ? occurredAt.toLocalDate() : LocalDate.now();
+                int quantity = row[3] != null ? (Integer) row[3] : 0;
+                deltas.computeIfAbsent(new SketchKey(QuantitySketch.SCOPE_PRODUCT, (Long) row[1], date),
+                        k -> new QuantileSketch(compression)).add(quantity);
+                if (row[2] != null) {
+                    deltas.computeIfAbsent(new SketchKey(QuantitySketch.SCOPE_CATEGORY, (Long) row[2], date),
+                            k -> new QuantileSketch(compression)).add(quantity);
+                }
+
+                lastId = (Long) row[0];
+                applied++;
+            }
+            if (rows.size() < CHUNK_SIZE)
+                break;
+        }
+
+        if (applied == 0)
+            return 0;
+
+        merge(metric, deltas);
+
+        watermark.setLastId(lastId);
+        watermark.setUpdatedAt(LocalDateTime.now());
+        watermarkRepository.save(watermark);
+
+        log.info("Quantity sketches: applied {} {} quantities into {} sketches (up to id {})",
+                applied, metric, deltas.size(), lastId);
+        return applied;
+    }
+
+    private void merge(String metric, Map<SketchKey, QuantileSketch> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        for (String scopeType : List.of(QuantitySketch.SCOPE_PRODUCT, QuantitySketch.SCOPE_CATEGORY)) {
+            List<SketchKey> keys = deltas.keySet().stream().filter(k -> k.scopeType().equals(scopeType))
+                    .sorted(Comparator.comparing(SketchKey::scopeId).thenComparing(SketchKey::date)).toList();
+
+            for (int from = 0; from < keys.size(); from += 1000) {
+                List<SketchKey> chunk = keys.subList(from, Math.min(from + 1000, keys.size()));
+                Set<Long> scopeIds = new HashSet<>();
+                Set<LocalDate> dates = new HashSet<>();
+                for (SketchKey key : chunk) {
+                    scopeIds.add(key.scopeId());
+                    dates.add(key.date());
+                }
+
+                Map<SketchKey, QuantitySketch> existing = new HashMap<>();
+                for (QuantitySketch stored : sketchRepository
+                        .findByMetricAndScopeTypeAndScopeIdInAndSketchDateIn(metric, scopeType, scopeIds, dates)) {
+                    existing.put(new SketchKey(scopeType, stored.getScopeId(), stored.getSketchDate()), stored);
+                }
+
+                List<QuantitySketch> toSave = new ArrayList<>(chunk.size());
+                for (SketchKey key : chunk) {
+                    QuantileSketch sketch = deltas.get(key);
+                    QuantitySketch stored = existing.get(key);
+                    if (stored == null) {
+                        stored = QuantitySketch.builder()
+                                .metric(metric)
+                                .scopeType(scopeType)
+                                .scopeId(key.scopeId())
+                                .sketchDate(key.date())
+                                .build();
+                    } else {
+                        QuantileSketch current = QuantileSketch.fromBytes(stored.getSketch());
+                        current.merge(sketch);
+                        sketch = current;
+                    }
+                    stored.setSampleCount(sketch.getCount());
+                    stored.setSketch(sketch.toBytes());
+                    stored.setUpdatedAt(now);
+                    toSave.add(stored);
+                }
+                sketchRepository.saveAll(toSave);
+            }
+        }
+    }
+
+    private AnalyticsDTO.QuantityQuantiles toQuantiles(Long id, QuantileSketch sketch) {
+        boolean empty = sketch.getCount() == 0;
+        return AnalyticsDTO.QuantityQuantiles.builder()
+                .id(id)
+                .count(sketch.getCount())
+                .min(empty ? null : round(sketch.getMin()))
+                .max(empty ? null : round(sketch.getMax()))
+                .mean(empty ? null : round(sketch.mean()))
+                .p50(empty ? null : round(sketch.quantile(0.50)))
+                .p90(empty ? null : round(sketch.quantile(0.90)))
+                .p95(empty ? null : round(sketch.quantile(0.95)))
+                .p99(empty ? null : round(sketch.quantile(0.99)))
+                .build();
+    }
+
+    private Double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private record SketchKey(String scopeType, Long scopeId, LocalDate date) {
+    }
+}
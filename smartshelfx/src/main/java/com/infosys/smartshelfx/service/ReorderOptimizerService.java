@@ -0,0 +1,451 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ReorderPlan;
+import com.infosys.smartshelfx.entity.AbcClass;
+import com.infosys.smartshelfx.entity.AuditAction;
+import com.infosys.smartshelfx.entity.StockStatus;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.PurchaseOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Safety stock, reorder point and order quantity per product
+ * - Daily demand mean and variance over the look-back window; vendor lead
+ * time mean and variance from delivered purchase orders (a default lead time
+ * for vendors with too few deliveries)
+ * - Safety stock = z * sqrt(L * var(d) + d^2 * var(L)) with z from the
+ * service level of the product's ABC class; reorder point = d * L + safety
+ * stock; order quantity = EOQ sqrt(2 * yearly demand * order cost / holding
+ * cost)
+ * - Products are optimized in chunks on a bounded pool; a preview lists the
+ * changes and applying it updates products in one batch, skipping products
+ * edited since the preview; the bulk update bypasses the product events, so
+ * the live KPIs and stockout risks are reconciled once it commits
+ * - The plan id is a digest of the changes: a plan not held by this instance
+ * (restart, another instance) is recomputed on apply and applied only if it
+ * still has the same id
+ * - Every updated product gets an audit row with the old and new settings
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderOptimizerService {
+
+    // Same rule as Product.stockStatusFor, evaluated against the row's current stock
+    private static final String APPLY_PLAN = "UPDATE products SET reorder_level = ?, reorder_quantity = ?, " +
+            "stock_status = CASE WHEN current_stock IS NULL OR current_stock <= 0 THEN '" +
+            StockStatus.OUT_OF_STOCK.name() + "' WHEN current_stock <= ? THEN '" + StockStatus.LOW_STOCK.name() +
+            "' ELSE '" + StockStatus.IN_STOCK.name() + "' END, updated_at = ?, updated_by = ? " +
+            "WHERE id = ? AND reorder_level = ? AND reorder_quantity = ?";
+    // One audit row per product the plan actually updated (the guarded update above may skip it)
+    private static final String AUDIT_APPLY = "INSERT INTO audit_logs (action, entity_type, entity_id, old_value, " +
+            "new_value, changed_fields, performed_by, performed_at) SELECT ?, 'Product', p.id, ?, ?, " +
+            "'reorderLevel,reorderQuantity,', ?, ? FROM products p WHERE p.id = ? AND p.updated_at = ? " +
+            "AND p.updated_by = ? AND p.reorder_level = ? AND p.reorder_quantity = ?";
+
+    private final ProductRepository productRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final ForecastModelService forecastModelService;
+    private final JdbcTemplate jdbcTemplate;
+    private final LiveKpiService liveKpiService;
+    private final StockoutRiskService stockoutRiskService;
+
+    @Value("${inventory.optimizer.lookback-days:90}")
+    private int lookbackDays;
+
+    @Value("${inventory.optimizer.min-history-days:14}")
+    private int minHistoryDays;
+
+    @Value("${inventory.optimizer.lead-time.lookback-days:365}")
+    private int leadTimeLookbackDays;
+
+    @Value("${inventory.optimizer.lead-time.min-samples:3}")
+    private int minLeadTimeSamples;
+
+    @Value("${inventory.optimizer.lead-time.default-days:7}")
+    private double defaultLeadDays;
+
+    @Value("${inventory.optimizer.service-level.a:0.98}")
+    private double serviceLevelA;
+
+    @Value("${inventory.optimizer.service-level.b:0.95}")
+    private double serviceLevelB;
+
+    @Value("${inventory.optimizer.service-level.c:0.90}")
+    private double serviceLevelC;
+
+    @Value("${inventory.optimizer.service-level.default:0.95}")
+    private double defaultServiceLevel;
+
+    @Value("${inventory.optimizer.order-cost:50}")
+    private double orderCost;
+
+    @Value("${inventory.optimizer.holding-rate:0.25}")
+    private double holdingRate;
+
+    @Value("${inventory.optimizer.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${inventory.optimizer.threads:4}")
+    private int threads;
+
+    private volatile ReorderPlan lastPlan;
+
+    /**
+     * Compute reorder settings for the whole catalog without changing
+     * anything; the last plan is kept so that applying it needs no
+     * recomputation
+     */
+    public ReorderPlan preview() {
+        long started = System.currentTimeMillis();
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        Map<Long, LeadTime> leadTimes = loadLeadTimes();
+
+        List<Object[]> products = productRepository.findReorderSnapshot();
+        int size = Math.max(1, chunkSize);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<ReorderPlan.Item> optimized = new ArrayList<>();
+        try {
+            List<Future<List<ReorderPlan.Item>>> futures = new ArrayList<>();
+            for (int from = 0; from < products.size(); from += size) {
+                List<Object[]> chunk = products.subList(from, Math.min(from + size, products.size()));
+                futures.add(pool.submit(() -> optimizeChunk(chunk, leadTimes, endDate)));
+            }
+            for (Future<List<ReorderPlan.Item>> future : futures) {
+                optimized.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reorder optimization interrupted");
+        } catch (ExecutionException e) {
+            log.error("Reorder optimization failed", e.getCause());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Reorder optimization failed: " + e.getCause().getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<ReorderPlan.Item> changes = optimized.stream()
+                .filter(i -> !i.getReorderLevel().equals(i.getCurrentReorderLevel())
+                        || !i.getReorderQuantity().equals(i.getCurrentReorderQuantity()))
+                .sorted(Comparator.comparingInt((ReorderPlan.Item i) ->
+                        Math.abs(i.getReorderLevel() - i.getCurrentReorderLevel())).reversed())
+                .toList();
+
+        Map<String, Double> serviceLevels = new LinkedHashMap<>();
+        serviceLevels.put(AbcClass.A.name(), serviceLevelA);
+        serviceLevels.put(AbcClass.B.name(), serviceLevelB);
+        serviceLevels.put(AbcClass.C.name(), serviceLevelC);
+        serviceLevels.put("DEFAULT", defaultServiceLevel);
+
+        ReorderPlan plan = ReorderPlan.builder()
+                .planId(planId(changes))
+                .generatedAt(LocalDateTime.now())
+                .elapsedMs(System.currentTimeMillis() - started)
+                .lookbackDays(lookbackDays)
+                .serviceLevels(serviceLevels)
+                .orderCost(orderCost)
+                .holdingRate(holdingRate)
+                .totalProducts(products.size())
+                .optimizedProducts(optimized.size())
+                .changedProducts(changes.size())
+                .changes(changes)
+                .build();
+        lastPlan = plan;
+
+        log.info("Reorder optimizer: {} of {} products optimized, {} changes in {} ms",
+                optimized.size(), products.size(), changes.size(), plan.getElapsedMs());
+        return plan;
+    }
+
+    /**
+     * Apply the changes of the given preview (all, or only the listed
+     * products). Products whose reorder settings changed since the preview
+     * are skipped.
+     */
+    @Transactional
+    public Map<String, Integer> apply(String planId, Collection<Long> productIds, Long userId) {
+        ReorderPlan plan = lastPlan;
+        if (plan == null || !plan.getPlanId().equals(planId)) {
+            plan = preview();
+            if (!plan.getPlanId().equals(planId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Reorder plan changed since the preview; review the new plan " + plan.getPlanId());
+            }
+        }
+        Set<Long> selected = productIds != null && !productIds.isEmpty() ? new HashSet<>(productIds) : null;
+
+        // Whole seconds, so the audit insert matches the stored updated_at at any column precision
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> audits = new ArrayList<>();
+        for (ReorderPlan.Item item : plan.getChanges()) {
+            if (selected != null && !selected.contains(item.getProductId()))
+                continue;
+            rows.add(new Object[] {
+                    item.getReorderLevel(),
+                    item.getReorderQuantity(),
+                    item.getReorderLevel(),
+                    now,
+                    userId,
+                    item.getProductId(),
+                    item.getCurrentReorderLevel(),
+                    item.getCurrentReorderQuantity()
+            });
+            if (userId != null) {
+                audits.add(new Object[] {
+                        AuditAction.UPDATE.name(),
+                        reorderJson(item.getCurrentReorderLevel(), item.getCurrentReorderQuantity()),
+                        reorderJson(item.getReorderLevel(), item.getReorderQuantity()),
+                        userId,
+                        now,
+                        item.getProductId(),
+                        now,
+                        userId,
+                        item.getReorderLevel(),
+                        item.getReorderQuantity()
+                });
+            }
+        }
+
+        int updated = 0;
+        if (!rows.isEmpty()) {
+            for (int count : jdbcTemplate.batchUpdate(APPLY_PLAN, rows)) {
+                // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+                updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        if (updated > 0) {
+            if (audits.isEmpty()) {
+                log.warn("Reorder optimizer: plan {} applied without a user; no audit rows written", planId);
+            } else {
+                jdbcTemplate.batchUpdate(AUDIT_APPLY, audits);
+            }
+            reconcileAfterCommit();
+        }
+
+        log.info("Reorder optimizer: applied plan {} to {} products ({} skipped) by user {}",
+                planId, updated, rows.size() - updated, userId);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("updated", updated);
+        result.put("skipped", rows.size() - updated);
+        return result;
+    }
+
+    /**
+     * Digest of the changes, stable for the same catalog state and settings
+     */
+    private static String planId(List<ReorderPlan.Item> changes) {
+        StringBuilder content = new StringBuilder();
+        changes.stream().sorted(Comparator.comparing(ReorderPlan.Item::getProductId)).forEach(i -> content
+                .append(i.getProductId()).append(':')
+                .append(i.getCurrentReorderLevel()).append(':').append(i.getCurrentReorderQuantity()).append(':')
+                .append(i.getReorderLevel()).append(':').append(i.getReorderQuantity()).append(';'));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String reorderJson(Integer reorderLevel, Integer reorderQuantity) {
+        return "{\"reorderLevel\":" + reorderLevel + ",\"reorderQuantity\":" + reorderQuantity + "}";
+    }
+
+    private void reconcileAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Full reloads; keep them off the request thread
+                Thread.ofVirtual().name("reorder-reconcile").start(() -> {
+                    try {
+                        liveKpiService.reconcile();
+                    } catch (Exception e) {
+                        log.error("Live KPI reconcile after reorder plan failed: {}", e.getMessage(), e);
+                    }
+                    stockoutRiskService.reconcile();
+                });
+            }
+        });
+    }
+
+    /**
+     * Chunk rows: id, sku, name, vendorId, abcClass, reorderLevel,
+     * reorderQuantity, costPrice, createdAt
+     */
+    private List<ReorderPlan.Item> optimizeChunk(List<Object[]> chunk, Map<Long, LeadTime> leadTimes,
+            LocalDate endDate) {
+        LocalDate windowStart = endDate.minusDays(lookbackDays - 1L);
+        Map<Long, LocalDate> seriesStarts = new HashMap<>(chunk.size());
+        for (Object[] row : chunk) {
+            LocalDate created = row[8] != null ? ((LocalDateTime) row[8]).toLocalDate() : windowStart;
+            LocalDate start = created.isAfter(windowStart) ? created : windowStart;
+            if (ChronoUnit.DAYS.between(start, endDate) + 1 >= minHistoryDays)
+                seriesStarts.put((Long) row[0], start);
+        }
+        Map<Long, double[]> demand = forecastModelService.loadDailyDemand(seriesStarts, endDate);
+
+        LeadTime fallback = new LeadTime(defaultLeadDays, 0, 0);
+        List<ReorderPlan.Item> items = new ArrayList<>();
+        for (Object[] row : chunk) {
+            double[] series = demand.get((Long) row[0]);
+            if (series == null)
+                continue;
+            double sum = 0;
+            for (double value : series) {
+                sum += value;
+            }
+            double mean = sum / series.length;
+            if (mean <= 0)
+                continue; // no demand: nothing to base a policy on
+            double squares = 0;
+            for (double value : series) {
+                squares += (value - mean) * (value - mean);
+            }
+            double variance = series.length > 1 ? squares / (series.length - 1) : 0;
+
+            LeadTime leadTime = row[3] != null ? leadTimes.getOrDefault((Long) row[3], fallback) : fallback;
+            AbcClass abcClass = (AbcClass) row[4];
+            double serviceLevel = serviceLevel(abcClass);
+            double z = inverseNormal(serviceLevel);
+            double safetyStock = Math.max(0, z * Math.sqrt(leadTime.mean() * variance
+                    + mean * mean * leadTime.variance()));
+            int reorderLevel = (int) Math.ceil(mean * leadTime.mean() + safetyStock);
+
+            Integer currentQuantity = (Integer) row[6];
+            double unitCost = row[7] != null ? ((BigDecimal) row[7]).doubleValue() : 0;
+            int reorderQuantity = unitCost > 0 && holdingRate > 0
+                    ? Math.max(1, (int) Math.ceil(Math.sqrt(2 * mean * 365 * orderCost / (unitCost * holdingRate))))
+                    : currentQuantity; // EOQ needs a holding cost
+
+            items.add(ReorderPlan.Item.builder()
+                    .productId((Long) row[0])
+                    .productSku((String) row[1])
+                    .productName((String) row[2])
+                    .vendorId((Long) row[3])
+                    .abcClass(abcClass != null ? abcClass.name() : null)
+                    .avgDailyDemand(round(mean))
+                    .demandStdDev(round(Math.sqrt(variance)))
+                    .leadTimeDays(round(leadTime.mean()))
+                    .leadTimeStdDev(round(Math.sqrt(leadTime.variance())))
+                    .leadTimeSamples(leadTime.samples())
+                    .serviceLevel(serviceLevel)
+                    .safetyStock((int) Math.ceil(safetyStock))
+                    .currentReorderLevel((Integer) row[5])
+                    .reorderLevel(reorderLevel)
+                    .currentReorderQuantity(currentQuantity)
+                    .reorderQuantity(reorderQuantity)
+                    .build());
+        }
+        return items;
+    }
+
+    /**
+     * Observed lead times per vendor from order placement (approval when
+     * known) to delivery, in days, over the lead-time look-back
+     */
+    public Map<Long, double[]> loadLeadTimeSamples() {
+        Map<Long, List<Double>> samples = new HashMap<>();
+        for (Object[] row : purchaseOrderRepository.findLeadTimeRows(
+                LocalDateTime.now().minusDays(leadTimeLookbackDays))) {
+            LocalDateTime placed = row[1] != null ? (LocalDateTime) row[1] : (LocalDateTime) row[2];
+            if (row[0] == null || placed == null)
+                continue;
+            double days = Duration.between(placed, (LocalDateTime) row[3]).toMinutes() / 1440.0;
+            if (days >= 0)
+                samples.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(days);
+        }
+        Map<Long, double[]> leadTimes = new HashMap<>();
+        samples.forEach((vendorId, days) -> {
+            if (days.size() >= minLeadTimeSamples)
+                leadTimes.put(vendorId, days.stream().mapToDouble(Double::doubleValue).toArray());
+        });
+        return leadTimes;
+    }
+
+    private Map<Long, LeadTime> loadLeadTimes() {
+        Map<Long, LeadTime> leadTimes = new HashMap<>();
+        loadLeadTimeSamples().forEach((vendorId, days) -> {
+            double mean = Arrays.stream(days).average().orElse(0);
+            double squares = Arrays.stream(days).map(d -> (d - mean) * (d - mean)).sum();
+            leadTimes.put(vendorId, new LeadTime(mean, days.length > 1 ? squares / (days.length - 1) : 0,
+                    days.length));
+        });
+        return leadTimes;
+    }
+
+    private double serviceLevel(AbcClass abcClass) {
+        if (abcClass == null)
+            return defaultServiceLevel;
+        return switch (abcClass) {
+            case A -> serviceLevelA;
+            case B -> serviceLevelB;
+            case C -> serviceLevelC;
+        };
+    }
+
+    /**
+     * Standard normal quantile (Acklam's rational approximation, relative
+     * error below 1.2e-9)
+     */
+    static double inverseNormal(double p) {
+        if (p <= 0)
+            return Double.NEGATIVE_INFINITY;
+        if (p >= 1)
+            return Double.POSITIVE_INFINITY;
+        double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+        double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01 };
+        double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+        double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00 };
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private record LeadTime(double mean, double variance, int samples) {
+    }
+}
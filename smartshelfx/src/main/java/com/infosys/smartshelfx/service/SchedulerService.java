@@ -9,7 +9,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.infosys.smartshelfx.dtos.ForecastRequest;
+import com.infosys.smartshelfx.dtos.ForecastRunStatus;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -32,7 +32,16 @@ public class SchedulerService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final EmailNotificationService emailNotificationService;
-    private final ForecastingService forecastingService;
+    private final ForecastPipelineService forecastPipelineService;
+    private final InventoryClassificationService inventoryClassificationService;
+    private final InventoryMetricsService inventoryMetricsService;
+    private final MovementHeatmapService movementHeatmapService;
+    private final MarginAnalyticsService marginAnalyticsService;
+    private final QuantitySketchService quantitySketchService;
+    private final ForecastAccuracyService forecastAccuracyService;
+    private final ForecastStateService forecastStateService;
+    private final CurrentForecastService currentForecastService;
+    private final StockoutSimulationService stockoutSimulationService;
 
     @Value("${inventory.low.stock.threshold:10}")
     private int lowStockThreshold;
@@ -98,31 +107,132 @@ public class SchedulerService {
     }
 
     /**
-     * Generate demand forecasts daily at 6 AM
+     * Roll up yesterday's sales and stock into daily stats at 1 AM
+     */
+    @Scheduled(cron = "0 0 1 * * ?")
+    public void aggregateDailyStats() {
+        log.info("Running scheduled daily stats aggregation...");
+        try {
+            inventoryMetricsService.aggregateDailyStats();
+        } catch (Exception e) {
+            log.error("Daily stats aggregation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fold new stock movements into the hourly heatmap
+     */
+    @Scheduled(fixedDelayString = "${analytics.heatmap.refresh.ms:300000}")
+    public void refreshMovementHeatmap() {
+        try {
+            movementHeatmapService.applyNewMovements();
+        } catch (Exception e) {
+            log.error("Movement heatmap refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fold new sales into the daily margin roll-up
+     */
+    @Scheduled(fixedDelayString = "${analytics.margin.refresh.ms:60000}")
+    public void refreshMarginAnalytics() {
+        try {
+            marginAnalyticsService.applyNewSales();
+        } catch (Exception e) {
+            log.error("Margin analytics refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fold new dispatches and PO lines into the quantity sketches
+     */
+    @Scheduled(fixedDelayString = "${analytics.sketch.refresh.ms:300000}")
+    public void refreshQuantitySketches() {
+        try {
+            quantitySketchService.applyNewQuantities();
+        } catch (Exception e) {
+            log.error("Quantity sketch refresh failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fold yesterday's sales into the per-product smoothing states at 1:15 AM
+     */
+    @Scheduled(cron = "0 15 1 * * ?")
+    public void advanceForecastStates() {
+        log.info("Running scheduled forecast state update...");
+        try {
+            forecastStateService.advanceStates();
+        } catch (Exception e) {
+            log.error("Forecast state update failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Score forecasts whose windows closed yesterday, daily at 2:30 AM
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void evaluateForecastAccuracy() {
+        log.info("Running scheduled forecast accuracy evaluation...");
+        try {
+            forecastAccuracyService.evaluateClosedForecasts();
+        } catch (Exception e) {
+            log.error("Forecast accuracy evaluation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compact forecast history past the daily retention window at 3 AM
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void compactForecastHistory() {
+        log.info("Running scheduled forecast history compaction...");
+        try {
+            currentForecastService.compactHistory();
+        } catch (Exception e) {
+            log.error("Forecast history compaction failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Simulate stockout probabilities for the catalog at 3:30 AM
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void simulateStockouts() {
+        log.info("Running scheduled stockout simulation...");
+        try {
+            stockoutSimulationService.runSimulation(null, null);
+        } catch (Exception e) {
+            log.error("Stockout simulation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Refresh ABC/XYZ classification daily at 5 AM (incremental)
+     */
+    @Scheduled(cron = "0 0 5 * * ?")
+    public void refreshInventoryClassification() {
+        log.info("Running scheduled ABC/XYZ classification...");
+        try {
+            inventoryClassificationService.runClassification(false);
+        } catch (Exception e) {
+            log.error("ABC/XYZ classification failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Generate demand forecasts daily at 6 AM (chunked, parallel pipeline)
      */
     @Scheduled(cron = "0 0 6 * * ?")
-    @Transactional
     public void generateDailyForecasts() {
         log.info("Running scheduled demand forecast generation...");
-
-        List<Product> activeProducts = productRepository.findByIsActiveTrue();
-        int forecastCount = 0;
-
-        for (Product product : activeProducts) {
-            try {
-                ForecastRequest request = ForecastRequest.builder()
-                        .productId(product.getId())
-                        .period("DAILY")
-                        .horizon(30)
-                        .build();
-                forecastingService.generateForecast(request); // 30-day forecast
-                forecastCount++;
-            } catch (Exception e) {
-                log.error("Failed to generate forecast for product {}: {}", product.getId(), e.getMessage());
-            }
+        try {
+            ForecastRunStatus result = forecastPipelineService.runForecasts("DAILY", 30, true, null); // 30-day forecast
+            log.info("Daily forecast generation completed. Generated {} forecasts ({} failed products)",
+                    result.getForecastsSaved(), result.getFailedProducts());
+        } catch (Exception e) {
+            log.error("Daily forecast generation failed: {}", e.getMessage(), e);
         }
-
-        log.info("Daily forecast generation completed. Generated {} forecasts", forecastCount);
     }
 
     /**
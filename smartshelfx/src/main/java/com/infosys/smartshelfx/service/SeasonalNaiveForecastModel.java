@@ -0,0 +1,48 @@
+package com.infosys.smartshelfx.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Seasonal naive baseline: each day repeats the same weekday of the last
+ * observed week. Series shorter than a week repeat their mean.
+ */
+@Component
+public class SeasonalNaiveForecastModel implements ForecastModel {
+
+    private static final int SEASON = 7;
+
+    @Override
+    public String name() {
+        return "SEASONAL_NAIVE";
+    }
+
+    @Override
+    public String version() {
+        return "LOCAL_SEASONAL_NAIVE_V1";
+    }
+
+    @Override
+    public double forecast(double[] series, int from, int to, int horizon, double[] out) {
+        int length = to - from;
+        if (length < SEASON) {
+            double mean = 0;
+            for (int t = from; t < to; t++) {
+                mean += series[t];
+            }
+            mean = length > 0 ? mean / length : 0;
+            for (int h = 0; h < horizon; h++) {
+                out[h] = Math.max(0, mean);
+            }
+            return 0;
+        }
+
+        double absError = 0;
+        for (int t = from + SEASON; t < to; t++) {
+            absError += Math.abs(series[t] - series[t - SEASON]);
+        }
+        for (int h = 0; h < horizon; h++) {
+            out[h] = Math.max(0, series[to - SEASON + h % SEASON]);
+        }
+        return length > SEASON ? absError / (length - SEASON) : 0;
+    }
+}
@@ -0,0 +1,346 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AnalyticsDTO;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.entity.NotificationPriority;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.CategoryRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import com.infosys.smartshelfx.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shrinkage and damage analytics
+ * - Damage rate, adjustment drift and shrinkage cost per product, category or
+ * handler over any date window
+ * - Streaming anomaly detection: every committed DAMAGE / ADJUSTMENT movement
+ * is scored against an exponentially weighted mean and variance kept per
+ * product, category and handler, then folded into them
+ * - Spikes beyond the z-score threshold raise a notification (once per key
+ * per cooldown); baselines are warmed from recent history at startup, up to
+ * the highest movement id at that time, and live movements up to that id are
+ * left to the warm-up
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShrinkageService {
+
+    public static final String DIMENSION_PRODUCT = "PRODUCT";
+    public static final String DIMENSION_CATEGORY = "CATEGORY";
+    public static final String DIMENSION_HANDLER = "HANDLER";
+
+    private static final String METRIC_DAMAGE = "DAMAGE";
+    private static final String METRIC_ADJUSTMENT = "ADJUSTMENT";
+    private static final int CHUNK_SIZE = 5000;
+    private static final int MAX_RECENT_ANOMALIES = 200;
+
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+
+    @Value("${analytics.shrinkage.alpha:0.05}")
+    private double alpha;
+
+    @Value("${analytics.shrinkage.z-threshold:3.0}")
+    private double zThreshold;
+
+    @Value("${analytics.shrinkage.min-samples:10}")
+    private int minSamples;
+
+    @Value("${analytics.shrinkage.min-units:5}")
+    private int minUnits;
+
+    @Value("${analytics.shrinkage.cooldown.minutes:60}")
+    private int cooldownMinutes;
+
+    @Value("${analytics.shrinkage.warmup.days:90}")
+    private int warmupDays;
+
+    private final Map<DetectorKey, RunningStats> baselines = new ConcurrentHashMap<>();
+    // Movements up to this id are folded by the warm-up; unknown until it starts
+    private volatile long warmedThroughId = Long.MAX_VALUE;
+    private final Deque<AnalyticsDTO.ShrinkageAnomaly> recentAnomalies = new ArrayDeque<>();
+
+    /**
+     * Exponentially weighted mean and variance of one key's values
+     */
+    private static final class RunningStats {
+        long samples;
+        double mean;
+        double variance;
+        LocalDateTime lastAlertAt;
+
+        void update(double value, double alpha) {
+            if (samples == 0) {
+                mean = value;
+            } else {
+                double diff = value - mean;
+                double increment = alpha * diff;
+                mean += increment;
+                variance = (1 - alpha) * (variance + diff * increment);
+            }
+            samples++;
+        }
+    }
+
+    /**
+     * Seed the baselines from recent DAMAGE / ADJUSTMENT movements. Runs
+     * read-write so the replica router reads the max id and the rows from the
+     * primary; a lagging replica would miss movements that committed before
+     * the warm-up, whose events onStockMovement has already skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        LocalDateTime since = LocalDateTime.now().minusDays(warmupDays);
+        Long maxId;
+        try {
+            maxId = stockMovementRepository.findMaxId();
+        } catch (RuntimeException e) {
+            warmedThroughId = 0;
+            throw e;
+        }
+        long throughId = maxId != null ? maxId : 0L;
+        warmedThroughId = throughId;
+        long lastId = 0;
+        int loaded = 0;
+        chunks: while (true) {
+            List<Object[]> rows = stockMovementRepository.findShrinkageRowsAfter(lastId, since,
+                    List.of(MovementType.DAMAGE, MovementType.ADJUSTMENT), PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : rows) {
+                lastId = (Long) row[0];
+                if (lastId > throughId)
+                    break chunks; // committed since: folded by onStockMovement
+                MovementType type = (MovementType) row[4];
+                long value = type == MovementType.DAMAGE ? toLong(row[5]) : Math.abs(toLong(row[7]) - toLong(row[6]));
+                for (DetectorKey key : keysFor(type, (Long) row[1], (Long) row[2], (Long) row[3])) {
+                    RunningStats stats = baselines.computeIfAbsent(key, k -> new RunningStats());
+                    synchronized (stats) {
+                        stats.update(value, alpha);
+                    }
+                }
+                loaded++;
+            }
+            if (rows.size() < CHUNK_SIZE)
+                break;
+        }
+        log.info("Shrinkage baselines warmed from {} movements ({} keys)", loaded, baselines.size());
+    }
+
+    /**
+     * Score a committed movement and fold it into the baselines
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        MovementType type = event.getMovementType();
+        if (type != MovementType.DAMAGE && type != MovementType.ADJUSTMENT)
+            return;
+        if (event.getMovementId() != null && event.getMovementId() <= warmedThroughId)
+            return;
+
+        long value = type == MovementType.DAMAGE ? event.getQuantity()
+                : Math.abs(event.getNewStock() - event.getPreviousStock());
+        LocalDateTime now = LocalDateTime.now();
+        List<AnalyticsDTO.ShrinkageAnomaly> anomalies = new ArrayList<>();
+
+        for (DetectorKey key : keysFor(type, event.getProductId(), event.getCategoryId(), event.getPerformedById())) {
+            RunningStats stats = baselines.computeIfAbsent(key, k -> new RunningStats());
+            synchronized (stats) {
+                // Floor the deviation so perfectly regular history does not make every change a spike
+                double stdDev = Math.max(1.0, Math.sqrt(stats.variance));
+                double z = (value - stats.mean) / stdDev;
+                boolean spike = stats.samples >= minSamples && value >= minUnits && z >= zThreshold
+                        && (stats.lastAlertAt == null || stats.lastAlertAt.plusMinutes(cooldownMinutes).isBefore(now));
+                if (spike) {
+                    stats.lastAlertAt = now;
+                    anomalies.add(AnalyticsDTO.ShrinkageAnomaly.builder()
+                            .metric(key.metric())
+                            .scopeType(key.scopeType())
+                            .scopeId(key.scopeId())
+                            .productId(event.getProductId())
+                            .movementId(event.getMovementId())
+                            .value(value)
+                            .baselineMean(round(stats.mean))
+                            .baselineStdDev(round(Math.sqrt(stats.variance)))
+                            .zScore(round(z))
+                            .detectedAt(now)
+                            .build());
+                }
+                stats.update(value, alpha);
+            }
+        }
+
+        if (anomalies.isEmpty())
+            return;
+        synchronized (recentAnomalies) {
+            anomalies.forEach(recentAnomalies::addFirst);
+            while (recentAnomalies.size() > MAX_RECENT_ANOMALIES) {
+                recentAnomalies.removeLast();
+            }
+        }
+        // One notification per movement, for the most unusual key
+        raiseAlert(Collections.max(anomalies, Comparator.comparing(AnalyticsDTO.ShrinkageAnomaly::getZScore)));
+    }
+
+    /**
+     * Most recent anomalies, newest first
+     */
+    public List<AnalyticsDTO.ShrinkageAnomaly> getRecentAnomalies(int limit) {
+        synchronized (recentAnomalies) {
+            return recentAnomalies.stream().limit(Math.max(0, limit)).toList();
+        }
+    }
+
+    /**
+     * Damage rate, adjustment drift and shrinkage cost over [startDate,
+     * endDate] grouped by PRODUCT, CATEGORY or HANDLER
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDTO.ShrinkageReport getShrinkage(String dimension, LocalDate startDate, LocalDate endDate,
+            int limit) {
+        String dim = dimension != null ? dimension.toUpperCase() : DIMENSION_PRODUCT;
+        if (!List.of(DIMENSION_PRODUCT, DIMENSION_CATEGORY, DIMENSION_HANDLER).contains(dim)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid dimension: " + dimension);
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A valid start and end date are required");
+        }
+
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        List<Object[]> totals = switch (dim) {
+            case DIMENSION_CATEGORY -> stockMovementRepository.getShrinkageByCategory(from, to,
+                    MovementType.DAMAGE, MovementType.DISPATCHING, MovementType.ADJUSTMENT);
+            case DIMENSION_HANDLER -> stockMovementRepository.getShrinkageByHandler(from, to,
+                    MovementType.DAMAGE, MovementType.DISPATCHING, MovementType.ADJUSTMENT);
+            default -> stockMovementRepository.getShrinkageByProduct(from, to,
+                    MovementType.DAMAGE, MovementType.DISPATCHING, MovementType.ADJUSTMENT);
+        };
+
+        long[] sums = new long[6];
+        BigDecimal totalCost = BigDecimal.ZERO;
+        List<AnalyticsDTO.ShrinkageRow> rows = new ArrayList<>();
+        for (Object[] row : totals) {
+            long[] values = new long[6];
+            for (int i = 0; i < 6; i++) {
+                values[i] = toLong(row[i + 1]);
+                sums[i] += values[i];
+            }
+            BigDecimal cost = row[7] != null ? new BigDecimal(row[7].toString()) : BigDecimal.ZERO;
+            totalCost = totalCost.add(cost);
+            // Only keys that actually lost or adjusted stock
+            if (values[0] > 0 || values[3] > 0) {
+                rows.add(toRow(row[0] != null ? (Long) row[0] : null, values, cost));
+            }
+        }
+        rows.sort(Comparator.comparing(AnalyticsDTO.ShrinkageRow::getShrinkageCost).reversed());
+        if (limit > 0 && rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+        }
+        resolveNames(dim, rows);
+
+        AnalyticsDTO.ShrinkageRow overall = toRow(null, sums, totalCost);
+        overall.setName("Total");
+
+        return AnalyticsDTO.ShrinkageReport.builder()
+                .dimension(dim)
+                .startDate(startDate)
+                .endDate(endDate)
+                .totals(overall)
+                .rows(rows)
+                .build();
+    }
+
+    private void raiseAlert(AnalyticsDTO.ShrinkageAnomaly anomaly) {
+        try {
+            String product = productRepository.findById(anomaly.getProductId())
+                    .map(p -> p.getName() + " (" + p.getSku() + ")")
+                    .orElse("#" + anomaly.getProductId());
+            String what = METRIC_DAMAGE.equals(anomaly.getMetric()) ? "damage" : "stock adjustment";
+            String message = String.format(
+                    "Unusual %s of %d units on %s for %s %d (typical %.1f ± %.1f, z = %.1f).",
+                    what, anomaly.getValue(), product, anomaly.getScopeType().toLowerCase(), anomaly.getScopeId(),
+                    anomaly.getBaselineMean(), anomaly.getBaselineStdDev(), anomaly.getZScore());
+            NotificationPriority priority = anomaly.getZScore() >= zThreshold * 2 ? NotificationPriority.CRITICAL
+                    : NotificationPriority.HIGH;
+            notificationService.createShrinkageAlert(anomaly.getProductId(), "Shrinkage Anomaly", message, priority);
+        } catch (Exception e) {
+            log.error("Failed to raise shrinkage alert for movement {}: {}", anomaly.getMovementId(), e.getMessage());
+        }
+    }
+
+    private List<DetectorKey> keysFor(MovementType type, Long productId, Long categoryId, Long handlerId) {
+        String metric = type == MovementType.DAMAGE ? METRIC_DAMAGE : METRIC_ADJUSTMENT;
+        List<DetectorKey> keys = new ArrayList<>(3);
+        keys.add(new DetectorKey(metric, DIMENSION_PRODUCT, productId));
+        if (categoryId != null)
+            keys.add(new DetectorKey(metric, DIMENSION_CATEGORY, categoryId));
+        if (handlerId != null)
+            keys.add(new DetectorKey(metric, DIMENSION_HANDLER, handlerId));
+        return keys;
+    }
+
+    private AnalyticsDTO.ShrinkageRow toRow(Long id, long[] values, BigDecimal cost) {
+        long damaged = values[0];
+        long throughput = damaged + values[2];
+        return AnalyticsDTO.ShrinkageRow.builder()
+                .id(id)
+                .damagedUnits(damaged)
+                .damageEvents(values[1])
+                .dispatchedUnits(values[2])
+                .damageRate(throughput > 0 ? round(damaged * 100.0 / throughput) : null)
+                .adjustments(values[3])
+                .adjustmentNetUnits(values[4])
+                .adjustmentAbsoluteUnits(values[5])
+                .shrinkageCost(cost.setScale(2, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    private void resolveNames(String dimension, List<AnalyticsDTO.ShrinkageRow> rows) {
+        List<Long> ids = rows.stream().map(AnalyticsDTO.ShrinkageRow::getId).filter(Objects::nonNull).toList();
+        Map<Long, String> names = new HashMap<>();
+        switch (dimension) {
+            case DIMENSION_CATEGORY -> categoryRepository.findAllById(ids)
+                    .forEach(c -> names.put(c.getId(), c.getName()));
+            case DIMENSION_HANDLER -> userRepository.findAllById(ids)
+                    .forEach(u -> names.put(u.getId(), u.getUsername()));
+            default -> productRepository.findAllById(ids)
+                    .forEach(p -> names.put(p.getId(), p.getName()));
+        }
+        for (AnalyticsDTO.ShrinkageRow row : rows) {
+            row.setName(row.getId() != null ? names.get(row.getId()) : "Unassigned");
+        }
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private Double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private record DetectorKey(String metric, String scopeType, Long scopeId) {
+    }
+}
@@ -0,0 +1,546 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.StockoutRisk;
+import com.infosys.smartshelfx.entity.DemandForecast;
+import com.infosys.smartshelfx.entity.Product;
+import com.infosys.smartshelfx.entity.PurchaseOrderStatus;
+import com.infosys.smartshelfx.event.PurchaseOrderEvent;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.CurrentForecastRepository;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.PurchaseOrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event-driven stockout risk
+ * - Keeps stock, daily demand (from the current forecast) and the inbound
+ * pipeline (open purchase order lines by expected delivery date) per
+ * forecast product in memory
+ * - Every stock movement, purchase order change or new forecast re-projects
+ * the affected products: stock is drawn down at the daily demand and
+ * replenished as orders arrive; the first day it runs out is the projected
+ * stockout
+ * - Changed projections are written to current_forecasts at once, so the
+ * at-risk set is always current
+ * - Alerts for products entering (or moving up) a risk level are debounced
+ * until the product has been quiet for a while and then sent in one batch,
+ * at most once per level within the cool-down
+ * - Periodically reconciled against the database to correct drift; the
+ * reload queries run outside the lock, and stock and inbound changes seen
+ * meanwhile are carried over onto the reloaded state
+ * - New forecasts are taken up after the transaction that wrote them commits
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockoutRiskService {
+
+    static final List<PurchaseOrderStatus> INBOUND_STATUSES = List.of(PurchaseOrderStatus.APPROVED,
+            PurchaseOrderStatus.SENT, PurchaseOrderStatus.ACKNOWLEDGED, PurchaseOrderStatus.PARTIALLY_RECEIVED);
+
+    private static final String UPDATE_RISK = "UPDATE current_forecasts SET current_stock = ?, inbound_quantity = ?, " +
+            "days_until_stockout = ?, projected_stockout_date = ?, is_at_risk = ? WHERE product_id = ? AND forecast_period = ?";
+    private static final int NO_STOCKOUT = Integer.MAX_VALUE;
+    private static final int MAX_PROJECTION_DAYS = 3650;
+    private static final String[] LEVELS = { "LOW", "MEDIUM", "HIGH", "CRITICAL" };
+
+    private final ProductRepository productRepository;
+    private final CurrentForecastRepository currentForecastRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${inventory.risk.days:14}")
+    private int riskDays;
+
+    @Value("${inventory.risk.default-lead-days:7}")
+    private int defaultLeadDays;
+
+    @Value("${inventory.risk.notify.debounce.ms:60000}")
+    private long debounceMs;
+
+    @Value("${inventory.risk.notify.cooldown.minutes:240}")
+    private long cooldownMinutes;
+
+    private final Object lock = new Object();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Guarded by lock
+    private boolean loaded;
+    private final Map<Long, ProductRisk> risks = new HashMap<>();
+    private final Map<Long, Long> pendingAlerts = new HashMap<>(); // productId -> due at (ms)
+    private Map<Long, Integer> stockDuringReload; // non-null while a reload runs
+    private Map<Long, List<Inbound>> inboundDuringReload;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementEvent event) {
+        List<Object[]> updates;
+        synchronized (lock) {
+            if (stockDuringReload != null)
+                stockDuringReload.put(event.getProductId(), event.getNewStock());
+            if (!loaded)
+                return;
+            ProductRisk risk = risks.get(event.getProductId());
+            if (risk == null)
+                return;
+            risk.stock = event.getNewStock();
+            updates = reproject(List.of(risk), LocalDate.now());
+        }
+        write(updates);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseOrder(PurchaseOrderEvent event) {
+        boolean wasInbound = INBOUND_STATUSES.contains(event.getPreviousStatus());
+        boolean isInbound = INBOUND_STATUSES.contains(event.getNewStatus());
+        if (!wasInbound && !isInbound)
+            return;
+        synchronized (lock) {
+            if (!loaded)
+                return;
+        }
+
+        List<Long> productIds = purchaseOrderItemRepository.findProductIdsByPurchaseOrderId(event.getPurchaseOrderId());
+        if (productIds.isEmpty())
+            return;
+        Map<Long, List<Inbound>> inbound = loadInbound(
+                purchaseOrderItemRepository.findInboundRowsByProducts(INBOUND_STATUSES, productIds));
+
+        List<Object[]> updates;
+        synchronized (lock) {
+            if (inboundDuringReload != null) {
+                for (Long productId : productIds)
+                    inboundDuringReload.put(productId, inbound.getOrDefault(productId, List.of()));
+            }
+            List<ProductRisk> affected = new ArrayList<>();
+            for (Long productId : productIds) {
+                ProductRisk risk = risks.get(productId);
+                if (risk == null)
+                    continue;
+                risk.inbound = inbound.getOrDefault(productId, List.of());
+                affected.add(risk);
+            }
+            updates = reproject(affected, LocalDate.now());
+        }
+        write(updates);
+    }
+
+    /**
+     * Take up the demand of freshly written current forecasts and re-project
+     * those products (their rows were written without the inbound pipeline)
+     * once the writing transaction commits. The forecast run raises its own
+     * alerts, so these count as notified.
+     */
+    public void onForecasts(Collection<DemandForecast> forecasts) {
+        if (forecasts.isEmpty())
+            return;
+        List<ForecastDemand> demands = forecasts.stream()
+                .map(f -> new ForecastDemand(f.getProduct().getId(),
+                        f.getForecastPeriod() != null ? f.getForecastPeriod() : "DAILY",
+                        dailyDemand(f.getPredictedDemand(), f.getHorizonDays()),
+                        f.getCurrentStock() != null ? f.getCurrentStock() : 0))
+                .toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyForecasts(demands);
+                }
+            });
+        } else {
+            applyForecasts(demands);
+        }
+    }
+
+    private void applyForecasts(List<ForecastDemand> demands) {
+        ensureLoaded();
+        List<Long> productIds = demands.stream().map(ForecastDemand::productId).distinct().toList();
+        Map<Long, List<Inbound>> inbound = loadInbound(
+                purchaseOrderItemRepository.findInboundRowsByProducts(INBOUND_STATUSES, productIds));
+
+        List<Object[]> updates;
+        synchronized (lock) {
+            LocalDateTime now = LocalDateTime.now();
+            List<ProductRisk> affected = new ArrayList<>();
+            for (ForecastDemand demand : demands) {
+                ProductRisk risk = risks.computeIfAbsent(demand.productId(), ProductRisk::new);
+                if (risk.period == null || "DAILY".equals(demand.period()) || demand.period().equals(risk.period)) {
+                    risk.period = demand.period();
+                    risk.dailyDemand = demand.dailyDemand();
+                }
+                risk.stock = demand.stock();
+                risk.inbound = inbound.getOrDefault(demand.productId(), List.of());
+                risk.written = null;
+                affected.add(risk);
+            }
+            updates = reproject(affected, LocalDate.now());
+            for (ProductRisk risk : affected) {
+                if (risk.days <= riskDays) {
+                    pendingAlerts.remove(risk.productId);
+                    risk.notifiedLevel = level(risk.days);
+                    risk.notifiedAt = now;
+                }
+            }
+        }
+        write(updates);
+    }
+
+    /**
+     * Projection for one product, loading the risk state on first use
+     */
+    public StockoutRisk getRisk(Long productId) {
+        ensureLoaded();
+        StockoutRisk result = null;
+        synchronized (lock) {
+            ProductRisk risk = risks.get(productId);
+            if (risk != null) {
+                LocalDate today = LocalDate.now();
+                result = StockoutRisk.builder()
+                        .productId(productId)
+                        .currentStock(risk.stock)
+                        .dailyDemand(Math.round(risk.dailyDemand * 100.0) / 100.0)
+                        .inboundQuantity(risk.inbound.stream().mapToInt(Inbound::quantity).sum())
+                        .inbound(risk.inbound.stream()
+                                .map(i -> StockoutRisk.InboundLine.builder()
+                                        .expectedDate(i.date())
+                                        .quantity(i.quantity())
+                                        .build())
+                                .toList())
+                        .daysUntilStockout(risk.days)
+                        .projectedStockoutDate(stockoutDate(risk.days, today))
+                        .atRisk(risk.days <= riskDays)
+                        .riskLevel(level(risk.days))
+                        .build();
+            }
+        }
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No current forecast for product: " + productId);
+        }
+        return result;
+    }
+
+    /**
+     * Re-read stock, demand and the inbound pipeline of every forecast
+     * product, picking up changes made outside the event flow
+     */
+    @Scheduled(fixedDelayString = "${inventory.risk.reconcile.ms:900000}")
+    public void reconcile() {
+        try {
+            reload(true);
+        } catch (Exception e) {
+            log.error("Stockout risk reconcile failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Send the alerts whose products have been quiet for the debounce period
+     */
+    @Scheduled(fixedDelayString = "${inventory.risk.notify.flush.ms:5000}")
+    public void flushAlerts() {
+        Map<Long, Integer> due = new HashMap<>();
+        synchronized (lock) {
+            long now = System.currentTimeMillis();
+            LocalDateTime notifiedAt = LocalDateTime.now();
+            Iterator<Map.Entry<Long, Long>> it = pendingAlerts.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Long> entry = it.next();
+                if (entry.getValue() > now)
+                    continue;
+                it.remove();
+                ProductRisk risk = risks.get(entry.getKey());
+                if (risk == null || risk.days > riskDays)
+                    continue; // recovered while waiting
+                String level = level(risk.days);
+                if (level.equals(risk.notifiedLevel) && risk.notifiedAt != null
+                        && risk.notifiedAt.isAfter(notifiedAt.minusMinutes(cooldownMinutes)))
+                    continue;
+                risk.notifiedLevel = level;
+                risk.notifiedAt = notifiedAt;
+                due.put(risk.productId, risk.days);
+            }
+        }
+        if (due.isEmpty())
+            return;
+
+        try {
+            Map<Product, Integer> alerts = new LinkedHashMap<>();
+            productRepository.findAllById(due.keySet()).forEach(p -> alerts.put(p, due.get(p.getId())));
+            int raised = notificationService.createForecastAlerts(alerts);
+            log.info("Stockout risk: {} alerts for {} products", raised, alerts.size());
+        } catch (Exception e) {
+            log.error("Stockout risk alerts failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void ensureLoaded() {
+        boolean stale;
+        synchronized (lock) {
+            stale = !loaded;
+        }
+        if (stale)
+            reload(false);
+    }
+
+    /**
+     * Read every forecast product's demand, stock and inbound pipeline
+     * outside the lock, then swap the state in and write what changed
+     */
+    private void reload(boolean force) {
+        List<Object[]> updates;
+        reloadLock.lock();
+        try {
+            synchronized (lock) {
+                if (loaded && !force)
+                    return;
+                stockDuringReload = new HashMap<>();
+                inboundDuringReload = new HashMap<>();
+            }
+            Map<Long, ProductRisk> fresh;
+            try {
+                fresh = loadState();
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    stockDuringReload = null;
+                    inboundDuringReload = null;
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                updates = install(fresh);
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+        write(updates);
+    }
+
+    private Map<Long, ProductRisk> loadState() {
+        Map<Long, ProductRisk> fresh = new HashMap<>();
+        for (Object[] row : currentForecastRepository.findDemandRows()) {
+            Long productId = (Long) row[0];
+            String period = (String) row[1];
+            ProductRisk risk = fresh.computeIfAbsent(productId, ProductRisk::new);
+            if (risk.period == null || "DAILY".equals(period)) {
+                risk.period = period;
+                risk.dailyDemand = dailyDemand((Integer) row[2], (Integer) row[3]);
+            }
+        }
+        for (Object[] row : productRepository.findStatSnapshot()) {
+            ProductRisk risk = fresh.get((Long) row[0]);
+            if (risk != null)
+                risk.stock = row[3] != null ? ((Number) row[3]).intValue() : 0;
+        }
+        loadInbound(purchaseOrderItemRepository.findInboundRows(INBOUND_STATUSES)).forEach((productId, inbound) -> {
+            ProductRisk risk = fresh.get(productId);
+            if (risk != null)
+                risk.inbound = inbound;
+        });
+        return fresh;
+    }
+
+    // Caller holds the lock; returns the rows to write
+    private List<Object[]> install(Map<Long, ProductRisk> fresh) {
+        // Events since the queries started may be newer than what they read
+        stockDuringReload.forEach((productId, stock) -> {
+            ProductRisk risk = fresh.get(productId);
+            if (risk != null)
+                risk.stock = stock;
+        });
+        inboundDuringReload.forEach((productId, inbound) -> {
+            ProductRisk risk = fresh.get(productId);
+            if (risk != null)
+                risk.inbound = inbound;
+        });
+        stockDuringReload = null;
+        inboundDuringReload = null;
+
+        // Keep what was written and notified, so only real changes go out
+        fresh.forEach((productId, risk) -> {
+            ProductRisk previous = risks.get(productId);
+            if (previous != null) {
+                risk.days = previous.days;
+                risk.written = previous.written;
+                risk.notifiedLevel = previous.notifiedLevel;
+                risk.notifiedAt = previous.notifiedAt;
+            }
+        });
+        boolean initial = !loaded;
+        risks.clear();
+        risks.putAll(fresh);
+        pendingAlerts.keySet().retainAll(risks.keySet());
+        loaded = true;
+
+        List<Object[]> updates = reproject(risks.values(), LocalDate.now());
+        if (initial) {
+            // Alerts for products already at risk were raised by the forecast runs
+            pendingAlerts.clear();
+            LocalDateTime now = LocalDateTime.now();
+            risks.values().stream().filter(r -> r.days <= riskDays).forEach(r -> {
+                r.notifiedLevel = level(r.days);
+                r.notifiedAt = now;
+            });
+            log.info("Stockout risk: tracking {} products", risks.size());
+        }
+        return updates;
+    }
+
+    // Caller holds the lock
+    private List<Object[]> reproject(Collection<ProductRisk> affected, LocalDate today) {
+        List<Object[]> updates = new ArrayList<>();
+        long dueAt = System.currentTimeMillis() + debounceMs;
+        for (ProductRisk risk : affected) {
+            int previousDays = risk.days;
+            risk.days = project(risk.stock, risk.dailyDemand, risk.inbound, today);
+
+            int inboundQuantity = risk.inbound.stream().mapToInt(Inbound::quantity).sum();
+            LocalDate stockoutDate = stockoutDate(risk.days, today);
+            boolean atRisk = risk.days <= riskDays;
+            Object[] row = new Object[] {
+                    risk.stock,
+                    inboundQuantity,
+                    risk.days,
+                    stockoutDate != null ? Date.valueOf(stockoutDate) : null,
+                    atRisk,
+                    risk.productId,
+                    risk.period
+            };
+            // Marked written only once the batch succeeds
+            if (risk.written == null || !Arrays.equals(risk.written, row)) {
+                updates.add(row);
+            }
+
+            // Entering risk, or moving up a level, (re)starts the quiet period
+            if (atRisk && severity(risk.days) > severity(previousDays)) {
+                pendingAlerts.put(risk.productId, dueAt);
+            } else if (!atRisk) {
+                pendingAlerts.remove(risk.productId);
+            } else if (pendingAlerts.containsKey(risk.productId)) {
+                pendingAlerts.put(risk.productId, dueAt);
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Days until the stock runs out when drawn down at {@code dailyDemand}
+     * and topped up by each inbound order on its expected date
+     */
+    static int project(int stock, double dailyDemand, List<Inbound> inbound, LocalDate today) {
+        if (dailyDemand <= 0)
+            return NO_STOCKOUT;
+        double remaining = stock;
+        double t = 0;
+        for (Inbound order : inbound) {
+            double arrival = Math.max(0, ChronoUnit.DAYS.between(today, order.date()));
+            double runOut = t + Math.max(0, remaining) / dailyDemand;
+            if (runOut < arrival)
+                return (int) Math.min(runOut, NO_STOCKOUT);
+            remaining -= (arrival - t) * dailyDemand;
+            remaining += order.quantity();
+            t = arrival;
+        }
+        return (int) Math.min(t + Math.max(0, remaining) / dailyDemand, NO_STOCKOUT);
+    }
+
+    private Map<Long, List<Inbound>> loadInbound(List<Object[]> rows) {
+        Map<Long, List<Inbound>> inbound = new HashMap<>();
+        for (Object[] row : rows) {
+            int outstanding = (row[1] != null ? (Integer) row[1] : 0) - (row[2] != null ? (Integer) row[2] : 0);
+            if (outstanding <= 0)
+                continue;
+            LocalDate date;
+            if (row[3] != null) {
+                date = ((LocalDateTime) row[3]).toLocalDate();
+            } else {
+                LocalDateTime placed = row[4] != null ? (LocalDateTime) row[4] : (LocalDateTime) row[5];
+                date = (placed != null ? placed.toLocalDate() : LocalDate.now()).plusDays(defaultLeadDays);
+            }
+            inbound.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(new Inbound(date, outstanding));
+        }
+        inbound.values().forEach(list -> list.sort(Comparator.comparing(Inbound::date)));
+        return inbound;
+    }
+
+    private void write(List<Object[]> updates) {
+        if (updates.isEmpty())
+            return;
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_RISK, updates);
+        } catch (Exception e) {
+            // Left unwritten, so the next projection or reconcile retries them
+            log.error("Stockout risk update of {} products failed: {}", updates.size(), e.getMessage());
+            return;
+        }
+        synchronized (lock) {
+            for (Object[] row : updates) {
+                ProductRisk risk = risks.get((Long) row[5]);
+                if (risk != null)
+                    risk.written = row;
+            }
+        }
+    }
+
+    private double dailyDemand(Integer predictedDemand, Integer horizonDays) {
+        if (predictedDemand == null || horizonDays == null || horizonDays <= 0)
+            return 0;
+        return (double) predictedDemand / horizonDays;
+    }
+
+    private LocalDate stockoutDate(int days, LocalDate today) {
+        return days <= MAX_PROJECTION_DAYS ? today.plusDays(days) : null;
+    }
+
+    private String level(int days) {
+        return LEVELS[severity(days)];
+    }
+
+    private int severity(int days) {
+        if (days <= 3)
+            return 3;
+        if (days <= 7)
+            return 2;
+        if (days <= riskDays)
+            return 1;
+        return 0;
+    }
+
+    record Inbound(LocalDate date, int quantity) {
+    }
+
+    private record ForecastDemand(Long productId, String period, double dailyDemand, int stock) {
+    }
+
+    private static final class ProductRisk {
+        private final Long productId;
+        private String period;
+        private double dailyDemand;
+        private int stock;
+        private List<Inbound> inbound = List.of();
+        private int days = NO_STOCKOUT;
+        private Object[] written;
+        private String notifiedLevel;
+        private LocalDateTime notifiedAt;
+
+        private ProductRisk(Long productId) {
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.StockoutSimulationDTO;
+import com.infosys.smartshelfx.entity.Product;
+import com.infosys.smartshelfx.entity.StockoutSimulation;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.PurchaseOrderItemRepository;
+import com.infosys.smartshelfx.repository.StockoutSimulationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monte Carlo stockout simulation
+ * - Per product, thousands of demand paths over the horizon, each day drawn
+ * from the product's own recent daily sales (empirical bootstrap)
+ * - Open purchase order lines arrive after a lead time drawn from the
+ * vendor's observed lead times, conditioned on the order still being open
+ * (expected delivery date or a default lead time for vendors without
+ * history)
+ * - Reports the probability of running out within the horizon, expected
+ * lost units, the expected first stockout day and the fill rate
+ * - Chunks of products run on all cores, each with its own split of one
+ * SplittableRandom and reused primitive buffers; results are upserted per
+ * chunk
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockoutSimulationService {
+
+    private static final String UPSERT_SIMULATION = "INSERT INTO stockout_simulations (product_id, horizon_days, " +
+            "paths, current_stock, inbound_quantity, stockout_probability, expected_lost_units, " +
+            "expected_stockout_day, fill_rate, simulated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) AS new " +
+            "ON DUPLICATE KEY UPDATE horizon_days = new.horizon_days, paths = new.paths, " +
+            "current_stock = new.current_stock, inbound_quantity = new.inbound_quantity, " +
+            "stockout_probability = new.stockout_probability, " +
+            "expected_lost_units = new.expected_lost_units, " +
+            "expected_stockout_day = new.expected_stockout_day, fill_rate = new.fill_rate, " +
+            "simulated_at = new.simulated_at";
+    private static final int MAX_PATHS = 100_000;
+    private static final int MAX_HORIZON = 365;
+
+    private final ProductRepository productRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final StockoutSimulationRepository simulationRepository;
+    private final ForecastModelService forecastModelService;
+    private final ReorderOptimizerService reorderOptimizerService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${forecast.simulation.paths:2000}")
+    private int defaultPaths;
+
+    @Value("${forecast.simulation.horizon-days:30}")
+    private int defaultHorizon;
+
+    @Value("${forecast.simulation.history-days:90}")
+    private int historyDays;
+
+    @Value("${forecast.simulation.min-history-days:14}")
+    private int minHistoryDays;
+
+    @Value("${forecast.simulation.default-lead-days:7}")
+    private int defaultLeadDays;
+
+    @Value("${forecast.simulation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${forecast.simulation.threads:0}")
+    private int threads; // 0 = one per core
+
+    @Value("${forecast.simulation.seed:0}")
+    private long seed; // 0 = new seed per run
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Simulate every product with enough sales history and store the results
+     *
+     * @return run summary
+     */
+    public Map<String, Object> runSimulation(Integer horizonDays, Integer pathCount) {
+        int horizon = horizonDays != null ? horizonDays : defaultHorizon;
+        int paths = pathCount != null ? pathCount : defaultPaths;
+        if (horizon < 1 || horizon > MAX_HORIZON || paths < 1 || paths > MAX_PATHS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Horizon must be 1-" + MAX_HORIZON + " days and paths 1-" + MAX_PATHS);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A stockout simulation is already running");
+        }
+
+        long started = System.currentTimeMillis();
+        int simulated = 0;
+        int failedChunks = 0;
+        List<Object[]> products = List.of();
+        ExecutorService pool = null;
+        try {
+            products = productRepository.findStatSnapshot();
+            Map<Long, double[]> leadTimes = reorderOptimizerService.loadLeadTimeSamples();
+            SplittableRandom root = new SplittableRandom(seed != 0 ? seed : System.nanoTime());
+            LocalDateTime simulatedAt = LocalDateTime.now();
+
+            int size = Math.max(1, chunkSize);
+            pool = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int from = 0; from < products.size(); from += size) {
+                List<Object[]> chunk = products.subList(from, Math.min(from + size, products.size()));
+                SplittableRandom random = root.split(); // split here: the root is not thread-safe
+                futures.add(pool.submit(() -> simulateChunk(chunk, leadTimes, horizon, paths, random, simulatedAt)));
+            }
+            for (Future<Integer> future : futures) {
+                try {
+                    simulated += future.get();
+                } catch (ExecutionException e) {
+                    failedChunks++;
+                    log.error("Stockout simulation chunk failed", e.getCause());
+                }
+            }
+            if (failedChunks == 0) {
+                // Products that no longer qualify (deleted, too little history) drop out
+                jdbcTemplate.update("DELETE FROM stockout_simulations WHERE simulated_at < ?",
+                        Timestamp.valueOf(simulatedAt));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            running.set(false);
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Stockout simulation: {} of {} products, {} paths x {} days in {} ms ({} failed chunks)",
+                simulated, products.size(), paths, horizon, elapsed, failedChunks);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("products", products.size());
+        summary.put("simulated", simulated);
+        summary.put("failedChunks", failedChunks);
+        summary.put("paths", paths);
+        summary.put("horizonDays", horizon);
+        summary.put("elapsedMs", elapsed);
+        return summary;
+    }
+
+    @Transactional(readOnly = true)
+    public StockoutSimulationDTO getSimulation(Long productId) {
+        StockoutSimulation simulation = simulationRepository.findById(productId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "No stockout simulation for product: " + productId));
+        return toDTO(simulation, productRepository.findById(productId).orElse(null));
+    }
+
+    /**
+     * Products most likely to run out, highest probability first
+     */
+    @Transactional(readOnly = true)
+    public List<StockoutSimulationDTO> getMostAtRisk(double minProbability, int limit) {
+        List<StockoutSimulation> simulations = simulationRepository
+                .findByStockoutProbabilityGreaterThanEqualOrderByStockoutProbabilityDesc(minProbability,
+                        PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(simulations.stream().map(StockoutSimulation::getProductId).toList())
+                .forEach(p -> products.put(p.getId(), p));
+        return simulations.stream()
+                .map(s -> toDTO(s, products.get(s.getProductId())))
+                .toList();
+    }
+
+    /**
+     * Chunk rows: id, categoryId, vendorId, stock, cost, createdAt
+     */
+    private int simulateChunk(List<Object[]> chunk, Map<Long, double[]> leadTimes, int horizon, int paths,
+            SplittableRandom random, LocalDateTime simulatedAt) {
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate windowStart = endDate.minusDays(historyDays - 1L);
+        Map<Long, LocalDate> seriesStarts = new HashMap<>(chunk.size());
+        for (Object[] row : chunk) {
+            LocalDate created = row[5] != null ? ((LocalDateTime) row[5]).toLocalDate() : windowStart;
+            LocalDate start = created.isAfter(windowStart) ? created : windowStart;
+            if (ChronoUnit.DAYS.between(start, endDate) + 1 >= minHistoryDays)
+                seriesStarts.put((Long) row[0], start);
+        }
+        if (seriesStarts.isEmpty())
+            return 0;
+        Map<Long, double[]> demand = forecastModelService.loadDailyDemand(seriesStarts, endDate);
+
+        Map<Long, List<Object[]>> inboundRows = new HashMap<>();
+        for (Object[] row : purchaseOrderItemRepository.findInboundRowsByProducts(
+                StockoutRiskService.INBOUND_STATUSES, seriesStarts.keySet())) {
+            inboundRows.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(row);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int[] arrivals = new int[horizon]; // reused across products and paths
+        Timestamp at = Timestamp.valueOf(simulatedAt);
+        List<Object[]> rows = new ArrayList<>(seriesStarts.size());
+        for (Object[] row : chunk) {
+            Long productId = (Long) row[0];
+            double[] series = demand.get(productId);
+            if (series == null || series.length == 0)
+                continue;
+            int stock = row[3] != null ? Math.max(0, ((Number) row[3]).intValue()) : 0;
+            double[] vendorLeadTimes = row[2] != null ? leadTimes.get((Long) row[2]) : null;
+            List<InboundLine> inbound = toInboundLines(inboundRows.getOrDefault(productId, List.of()),
+                    vendorLeadTimes, now, defaultLeadDays);
+            int inboundQuantity = inbound.stream().mapToInt(InboundLine::quantity).sum();
+
+            Result result = simulate(series, stock, inbound, horizon, paths, random, arrivals);
+            rows.add(new Object[] {
+                    productId, horizon, paths, stock, inboundQuantity,
+                    result.stockoutProbability(), result.expectedLostUnits(),
+                    result.expectedStockoutDay(), result.fillRate(), at
+            });
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SIMULATION, rows);
+        }
+        return rows.size();
+    }
+
+    /**
+     * Run {@code paths} demand paths for one product
+     */
+    static Result simulate(double[] demand, int stock, List<InboundLine> inbound, int horizon, int paths,
+            SplittableRandom random, int[] arrivals) {
+        boolean anyDemand = false;
+        for (double value : demand) {
+            if (value > 0) {
+                anyDemand = true;
+                break;
+            }
+        }
+        if (!anyDemand)
+            return new Result(0, 0, null, 1);
+
+        int n = demand.length;
+        long stockouts = 0;
+        double lost = 0;
+        double totalDemand = 0;
+        double firstDays = 0;
+        for (int path = 0; path < paths; path++) {
+            Arrays.fill(arrivals, 0, horizon, 0);
+            for (InboundLine line : inbound) {
+                int day = line.arrivalDay(random);
+                if (day < horizon)
+                    arrivals[day] += line.quantity();
+            }
+
+            double onHand = stock;
+            int firstStockout = -1;
+            for (int day = 0; day < horizon; day++) {
+                onHand += arrivals[day];
+                double sold = demand[random.nextInt(n)];
+                totalDemand += sold;
+                if (sold > onHand) {
+                    lost += sold - onHand;
+                    onHand = 0;
+                    if (firstStockout < 0)
+                        firstStockout = day;
+                } else {
+                    onHand -= sold;
+                }
+            }
+            if (firstStockout >= 0) {
+                stockouts++;
+                firstDays += firstStockout;
+            }
+        }
+        return new Result(
+                round((double) stockouts / paths, 10000),
+                round(lost / paths, 100),
+                stockouts > 0 ? round(firstDays / stockouts, 100) : null,
+                totalDemand > 0 ? round(1 - lost / totalDemand, 10000) : 1);
+    }
+
+    /**
+     * Open order lines (productId, quantity, receivedQuantity,
+     * expectedDeliveryDate, approvedAt, createdAt) with their arrival
+     * distribution in days from today. Orders already older than every
+     * observed lead time of their vendor are overdue: they arrive on the
+     * expected date if that is still ahead, else after the default lead time.
+     */
+    static List<InboundLine> toInboundLines(List<Object[]> rows, double[] vendorLeadTimes, LocalDateTime now,
+            int defaultLeadDays) {
+        List<InboundLine> lines = new ArrayList<>(rows.size());
+        LocalDate today = now.toLocalDate();
+        for (Object[] row : rows) {
+            int outstanding = (row[1] != null ? (Integer) row[1] : 0) - (row[2] != null ? (Integer) row[2] : 0);
+            if (outstanding <= 0)
+                continue;
+            LocalDateTime placed = row[4] != null ? (LocalDateTime) row[4] : (LocalDateTime) row[5];
+            LocalDate expected = row[3] != null ? ((LocalDateTime) row[3]).toLocalDate() : null;
+            if (vendorLeadTimes != null && placed != null) {
+                // Lead times longer than the order's age, shifted to days from now
+                double age = Duration.between(placed, now).toMinutes() / 1440.0;
+                double[] remaining = Arrays.stream(vendorLeadTimes).filter(l -> l > age).map(l -> l - age).toArray();
+                if (remaining.length > 0) {
+                    lines.add(new InboundLine(outstanding, remaining));
+                } else {
+                    double days = expected != null && expected.isAfter(today)
+                            ? ChronoUnit.DAYS.between(today, expected)
+                            : defaultLeadDays;
+                    lines.add(new InboundLine(outstanding, new double[] { days }));
+                }
+            } else {
+                LocalDate arrival = expected != null ? expected
+                        : (placed != null ? placed.toLocalDate() : today).plusDays(defaultLeadDays);
+                double days = Math.max(0, ChronoUnit.DAYS.between(today, arrival));
+                lines.add(new InboundLine(outstanding, new double[] { days }));
+            }
+        }
+        return lines;
+    }
+
+    private StockoutSimulationDTO toDTO(StockoutSimulation simulation, Product product) {
+        return StockoutSimulationDTO.builder()
+                .productId(simulation.getProductId())
+                .productName(product != null ? product.getName() : null)
+                .productSku(product != null ? product.getSku() : null)
+                .horizonDays(simulation.getHorizonDays())
+                .paths(simulation.getPaths())
+                .currentStock(simulation.getCurrentStock())
+                .inboundQuantity(simulation.getInboundQuantity())
+                .stockoutProbability(simulation.getStockoutProbability())
+                .expectedLostUnits(simulation.getExpectedLostUnits())
+                .expectedStockoutDay(simulation.getExpectedStockoutDay())
+                .fillRate(simulation.getFillRate())
+                .simulatedAt(simulation.getSimulatedAt())
+                .build();
+    }
+
+    private static double round(double value, int scale) {
+        return (double) Math.round(value * scale) / scale;
+    }
+
+    /**
+     * Outstanding quantity arriving after one of {@code days} (days from
+     * today), drawn uniformly; days in the past arrive today
+     */
+    record InboundLine(int quantity, double[] days) {
+        int arrivalDay(SplittableRandom random) {
+            double day = days.length == 1 ? days[0] : days[random.nextInt(days.length)];
+            return Math.max(0, (int) Math.ceil(day));
+        }
+    }
+
+    record Result(double stockoutProbability, double expectedLostUnits, Double expectedStockoutDay,
+            double fillRate) {
+    }
+}
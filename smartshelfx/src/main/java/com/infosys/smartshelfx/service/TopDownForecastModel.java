@@ -0,0 +1,61 @@
+package com.infosys.smartshelfx.service;
+
+/**
+ * A product's share of its category's slow-mover forecast
+ * - Created per product by HierarchicalForecastService for a single run; not
+ * a component, so it cannot be assigned to a category
+ * - Ignores the product's own series: the aggregate curve was forecast once
+ * for the whole category
+ */
+final class TopDownForecastModel implements ForecastModel {
+
+    static final String NAME = "TOP_DOWN";
+
+    private final double[] aggregate;
+    private final double aggregateTotal;
+    private final double share;
+    private final double aggregateAbsError;
+    private final String version;
+
+    TopDownForecastModel(double[] aggregate, double share, double aggregateAbsError, String aggregateVersion) {
+        this.aggregate = aggregate;
+        double total = 0;
+        for (double value : aggregate) {
+            total += value;
+        }
+        this.aggregateTotal = total;
+        this.share = share;
+        this.aggregateAbsError = aggregateAbsError;
+        this.version = NAME + "_" + aggregateVersion;
+    }
+
+    double share() {
+        return share;
+    }
+
+    /**
+     * Sum of the category's aggregate curve
+     */
+    double aggregateTotal() {
+        return aggregateTotal;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String version() {
+        return version;
+    }
+
+    @Override
+    public double forecast(double[] series, int from, int to, int horizon, double[] out) {
+        int last = aggregate.length - 1;
+        for (int i = 0; i < horizon; i++) {
+            out[i] = last < 0 ? 0 : share * aggregate[Math.min(i, last)];
+        }
+        return share * aggregateAbsError;
+    }
+}
@@ -2,9 +2,11 @@ package com.infosys.smartshelfx.service;
 
 import com.infosys.smartshelfx.dtos.*;
 import com.infosys.smartshelfx.entity.*;
+import com.infosys.smartshelfx.event.StockMovementEvent;
 import com.infosys.smartshelfx.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -41,6 +43,7 @@ public class TransactionService {
     private final UserRepository userRepository;
     private final AuditLogService auditLogService;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Record Stock-In (Incoming Shipment)
@@ -55,6 +58,7 @@ public class TransactionService {
         User currentUser = getCurrentUser();
         int previousStock = product.getCurrentStock();
         int newStock = previousStock + request.getQuantity();
+        StockStatus previousStatus = product.getStockStatus();
 
         // Update product stock
         product.setCurrentStock(newStock);
@@ -75,6 +79,7 @@ public class TransactionService {
                 .build();
 
         movement = stockMovementRepository.save(movement);
+        eventPublisher.publishEvent(StockMovementEvent.of(movement, previousStatus, null));
 
         // Handle expiry tracking for perishable goods
         if (request.getExpiryDate() != null) {
@@ -111,6 +116,7 @@ public class TransactionService {
 
         User currentUser = getCurrentUser();
         int previousStock = product.getCurrentStock();
+        StockStatus previousStatus = product.getStockStatus();
 
         // Validate stock availability
         if (previousStock < request.getQuantity()) {
@@ -157,6 +163,8 @@ public class TransactionService {
                 .build();
 
         salesHistoryRepository.save(sale);
+        eventPublisher.publishEvent(StockMovementEvent.of(movement, previousStatus,
+                totalAmount != null ? totalAmount : BigDecimal.ZERO));
 
         // Log audit
         auditLogService.logAction(AuditAction.STOCK_UPDATE, "Product", product.getId(),
@@ -212,6 +220,25 @@ public class TransactionService {
         return movements.map(this::toMovementDTO);
     }
 
+    /**
+     * Get stock movements with keyset pagination, newest first. Pass the
+     * returned nextCursor as {@code cursor} for the following page.
+     */
+    public CursorPage<StockMovementDTO> getStockMovementsPage(
+            MovementType type, Long productId, Long handlerId,
+            LocalDateTime startDate, LocalDateTime endDate,
+            String cursor, int size, boolean includeTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<StockMovement> rows = stockMovementRepository.findPageBefore(
+                type, productId, handlerId, startDate, endDate,
+                position.getAt(), position.getId(), KeysetCursor.limit(size));
+        Long total = includeTotal
+                ? stockMovementRepository.countWithFilters(type, productId, handlerId, startDate, endDate)
+                : null;
+        return KeysetCursor.toPage(rows, size, StockMovement::getCreatedAt, StockMovement::getId,
+                this::toMovementDTO, total);
+    }
+
     /**
      * Get stock movements filtered by performedBy user (for Warehouse Managers)
      */
@@ -271,6 +298,20 @@ public class TransactionService {
         return sales.map(this::toSalesDTO);
     }
 
+    /**
+     * Get sales history with keyset pagination, most recently recorded first
+     */
+    public CursorPage<SalesHistoryDTO> getSalesHistoryPage(
+            Long productId, LocalDate startDate, LocalDate endDate,
+            String cursor, int size, boolean includeTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<SalesHistory> rows = salesHistoryRepository.findPageBefore(
+                productId, startDate, endDate, position.getAt(), position.getId(), KeysetCursor.limit(size));
+        Long total = includeTotal ? salesHistoryRepository.countWithFilters(productId, startDate, endDate) : null;
+        return KeysetCursor.toPage(rows, size, SalesHistory::getCreatedAt, SalesHistory::getId,
+                this::toSalesDTO, total);
+    }
+
     /**
      * Check stock levels and trigger alerts
      */
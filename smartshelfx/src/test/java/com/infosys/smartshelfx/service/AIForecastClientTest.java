@@ -0,0 +1,194 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.AIForecastRequest;
+import com.infosys.smartshelfx.dtos.AIForecastResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AIForecastClient against a stub batch-predict server on a local port
+ */
+class AIForecastClientTest {
+
+	private static final Pattern PRODUCT_ID = Pattern.compile("\"product_id\"\\s*:\\s*(\\d+)");
+
+	private HttpServer server;
+	private AIForecastClient client;
+	private final AtomicInteger calls = new AtomicInteger();
+	private final List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+	private volatile int status = 200;
+	private volatile long delayMs;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext(AIForecastClient.BATCH_PATH, this::handle);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (client != null)
+			client.stop();
+		server.stop(0);
+	}
+
+	@Test
+	void splitsRequestsIntoBatches() {
+		client = client(2, 2000, 3, 60000);
+
+		Map<Long, AIForecastResponse> responses = client.forecast(requests(5));
+
+		assertThat(responses).containsOnlyKeys(1L, 2L, 3L, 4L, 5L);
+		assertThat(responses.get(3L).getPredictions()).hasSize(2);
+		assertThat(calls.get()).isEqualTo(3);
+		assertThat(chunkSizes).containsExactlyInAnyOrder(2, 2, 1);
+	}
+
+	@Test
+	void skipsProductsWithoutHistory() {
+		client = client(10, 2000, 3, 60000);
+		List<AIForecastRequest> requests = new ArrayList<>(requests(2));
+		requests.add(AIForecastRequest.builder().productId(9L).historicalData(List.of()).build());
+
+		assertThat(client.forecast(requests)).containsOnlyKeys(1L, 2L);
+		assertThat(chunkSizes).containsExactly(2);
+	}
+
+	@Test
+	void readTimeoutCountsAsFailure() {
+		client = client(10, 200, 3, 60000);
+		delayMs = 1000;
+
+		assertThat(client.forecast(requests(2))).isEmpty();
+		Map<String, Object> state = client.getStatus();
+		assertThat(state.get("consecutiveFailures")).isEqualTo(1);
+		assertThat(state.get("circuitState")).isEqualTo("CLOSED");
+		assertThat(state.get("lastError")).isNotNull();
+	}
+
+	@Test
+	void circuitOpensThenHalfOpensThenCloses() throws InterruptedException {
+		client = client(10, 2000, 2, 300);
+		status = 500;
+
+		assertThat(client.forecast(requests(1))).isEmpty();
+		assertThat(client.getStatus().get("circuitState")).isEqualTo("CLOSED");
+		assertThat(client.forecast(requests(1))).isEmpty();
+		assertThat(client.getStatus().get("circuitState")).isEqualTo("OPEN");
+
+		// Open: nothing is sent
+		assertThat(client.forecast(requests(1))).isEmpty();
+		assertThat(calls.get()).isEqualTo(2);
+
+		Thread.sleep(350);
+		assertThat(client.getStatus().get("circuitState")).isEqualTo("HALF_OPEN");
+
+		// A failed trial re-opens at once
+		assertThat(client.forecast(requests(1))).isEmpty();
+		assertThat(calls.get()).isEqualTo(3);
+		assertThat(client.getStatus().get("circuitState")).isEqualTo("OPEN");
+
+		Thread.sleep(350);
+		status = 200;
+		assertThat(client.forecast(requests(1))).containsOnlyKeys(1L);
+		assertThat(client.getStatus().get("circuitState")).isEqualTo("CLOSED");
+		assertThat(client.getStatus().get("consecutiveFailures")).isEqualTo(0);
+	}
+
+	@Test
+	void disabledClientSendsNothing() {
+		client = new AIForecastClient(RestClient.builder());
+		ReflectionTestUtils.setField(client, "enabled", false);
+		client.start();
+
+		assertThat(client.forecast(requests(3))).isEmpty();
+		assertThat(calls.get()).isZero();
+	}
+
+	private AIForecastClient client(int batchSize, long readTimeoutMs, int failureThreshold, long openMs) {
+		AIForecastClient created = new AIForecastClient(RestClient.builder());
+		ReflectionTestUtils.setField(created, "enabled", true);
+		ReflectionTestUtils.setField(created, "serviceUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+		ReflectionTestUtils.setField(created, "batchSize", batchSize);
+		ReflectionTestUtils.setField(created, "concurrency", 2);
+		ReflectionTestUtils.setField(created, "connectTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(created, "readTimeoutMs", readTimeoutMs);
+		ReflectionTestUtils.setField(created, "failureThreshold", failureThreshold);
+		ReflectionTestUtils.setField(created, "slowCallMs", 5000L);
+		ReflectionTestUtils.setField(created, "openMs", openMs);
+		created.start();
+		return created;
+	}
+
+	private static List<AIForecastRequest> requests(int count) {
+		return LongStream.rangeClosed(1, count)
+				.mapToObj(id -> AIForecastRequest.builder()
+						.productId(id)
+						.productSku("SKU-" + id)
+						.horizon(2)
+						.historicalData(List.of(AIForecastRequest.HistoricalDataPoint.builder()
+								.date(LocalDate.of(2026, 1, 1))
+								.quantity(3)
+								.build()))
+						.build())
+				.toList();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		calls.incrementAndGet();
+		String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		List<Long> ids = new ArrayList<>();
+		Matcher matcher = PRODUCT_ID.matcher(body);
+		while (matcher.find())
+			ids.add(Long.parseLong(matcher.group(1)));
+		chunkSizes.add(ids.size());
+
+		if (delayMs > 0) {
+			try {
+				Thread.sleep(delayMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		StringBuilder json = new StringBuilder("{\"results\":[");
+		for (int i = 0; i < ids.size(); i++) {
+			if (i > 0)
+				json.append(',');
+			json.append("{\"product_id\":").append(ids.get(i)).append(",\"predictions\":[")
+					.append("{\"date\":\"2026-01-02\",\"predicted_demand\":4,\"confidence_score\":0.8},")
+					.append("{\"date\":\"2026-01-03\",\"predicted_demand\":5,\"confidence_score\":0.8}]}");
+		}
+		json.append("]}");
+		byte[] bytes = (status == 200 ? json.toString() : "{\"error\":\"down\"}").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.PurchaseOrderRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsSegmentCacheTest {
+
+	private final LocalDate start = LocalDate.now().minusDays(20);
+	private final LocalDate end = LocalDate.now().minusDays(11);
+
+	private SalesHistoryRepository salesHistoryRepository;
+	private AnalyticsSegmentCache cache;
+
+	@BeforeEach
+	void setUp() {
+		salesHistoryRepository = mock(SalesHistoryRepository.class);
+		cache = new AnalyticsSegmentCache(salesHistoryRepository, mock(StockMovementRepository.class),
+				mock(PurchaseOrderRepository.class), mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(cache, "maxDays", 3660);
+		ReflectionTestUtils.setField(cache, "closeGraceMinutes", 10);
+	}
+
+	@Test
+	void closedDaysAreLoadedOnce() {
+		sales(start.plusDays(2), 4, "12.50");
+
+		AnalyticsSegmentCache.DaySegment[] first = cache.getSegments(start, end);
+		AnalyticsSegmentCache.DaySegment[] second = cache.getSegments(start, end);
+
+		verify(salesHistoryRepository, times(1)).getDailySalesSummary(any(), any());
+		assertThat(cache.getCachedDayCount()).isEqualTo(10);
+		assertThat(second[2].getSalesQuantity()).isEqualTo(4);
+		assertThat(second[2]).isSameAs(first[2]);
+	}
+
+	@Test
+	void invalidatedDayIsReloadedAlone() {
+		LocalDate changed = start.plusDays(5);
+		cache.getSegments(start, end);
+		sales(changed, 9, "30.00");
+
+		cache.invalidate(changed);
+		AnalyticsSegmentCache.DaySegment[] segments = cache.getSegments(start, end);
+
+		verify(salesHistoryRepository).getDailySalesSummary(changed, changed);
+		assertThat(segments[5].getSalesQuantity()).isEqualTo(9);
+	}
+
+	@Test
+	void movementOnAClosedDayInvalidatesIt() {
+		LocalDate changed = start.plusDays(3);
+		cache.getSegments(start, end);
+
+		cache.onStockMovement(StockMovementEvent.builder()
+				.movementId(1L)
+				.productId(1L)
+				.movementType(MovementType.DISPATCHING)
+				.occurredAt(changed.atTime(9, 0))
+				.build());
+
+		assertThat(cache.getCachedDayCount()).isEqualTo(9);
+		cache.getSegments(start, end);
+		verify(salesHistoryRepository).getDailySalesSummary(changed, changed);
+	}
+
+	@Test
+	void gapLoadedDuringAnInvalidationIsNotCached() {
+		when(salesHistoryRepository.getDailySalesSummary(any(), any())).thenAnswer(invocation -> {
+			cache.invalidate(start.plusDays(1));
+			return List.of();
+		});
+
+		cache.getSegments(start, end);
+
+		assertThat(cache.getCachedDayCount()).isZero();
+	}
+
+	@Test
+	void todayIsNeverCached() {
+		LocalDate today = LocalDate.now();
+
+		cache.getSegments(today, today);
+		cache.getSegments(today, today);
+
+		assertThat(cache.getCachedDayCount()).isZero();
+		verify(salesHistoryRepository, times(2)).getDailySalesSummary(today, today);
+	}
+
+	private void sales(LocalDate date, long quantity, String amount) {
+		List<Object[]> rows = List.<Object[]>of(new Object[] { date, quantity, new BigDecimal(amount) });
+		when(salesHistoryRepository.getDailySalesSummary(any(), any())).thenReturn(rows);
+	}
+}
@@ -0,0 +1,75 @@
+package com.infosys.smartshelfx.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CrostonForecastModelTest {
+
+	private final CrostonForecastModel model = new CrostonForecastModel();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(model, "alpha", 0.1);
+	}
+
+	@Test
+	void intermittentDemandGivesCorrectedSizeOverInterval() {
+		double[] series = { 0, 0, 4, 0, 0, 0, 4, 0, 4 };
+		double[] out = new double[5];
+
+		model.forecast(series, 0, series.length, 3, out);
+
+		// size stays 4; interval 3 -> 3.1 (gap 4) -> 2.99 (gap 2); SBA factor 1 - alpha / 2
+		double expected = 0.95 * 4 / 2.99;
+		assertThat(out[0]).isCloseTo(expected, within(1e-12));
+		assertThat(out[1]).isEqualTo(out[0]);
+		assertThat(out[2]).isEqualTo(out[0]);
+		assertThat(out[3]).isZero(); // beyond the horizon: untouched
+	}
+
+	@Test
+	void meanAbsErrorStartsAfterFirstDemand() {
+		double[] series = { 0, 2, 0, 2 };
+		double[] out = new double[1];
+
+		double mae = model.forecast(series, 0, series.length, 1, out);
+
+		// After t=1: size 2, interval 2, forecast 0.95; errors |0-0.95| then |2-0.95|
+		assertThat(mae).isCloseTo((0.95 + 1.05) / 2, within(1e-12));
+	}
+
+	@Test
+	void usesOnlyTheGivenRange() {
+		double[] series = { 100, 100, 0, 3, 0, 3, 100 };
+		double[] out = new double[1];
+
+		model.forecast(series, 2, 6, 1, out);
+
+		// Demands of 3 every second day from the start of the range
+		assertThat(out[0]).isCloseTo(0.95 * 3 / 2, within(1e-12));
+	}
+
+	@Test
+	void noDemandForecastsZero() {
+		double[] out = { 9, 9 };
+
+		assertThat(model.forecast(new double[] { 0, 0, 0 }, 0, 3, 2, out)).isZero();
+		assertThat(out).containsExactly(0, 0);
+	}
+
+	@Test
+	void returnsNeverMakeTheForecastNegative() {
+		double[] series = { -5, 0, 2, -8, 0, 1, -3 };
+		double[] out = new double[7];
+
+		model.forecast(series, 0, series.length, out.length, out);
+
+		assertThat(Arrays.stream(out).min().orElseThrow()).isGreaterThanOrEqualTo(0);
+	}
+}
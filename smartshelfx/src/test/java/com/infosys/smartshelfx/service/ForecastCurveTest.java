@@ -0,0 +1,115 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.ForecastResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastCurveTest {
+
+	private static final LocalDate START = LocalDate.of(2026, 10, 20);
+
+	@Test
+	void roundTripsTypicalCurve() {
+		ForecastCurve curve = new ForecastCurve(START, new int[] { 3, 0, 7, 12 }, new int[] { 1, 0, 4, 9 },
+				new int[] { 5, 2, 10, 16 });
+
+		byte[] bytes = curve.toBytes();
+		ForecastCurve copy = ForecastCurve.fromBytes(bytes);
+
+		assertSame(curve, copy);
+		// version + start day + count + 3 one-byte values per point
+		assertThat(bytes).hasSize(1 + 4 + 1 + 4 * 3);
+		assertThat(bytes[0]).isEqualTo((byte) 1);
+	}
+
+	@Test
+	void roundTripsNegativeOffsetsAndExtremes() {
+		// Bounds on the wrong side of the demand, negative demand and values at the int limits
+		int[] demand = { 5, -3, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 1_000_000 };
+		int[] lower = { 9, -10, Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0 };
+		int[] upper = { 2, 4, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, 999_999 };
+		ForecastCurve curve = new ForecastCurve(LocalDate.of(1960, 1, 1), demand, lower, upper);
+
+		assertSame(curve, ForecastCurve.fromBytes(curve.toBytes()));
+	}
+
+	@Test
+	void roundTripsEmptyCurve() {
+		ForecastCurve curve = new ForecastCurve(START, new int[0], new int[0], new int[0]);
+
+		ForecastCurve copy = ForecastCurve.fromBytes(curve.toBytes());
+
+		assertThat(copy.size()).isZero();
+		assertThat(copy.getStartDate()).isEqualTo(START);
+	}
+
+	@Test
+	void nullOrEmptyBytesDecodeToNull() {
+		assertThat(ForecastCurve.fromBytes(null)).isNull();
+		assertThat(ForecastCurve.fromBytes(new byte[0])).isNull();
+	}
+
+	@Test
+	void buildsFromDataPointsWithMissingBounds() {
+		ForecastCurve curve = ForecastCurve.of(List.of(
+				ForecastResponse.ForecastDataPoint.builder().date(START).predictedDemand(4).lowerBound(2)
+						.upperBound(6).build(),
+				ForecastResponse.ForecastDataPoint.builder().date(START.plusDays(1)).predictedDemand(5).build()));
+
+		assertThat(curve.getStartDate()).isEqualTo(START);
+		assertThat(curve.getDemand()).containsExactly(4, 5);
+		assertThat(curve.getLowerBound()).containsExactly(2, 5);
+		assertThat(curve.getUpperBound()).containsExactly(6, 5);
+		assertThat(ForecastCurve.of(List.of())).isNull();
+	}
+
+	@Test
+	void rejectsUnknownVersion() {
+		byte[] bytes = new ForecastCurve(START, new int[] { 1 }, new int[] { 1 }, new int[] { 1 }).toBytes();
+		bytes[0] = 2;
+
+		assertThatThrownBy(() -> ForecastCurve.fromBytes(bytes))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("version");
+	}
+
+	@Test
+	void rejectsSizeBeyondPayload() {
+		byte[] bytes = new ForecastCurve(START, new int[] { 1, 2 }, new int[] { 1, 2 }, new int[] { 1, 2 })
+				.toBytes();
+		bytes[5] = 100; // claims 100 points, carries 2
+
+		assertThatThrownBy(() -> ForecastCurve.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsOverlongVarint() {
+		byte[] bytes = { 1, 0, 0, 0, 0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0 };
+
+		assertThatThrownBy(() -> ForecastCurve.fromBytes(bytes))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("5 bytes");
+	}
+
+	@Test
+	void rejectsTruncatedBytes() {
+		byte[] bytes = new ForecastCurve(START, new int[] { 300, 400 }, new int[] { 0, 0 }, new int[] { 900, 900 })
+				.toBytes();
+
+		assertThatThrownBy(() -> ForecastCurve.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static void assertSame(ForecastCurve expected, ForecastCurve actual) {
+		assertThat(actual.getStartDate()).isEqualTo(expected.getStartDate());
+		assertThat(actual.getDemand()).isEqualTo(expected.getDemand());
+		assertThat(actual.getLowerBound()).isEqualTo(expected.getLowerBound());
+		assertThat(actual.getUpperBound()).isEqualTo(expected.getUpperBound());
+	}
+}
@@ -0,0 +1,104 @@
+package com.infosys.smartshelfx.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HoltWintersForecastModelTest {
+
+	private static final double[] WEEK = { 10, 0, 0, 0, 0, 0, 20 };
+
+	private final HoltWintersForecastModel model = new HoltWintersForecastModel();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(model, "alpha", 0.3);
+		ReflectionTestUtils.setField(model, "beta", 0.05);
+		ReflectionTestUtils.setField(model, "gamma", 0.1);
+		ReflectionTestUtils.setField(model, "phi", 0.98);
+	}
+
+	@Test
+	void repeatsAStableWeeklyPattern() {
+		double[] series = weeks(4);
+		double[] out = new double[14];
+
+		double mae = model.forecast(series, 0, series.length, out.length, out);
+
+		// A purely periodic series is a fixed point: flat level, no trend, unchanged offsets
+		for (int h = 0; h < out.length; h++) {
+			assertThat(out[h]).as("day %s", h).isCloseTo(WEEK[h % 7], within(1e-9));
+		}
+		assertThat(mae).isCloseTo(0, within(1e-9));
+	}
+
+	@Test
+	void seasonFollowsTheEndOfTheRange() {
+		// Ends two days into a week: the next day is the third weekday
+		double[] series = new double[30];
+		for (int t = 0; t < series.length; t++)
+			series[t] = WEEK[t % 7];
+		double[] out = new double[7];
+
+		model.forecast(series, 0, series.length, out.length, out);
+
+		for (int h = 0; h < out.length; h++) {
+			assertThat(out[h]).isCloseTo(WEEK[(series.length + h) % 7], within(1e-9));
+		}
+	}
+
+	@Test
+	void shortSeriesUsesLevelOnly() {
+		double[] series = { 5, 5, 5, 5, 5, 5, 5, 5, 5, 5 };
+		double[] out = new double[3];
+
+		model.forecast(series, 0, series.length, out.length, out);
+
+		assertThat(out).containsExactly(new double[] { 5, 5, 5 }, within(1e-9));
+	}
+
+	@Test
+	void risingSeriesProjectsAboveItsMean() {
+		double[] series = new double[28];
+		for (int t = 0; t < series.length; t++)
+			series[t] = 10 + t;
+		double[] out = new double[7];
+
+		model.forecast(series, 0, series.length, out.length, out);
+
+		assertThat(out[0]).isGreaterThan(10 + 13.5);
+		assertThat(out[6]).isGreaterThan(out[0]);
+	}
+
+	@Test
+	void emptyRangeForecastsZero() {
+		double[] out = { 1, 1 };
+
+		assertThat(model.forecast(new double[] { 4, 4 }, 1, 1, 2, out)).isZero();
+		assertThat(out).containsExactly(0, 0);
+	}
+
+	@Test
+	void fallingSeasonalDemandIsClampedAtZero() {
+		double[] series = new double[28];
+		for (int t = 0; t < series.length; t++)
+			series[t] = Math.max(-20, 30 - 2.0 * t) + (t % 7 == 0 ? 15 : -15);
+		double[] out = new double[28];
+
+		model.forecast(series, 0, series.length, out.length, out);
+
+		assertThat(Arrays.stream(out).min().orElseThrow()).isGreaterThanOrEqualTo(0);
+	}
+
+	private static double[] weeks(int count) {
+		double[] series = new double[count * 7];
+		for (int t = 0; t < series.length; t++)
+			series[t] = WEEK[t % 7];
+		return series;
+	}
+}
@@ -0,0 +1,118 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.dtos.KpiSnapshot;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.entity.StockStatus;
+import com.infosys.smartshelfx.event.StockMovementEvent;
+import com.infosys.smartshelfx.repository.ProductRepository;
+import com.infosys.smartshelfx.repository.PurchaseOrderRepository;
+import com.infosys.smartshelfx.repository.SalesHistoryRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveKpiServiceTest {
+
+	private ProductRepository productRepository;
+	private StockMovementRepository stockMovementRepository;
+	private LiveKpiService service;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		stockMovementRepository = mock(StockMovementRepository.class);
+		when(productRepository.countByStockStatus(StockStatus.IN_STOCK)).thenReturn(10L);
+		when(stockMovementRepository.findIdsCreatedSince(any())).thenReturn(List.of(5L));
+
+		service = new LiveKpiService(productRepository, mock(SalesHistoryRepository.class),
+				mock(PurchaseOrderRepository.class), stockMovementRepository, mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "dedupWindowMinutes", 10L);
+	}
+
+	@Test
+	void movementCountedByTheReloadIsNotAppliedAgain() {
+		service.getSnapshot();
+
+		service.onStockMovement(sellOut(5));
+		assertThat(service.getSnapshot().getInStockCount()).isEqualTo(10);
+
+		service.onStockMovement(sellOut(6));
+		KpiSnapshot snapshot = service.getSnapshot();
+		assertThat(snapshot.getInStockCount()).isEqualTo(9);
+		assertThat(snapshot.getOutOfStockCount()).isEqualTo(1);
+	}
+
+	@Test
+	void movementsArrivingDuringTheReloadAreReplayedUnlessCounted() {
+		when(productRepository.countByStockStatus(StockStatus.IN_STOCK)).thenAnswer(invocation -> {
+			service.onStockMovement(sellOut(5));
+			service.onStockMovement(sellOut(7));
+			return 10L;
+		});
+
+		KpiSnapshot snapshot = service.getSnapshot();
+
+		assertThat(snapshot.getInStockCount()).isEqualTo(9);
+		assertThat(snapshot.getOutOfStockCount()).isEqualTo(1);
+		assertThat(snapshot.getTodaySalesQuantity()).isEqualTo(2);
+	}
+
+	@Test
+	void deltaCarriesOnlyTheNetChangesSinceTheLastSend() {
+		KpiSnapshot lastSent = service.getSnapshot();
+
+		service.onStockMovement(sellOut(6));
+		service.onStockMovement(StockMovementEvent.builder()
+				.movementId(8L)
+				.productId(1L)
+				.movementType(MovementType.RECEIVING)
+				.quantity(2)
+				.previousStock(0)
+				.newStock(2)
+				.previousStatus(StockStatus.OUT_OF_STOCK)
+				.newStatus(StockStatus.IN_STOCK)
+				.occurredAt(LocalDateTime.now())
+				.build());
+		KpiSnapshot current = service.getSnapshot();
+
+		Map<String, Object> delta = LiveKpiService.delta(lastSent, current);
+
+		assertThat(delta).containsOnlyKeys("version", "asOf", "todaySalesAmount", "todaySalesQuantity");
+		assertThat(delta.get("todaySalesQuantity")).isEqualTo(2L);
+		assertThat((BigDecimal) delta.get("todaySalesAmount")).isEqualByComparingTo("19.98");
+	}
+
+	@Test
+	void deltaOfUnchangedSnapshotsCarriesOnlyTheHeader() {
+		KpiSnapshot snapshot = service.getSnapshot();
+
+		assertThat(LiveKpiService.delta(snapshot, snapshot)).containsOnlyKeys("version", "asOf");
+	}
+
+	private StockMovementEvent sellOut(long movementId) {
+		return StockMovementEvent.builder()
+				.movementId(movementId)
+				.productId(1L)
+				.movementType(MovementType.DISPATCHING)
+				.quantity(2)
+				.previousStock(2)
+				.newStock(0)
+				.previousStatus(StockStatus.IN_STOCK)
+				.newStatus(StockStatus.OUT_OF_STOCK)
+				.saleAmount(new BigDecimal("19.98"))
+				.occurredAt(LocalDateTime.now())
+				.build();
+	}
+}
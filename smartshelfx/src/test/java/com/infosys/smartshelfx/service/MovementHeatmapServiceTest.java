@@ -0,0 +1,157 @@
+package com.infosys.smartshelfx.service;
+
+import com.infosys.smartshelfx.entity.AnalyticsWatermark;
+import com.infosys.smartshelfx.entity.MovementHeatmapCell;
+import com.infosys.smartshelfx.entity.MovementType;
+import com.infosys.smartshelfx.repository.AnalyticsWatermarkRepository;
+import com.infosys.smartshelfx.repository.MovementHeatmapCellRepository;
+import com.infosys.smartshelfx.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovementHeatmapServiceTest {
+
+	private final List<Object[]> movements = new ArrayList<>();
+	private final Map<List<Object>, MovementHeatmapCell> cells = new HashMap<>();
+	private AnalyticsWatermark watermark;
+	private MovementHeatmapService service;
+
+	@BeforeEach
+	void setUp() {
+		StockMovementRepository stockMovementRepository = mock(StockMovementRepository.class);
+		MovementHeatmapCellRepository cellRepository = mock(MovementHeatmapCellRepository.class);
+		AnalyticsWatermarkRepository watermarkRepository = mock(AnalyticsWatermarkRepository.class);
+
+		when(stockMovementRepository.findMaxIdCreatedBefore(anyLong(), any())).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			LocalDateTime before = invocation.getArgument(1);
+			return movements.stream()
+					.filter(row -> (Long) row[0] > afterId && ((LocalDateTime) row[5]).isBefore(before))
+					.map(row -> (Long) row[0])
+					.max(Long::compare)
+					.orElse(null);
+		});
+		when(stockMovementRepository.findHeatmapRowsAfter(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			long upToId = invocation.getArgument(1);
+			Pageable page = invocation.getArgument(2);
+			return movements.stream()
+					.filter(row -> (Long) row[0] > afterId && (Long) row[0] <= upToId)
+					.sorted((a, b) -> Long.compare((Long) a[0], (Long) b[0]))
+					.limit(page.getPageSize())
+					.toList();
+		});
+		when(cellRepository.findByHandlerIdInAndCategoryIdIn(anyCollection(), anyCollection()))
+				.thenAnswer(invocation -> new ArrayList<>(cells.values()));
+		when(cellRepository.saveAll(any())).thenAnswer(invocation -> {
+			Iterable<MovementHeatmapCell> saved = invocation.getArgument(0);
+			saved.forEach(cell -> cells.put(List.of(cell.getHandlerId(), cell.getCategoryId(), cell.getDayOfWeek(),
+					cell.getHourOfDay()), cell));
+			return saved;
+		});
+		when(watermarkRepository.findForUpdate(eq(MovementHeatmapService.WATERMARK)))
+				.thenAnswer(invocation -> Optional.ofNullable(watermark));
+		when(watermarkRepository.createIfAbsent(eq(MovementHeatmapService.WATERMARK))).thenAnswer(invocation -> {
+			watermark = AnalyticsWatermark.builder().name(MovementHeatmapService.WATERMARK).lastId(0L).build();
+			return 1;
+		});
+
+		service = new MovementHeatmapService(stockMovementRepository, cellRepository, watermarkRepository);
+		ReflectionTestUtils.setField(service, "settleSeconds", 120L);
+		ReflectionTestUtils.setField(service, "gapHoldMinutes", 60L);
+	}
+
+	@Test
+	void secondRunWithoutNewMovementsAppliesNothing() {
+		LocalDateTime at = monday(10);
+		movement(1, MovementType.RECEIVING, 5, at);
+		movement(2, MovementType.DISPATCHING, 3, at);
+
+		assertThat(service.applyNewMovements()).isEqualTo(2);
+		assertThat(service.applyNewMovements()).isZero();
+
+		MovementHeatmapCell cell = cell(at);
+		assertThat(cell.getInboundCount()).isEqualTo(1);
+		assertThat(cell.getInboundQuantity()).isEqualTo(5);
+		assertThat(cell.getOutboundCount()).isEqualTo(1);
+		assertThat(cell.getOutboundQuantity()).isEqualTo(3);
+		assertThat(watermark.getLastId()).isEqualTo(2);
+	}
+
+	@Test
+	void laterRunsAddOnlyNewMovementsToExistingCells() {
+		LocalDateTime at = monday(10);
+		movement(1, MovementType.DISPATCHING, 2, at);
+		service.applyNewMovements();
+
+		movement(2, MovementType.DISPATCHING, 4, at);
+		assertThat(service.applyNewMovements()).isEqualTo(1);
+
+		assertThat(cell(at).getOutboundCount()).isEqualTo(2);
+		assertThat(cell(at).getOutboundQuantity()).isEqualTo(6);
+	}
+
+	@Test
+	void movementsInsideTheSettleDelayWaitForTheNextRun() {
+		movement(1, MovementType.RECEIVING, 1, LocalDateTime.now().minusMinutes(10));
+		movement(2, MovementType.RECEIVING, 1, LocalDateTime.now());
+
+		assertThat(service.applyNewMovements()).isEqualTo(1);
+		assertThat(watermark.getLastId()).isEqualTo(1);
+	}
+
+	@Test
+	void recentIdGapHoldsTheWatermarkUntilTheMissingRowCommits() {
+		LocalDateTime recent = LocalDateTime.now().minusMinutes(10);
+		movement(1, MovementType.RECEIVING, 1, recent);
+		movement(2, MovementType.RECEIVING, 1, recent);
+		movement(4, MovementType.RECEIVING, 1, recent);
+
+		assertThat(service.applyNewMovements()).isEqualTo(2);
+		assertThat(watermark.getLastId()).isEqualTo(2);
+
+		movement(3, MovementType.RECEIVING, 1, recent);
+		assertThat(service.applyNewMovements()).isEqualTo(2);
+		assertThat(watermark.getLastId()).isEqualTo(4);
+		assertThat(cell(recent).getInboundCount()).isEqualTo(4);
+	}
+
+	@Test
+	void oldIdGapIsTakenAsRolledBack() {
+		LocalDateTime old = LocalDateTime.now().minusHours(3);
+		movement(1, MovementType.RECEIVING, 1, old);
+		movement(3, MovementType.RECEIVING, 1, old);
+
+		assertThat(service.applyNewMovements()).isEqualTo(2);
+		assertThat(watermark.getLastId()).isEqualTo(3);
+	}
+
+	private void movement(long id, MovementType type, int quantity, LocalDateTime createdAt) {
+		movements.add(new Object[] { id, 7L, 3L, type, quantity, createdAt });
+	}
+
+	private MovementHeatmapCell cell(LocalDateTime at) {
+		return cells.get(List.of(7L, 3L, at.getDayOfWeek().getValue(), at.getHour()));
+	}
+
+	private static LocalDateTime monday(int hour) {
+		return LocalDateTime.of(2024, 1, 1, hour, 15);
+	}
+}
@@ -0,0 +1,119 @@
+package com.infosys.smartshelfx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+	private static final double[] QUANTILES = { 0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99 };
+
+	@Test
+	void quantilesMatchExactRanks() {
+		double[] data = skewedData(100_000, 42);
+		QuantileSketch sketch = new QuantileSketch();
+		for (double value : data)
+			sketch.add(value);
+
+		double[] sorted = data.clone();
+		Arrays.sort(sorted);
+		assertThat(sketch.getCount()).isEqualTo(data.length);
+		assertThat(sketch.getMin()).isEqualTo(sorted[0]);
+		assertThat(sketch.getMax()).isEqualTo(sorted[sorted.length - 1]);
+		assertThat(sketch.mean()).isCloseTo(Arrays.stream(data).average().orElseThrow(), within(1e-6));
+		for (double q : QUANTILES) {
+			// Error measured in rank: the estimate must sit within 0.5% of q in the sorted data
+			assertThat(rankOf(sorted, sketch.quantile(q))).as("q=%s", q).isCloseTo(q, within(0.005));
+		}
+	}
+
+	@Test
+	void weightedValuesCountByWeight() {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.add(1.0, 90);
+		sketch.add(100.0, 10);
+
+		assertThat(sketch.getCount()).isEqualTo(100);
+		assertThat(sketch.quantile(0.3)).isEqualTo(1.0);
+		assertThat(sketch.quantile(0.99)).isEqualTo(100.0);
+	}
+
+	@Test
+	void mergeMatchesSketchOfCombinedData() {
+		double[] data = skewedData(40_000, 7);
+		QuantileSketch whole = new QuantileSketch();
+		QuantileSketch[] parts = new QuantileSketch[4];
+		for (int p = 0; p < parts.length; p++)
+			parts[p] = new QuantileSketch();
+		for (int i = 0; i < data.length; i++) {
+			whole.add(data[i]);
+			parts[i % parts.length].add(data[i]);
+		}
+		QuantileSketch merged = new QuantileSketch();
+		for (QuantileSketch part : parts)
+			merged.merge(part);
+
+		double[] sorted = data.clone();
+		Arrays.sort(sorted);
+		assertThat(merged.getCount()).isEqualTo(whole.getCount());
+		assertThat(merged.getMin()).isEqualTo(whole.getMin());
+		assertThat(merged.getMax()).isEqualTo(whole.getMax());
+		for (double q : QUANTILES) {
+			assertThat(rankOf(sorted, merged.quantile(q))).as("q=%s", q)
+					.isCloseTo(rankOf(sorted, whole.quantile(q)), within(0.005));
+		}
+	}
+
+	@Test
+	void bytesRoundTrip() {
+		QuantileSketch sketch = new QuantileSketch(50);
+		for (double value : skewedData(10_000, 3))
+			sketch.add(value);
+
+		QuantileSketch copy = QuantileSketch.fromBytes(sketch.toBytes());
+
+		assertThat(copy.getCount()).isEqualTo(sketch.getCount());
+		assertThat(copy.getMin()).isEqualTo(sketch.getMin());
+		assertThat(copy.getMax()).isEqualTo(sketch.getMax());
+		for (double q : QUANTILES) {
+			// Centroid means are stored as floats
+			assertThat(copy.quantile(q)).isCloseTo(sketch.quantile(q), within(1e-4 * sketch.getMax()));
+		}
+		assertThat(copy.toBytes()).isEqualTo(sketch.toBytes());
+	}
+
+	@Test
+	void emptySketchRoundTripsAndHasNoQuantiles() {
+		QuantileSketch copy = QuantileSketch.fromBytes(new QuantileSketch().toBytes());
+
+		assertThat(copy.getCount()).isZero();
+		assertThat(copy.quantile(0.5)).isNaN();
+	}
+
+	@Test
+	void unknownVersionIsRejected() {
+		byte[] bytes = new QuantileSketch().toBytes();
+		bytes[0] = 99;
+
+		assertThatThrownBy(() -> QuantileSketch.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static double[] skewedData(int n, long seed) {
+		Random random = new Random(seed);
+		double[] data = new double[n];
+		for (int i = 0; i < n; i++)
+			data[i] = Math.exp(random.nextGaussian()) * 10;
+		return data;
+	}
+
+	private static double rankOf(double[] sorted, double value) {
+		int index = Arrays.binarySearch(sorted, value);
+		int below = index >= 0 ? index : -index - 1;
+		return (double) below / sorted.length;
+	}
+}
@@ -0,0 +1,60 @@
+package com.infosys.smartshelfx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SeasonalNaiveForecastModelTest {
+
+	private final SeasonalNaiveForecastModel model = new SeasonalNaiveForecastModel();
+
+	@Test
+	void repeatsTheLastWeekAtLagSeven() {
+		double[] series = new double[14];
+		for (int t = 0; t < series.length; t++)
+			series[t] = t;
+		double[] out = new double[10];
+
+		double mae = model.forecast(series, 0, series.length, out.length, out);
+
+		assertThat(out).containsExactly(7, 8, 9, 10, 11, 12, 13, 7, 8, 9);
+		// Every day differs by 7 from the same weekday a week earlier
+		assertThat(mae).isCloseTo(7, within(1e-12));
+	}
+
+	@Test
+	void lagIsTakenFromTheEndOfTheRange() {
+		double[] series = { 50, 50, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 50 };
+		double[] out = new double[3];
+
+		model.forecast(series, 2, 12, out.length, out);
+
+		// Last week of the range is indices 5..11
+		assertThat(out).containsExactly(4, 5, 6);
+	}
+
+	@Test
+	void shortSeriesRepeatsItsMean() {
+		double[] out = new double[2];
+
+		double mae = model.forecast(new double[] { 2, 4, 9 }, 0, 3, 2, out);
+
+		assertThat(out).containsExactly(5, 5);
+		assertThat(mae).isZero();
+	}
+
+	@Test
+	void returnsNeverMakeTheForecastNegative() {
+		double[] series = { 3, -4, 0, -1, 5, 0, -2, 1, -6 };
+		double[] out = new double[9];
+
+		model.forecast(series, 0, series.length, out.length, out);
+		assertThat(Arrays.stream(out).min().orElseThrow()).isGreaterThanOrEqualTo(0);
+
+		model.forecast(new double[] { -3, -1 }, 0, 2, 3, out);
+		assertThat(Arrays.stream(out).min().orElseThrow()).isGreaterThanOrEqualTo(0);
+	}
+}
@@ -0,0 +1,128 @@
+package com.infosys.smartshelfx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StockoutSimulationServiceTest {
+
+	private static final int HORIZON = 14;
+	private static final int PATHS = 2000;
+
+	@Test
+	void zeroDemandNeverStocksOut() {
+		StockoutSimulationService.Result result = simulate(new double[] { 0, 0, 0 }, 0, List.of(), 42);
+
+		assertThat(result.stockoutProbability()).isZero();
+		assertThat(result.expectedLostUnits()).isZero();
+		assertThat(result.expectedStockoutDay()).isNull();
+		assertThat(result.fillRate()).isEqualTo(1);
+	}
+
+	@Test
+	void emptyShelfWithDemandAlwaysStocksOutOnDayZero() {
+		StockoutSimulationService.Result result = simulate(new double[] { 1, 2, 3 }, 0, List.of(), 42);
+
+		assertThat(result.stockoutProbability()).isEqualTo(1);
+		assertThat(result.expectedStockoutDay()).isEqualTo(0);
+		assertThat(result.fillRate()).isZero();
+	}
+
+	@Test
+	void overdueArrivalLandsTodayAndPreventsStockout() {
+		List<StockoutSimulationService.InboundLine> inbound = List.of(
+				new StockoutSimulationService.InboundLine(1000, new double[] { -2 }));
+
+		StockoutSimulationService.Result result = simulate(new double[] { 1, 2, 3 }, 0, inbound, 42);
+
+		assertThat(result.stockoutProbability()).isZero();
+		assertThat(result.fillRate()).isEqualTo(1);
+	}
+
+	@Test
+	void lateArrivalDoesNotPreventStockout() {
+		List<StockoutSimulationService.InboundLine> inbound = List.of(
+				new StockoutSimulationService.InboundLine(1000, new double[] { 3 }));
+
+		StockoutSimulationService.Result result = simulate(new double[] { 1, 2, 3 }, 0, inbound, 42);
+
+		assertThat(result.stockoutProbability()).isEqualTo(1);
+		assertThat(result.expectedStockoutDay()).isEqualTo(0);
+		assertThat(result.fillRate()).isBetween(0.0, 1.0);
+	}
+
+	@Test
+	void probabilityMatchesTwoDayBootstrap() {
+		// Demand 0 or 1 a day, one unit on hand: out only if both days sell one
+		SplittableRandom random = new SplittableRandom(7);
+		StockoutSimulationService.Result result = StockoutSimulationService.simulate(new double[] { 0, 1 }, 1,
+				List.of(), 2, 20_000, random, new int[2]);
+
+		assertThat(result.stockoutProbability()).isCloseTo(0.25, within(0.02));
+		assertThat(result.expectedStockoutDay()).isEqualTo(1);
+	}
+
+	@Test
+	void fixedSeedIsReproducible() {
+		double[] demand = { 0, 3, 1, 0, 7, 2, 0, 0, 4 };
+		List<StockoutSimulationService.InboundLine> inbound = List.of(
+				new StockoutSimulationService.InboundLine(10, new double[] { 2.5, 4, 9 }));
+
+		StockoutSimulationService.Result first = simulate(demand, 12, inbound, 1234);
+		StockoutSimulationService.Result second = simulate(demand, 12, inbound, 1234);
+
+		assertThat(second).isEqualTo(first);
+		assertThat(first.stockoutProbability()).isBetween(0.0, 1.0);
+	}
+
+	@Test
+	void ordersOlderThanEveryLeadTimeUseDefaultLeadTime() {
+		LocalDateTime now = LocalDateTime.of(2026, 10, 19, 12, 0);
+		double[] vendorLeadTimes = { 3, 5 };
+
+		List<StockoutSimulationService.InboundLine> lines = StockoutSimulationService.toInboundLines(List.of(
+				row(10, 0, null, now.minusDays(1)),
+				row(10, 4, null, now.minusDays(10)),
+				row(5, 0, now.plusDays(2), now.minusDays(10)),
+				row(5, 5, null, now.minusDays(1))), vendorLeadTimes, now, 7);
+
+		assertThat(lines).hasSize(3);
+		// One day old: the vendor's lead times less its age
+		assertThat(lines.get(0).quantity()).isEqualTo(10);
+		assertThat(lines.get(0).days()).containsExactly(new double[] { 2, 4 }, within(1e-9));
+		// Overdue: default lead time, not today
+		assertThat(lines.get(1).quantity()).isEqualTo(6);
+		assertThat(lines.get(1).days()).containsExactly(7);
+		// Overdue with an expected date still ahead: that date
+		assertThat(lines.get(2).days()).containsExactly(2);
+	}
+
+	@Test
+	void vendorsWithoutHistoryUseExpectedDate() {
+		LocalDateTime now = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+		List<StockoutSimulationService.InboundLine> lines = StockoutSimulationService.toInboundLines(List.of(
+				row(8, 0, now.plusDays(4), now.minusDays(1)),
+				row(8, 0, null, now.minusDays(2)),
+				row(8, 0, now.minusDays(3), now.minusDays(9))), null, now, 7);
+
+		assertThat(lines.get(0).days()).containsExactly(4);
+		assertThat(lines.get(1).days()).containsExactly(5);
+		assertThat(lines.get(2).days()).containsExactly(0);
+	}
+
+	private static StockoutSimulationService.Result simulate(double[] demand, int stock,
+			List<StockoutSimulationService.InboundLine> inbound, long seed) {
+		return StockoutSimulationService.simulate(demand, stock, inbound, HORIZON, PATHS, new SplittableRandom(seed),
+				new int[HORIZON]);
+	}
+
+	private static Object[] row(int quantity, int received, LocalDateTime expected, LocalDateTime approved) {
+		return new Object[] { 1L, quantity, received, expected, approved, approved };
+	}
+}